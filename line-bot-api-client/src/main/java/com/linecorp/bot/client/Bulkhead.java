@@ -0,0 +1,200 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Limits the number of concurrent requests per {@link EndpointGroup}, so that slow endpoints can't occupy
+ * all connections of OkHttp {@link okhttp3.Dispatcher}.
+ *
+ * <p>Requests exceeding the limit wait in a FIFO queue of the group. When the queue is full, requests fail
+ * immediately with {@link CallNotPermittedException}. Requests of a group without configured limit are never
+ * delayed.
+ *
+ * <p>Note that OkHttp allows only {@link okhttp3.Dispatcher#getMaxRequestsPerHost() 5 requests per host}
+ * by default. Keep the total of limits of bulk endpoints (e.g. {@link EndpointGroup#CONTENT} and
+ * {@link EndpointGroup#RICH_MENU}) below it to always leave room for replies.
+ *
+ * <pre>{@code
+ * Bulkhead bulkhead = Bulkhead.builder()
+ *                             .limit(EndpointGroup.CONTENT, 2)
+ *                             .limit(EndpointGroup.RICH_MENU, 1)
+ *                             .build();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .bulkhead(bulkhead)
+ *                                                 .build();
+ * }</pre>
+ *
+ * @see LineMessagingClientBuilder#bulkhead(Bulkhead)
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class Bulkhead {
+    @ToString.Include
+    private final Map<EndpointGroup, Compartment> compartments;
+
+    private Bulkhead(final Builder builder) {
+        compartments = new EnumMap<>(EndpointGroup.class);
+        builder.limits.forEach((group, limit) -> compartments.put(
+                group, new Compartment(group, limit[0], limit[1])));
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the number of in-flight requests of the given group.
+     */
+    public int activeCalls(final EndpointGroup group) {
+        final Compartment compartment = compartments.get(group);
+        return compartment == null ? 0 : compartment.activeCalls();
+    }
+
+    /**
+     * Returns the number of requests of the given group waiting for a permit.
+     */
+    public int queueDepth(final EndpointGroup group) {
+        final Compartment compartment = compartments.get(group);
+        return compartment == null ? 0 : compartment.queueDepth();
+    }
+
+    /**
+     * Returns a future which is completed when a request of the given group may be sent. The caller must call
+     * {@link #release(EndpointGroup)} after the request has finished.
+     */
+    CompletableFuture<Void> acquire(final EndpointGroup group) {
+        final Compartment compartment = compartments.get(group);
+        return compartment == null ? completedFuture(null) : compartment.acquire();
+    }
+
+    void release(final EndpointGroup group) {
+        final Compartment compartment = compartments.get(group);
+        if (compartment != null) {
+            compartment.release();
+        }
+    }
+
+    @ToString
+    private static final class Compartment {
+        private final EndpointGroup group;
+        private final int maxConcurrentCalls;
+        private final int maxQueuedCalls;
+
+        // Guarded by this.
+        private int activeCalls;
+        @ToString.Exclude
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        Compartment(final EndpointGroup group, final int maxConcurrentCalls, final int maxQueuedCalls) {
+            this.group = group;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxQueuedCalls = maxQueuedCalls;
+        }
+
+        synchronized CompletableFuture<Void> acquire() {
+            if (activeCalls < maxConcurrentCalls) {
+                activeCalls++;
+                return completedFuture(null);
+            }
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            if (waiters.size() >= maxQueuedCalls) {
+                waiter.completeExceptionally(new CallNotPermittedException(
+                        group, "Bulkhead of " + group + " is full"));
+            } else {
+                waiters.add(waiter);
+            }
+            return waiter;
+        }
+
+        void release() {
+            final CompletableFuture<Void> next;
+            synchronized (this) {
+                next = waiters.poll();
+                if (next == null) {
+                    activeCalls--;
+                }
+            }
+            // The permit is handed over to the next waiter. Complete outside of the lock because dependent
+            // actions run synchronously.
+            if (next != null) {
+                next.complete(null);
+            }
+        }
+
+        synchronized int activeCalls() {
+            return activeCalls;
+        }
+
+        synchronized int queueDepth() {
+            return waiters.size();
+        }
+    }
+
+    /**
+     * Builder of {@link Bulkhead}.
+     */
+    public static final class Builder {
+        private final Map<EndpointGroup, int[]> limits = new EnumMap<>(EndpointGroup.class);
+
+        private Builder() {
+        }
+
+        /**
+         * Limits concurrent requests of the given group. Queue of waiting requests is unbounded.
+         */
+        public Builder limit(final EndpointGroup group, final int maxConcurrentCalls) {
+            return limit(group, maxConcurrentCalls, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Limits concurrent requests of the given group.
+         *
+         * @param maxConcurrentCalls max number of in-flight requests.
+         * @param maxQueuedCalls max number of requests waiting for a permit. {@code 0} to reject requests
+         *         immediately when the limit is reached.
+         */
+        public Builder limit(@NonNull final EndpointGroup group, final int maxConcurrentCalls,
+                             final int maxQueuedCalls) {
+            if (maxConcurrentCalls <= 0 || maxQueuedCalls < 0) {
+                throw new IllegalArgumentException(
+                        "maxConcurrentCalls must be positive and maxQueuedCalls must not be negative");
+            }
+            limits.put(group, new int[] { maxConcurrentCalls, maxQueuedCalls });
+            return this;
+        }
+
+        /**
+         * Creates a new {@link Bulkhead}.
+         */
+        public Bulkhead build() {
+            return new Bulkhead(this);
+        }
+    }
+}
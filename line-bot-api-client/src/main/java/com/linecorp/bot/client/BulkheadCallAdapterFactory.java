@@ -0,0 +1,160 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.AllArgsConstructor;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Delays calls until {@link Bulkhead} has room for them.
+ *
+ * <p>A successful {@link ResponseBody} response (e.g. message content) keeps its permit until the body is
+ * closed, so that the limit covers the download and not only the response headers.
+ */
+@AllArgsConstructor
+class BulkheadCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private final Bulkhead bulkhead;
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return new BulkheadCall<>(call, group);
+    }
+
+    private final class BulkheadCall<T> extends ForwardingCall<T> {
+        private final EndpointGroup group;
+
+        BulkheadCall(final Call<T> delegate, final EndpointGroup group) {
+            super(delegate);
+            this.group = group;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            try {
+                bulkhead.acquire(group).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for bulkhead");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+            final Response<T> response;
+            try {
+                response = delegate.execute();
+            } catch (IOException | RuntimeException e) {
+                bulkhead.release(group);
+                throw e;
+            }
+            return releaseOrHold(response);
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Callback<T> forwarding = forwardTo(callback);
+            bulkhead.acquire(group).whenComplete((ignored, t) -> {
+                if (t != null) {
+                    forwarding.onFailure(delegate, t);
+                    return;
+                }
+                try {
+                    delegate.enqueue(new Callback<T>() {
+                        @Override
+                        public void onResponse(final Call<T> call, final Response<T> response) {
+                            forwarding.onResponse(call, releaseOrHold(response));
+                        }
+
+                        @Override
+                        public void onFailure(final Call<T> call, final Throwable t) {
+                            bulkhead.release(group);
+                            forwarding.onFailure(call, t);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    bulkhead.release(group);
+                    forwarding.onFailure(delegate, e);
+                }
+            });
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new BulkheadCall<>(delegate.clone(), group);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Response<T> releaseOrHold(final Response<T> response) {
+            if (response.isSuccessful() && response.body() instanceof ResponseBody) {
+                final ResponseBody body = new PermitHoldingBody((ResponseBody) response.body(), group);
+                return Response.success((T) body, response.raw());
+            }
+            bulkhead.release(group);
+            return response;
+        }
+    }
+
+    private final class PermitHoldingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        PermitHoldingBody(final ResponseBody delegate, final EndpointGroup group) {
+            this.delegate = delegate;
+            final AtomicBoolean released = new AtomicBoolean();
+            source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            bulkhead.release(group);
+                        }
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.model.event.MemberLeftEvent;
+import com.linecorp.bot.model.event.UnfollowEvent;
+import com.linecorp.bot.model.event.source.Source;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.Value;
+import lombok.experimental.Delegate;
+
+/**
+ * {@link LineMessagingClient} which caches user profiles and member profiles in memory.
+ *
+ * <p>Entries expire after {@code ttl} and the least recently used entries are evicted when the cache
+ * exceeds {@code maximumSize}. Concurrent requests of the same profile share a single request to the server.
+ * Failed requests are not cached. All other methods are passed to the delegate as is.
+ *
+ * <p>Profiles can change or become unavailable when users block the bot or leave groups.
+ * Pass webhook events to {@link #invalidate(Event)} to drop such entries.
+ *
+ * <pre>{@code
+ * CachingLineMessagingClient client =
+ *         CachingLineMessagingClient.builder(LineMessagingClient.builder(channelToken).build())
+ *                                   .maximumSize(10_000)
+ *                                   .ttl(Duration.ofMinutes(10))
+ *                                   .build();
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class CachingLineMessagingClient implements LineMessagingClient {
+    @Delegate(excludes = ProfileMethods.class)
+    private final LineMessagingClient delegate;
+    @ToString.Include
+    private final int maximumSize;
+    @ToString.Include
+    private final Duration ttl;
+    private final LongSupplier ticker;
+
+    // Guarded by itself. Access ordered to evict the least recently used entry.
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private CachingLineMessagingClient(final Builder builder) {
+        delegate = builder.delegate;
+        maximumSize = builder.maximumSize;
+        ttl = builder.ttl;
+        ticker = builder.ticker;
+        entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, Entry> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Creates a new {@link Builder} which decorates the given client.
+     */
+    public static Builder builder(final LineMessagingClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<UserProfileResponse> getProfile(final String userId) {
+        return get(new Key(null, userId), () -> delegate.getProfile(userId));
+    }
+
+    @Override
+    public CompletableFuture<UserProfileResponse> getGroupMemberProfile(final String groupId,
+                                                                        final String userId) {
+        return get(new Key(groupId, userId), () -> delegate.getGroupMemberProfile(groupId, userId));
+    }
+
+    @Override
+    public CompletableFuture<UserProfileResponse> getRoomMemberProfile(final String roomId,
+                                                                       final String userId) {
+        return get(new Key(roomId, userId), () -> delegate.getRoomMemberProfile(roomId, userId));
+    }
+
+    /**
+     * Drops entries which may have been changed by the given webhook event.
+     *
+     * <ul>
+     *     <li>{@link FollowEvent} and {@link UnfollowEvent}: all entries of the user.</li>
+     *     <li>{@link MemberLeftEvent}: member profiles of the left users in the group or room.</li>
+     * </ul>
+     *
+     * <p>Other events are ignored.
+     */
+    public void invalidate(final Event event) {
+        final Source source = event.getSource();
+        if (source == null) {
+            return;
+        }
+        if (event instanceof FollowEvent || event instanceof UnfollowEvent) {
+            if (source.getUserId() != null) {
+                invalidateUser(source.getUserId());
+            }
+        } else if (event instanceof MemberLeftEvent) {
+            final MemberLeftEvent.LeftMembers left = ((MemberLeftEvent) event).getLeft();
+            if (left == null || left.getMembers() == null) {
+                return;
+            }
+            synchronized (entries) {
+                left.getMembers().forEach(member -> entries.remove(
+                        new Key(source.getSenderId(), member.getUserId())));
+            }
+        }
+    }
+
+    /**
+     * Drops the profile and all member profiles of the given user.
+     */
+    public void invalidateUser(@NonNull final String userId) {
+        synchronized (entries) {
+            entries.keySet().removeIf(key -> userId.equals(key.getUserId()));
+        }
+    }
+
+    /**
+     * Drops all entries.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     */
+    public ProfileCacheStats stats() {
+        final int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new ProfileCacheStats(hitCount.sum(), missCount.sum(), loadFailureCount.sum(),
+                                     evictionCount.sum(), size);
+    }
+
+    private CompletableFuture<UserProfileResponse> get(
+            final Key key, final Supplier<CompletableFuture<UserProfileResponse>> loader) {
+        final Entry entry;
+        synchronized (entries) {
+            final Entry existing = entries.get(key);
+            if (existing != null && !existing.isExpired(ticker.getAsLong())) {
+                hitCount.increment();
+                // Don't expose the cached future, which callers could complete.
+                return existing.future.thenApply(Function.identity());
+            }
+            missCount.increment();
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+
+        final CompletableFuture<UserProfileResponse> future;
+        try {
+            future = loader.get();
+        } catch (RuntimeException e) {
+            onLoaded(key, entry, e);
+            entry.future.completeExceptionally(e);
+            return entry.future.thenApply(Function.identity());
+        }
+        future.whenComplete((profile, t) -> {
+            onLoaded(key, entry, t);
+            if (t != null) {
+                entry.future.completeExceptionally(t);
+            } else {
+                entry.future.complete(profile);
+            }
+        });
+        return entry.future.thenApply(Function.identity());
+    }
+
+    private void onLoaded(final Key key, final Entry entry, final Throwable cause) {
+        synchronized (entries) {
+            if (cause != null) {
+                loadFailureCount.increment();
+                entries.remove(key, entry);
+            } else {
+                entry.expiresAtNanos = ticker.getAsLong() + ttl.toNanos();
+                entry.loaded = true;
+            }
+        }
+    }
+
+    /**
+     * Methods not delegated as is.
+     */
+    private interface ProfileMethods {
+        CompletableFuture<UserProfileResponse> getProfile(String userId);
+
+        CompletableFuture<UserProfileResponse> getGroupMemberProfile(String groupId, String userId);
+
+        CompletableFuture<UserProfileResponse> getRoomMemberProfile(String roomId, String userId);
+    }
+
+    /**
+     * Cache key. {@code containerId} is a group ID, a room ID or {@code null} for user profiles.
+     */
+    @Value
+    private static class Key {
+        String containerId;
+        String userId;
+    }
+
+    private static final class Entry {
+        final CompletableFuture<UserProfileResponse> future = new CompletableFuture<>();
+
+        // Guarded by entries.
+        boolean loaded;
+        long expiresAtNanos;
+
+        boolean isExpired(final long now) {
+            return loaded && now - expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Builder of {@link CachingLineMessagingClient}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient delegate;
+        private int maximumSize = 10_000;
+        private Duration ttl = Duration.ofMinutes(10);
+        private LongSupplier ticker = System::nanoTime;
+
+        private Builder(@NonNull final LineMessagingClient delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Max number of cached profiles. Default = 10,000.
+         */
+        public Builder maximumSize(final int maximumSize) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("maximumSize must be positive");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Duration to keep a profile after it is loaded. Default = 10 minutes.
+         */
+        public Builder ttl(@NonNull final Duration ttl) {
+            this.ttl = ttl;
+            return this;
+        }
+
+        Builder ticker(final LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link CachingLineMessagingClient}.
+         */
+        public CachingLineMessagingClient build() {
+            return new CachingLineMessagingClient(this);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a request is rejected on the client side without being sent, because {@link CircuitBreaker}
+ * is open, {@link Bulkhead} is full, {@link PriorityLanes} found its reply token expired or
+ * {@link QuotaAwareLineMessagingClient} found the message quota exhausted.
+ *
+ * <p>Requests failed with this exception are never retried by {@link RetryPolicy}.
+ */
+@Getter
+public class CallNotPermittedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Endpoint group of the rejected request.
+     */
+    private final EndpointGroup endpointGroup;
+
+    public CallNotPermittedException(final EndpointGroup endpointGroup, final String message) {
+        super(message);
+        this.endpointGroup = endpointGroup;
+    }
+}
@@ -51,7 +51,7 @@ public class ChannelManagementClientBuilder {
 
         okHttpClientBuilder
                 .addInterceptor(buildAuthenticationInterceptor(channelTokenSupplier))
-                .addInterceptor(buildLoggingInterceptor());
+                .addInterceptor(buildLoggingInterceptor(WireLogging.builder().build()));
 
         final OkHttpClient okHttpClient = okHttpClientBuilder.build();
 
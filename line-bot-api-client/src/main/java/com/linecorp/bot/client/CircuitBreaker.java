@@ -0,0 +1,264 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Circuit breaker of {@link LineMessagingClient} which has a state per {@link EndpointGroup}.
+ *
+ * <p>The breaker records the results of the last {@code slidingWindowSize} calls of each group. When the
+ * ratio of failures (network errors and {@code 5xx}) reaches {@code failureRateThreshold}, the breaker
+ * opens and requests of the group fail immediately with {@link CallNotPermittedException} instead of
+ * waiting for timeouts. After {@code openDuration}, a single trial request is let through; the breaker
+ * closes when it succeeds and opens again when it fails.
+ *
+ * <pre>{@code
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .circuitBreaker(CircuitBreaker.builder().build())
+ *                                                 .build();
+ * }</pre>
+ *
+ * @see LineMessagingClientBuilder#circuitBreaker(CircuitBreaker)
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class CircuitBreaker {
+    /**
+     * State of a circuit breaker.
+     */
+    public enum State {
+        /**
+         * Requests are sent normally.
+         */
+        CLOSED,
+        /**
+         * Requests are rejected.
+         */
+        OPEN,
+        /**
+         * A trial request is sent to check whether the server has recovered.
+         */
+        HALF_OPEN,
+    }
+
+    @ToString.Include
+    private final double failureRateThreshold;
+    @ToString.Include
+    private final int slidingWindowSize;
+    @ToString.Include
+    private final Duration openDuration;
+    private final Map<EndpointGroup, GroupState> states;
+
+    private CircuitBreaker(final Builder builder) {
+        failureRateThreshold = builder.failureRateThreshold;
+        slidingWindowSize = builder.slidingWindowSize;
+        openDuration = builder.openDuration;
+        states = new EnumMap<>(EndpointGroup.class);
+        builder.endpointGroups.forEach(group -> states.put(group, new GroupState()));
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the current state of the given group. Groups not covered by this breaker are always
+     * {@link State#CLOSED}.
+     */
+    public State state(final EndpointGroup group) {
+        final GroupState state = states.get(group);
+        return state == null ? State.CLOSED : state.state(System.nanoTime());
+    }
+
+    /**
+     * Returns {@code true} if a request of the given group may be sent. The caller must report the result
+     * with {@link #onSuccess(EndpointGroup)}, {@link #onFailure(EndpointGroup)} or
+     * {@link #onIgnored(EndpointGroup)}.
+     */
+    boolean tryAcquirePermission(final EndpointGroup group) {
+        final GroupState state = states.get(group);
+        return state == null || state.tryAcquirePermission();
+    }
+
+    void onSuccess(final EndpointGroup group) {
+        final GroupState state = states.get(group);
+        if (state != null) {
+            state.record(false);
+        }
+    }
+
+    void onFailure(final EndpointGroup group) {
+        final GroupState state = states.get(group);
+        if (state != null) {
+            state.record(true);
+        }
+    }
+
+    /**
+     * Called when the result of a permitted request doesn't tell the health of the server,
+     * e.g. the request is canceled.
+     */
+    void onIgnored(final EndpointGroup group) {
+        final GroupState state = states.get(group);
+        if (state != null) {
+            state.releaseTrial();
+        }
+    }
+
+    private final class GroupState {
+        // Guarded by this.
+        private final boolean[] window = new boolean[slidingWindowSize];
+        private int index;
+        private int recorded;
+        private int failures;
+        private long openUntilNanos;
+        private boolean open;
+        private boolean trialInFlight;
+
+        synchronized State state(final long now) {
+            if (!open) {
+                return State.CLOSED;
+            }
+            return now - openUntilNanos >= 0 ? State.HALF_OPEN : State.OPEN;
+        }
+
+        synchronized boolean tryAcquirePermission() {
+            switch (state(System.nanoTime())) {
+                case CLOSED:
+                    return true;
+                case HALF_OPEN:
+                    if (trialInFlight) {
+                        return false;
+                    }
+                    trialInFlight = true;
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        synchronized void record(final boolean failure) {
+            if (open) {
+                if (!trialInFlight) {
+                    // A request permitted before the breaker opened.
+                    return;
+                }
+                trialInFlight = false;
+                if (failure) {
+                    openUntilNanos = System.nanoTime() + openDuration.toNanos();
+                } else {
+                    reset();
+                }
+                return;
+            }
+
+            if (recorded == window.length) {
+                failures -= window[index] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            window[index] = failure;
+            failures += failure ? 1 : 0;
+            index = (index + 1) % window.length;
+
+            if (recorded == window.length && failures >= failureRateThreshold * window.length) {
+                open = true;
+                openUntilNanos = System.nanoTime() + openDuration.toNanos();
+            }
+        }
+
+        synchronized void releaseTrial() {
+            trialInFlight = false;
+        }
+
+        private void reset() {
+            open = false;
+            index = 0;
+            recorded = 0;
+            failures = 0;
+        }
+    }
+
+    /**
+     * Builder of {@link CircuitBreaker}.
+     */
+    public static final class Builder {
+        private double failureRateThreshold = 0.5;
+        private int slidingWindowSize = 20;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private Set<EndpointGroup> endpointGroups = EnumSet.allOf(EndpointGroup.class);
+
+        private Builder() {
+        }
+
+        /**
+         * Ratio of failed calls which opens the breaker. Default = 0.5.
+         */
+        public Builder failureRateThreshold(final double failureRateThreshold) {
+            if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+                throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+            }
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Number of recent calls used to calculate the failure rate. Default = 20.
+         */
+        public Builder slidingWindowSize(final int slidingWindowSize) {
+            if (slidingWindowSize <= 0) {
+                throw new IllegalArgumentException("slidingWindowSize must be positive");
+            }
+            this.slidingWindowSize = slidingWindowSize;
+            return this;
+        }
+
+        /**
+         * Duration to reject requests before sending a trial request. Default = 10s.
+         */
+        public Builder openDuration(@NonNull final Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Endpoint groups protected by this breaker. Default = all groups.
+         */
+        public Builder endpointGroups(@NonNull final Set<EndpointGroup> endpointGroups) {
+            this.endpointGroups = EnumSet.noneOf(EndpointGroup.class);
+            this.endpointGroups.addAll(endpointGroups);
+            return this;
+        }
+
+        /**
+         * Creates a new {@link CircuitBreaker}.
+         */
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+
+import lombok.AllArgsConstructor;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Rejects calls while {@link CircuitBreaker} is open, and reports results of calls to it.
+ */
+@AllArgsConstructor
+class CircuitBreakerCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private final CircuitBreaker circuitBreaker;
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return new CircuitBreakingCall<>(call, group);
+    }
+
+    static boolean isFailure(final Response<?> response) {
+        return response.code() >= 500;
+    }
+
+    private final class CircuitBreakingCall<T> extends ForwardingCall<T> {
+        private final EndpointGroup group;
+
+        CircuitBreakingCall(final Call<T> delegate, final EndpointGroup group) {
+            super(delegate);
+            this.group = group;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            checkPermission();
+            final Response<T> response;
+            try {
+                response = delegate.execute();
+            } catch (IOException | RuntimeException e) {
+                onFailure(e);
+                throw e;
+            }
+            onResponse(response);
+            return response;
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Callback<T> forwarding = forwardTo(callback);
+            try {
+                checkPermission();
+            } catch (CallNotPermittedException e) {
+                forwarding.onFailure(delegate, e);
+                return;
+            }
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(final Call<T> call, final Response<T> response) {
+                    CircuitBreakingCall.this.onResponse(response);
+                    forwarding.onResponse(call, response);
+                }
+
+                @Override
+                public void onFailure(final Call<T> call, final Throwable t) {
+                    CircuitBreakingCall.this.onFailure(t);
+                    forwarding.onFailure(call, t);
+                }
+            });
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CircuitBreakingCall<>(delegate.clone(), group);
+        }
+
+        private void checkPermission() throws CallNotPermittedException {
+            if (!circuitBreaker.tryAcquirePermission(group)) {
+                throw new CallNotPermittedException(group, "Circuit breaker of " + group + " is open");
+            }
+        }
+
+        private void onResponse(final Response<T> response) {
+            if (isFailure(response)) {
+                circuitBreaker.onFailure(group);
+            } else {
+                circuitBreaker.onSuccess(group);
+            }
+        }
+
+        private void onFailure(final Throwable t) {
+            if (t instanceof IOException && !(t instanceof CallNotPermittedException) && !isCanceled()) {
+                circuitBreaker.onFailure(group);
+            } else {
+                circuitBreaker.onIgnored(group);
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import retrofit2.Response;
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Per-endpoint call counts, outcomes, latencies and in-flight calls of a {@link LineMessagingClient}.
+ *
+ * <pre>{@code
+ * ClientMetrics metrics = new ClientMetrics();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .clientMetrics(metrics)
+ *                                                 .build();
+ * EndpointMetrics push = metrics.endpoints().get("POST v2/bot/message/push");
+ * log.info("p99={}, outcomes={}", push.latency().percentile(0.99), push.outcomes());
+ * }</pre>
+ *
+ * <p>Latencies are measured around retries, circuit breaker, bulkhead and rate limiter, i.e. they include
+ * the time spent waiting on the client side.
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class ClientMetrics {
+    @ToString.Include
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Listener notified of each completed call, e.g. to export latencies to a metrics library.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Invoked when a call completes. Must not block.
+         */
+        void onComplete(EndpointMetrics endpoint, String outcome, long nanos);
+    }
+
+    public ClientMetrics() {
+        for (Method method : LineMessagingService.class.getMethods()) {
+            final String endpoint = endpointOf(method.getAnnotations());
+            if (endpoint != null) {
+                endpoints.computeIfAbsent(endpoint, this::newEndpointMetrics);
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of all endpoints keyed by HTTP method and path template,
+     * e.g. {@code "POST v2/bot/message/push"}.
+     */
+    public Map<String, EndpointMetrics> endpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * Adds a {@link Listener}.
+     */
+    public void addListener(@NonNull final Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the metrics of the service method with the given annotations.
+     */
+    EndpointMetrics endpointMetricsOf(final Annotation[] annotations) {
+        final String endpoint = endpointOf(annotations);
+        return endpoints.computeIfAbsent(endpoint != null ? endpoint : "UNKNOWN", this::newEndpointMetrics);
+    }
+
+    void onComplete(final EndpointMetrics endpoint, final String outcome, final long nanos) {
+        endpoint.onComplete(outcome, nanos);
+        for (Listener listener : listeners) {
+            try {
+                listener.onComplete(endpoint, outcome, nanos);
+            } catch (RuntimeException e) {
+                log.warn("Failed to notify {}", listener, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the outcome of a call which received the given response.
+     */
+    static String outcomeOf(final Response<?> response) {
+        if (response.isSuccessful()) {
+            return EndpointMetrics.SUCCESS;
+        }
+        return ExceptionConverter.exceptionTypeOf(response.code()).getSimpleName();
+    }
+
+    /**
+     * Returns the outcome of a call which failed with the given exception.
+     */
+    static String outcomeOf(final Throwable t) {
+        // Collapses network errors, which have many subclasses, into a single outcome.
+        if (t instanceof IOException && !(t instanceof CallNotPermittedException)) {
+            return IOException.class.getSimpleName();
+        }
+        return t.getClass().getSimpleName();
+    }
+
+    private EndpointMetrics newEndpointMetrics(final String endpoint) {
+        final int space = endpoint.indexOf(' ');
+        return new EndpointMetrics(endpoint, space < 0 ? EndpointGroup.OTHER
+                                                       : EndpointGroup.of(endpoint.substring(space + 1)));
+    }
+
+    /**
+     * Returns the HTTP method and path template of the service method with the given annotations,
+     * or {@code null} if it has no HTTP method annotation.
+     */
+    static String endpointOf(final Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return "GET " + ((GET) annotation).value();
+            }
+            if (annotation instanceof POST) {
+                return "POST " + ((POST) annotation).value();
+            }
+            if (annotation instanceof PUT) {
+                return "PUT " + ((PUT) annotation).value();
+            }
+            if (annotation instanceof DELETE) {
+                return "DELETE " + ((DELETE) annotation).value();
+            }
+        }
+        return null;
+    }
+}
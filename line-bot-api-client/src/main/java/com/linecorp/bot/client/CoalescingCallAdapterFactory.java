@@ -0,0 +1,263 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.http.GET;
+
+/**
+ * Shares a single call among identical {@code GET} requests which are in flight at the same time.
+ *
+ * <p>Callers of a coalesced call receive the same deserialized body. Error bodies are buffered and copied
+ * for each caller. Endpoints returning raw {@link ResponseBody}, e.g. message content, are never coalesced
+ * because their body can be read only once. {@link Call#execute()} is never coalesced.
+ */
+@Slf4j
+class CoalescingCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private final ConcurrentMap<String, InFlight<?>> inFlights = new ConcurrentHashMap<>();
+
+    @Override
+    boolean supports(final Type returnType, final Annotation[] annotations) {
+        if (!(returnType instanceof ParameterizedType)) {
+            return false;
+        }
+        final Type bodyType = getParameterUpperBound(0, (ParameterizedType) returnType);
+        if (getRawType(bodyType) == ResponseBody.class) {
+            return false;
+        }
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return new CoalescingCall<>(call);
+    }
+
+    /**
+     * Returns the number of distinct requests in flight.
+     */
+    int inFlightCount() {
+        return inFlights.size();
+    }
+
+    /**
+     * Callers waiting for the same request.
+     */
+    private final class InFlight<T> implements Callback<T> {
+        private final String key;
+
+        // Guarded by this. null after completion.
+        private List<Waiter<T>> waiters = new ArrayList<>();
+
+        InFlight(final String key) {
+            this.key = key;
+        }
+
+        /**
+         * Adds a waiter. Returns {@code false} if the request has already completed.
+         */
+        synchronized boolean add(final Waiter<T> waiter) {
+            if (waiters == null) {
+                return false;
+            }
+            waiters.add(waiter);
+            return true;
+        }
+
+        @Override
+        public void onResponse(final Call<T> call, final Response<T> response) {
+            final List<Waiter<T>> waiters = complete();
+            if (response.isSuccessful() || waiters.size() == 1) {
+                waiters.forEach(waiter -> waiter.onResponse(response));
+                return;
+            }
+
+            final ResponseBody errorBody = response.errorBody();
+            final byte[] bytes;
+            try {
+                bytes = errorBody != null ? errorBody.bytes() : new byte[0];
+            } catch (IOException e) {
+                waiters.forEach(waiter -> waiter.onFailure(e));
+                return;
+            }
+            waiters.forEach(waiter -> waiter.onResponse(Response.error(
+                    ResponseBody.create(errorBody != null ? errorBody.contentType() : null, bytes),
+                    response.raw())));
+        }
+
+        @Override
+        public void onFailure(final Call<T> call, final Throwable t) {
+            complete().forEach(waiter -> waiter.onFailure(t));
+        }
+
+        private List<Waiter<T>> complete() {
+            inFlights.remove(key, this);
+            synchronized (this) {
+                final List<Waiter<T>> completed = waiters;
+                waiters = null;
+                return completed;
+            }
+        }
+    }
+
+    private static final class Waiter<T> {
+        private final CoalescingCall<T> call;
+        private final Callback<T> callback;
+
+        Waiter(final CoalescingCall<T> call, final Callback<T> callback) {
+            this.call = call;
+            this.callback = callback;
+        }
+
+        void onResponse(final Response<T> response) {
+            if (call.finish()) {
+                callback.onResponse(call, response);
+            }
+        }
+
+        void onFailure(final Throwable t) {
+            if (call.finish()) {
+                callback.onFailure(call, t);
+            }
+        }
+    }
+
+    private final class CoalescingCall<T> extends ForwardingCall<T> {
+        // Guarded by this.
+        private boolean executed;
+        private boolean canceled;
+        private boolean finished;
+        private Callback<T> callback;
+
+        CoalescingCall(final Call<T> delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (this) {
+                checkNotExecuted();
+            }
+            return delegate.execute();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void enqueue(final Callback<T> callback) {
+            final boolean canceled;
+            synchronized (this) {
+                checkNotExecuted();
+                this.callback = callback;
+                canceled = this.canceled;
+            }
+            if (canceled) {
+                finish();
+                callback.onFailure(this, new IOException("Canceled"));
+                return;
+            }
+
+            final String key = delegate.request().url().toString();
+            final Waiter<T> waiter = new Waiter<>(this, callback);
+            for (;;) {
+                final InFlight<T> created = new InFlight<>(key);
+                final InFlight<T> existing = (InFlight<T>) inFlights.putIfAbsent(key, created);
+                if (existing == null) {
+                    created.add(waiter);
+                    delegate.enqueue(created);
+                    return;
+                }
+                if (existing.add(waiter)) {
+                    log.debug("Coalesced request: {}", key);
+                    return;
+                }
+                // The existing request has just completed. Retry with a new one.
+                inFlights.remove(key, existing);
+            }
+        }
+
+        @Override
+        public synchronized boolean isExecuted() {
+            return executed;
+        }
+
+        /**
+         * Cancels this call only. A shared request continues for other callers.
+         */
+        @Override
+        public void cancel() {
+            final Callback<T> callback;
+            synchronized (this) {
+                if (canceled) {
+                    return;
+                }
+                canceled = true;
+                callback = this.callback;
+            }
+            if (callback == null) {
+                delegate.cancel();
+            } else if (finish()) {
+                callback.onFailure(this, new IOException("Canceled"));
+            }
+        }
+
+        @Override
+        public synchronized boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CoalescingCall<>(delegate.clone());
+        }
+
+        /**
+         * Returns {@code true} only for the first time, to notify the callback exactly once.
+         */
+        synchronized boolean finish() {
+            if (finished) {
+                return false;
+            }
+            finished = true;
+            return true;
+        }
+
+        private void checkNotExecuted() {
+            if (executed) {
+                throw new IllegalStateException("Already executed.");
+            }
+            executed = true;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a content exceeds {@link ContentTransferOptions#getMaxSize()}.
+ */
+@Getter
+public class ContentTooLargeException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The exceeded limit in bytes.
+     */
+    private final long maxSize;
+
+    public ContentTooLargeException(final long maxSize) {
+        super("Content exceeds " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+}
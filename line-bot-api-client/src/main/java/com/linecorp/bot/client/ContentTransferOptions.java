@@ -0,0 +1,51 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Options of {@link MessageContentResponse#transferTo(java.nio.file.Path, ContentTransferOptions)}.
+ */
+@Value
+@Builder
+public class ContentTransferOptions {
+    /**
+     * Algorithm of {@link java.security.MessageDigest} calculated while transferring, or {@code null} to skip.
+     *
+     * <p>Default = {@code SHA-256}.
+     */
+    @Builder.Default
+    private final String digestAlgorithm = "SHA-256";
+
+    /**
+     * Max number of bytes to transfer. Larger content fails with {@link ContentTooLargeException}.
+     *
+     * <p>Default = {@link Long#MAX_VALUE} (unlimited).
+     */
+    @Builder.Default
+    private final long maxSize = Long.MAX_VALUE;
+
+    /**
+     * Size of the buffer used to transfer content.
+     *
+     * <p>Default = 64 KiB.
+     */
+    @Builder.Default
+    private final int bufferSize = 64 * 1024;
+}
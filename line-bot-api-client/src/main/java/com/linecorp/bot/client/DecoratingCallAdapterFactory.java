@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.function.UnaryOperator;
+
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Retrofit;
+
+/**
+ * Base class of {@link CallAdapter.Factory} which wraps {@link Call}s created by {@link LineMessagingService}.
+ *
+ * <p>Factories are chained by {@link Retrofit#nextCallAdapter(CallAdapter.Factory, Type, Annotation[])}.
+ * The factory registered first becomes the outermost decorator.
+ */
+abstract class DecoratingCallAdapterFactory extends CallAdapter.Factory {
+    @Override
+    public CallAdapter<?, ?> get(final Type returnType, final Annotation[] annotations,
+                                 final Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class || !supports(returnType, annotations)) {
+            return null;
+        }
+
+        final UnaryOperator<Call<Object>> decorator = decoratorOf(EndpointGroup.of(annotations), annotations);
+        @SuppressWarnings("unchecked")
+        final CallAdapter<Object, Object> next =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+
+        return new CallAdapter<Object, Object>() {
+            @Override
+            public Type responseType() {
+                return next.responseType();
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object adapt(final Call<Object> call) {
+                return decorator.apply((Call<Object>) next.adapt(call));
+            }
+        };
+    }
+
+    /**
+     * Returns whether calls of the service method with the given return type and annotations are decorated.
+     * All calls are decorated by default.
+     */
+    boolean supports(final Type returnType, final Annotation[] annotations) {
+        return true;
+    }
+
+    /**
+     * Returns the function which wraps calls of the service method with the given annotations. It is called
+     * once per service method, so that subclasses can resolve what they need from the annotations ahead of
+     * calls. Wraps by {@link #decorate(EndpointGroup, Call)} by default.
+     */
+    UnaryOperator<Call<Object>> decoratorOf(final EndpointGroup group, final Annotation[] annotations) {
+        return call -> decorate(group, call);
+    }
+
+    /**
+     * Wraps a call of the given endpoint group. Returns the call as is by default.
+     */
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return call;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.lang.annotation.Annotation;
+
+import retrofit2.http.DELETE;
+import retrofit2.http.GET;
+import retrofit2.http.POST;
+import retrofit2.http.PUT;
+
+/**
+ * Group of API endpoints sharing the same rate limit and resilience policies.
+ */
+public enum EndpointGroup {
+    /**
+     * {@code /v2/bot/message/reply}.
+     */
+    REPLY,
+    /**
+     * {@code /v2/bot/message/push}.
+     */
+    PUSH,
+    /**
+     * {@code /v2/bot/message/multicast}.
+     */
+    MULTICAST,
+    /**
+     * {@code /v2/bot/message/broadcast}.
+     */
+    BROADCAST,
+    /**
+     * {@code /v2/bot/message/{messageId}/content}.
+     */
+    CONTENT,
+    /**
+     * User profiles, member profiles and member IDs.
+     */
+    PROFILE,
+    /**
+     * Rich menus including images and links to users.
+     */
+    RICH_MENU,
+    /**
+     * Message quota, number of sent messages and insights.
+     */
+    INSIGHT,
+    /**
+     * All other endpoints.
+     */
+    OTHER;
+
+    private static final String API_PREFIX = "v2/bot/";
+
+    /**
+     * Resolves the group of the given request path. The path may be relative to the API end point and may
+     * contain URL template variables.
+     */
+    public static EndpointGroup of(final String path) {
+        final int prefix = path.indexOf(API_PREFIX);
+        if (prefix < 0) {
+            return OTHER;
+        }
+        final String p = path.substring(prefix + API_PREFIX.length());
+
+        if (p.startsWith("message/reply")) {
+            return REPLY;
+        }
+        if (p.startsWith("message/push")) {
+            return PUSH;
+        }
+        if (p.startsWith("message/multicast")) {
+            return MULTICAST;
+        }
+        if (p.startsWith("message/broadcast")) {
+            return BROADCAST;
+        }
+        if (p.startsWith("message/quota") || p.startsWith("message/delivery/") || p.startsWith("insight/")) {
+            return INSIGHT;
+        }
+        if (p.startsWith("message/") && p.endsWith("/content")) {
+            return CONTENT;
+        }
+        if (p.startsWith("profile/") || p.contains("/member/") || p.endsWith("/members/ids")) {
+            return PROFILE;
+        }
+        if (p.startsWith("richmenu") || p.startsWith("user/") && p.contains("/richmenu")) {
+            return RICH_MENU;
+        }
+        return OTHER;
+    }
+
+    /**
+     * Resolves the group of a Retrofit service method from its HTTP method annotation.
+     */
+    static EndpointGroup of(final Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof GET) {
+                return of(((GET) annotation).value());
+            }
+            if (annotation instanceof POST) {
+                return of(((POST) annotation).value());
+            }
+            if (annotation instanceof PUT) {
+                return of(((PUT) annotation).value());
+            }
+            if (annotation instanceof DELETE) {
+                return of(((DELETE) annotation).value());
+            }
+        }
+        return OTHER;
+    }
+}
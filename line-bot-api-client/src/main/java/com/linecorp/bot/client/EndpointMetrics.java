@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Live metrics of a single endpoint of {@link LineMessagingService}, collected by {@link ClientMetrics}.
+ */
+@ToString
+public final class EndpointMetrics {
+    /**
+     * Outcome of calls which received a successful response.
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * HTTP method and path template of the endpoint, e.g. {@code "POST v2/bot/message/push"}.
+     */
+    @Getter
+    private final String endpoint;
+
+    /**
+     * Group of the endpoint.
+     */
+    @Getter
+    private final EndpointGroup group;
+
+    private final LongAdder calls = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentMap<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    @ToString.Exclude
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    EndpointMetrics(final String endpoint, final EndpointGroup group) {
+        this.endpoint = endpoint;
+        this.group = group;
+    }
+
+    /**
+     * Returns the number of started calls.
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * Returns the number of calls started but not completed yet.
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the number of completed calls per outcome. The outcome is {@value #SUCCESS} or the simple name
+     * of the exception the call completes with, e.g. {@code "TooManyRequestsException"} or
+     * {@code "IOException"}.
+     */
+    public Map<String, Long> outcomes() {
+        final Map<String, Long> snapshot = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> snapshot.put(outcome, count.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    /**
+     * Returns the latencies of completed calls, from start to response or failure.
+     */
+    public LatencyHistogram latency() {
+        return latency;
+    }
+
+    void onStart() {
+        calls.increment();
+        inFlight.incrementAndGet();
+    }
+
+    void onComplete(final String outcome, final long nanos) {
+        inFlight.decrementAndGet();
+        outcomes.computeIfAbsent(outcome, unused -> new LongAdder()).increment();
+        latency.record(nanos);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Live phase timings and connection reuse of a single endpoint, collected by {@link HttpPhaseMetrics}.
+ */
+@ToString
+public final class EndpointPhaseMetrics {
+    /**
+     * HTTP method and path template of the endpoint, e.g. {@code "POST v2/bot/message/push"}.
+     */
+    @Getter
+    private final String endpoint;
+
+    private final LongAdder reusedConnections = new LongAdder();
+    private final LongAdder newConnections = new LongAdder();
+    @ToString.Exclude
+    private final Map<HttpPhase, LatencyHistogram> latencies = new EnumMap<>(HttpPhase.class);
+
+    EndpointPhaseMetrics(final String endpoint) {
+        this.endpoint = endpoint;
+        for (HttpPhase phase : HttpPhase.values()) {
+            latencies.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the latencies of the given phase. Calls which didn't go through the phase are not counted.
+     */
+    public LatencyHistogram latency(final HttpPhase phase) {
+        return latencies.get(phase);
+    }
+
+    /**
+     * Returns the number of calls which used a pooled connection.
+     */
+    public long reusedConnections() {
+        return reusedConnections.sum();
+    }
+
+    /**
+     * Returns the number of calls which opened a new connection.
+     */
+    public long newConnections() {
+        return newConnections.sum();
+    }
+
+    /**
+     * Returns the ratio of calls which used a pooled connection. {@code 1.0} if there was no call.
+     * A low ratio under steady load suggests increasing the keep-alive duration or the number of idle
+     * connections.
+     */
+    public double reuseRatio() {
+        final long reused = reusedConnections();
+        final long total = reused + newConnections();
+        return total == 0 ? 1.0 : (double) reused / total;
+    }
+
+    void record(final HttpCallTimings timings) {
+        if (timings.nanos(HttpPhase.CONNECTION_ACQUIRE) >= 0) {
+            (timings.isConnectionReused() ? reusedConnections : newConnections).increment();
+        }
+        for (HttpPhase phase : HttpPhase.values()) {
+            final long nanos = timings.nanos(phase);
+            if (nanos >= 0) {
+                latencies.get(phase).record(nanos);
+            }
+        }
+    }
+}
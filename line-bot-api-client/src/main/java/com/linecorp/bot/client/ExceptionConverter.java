@@ -22,10 +22,10 @@ import java.io.IOException;
 import java.util.function.Function;
 
 import com.fasterxml.jackson.databind.InjectableValues;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectReader;
 
 import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.ConflictException;
 import com.linecorp.bot.client.exception.ForbiddenException;
 import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.client.exception.LineMessagingException;
@@ -34,12 +34,13 @@ import com.linecorp.bot.client.exception.NotFoundException;
 import com.linecorp.bot.client.exception.TooManyRequestsException;
 import com.linecorp.bot.client.exception.UnauthorizedException;
 import com.linecorp.bot.model.error.ErrorResponse;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
 
 import okhttp3.ResponseBody;
 import retrofit2.Response;
 
 class ExceptionConverter implements Function<Response<?>, LineMessagingException> {
-    public static final ObjectReader OBJECT_READER = new ObjectMapper().readerFor(ErrorResponse.class);
+    public static final ObjectReader OBJECT_READER = ModelCodec.readerFor(ErrorResponse.class);
 
     @Override
     public LineMessagingException apply(Response<?> response) {
@@ -74,14 +75,42 @@ class ExceptionConverter implements Function<Response<?>, LineMessagingException
             case 404:
                 return new NotFoundException(
                         errorResponse.getMessage(), errorResponse);
+            case 409:
+                return new ConflictException(
+                        errorResponse.getMessage(), errorResponse);
             case 429:
                 return new TooManyRequestsException(
                         errorResponse.getMessage(), errorResponse);
-            case 500:
-                return new LineServerException(
-                        errorResponse.getMessage(), errorResponse);
+        }
+        if (code >= 500 && code < 600) {
+            return new LineServerException(
+                    errorResponse.getMessage(), errorResponse);
         }
 
         return new GeneralLineMessagingException(errorResponse.getMessage(), errorResponse, null);
     }
+
+    /**
+     * Returns the type of the exception converted from a response of the given status code.
+     */
+    static Class<? extends LineMessagingException> exceptionTypeOf(final int code) {
+        switch (code) {
+            case 400:
+                return BadRequestException.class;
+            case 401:
+                return UnauthorizedException.class;
+            case 403:
+                return ForbiddenException.class;
+            case 404:
+                return NotFoundException.class;
+            case 409:
+                return ConflictException.class;
+            case 429:
+                return TooManyRequestsException.class;
+        }
+        if (code >= 500 && code < 600) {
+            return LineServerException.class;
+        }
+        return GeneralLineMessagingException.class;
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+
+import okhttp3.Request;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * A {@link Call} which forwards all methods to another call. Subclasses override methods to add behavior.
+ */
+abstract class ForwardingCall<T> implements Call<T> {
+    final Call<T> delegate;
+
+    ForwardingCall(final Call<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Response<T> execute() throws IOException {
+        return delegate.execute();
+    }
+
+    @Override
+    public void enqueue(final Callback<T> callback) {
+        delegate.enqueue(callback);
+    }
+
+    @Override
+    public boolean isExecuted() {
+        return delegate.isExecuted();
+    }
+
+    @Override
+    public void cancel() {
+        delegate.cancel();
+    }
+
+    @Override
+    public boolean isCanceled() {
+        return delegate.isCanceled();
+    }
+
+    @Override
+    public Request request() {
+        return delegate.request();
+    }
+
+    @Override
+    public abstract Call<T> clone();
+
+    /**
+     * Creates a {@link Callback} which reports this call, instead of the delegate, to the given callback.
+     */
+    Callback<T> forwardTo(final Callback<T> callback) {
+        return new Callback<T>() {
+            @Override
+            public void onResponse(final Call<T> call, final Response<T> response) {
+                callback.onResponse(ForwardingCall.this, response);
+            }
+
+            @Override
+            public void onFailure(final Call<T> call, final Throwable t) {
+                callback.onFailure(ForwardingCall.this, t);
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static com.linecorp.bot.client.LineClientConstants.DEFAULT_KEEP_ALIVE_DURATION_MILLIS;
+import static com.linecorp.bot.client.LineClientConstants.DEFAULT_MAX_IDLE_CONNECTIONS;
+import static java.util.Collections.singletonList;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+/**
+ * {@link HttpTransport} which sets up {@link OkHttpClient} for many concurrent requests multiplexed over
+ * HTTP/2 connections.
+ *
+ * <p>OkHttp already negotiates HTTP/2 by ALPN and multiplexes concurrent requests over one connection, so
+ * this transport uses the same client as {@link OkHttpTransport} and changes only the following:
+ * <ul>
+ *   <li>The limits of the dispatcher, e.g. those configured by
+ *       {@link LineMessagingClientBuilder#maxRequests(int)} and
+ *       {@link LineMessagingClientBuilder#maxRequestsPerHost(int)}, are raised to
+ *       {@link #maxConcurrentStreams} but never lowered. OkHttp's default allows only 5 requests per
+ *       host.</li>
+ *   <li>Connections are pinged every {@link #pingInterval} to detect broken connections early.</li>
+ *   <li>With {@link #priorKnowledge}, cleartext HTTP/2 is used without negotiation, e.g. to a local stub
+ *       server.</li>
+ *   <li>The connection pool is replaced only if {@link #maxIdleConnections} or {@link #keepAlive} is set.
+ *       Otherwise the pool configured by {@link LineMessagingClientBuilder} or the given
+ *       {@link OkHttpClient.Builder} is kept.</li>
+ * </ul>
+ *
+ * <p>HTTP/2 over TLS requires ALPN support of the JDK (8u252 or later, or 9 or later). Otherwise OkHttp
+ * falls back to HTTP/1.1 with a connection per concurrent request.
+ *
+ * <pre>{@code
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .httpTransport(Http2Transport.builder()
+ *                                                                              .maxConcurrentStreams(200)
+ *                                                                              .build())
+ *                                                 .build();
+ * }</pre>
+ */
+@Builder
+@ToString
+public final class Http2Transport implements HttpTransport {
+    /**
+     * Max number of concurrent requests to a host.
+     *
+     * <p>Default = 100, which is the minimum of SETTINGS_MAX_CONCURRENT_STREAMS recommended by RFC 7540.
+     */
+    @Builder.Default
+    private final int maxConcurrentStreams = 100;
+
+    /**
+     * Max number of idle connections to keep.
+     *
+     * <p>Default = {@code null}, which keeps the connection pool of the client builder.
+     */
+    private final Integer maxIdleConnections;
+
+    /**
+     * Duration to keep an idle connection.
+     *
+     * <p>Default = {@code null}, which keeps the connection pool of the client builder, or 5 minutes if only
+     * {@link #maxIdleConnections} is set.
+     */
+    private final Duration keepAlive;
+
+    /**
+     * Interval of HTTP/2 pings. {@link Duration#ZERO} to disable.
+     *
+     * <p>Default = 30 seconds.
+     */
+    @NonNull
+    @Builder.Default
+    private final Duration pingInterval = Duration.ofSeconds(30);
+
+    /**
+     * Use cleartext HTTP/2 without negotiation (h2c with prior knowledge).
+     *
+     * <p>Default = {@code false}.
+     */
+    @Builder.Default
+    private final boolean priorKnowledge = false;
+
+    @Override
+    public Call.Factory newCallFactory(final OkHttpClient.Builder okHttpClientBuilder) {
+        // OkHttpClient.Builder has no getter; a client built from it shares the dispatcher.
+        final OkHttpClient base = okHttpClientBuilder.build();
+        final Dispatcher dispatcher = base.dispatcher();
+        dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), maxConcurrentStreams));
+        dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), maxConcurrentStreams));
+
+        if (maxIdleConnections != null || keepAlive != null) {
+            final ConnectionPool pool = new ConnectionPool(
+                    maxIdleConnections != null ? maxIdleConnections : DEFAULT_MAX_IDLE_CONNECTIONS,
+                    keepAlive != null ? keepAlive.toMillis() : DEFAULT_KEEP_ALIVE_DURATION_MILLIS,
+                    TimeUnit.MILLISECONDS);
+            okHttpClientBuilder.connectionPool(pool);
+        }
+        if (priorKnowledge) {
+            okHttpClientBuilder.protocols(singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        }
+        return okHttpClientBuilder.pingInterval(pingInterval.toMillis(), TimeUnit.MILLISECONDS)
+                                  .build();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Phase timings of a completed HTTP call.
+ */
+@Getter
+@ToString
+public final class HttpCallTimings {
+    /**
+     * HTTP method and path template of the endpoint, e.g. {@code "POST v2/bot/message/push"}.
+     */
+    private final String endpoint;
+
+    /**
+     * Group of the endpoint.
+     */
+    private final EndpointGroup group;
+
+    /**
+     * Whether the call used a pooled connection instead of a new one.
+     */
+    private final boolean connectionReused;
+
+    /**
+     * Whether the call failed with an {@link java.io.IOException}.
+     */
+    private final boolean failed;
+
+    @Getter(AccessLevel.NONE)
+    private final Map<HttpPhase, Long> nanos;
+
+    HttpCallTimings(final String endpoint, final EndpointGroup group, final boolean connectionReused,
+                    final boolean failed, final long[] nanos) {
+        this.endpoint = endpoint;
+        this.group = group;
+        this.connectionReused = connectionReused;
+        this.failed = failed;
+        this.nanos = new EnumMap<>(HttpPhase.class);
+        for (HttpPhase phase : HttpPhase.values()) {
+            if (nanos[phase.ordinal()] >= 0) {
+                this.nanos.put(phase, nanos[phase.ordinal()]);
+            }
+        }
+    }
+
+    /**
+     * Returns the time spent in the given phase in nanoseconds, or {@code -1} if the call didn't go
+     * through it, e.g. {@link HttpPhase#DNS} with a reused connection.
+     */
+    public long nanos(final HttpPhase phase) {
+        return nanos.getOrDefault(phase, -1L);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.ToString;
+import okhttp3.OkHttpClient;
+
+/**
+ * Live gauges of the dispatcher and the connection pool of a {@link LineMessagingClient}.
+ *
+ * <p>Many queued calls with running calls at {@link LineMessagingClientBuilder#maxRequestsPerHost(int)}
+ * mean the client, not the server, limits throughput.
+ *
+ * <pre>{@code
+ * HttpClientGauges gauges = new HttpClientGauges();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .httpClientGauges(gauges)
+ *                                                 .build();
+ * log.info("queued={}, running={}", gauges.queuedCalls(), gauges.runningCalls());
+ * }</pre>
+ *
+ * <p>All values are {@code 0} until the gauges are bound, and stay so if the {@link HttpTransport} is not
+ * based on {@link OkHttpClient}.
+ *
+ * <p>An instance can be given to only one {@link LineMessagingClientBuilder}, and shows the client built last
+ * by the builder.
+ */
+@ToString
+public final class HttpClientGauges {
+    @ToString.Exclude
+    private volatile OkHttpClient client;
+    @ToString.Exclude
+    private LineMessagingClientBuilder owner;
+
+    /**
+     * Returns the number of calls waiting for the dispatcher.
+     */
+    @ToString.Include
+    public int queuedCalls() {
+        final OkHttpClient client = this.client;
+        return client == null ? 0 : client.dispatcher().queuedCallsCount();
+    }
+
+    /**
+     * Returns the number of calls being sent or waiting for responses.
+     */
+    @ToString.Include
+    public int runningCalls() {
+        final OkHttpClient client = this.client;
+        return client == null ? 0 : client.dispatcher().runningCallsCount();
+    }
+
+    /**
+     * Returns the number of open connections.
+     */
+    @ToString.Include
+    public int connections() {
+        final OkHttpClient client = this.client;
+        return client == null ? 0 : client.connectionPool().connectionCount();
+    }
+
+    /**
+     * Returns the number of idle connections.
+     */
+    @ToString.Include
+    public int idleConnections() {
+        final OkHttpClient client = this.client;
+        return client == null ? 0 : client.connectionPool().idleConnectionCount();
+    }
+
+    synchronized void claim(final LineMessagingClientBuilder owner) {
+        if (this.owner != null && this.owner != owner) {
+            throw new IllegalStateException("Already given to another builder.");
+        }
+        this.owner = owner;
+    }
+
+    void bind(final OkHttpClient client) {
+        this.client = client;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+/**
+ * Phase of an HTTP call measured by {@link HttpTimingsRecorder}.
+ */
+public enum HttpPhase {
+    /**
+     * From the start of the call until a connection is acquired. Includes waiting for the dispatcher,
+     * {@link #DNS}, {@link #CONNECT} and {@link #TLS}. Long values with reused connections mean the
+     * dispatcher limits concurrency.
+     */
+    CONNECTION_ACQUIRE,
+    /**
+     * Resolving host names. Absent if the connection is reused.
+     */
+    DNS,
+    /**
+     * Establishing TCP connections including {@link #TLS}. Absent if the connection is reused.
+     */
+    CONNECT,
+    /**
+     * TLS handshakes. Absent if the connection is reused or not secure.
+     */
+    TLS,
+    /**
+     * Writing request headers and body.
+     */
+    REQUEST_WRITE,
+    /**
+     * From the end of the request until the response headers start to arrive, i.e. server time plus
+     * a round trip.
+     */
+    TIME_TO_FIRST_BYTE,
+    /**
+     * Reading the response body.
+     */
+    RESPONSE_BODY,
+    /**
+     * The whole call.
+     */
+    TOTAL
+}
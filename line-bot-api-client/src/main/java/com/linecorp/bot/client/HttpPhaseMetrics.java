@@ -0,0 +1,77 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link HttpTimingsRecorder} which aggregates phase timings and connection reuse per endpoint.
+ *
+ * <pre>{@code
+ * HttpPhaseMetrics phaseMetrics = new HttpPhaseMetrics();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .httpTimingsRecorder(phaseMetrics)
+ *                                                 .build();
+ * EndpointPhaseMetrics push = phaseMetrics.endpoints().get("POST v2/bot/message/push");
+ * log.info("reuse={}, ttfb p99={}", push.reuseRatio(),
+ *          push.latency(HttpPhase.TIME_TO_FIRST_BYTE).percentile(0.99));
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class HttpPhaseMetrics implements HttpTimingsRecorder {
+    @ToString.Include
+    private final ConcurrentMap<String, EndpointPhaseMetrics> endpoints = new ConcurrentHashMap<>();
+    private final List<HttpTimingsRecorder> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void record(final HttpCallTimings timings) {
+        endpoints.computeIfAbsent(timings.getEndpoint(), EndpointPhaseMetrics::new).record(timings);
+        for (HttpTimingsRecorder listener : listeners) {
+            try {
+                listener.record(timings);
+            } catch (RuntimeException e) {
+                log.warn("Failed to notify {}", listener, e);
+            }
+        }
+    }
+
+    /**
+     * Returns the metrics of endpoints which have been called, keyed by HTTP method and path template.
+     */
+    public Map<String, EndpointPhaseMetrics> endpoints() {
+        return Collections.unmodifiableMap(new TreeMap<>(endpoints));
+    }
+
+    /**
+     * Adds a listener notified of each call after it is aggregated, e.g. to export timings to a metrics
+     * library.
+     */
+    public void addListener(@NonNull final HttpTimingsRecorder listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+/**
+ * Receives {@link HttpCallTimings} of each HTTP call sent by {@link LineMessagingClient}.
+ *
+ * @see LineMessagingClientBuilder#httpTimingsRecorder(HttpTimingsRecorder)
+ * @see HttpPhaseMetrics
+ */
+@FunctionalInterface
+public interface HttpTimingsRecorder {
+    /**
+     * Invoked on the thread which completed the call. Must not block.
+     */
+    void record(HttpCallTimings timings);
+}
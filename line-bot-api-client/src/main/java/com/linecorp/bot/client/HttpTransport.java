@@ -0,0 +1,39 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+
+/**
+ * Transport which sends HTTP requests of {@link LineMessagingClient}.
+ *
+ * <p>Retrofit only requires {@link Call.Factory}, so a transport may adapt any HTTP client as long as it
+ * implements {@link Call}. The given {@link OkHttpClient.Builder} is already configured with interceptors
+ * and timeouts of {@link LineMessagingClientBuilder}; transports based on OkHttp should build on it.
+ *
+ * @see LineMessagingClientBuilder#httpTransport(HttpTransport)
+ * @see OkHttpTransport
+ * @see Http2Transport
+ */
+@FunctionalInterface
+public interface HttpTransport {
+    /**
+     * Creates a {@link Call.Factory} used to send requests.
+     */
+    Call.Factory newCallFactory(OkHttpClient.Builder okHttpClientBuilder);
+}
@@ -0,0 +1,446 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+import com.linecorp.bot.model.response.GetNumberOfFollowersResponse;
+import com.linecorp.bot.model.response.GetNumberOfMessageDeliveriesResponse;
+import com.linecorp.bot.model.response.NumberOfMessagesResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fetches daily insights over a range of dates with bounded concurrency and caches final values.
+ *
+ * <p>A value whose status is {@code Ready} or {@code OutOfService} never changes, so it's kept in memory
+ * and in the {@link Builder#storeDirectory(Path) store directory} if configured, and never fetched again.
+ * {@code Unready} values are fetched every time.
+ *
+ * <pre>{@code
+ * InsightFetcher fetcher = InsightFetcher.builder(client)
+ *                                        .maxConcurrentRequests(8)
+ *                                        .storeDirectory(Paths.get("/var/cache/bot/insight"))
+ *                                        .build();
+ * InsightSeries<NumberOfMessagesResponse> pushes =
+ *         fetcher.sentPushMessages(LocalDate.of(2019, 7, 1), LocalDate.of(2019, 9, 30)).join();
+ * long[] daily = pushes.toLongArray(NumberOfMessagesResponse::getSuccess);
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class InsightFetcher {
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Insight<NumberOfMessagesResponse> SENT_REPLY_MESSAGES = new Insight<>(
+            "sent-reply-messages", NumberOfMessagesResponse.class,
+            LineMessagingClient::getNumberOfSentReplyMessages, InsightFetcher::isFinal);
+    private static final Insight<NumberOfMessagesResponse> SENT_PUSH_MESSAGES = new Insight<>(
+            "sent-push-messages", NumberOfMessagesResponse.class,
+            LineMessagingClient::getNumberOfSentPushMessages, InsightFetcher::isFinal);
+    private static final Insight<NumberOfMessagesResponse> SENT_MULTICAST_MESSAGES = new Insight<>(
+            "sent-multicast-messages", NumberOfMessagesResponse.class,
+            LineMessagingClient::getNumberOfSentMulticastMessages, InsightFetcher::isFinal);
+    private static final Insight<NumberOfMessagesResponse> SENT_BROADCAST_MESSAGES = new Insight<>(
+            "sent-broadcast-messages", NumberOfMessagesResponse.class,
+            LineMessagingClient::getNumberOfSentBroadcastMessages, InsightFetcher::isFinal);
+    private static final Insight<GetNumberOfMessageDeliveriesResponse> MESSAGE_DELIVERIES = new Insight<>(
+            "message-deliveries", GetNumberOfMessageDeliveriesResponse.class,
+            LineMessagingClient::getNumberOfMessageDeliveries,
+            response -> response.getStatus() != GetNumberOfMessageDeliveriesResponse.Status.Unready);
+    private static final Insight<GetNumberOfFollowersResponse> FOLLOWERS = new Insight<>(
+            "followers", GetNumberOfFollowersResponse.class,
+            LineMessagingClient::getNumberOfFollowersResponse,
+            response -> response.getStatus() != GetNumberOfFollowersResponse.Status.Unready);
+
+    private final LineMessagingClient client;
+    @ToString.Include
+    private final int maxConcurrentRequests;
+    @ToString.Include
+    private final Path storeDirectory;
+
+    // Final values per insight name. Each map is guarded by itself.
+    private final Map<String, Map<LocalDate, Object>> cache = new ConcurrentHashMap<>();
+    // Store files per insight name.
+    private final Map<String, StoreFile> storeFiles = new ConcurrentHashMap<>();
+
+    private InsightFetcher(final Builder builder) {
+        client = builder.client;
+        maxConcurrentRequests = builder.maxConcurrentRequests;
+        storeDirectory = builder.storeDirectory;
+    }
+
+    /**
+     * Creates a new {@link Builder} which fetches insights by the given client.
+     */
+    public static Builder builder(final LineMessagingClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfSentReplyMessages(String)} of each date in the range.
+     *
+     * @param from the first date, inclusive.
+     * @param to the last date, inclusive.
+     */
+    public CompletableFuture<InsightSeries<NumberOfMessagesResponse>> sentReplyMessages(final LocalDate from,
+                                                                                      final LocalDate to) {
+        return fetch(SENT_REPLY_MESSAGES, from, to);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfSentPushMessages(String)} of each date in the range.
+     *
+     * @see #sentReplyMessages(LocalDate, LocalDate)
+     */
+    public CompletableFuture<InsightSeries<NumberOfMessagesResponse>> sentPushMessages(final LocalDate from,
+                                                                                     final LocalDate to) {
+        return fetch(SENT_PUSH_MESSAGES, from, to);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfSentMulticastMessages(String)} of each date in the range.
+     *
+     * @see #sentReplyMessages(LocalDate, LocalDate)
+     */
+    public CompletableFuture<InsightSeries<NumberOfMessagesResponse>> sentMulticastMessages(
+            final LocalDate from, final LocalDate to) {
+        return fetch(SENT_MULTICAST_MESSAGES, from, to);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfSentBroadcastMessages(String)} of each date in the range.
+     *
+     * @see #sentReplyMessages(LocalDate, LocalDate)
+     */
+    public CompletableFuture<InsightSeries<NumberOfMessagesResponse>> sentBroadcastMessages(
+            final LocalDate from, final LocalDate to) {
+        return fetch(SENT_BROADCAST_MESSAGES, from, to);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfMessageDeliveries(String)} of each date in the range.
+     *
+     * @see #sentReplyMessages(LocalDate, LocalDate)
+     */
+    public CompletableFuture<InsightSeries<GetNumberOfMessageDeliveriesResponse>> messageDeliveries(
+            final LocalDate from, final LocalDate to) {
+        return fetch(MESSAGE_DELIVERIES, from, to);
+    }
+
+    /**
+     * Fetches {@link LineMessagingClient#getNumberOfFollowersResponse(String)} of each date in the range.
+     *
+     * @see #sentReplyMessages(LocalDate, LocalDate)
+     */
+    public CompletableFuture<InsightSeries<GetNumberOfFollowersResponse>> followers(final LocalDate from,
+                                                                                  final LocalDate to) {
+        return fetch(FOLLOWERS, from, to);
+    }
+
+    private <T> CompletableFuture<InsightSeries<T>> fetch(final Insight<T> insight,
+                                                          @NonNull final LocalDate from,
+                                                          @NonNull final LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("to must not be before from");
+        }
+        final Map<LocalDate, Object> finals = cache.computeIfAbsent(insight.name, name -> load(insight));
+        final TreeMap<LocalDate, T> values = new TreeMap<>();
+        final List<LocalDate> missing = new ArrayList<>();
+        synchronized (finals) {
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                final Object value = finals.get(date);
+                if (value != null) {
+                    values.put(date, insight.type.cast(value));
+                } else {
+                    missing.add(date);
+                }
+            }
+        }
+
+        final CompletableFuture<InsightSeries<T>> result = new CompletableFuture<>();
+        if (missing.isEmpty()) {
+            result.complete(new InsightSeries<>(values));
+            return result;
+        }
+        final StoreFile storeFile = storeDirectory != null
+                                    ? storeFiles.computeIfAbsent(insight.name, name -> new StoreFile(
+                                            storeDirectory.resolve(name + ".tsv")))
+                                    : null;
+        new Fetch<>(insight, finals, storeFile, values, missing, result).drain();
+        return result;
+    }
+
+    private Map<LocalDate, Object> load(final Insight<?> insight) {
+        final Map<LocalDate, Object> finals = new HashMap<>();
+        if (storeDirectory == null) {
+            return finals;
+        }
+        final Path file = storeDirectory.resolve(insight.name + ".tsv");
+        if (!Files.exists(file)) {
+            return finals;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                final int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    // Torn last line.
+                    continue;
+                }
+                try {
+                    finals.put(LocalDate.parse(line.substring(0, tab), DATE_FORMAT),
+                               ModelCodec.readerFor(insight.type).readValue(line.substring(tab + 1)));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Ignoring a broken line of {}: {}", file, line, e);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return finals;
+    }
+
+    private static boolean isFinal(final NumberOfMessagesResponse response) {
+        return response.getStatus() != NumberOfMessagesResponse.Status.Unready;
+    }
+
+    /**
+     * Fetches missing dates of a range. At most {@code maxConcurrentRequests} requests are in flight, each of
+     * which starts the next one when it completes.
+     */
+    private final class Fetch<T> {
+        private final Insight<T> insight;
+        private final Map<LocalDate, Object> finals;
+        private final StoreFile storeFile;
+        private final CompletableFuture<InsightSeries<T>> result;
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Guarded by this.
+        private final TreeMap<LocalDate, T> values;
+        private final Iterator<LocalDate> dates;
+        private int remaining;
+        private int inFlight;
+
+        Fetch(final Insight<T> insight, final Map<LocalDate, Object> finals, final StoreFile storeFile,
+              final TreeMap<LocalDate, T> values, final List<LocalDate> missing,
+              final CompletableFuture<InsightSeries<T>> result) {
+            this.insight = insight;
+            this.finals = finals;
+            this.storeFile = storeFile;
+            this.values = values;
+            this.result = result;
+            dates = missing.iterator();
+            remaining = missing.size();
+        }
+
+        /**
+         * Starts requests until {@link #maxConcurrentRequests} is reached. Reentrant calls from a synchronously
+         * completed request are folded into the outer loop to keep the stack flat.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                LocalDate next;
+                while ((next = poll()) != null) {
+                    request(next);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private synchronized LocalDate poll() {
+            if (result.isDone() || inFlight >= maxConcurrentRequests || !dates.hasNext()) {
+                return null;
+            }
+            inFlight++;
+            return dates.next();
+        }
+
+        private void request(final LocalDate date) {
+            final CompletableFuture<T> future;
+            try {
+                future = insight.request.apply(client, date.format(DATE_FORMAT));
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+                return;
+            }
+            future.whenComplete((value, t) -> onComplete(date, value, t));
+        }
+
+        private void onComplete(final LocalDate date, final T value, final Throwable cause) {
+            if (cause != null) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (insight.isFinal.test(value)) {
+                final boolean added;
+                synchronized (finals) {
+                    added = finals.putIfAbsent(date, value) == null;
+                }
+                if (added && storeFile != null) {
+                    store(date, value);
+                }
+            }
+            final boolean done;
+            synchronized (this) {
+                values.put(date, value);
+                inFlight--;
+                done = --remaining == 0;
+            }
+            if (done) {
+                result.complete(new InsightSeries<>(values));
+            } else {
+                drain();
+            }
+        }
+
+        private void store(final LocalDate date, final T value) {
+            try {
+                storeFile.append(date.format(DATE_FORMAT) + '\t'
+                                 + ModelCodec.writerFor(insight.type).writeValueAsString(value) + '\n');
+            } catch (IOException e) {
+                log.warn("Failed to store {} of {}", insight.name, date, e);
+            }
+        }
+    }
+
+    /**
+     * Appends lines to a store file. Whichever thread finds no other thread writing writes all queued lines,
+     * so that callers don't wait for each other's writes.
+     */
+    private static final class StoreFile {
+        private final Path file;
+        private final Queue<String> lines = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        StoreFile(final Path file) {
+            this.file = file;
+        }
+
+        void append(final String line) {
+            lines.add(line);
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                write();
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private void write() {
+            final StringBuilder queued = new StringBuilder();
+            String line;
+            while ((line = lines.poll()) != null) {
+                queued.append(line);
+            }
+            if (queued.length() == 0) {
+                return;
+            }
+            try {
+                Files.createDirectories(file.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                                                                     StandardOpenOption.CREATE,
+                                                                     StandardOpenOption.APPEND)) {
+                    writer.write(queued.toString());
+                }
+            } catch (IOException e) {
+                log.warn("Failed to store to {}: {}", file, queued, e);
+            }
+        }
+    }
+
+    private static final class Insight<T> {
+        final String name;
+        final Class<T> type;
+        final BiFunction<LineMessagingClient, String, CompletableFuture<T>> request;
+        final Predicate<T> isFinal;
+
+        Insight(final String name, final Class<T> type,
+                final BiFunction<LineMessagingClient, String, CompletableFuture<T>> request,
+                final Predicate<T> isFinal) {
+            this.name = name;
+            this.type = type;
+            this.request = request;
+            this.isFinal = isFinal;
+        }
+    }
+
+    /**
+     * Builder of {@link InsightFetcher}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient client;
+        private int maxConcurrentRequests = 4;
+        private Path storeDirectory;
+
+        private Builder(@NonNull final LineMessagingClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Max number of requests in flight per range. Default = 4.
+         */
+        public Builder maxConcurrentRequests(final int maxConcurrentRequests) {
+            if (maxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Directory to keep final values across restarts. Each insight is appended to a file of
+         * {@code date<TAB>json} lines. Default = {@code null} (kept in memory only).
+         */
+        public Builder storeDirectory(@NonNull final Path storeDirectory) {
+            this.storeDirectory = storeDirectory;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link InsightFetcher}.
+         */
+        public InsightFetcher build() {
+            return new InsightFetcher(this);
+        }
+    }
+}
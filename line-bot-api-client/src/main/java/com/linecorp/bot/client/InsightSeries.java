@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+/**
+ * Daily insight values over a range of dates, fetched by {@link InsightFetcher}.
+ *
+ * @param <T> response type of the insight.
+ */
+@ToString
+@EqualsAndHashCode
+public final class InsightSeries<T> {
+    private final SortedMap<LocalDate, T> values;
+
+    InsightSeries(final SortedMap<LocalDate, T> values) {
+        this.values = Collections.unmodifiableSortedMap(new TreeMap<>(values));
+    }
+
+    /**
+     * Returns the value of the given date, or {@code null} if the date is out of the range.
+     */
+    public T get(final LocalDate date) {
+        return values.get(date);
+    }
+
+    /**
+     * Returns values ordered by date.
+     */
+    public SortedMap<LocalDate, T> asMap() {
+        return values;
+    }
+
+    /**
+     * Extracts a number of each date into an array ordered by date, e.g.
+     * {@code series.toLongArray(NumberOfMessagesResponse::getSuccess)}.
+     */
+    public long[] toLongArray(final ToLongFunction<T> extractor) {
+        return values.values().stream().mapToLong(extractor).toArray();
+    }
+
+    /**
+     * Returns the number of dates.
+     */
+    public int size() {
+        return values.size();
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link HttpTimingsRecorder} which commits a {@code com.linecorp.bot.client.HttpCall} JDK Flight Recorder
+ * event per call. Events are cheap when no recording is running.
+ *
+ * <p>The event type is defined through {@code jdk.jfr.EventFactory} by reflection, because this library is
+ * compiled for and runs on Java 8 runtimes without {@code jdk.jfr}. Use {@link #createIfAvailable()}.
+ */
+@Slf4j
+final class JfrHttpTimingsRecorder implements HttpTimingsRecorder {
+    private static final String[] TIMESPAN_FIELDS = {
+            "connectionAcquire", "dns", "connect", "tls", "requestWrite", "timeToFirstByte", "responseBody",
+            "total"
+    };
+    private static final String[] TIMESPAN_LABELS = {
+            "Connection Acquire", "DNS", "Connect", "TLS", "Request Write", "Time to First Byte",
+            "Response Body", "Total"
+    };
+    private static final HttpPhase[] TIMESPAN_PHASES = {
+            HttpPhase.CONNECTION_ACQUIRE, HttpPhase.DNS, HttpPhase.CONNECT, HttpPhase.TLS,
+            HttpPhase.REQUEST_WRITE, HttpPhase.TIME_TO_FIRST_BYTE, HttpPhase.RESPONSE_BODY, HttpPhase.TOTAL
+    };
+
+    private final Object eventFactory;
+    private final Method newEvent;
+    private final Method isEnabled;
+    private final Method set;
+    private final Method commit;
+
+    private JfrHttpTimingsRecorder(final ClassLoader classLoader) throws ReflectiveOperationException {
+        final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement", true, classLoader);
+        final Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor", true, classLoader);
+        final Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory", true, classLoader);
+        final Class<?> event = Class.forName("jdk.jfr.Event", true, classLoader);
+        final Constructor<?> annotationWithValue = annotationElement.getConstructor(Class.class, Object.class);
+        final Constructor<?> field = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+        final Class<?> label = Class.forName("jdk.jfr.Label", true, classLoader);
+
+        final List<Object> eventAnnotations = asList(
+                annotationWithValue.newInstance(Class.forName("jdk.jfr.Name", true, classLoader),
+                                                "com.linecorp.bot.client.HttpCall"),
+                annotationWithValue.newInstance(label, "LINE Bot HTTP Call"),
+                annotationWithValue.newInstance(Class.forName("jdk.jfr.Category", true, classLoader),
+                                                new String[] { "LINE Bot", "HTTP" }),
+                annotationWithValue.newInstance(
+                        Class.forName("jdk.jfr.Description", true, classLoader),
+                        "Phase timings of an HTTP call to the Messaging API. -1 if the phase didn't happen."));
+
+        final List<Object> fields = new ArrayList<>();
+        fields.add(field.newInstance(String.class, "endpoint",
+                                     singletonList(annotationWithValue.newInstance(label, "Endpoint"))));
+        fields.add(field.newInstance(
+                boolean.class, "connectionReused",
+                singletonList(annotationWithValue.newInstance(label, "Connection Reused"))));
+        fields.add(field.newInstance(boolean.class, "failed",
+                                     singletonList(annotationWithValue.newInstance(label, "Failed"))));
+        final Object timespan = annotationWithValue.newInstance(
+                Class.forName("jdk.jfr.Timespan", true, classLoader), "NANOSECONDS");
+        for (int i = 0; i < TIMESPAN_FIELDS.length; i++) {
+            fields.add(field.newInstance(long.class, TIMESPAN_FIELDS[i],
+                                         asList(annotationWithValue.newInstance(label, TIMESPAN_LABELS[i]),
+                                                timespan)));
+        }
+
+        eventFactory = eventFactoryClass.getMethod("create", List.class, List.class)
+                                        .invoke(null, eventAnnotations, fields);
+        newEvent = eventFactoryClass.getMethod("newEvent");
+        isEnabled = event.getMethod("isEnabled");
+        set = event.getMethod("set", int.class, Object.class);
+        commit = event.getMethod("commit");
+    }
+
+    /**
+     * Returns a new recorder, or {@code null} if the runtime doesn't support JDK Flight Recorder.
+     */
+    static JfrHttpTimingsRecorder createIfAvailable() {
+        return createIfAvailable(JfrHttpTimingsRecorder.class.getClassLoader());
+    }
+
+    static JfrHttpTimingsRecorder createIfAvailable(final ClassLoader classLoader) {
+        try {
+            return new JfrHttpTimingsRecorder(classLoader);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.debug("JDK Flight Recorder is not available", e);
+            return null;
+        }
+    }
+
+    @Override
+    public void record(final HttpCallTimings timings) {
+        try {
+            final Object event = newEvent.invoke(eventFactory);
+            if (!(Boolean) isEnabled.invoke(event)) {
+                return;
+            }
+            set.invoke(event, 0, timings.getEndpoint());
+            set.invoke(event, 1, timings.isConnectionReused());
+            set.invoke(event, 2, timings.isFailed());
+            for (int i = 0; i < TIMESPAN_PHASES.length; i++) {
+                set.invoke(event, 3 + i, timings.nanos(TIMESPAN_PHASES[i]));
+            }
+            commit.invoke(event);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Failed to commit a JDK Flight Recorder event", e);
+        }
+    }
+}
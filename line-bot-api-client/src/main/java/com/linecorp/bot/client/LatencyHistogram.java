@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.ToString;
+
+/**
+ * Lock-free histogram of latencies with log-linear buckets.
+ *
+ * <p>Each power of two is split into {@value #SUB_BUCKETS} buckets, so that a percentile is reported
+ * with at most 12.5% relative error. Recording never allocates.
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency in nanoseconds. Negative values are recorded as {@code 0}.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        max.accumulate(value);
+    }
+
+    /**
+     * Returns the number of recorded latencies.
+     */
+    @ToString.Include
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the largest recorded latency.
+     */
+    @ToString.Include
+    public Duration max() {
+        return Duration.ofNanos(max.get());
+    }
+
+    /**
+     * Returns the latency below which the given ratio of recorded latencies fall.
+     * {@link Duration#ZERO} if nothing has been recorded.
+     *
+     * @param quantile between {@code 0.0} and {@code 1.0}, e.g. {@code 0.99} for p99.
+     */
+    public Duration percentile(final double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be between 0.0 and 1.0");
+        }
+        long total = 0;
+        final long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return Duration.ZERO;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(upperBoundOf(i), max.get()));
+            }
+        }
+        return max();
+    }
+
+    @ToString.Include
+    Duration p50() {
+        return percentile(0.5);
+    }
+
+    @ToString.Include
+    Duration p99() {
+        return percentile(0.99);
+    }
+
+    @ToString.Include
+    Duration p999() {
+        return percentile(0.999);
+    }
+
+    static int indexOf(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+}
@@ -26,4 +26,8 @@ public enum LineClientConstants {
     public static final long DEFAULT_CONNECT_TIMEOUT_MILLIS = 10_000;
     public static final long DEFAULT_READ_TIMEOUT_MILLIS = 10_000;
     public static final long DEFAULT_WRITE_TIMEOUT_MILLIS = 10_000;
+    public static final int DEFAULT_MAX_REQUESTS = 64;
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    public static final long DEFAULT_KEEP_ALIVE_DURATION_MILLIS = 300_000;
 }
@@ -16,15 +16,28 @@
 
 package com.linecorp.bot.client;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.model.Broadcast;
 import com.linecorp.bot.model.Multicast;
 import com.linecorp.bot.model.PushMessage;
 import com.linecorp.bot.model.ReplyMessage;
 import com.linecorp.bot.model.event.source.GroupSource;
 import com.linecorp.bot.model.event.source.RoomSource;
+import com.linecorp.bot.model.message.Message;
 import com.linecorp.bot.model.profile.MembersIdsResponse;
 import com.linecorp.bot.model.profile.UserProfileResponse;
 import com.linecorp.bot.model.response.BotApiResponse;
@@ -64,6 +77,22 @@ public interface LineMessagingClient {
      */
     CompletableFuture<BotApiResponse> pushMessage(PushMessage pushMessage);
 
+    /**
+     * Send messages to users with an idempotency key.
+     *
+     * <p>Requests with the same {@code retryKey} are accepted only once by the server, so the request can be
+     * retried safely. Retried request is rejected with {@code 409 Conflict} if the original one was accepted.
+     *
+     * <p>The default implementation sends the request without the key, for implementations which predate it.
+     *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. Generate a new one for each logical message.
+     * @see #pushMessage(PushMessage)
+     * @see <a href="https://developers.line.biz/en/reference/messaging-api/#retry-api-request">Retrying an API request</a>
+     */
+    default CompletableFuture<BotApiResponse> pushMessage(UUID retryKey, PushMessage pushMessage) {
+        return pushMessage(pushMessage);
+    }
+
     /**
      * Send messages to multiple users at any time. <strong>IDs of groups or rooms cannot be used.</strong>
      *
@@ -78,6 +107,34 @@ public interface LineMessagingClient {
      */
     CompletableFuture<BotApiResponse> multicast(Multicast multicast);
 
+    /**
+     * Send messages to multiple users with an idempotency key.
+     *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. Generate a new one for each logical message.
+     * @see #multicast(Multicast)
+     * @see #pushMessage(UUID, PushMessage)
+     */
+    default CompletableFuture<BotApiResponse> multicast(UUID retryKey, Multicast multicast) {
+        return multicast(multicast);
+    }
+
+    /**
+     * Send messages to any number of users. Recipients are split into multiple {@link Multicast} requests
+     * which are sent in parallel with default settings of {@link MulticastFanout}.
+     *
+     * <p>Use {@link MulticastFanout#builder()} to tune chunk size and concurrency.
+     *
+     * @see #multicast(Multicast)
+     * @see MulticastFanout
+     */
+    default CompletableFuture<MulticastFanoutResult> multicastFanout(
+            Iterable<String> to, List<Message> messages) {
+        return MulticastFanout.builder()
+                              .client(this)
+                              .build()
+                              .send(to, messages);
+    }
+
     /**
      * Sends push messages to multiple users at any time.
      * Note: LINE@ accounts cannot call this API endpoint. Please migrate it to a LINE official account.
@@ -86,6 +143,17 @@ public interface LineMessagingClient {
      */
     CompletableFuture<BotApiResponse> broadcast(Broadcast broadcast);
 
+    /**
+     * Sends push messages to multiple users at any time with an idempotency key.
+     *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. Generate a new one for each logical message.
+     * @see #broadcast(Broadcast)
+     * @see #pushMessage(UUID, PushMessage)
+     */
+    default CompletableFuture<BotApiResponse> broadcast(UUID retryKey, Broadcast broadcast) {
+        return broadcast(broadcast);
+    }
+
     /**
      * Download image, video, and audio data sent from users.
      *
@@ -93,6 +161,48 @@ public interface LineMessagingClient {
      */
     CompletableFuture<MessageContentResponse> getMessageContent(String messageId);
 
+    /**
+     * Downloads content sent from users directly to a file without keeping it in memory.
+     * The file is deleted if the download fails.
+     *
+     * <p>The returned future fails with {@link ContentTooLargeException} if the content exceeds
+     * {@link ContentTransferOptions#getMaxSize()}.
+     *
+     * @see #getMessageContent(String)
+     * @see MessageContentResponse#transferTo(Path, ContentTransferOptions)
+     */
+    default CompletableFuture<ContentTransferResult> downloadMessageContent(
+            String messageId, Path path, ContentTransferOptions options) {
+        return getMessageContent(messageId).thenApply(response -> {
+            try (MessageContentResponse closing = response) {
+                return closing.transferTo(path, options);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * Downloads content sent from users directly to a channel without keeping it in memory.
+     * The channel is left open.
+     *
+     * <p>The returned future fails with {@link ContentTooLargeException} if the content exceeds
+     * {@link ContentTransferOptions#getMaxSize()}.
+     *
+     * @see #getMessageContent(String)
+     * @see MessageContentResponse#transferTo(WritableByteChannel, ContentTransferOptions)
+     */
+    default CompletableFuture<ContentTransferResult> downloadMessageContent(
+            String messageId, WritableByteChannel channel, ContentTransferOptions options) {
+        return getMessageContent(messageId).thenApply(response -> {
+            try (MessageContentResponse closing = response) {
+                return closing.transferTo(channel, options);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
     /**
      * Gets the target limit for additional messages in the current month. The number of messages retrieved by
      * this operation includes the number of messages sent from LINE Official Account Manager.
@@ -200,6 +310,30 @@ public interface LineMessagingClient {
     CompletableFuture<MembersIdsResponse> getRoomMembersIds(
             String roomId, String start);
 
+    /**
+     * Stream all member IDs of a group. Pages are requested lazily, and the next page is prefetched while
+     * the current one is consumed.
+     *
+     * <p>The returned stream should be closed to stop prefetching when it is not fully consumed.
+     *
+     * @see MembersIdsIterator
+     */
+    default Stream<String> streamGroupMembersIds(String groupId) {
+        return MembersIdsIterator.ofGroup(this, groupId).stream();
+    }
+
+    /**
+     * Stream all member IDs of a room. Pages are requested lazily, and the next page is prefetched while
+     * the current one is consumed.
+     *
+     * <p>The returned stream should be closed to stop prefetching when it is not fully consumed.
+     *
+     * @see MembersIdsIterator
+     */
+    default Stream<String> streamRoomMembersIds(String roomId) {
+        return MembersIdsIterator.ofRoom(this, roomId).stream();
+    }
+
     /**
      * Leave a group.
      *
@@ -291,6 +425,68 @@ public interface LineMessagingClient {
     CompletableFuture<BotApiResponse> setRichMenuImage(
             String richMenuId, String contentType, byte[] content);
 
+    /**
+     * Set RichMenu image streamed from a file.
+     *
+     * <p>The default implementation uploads the file through
+     * {@link #setRichMenuImage(String, String, InputStream, long)}.
+     *
+     * @see #setRichMenuImage(String, String, byte[])
+     * @see RichMenuImageUploader
+     */
+    default CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, Path content) {
+        final InputStream stream;
+        final long contentLength;
+        try {
+            contentLength = Files.size(content);
+            stream = Files.newInputStream(content);
+        } catch (IOException e) {
+            final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new GeneralLineMessagingException(e.getMessage(), null, e));
+            return failed;
+        }
+        return setRichMenuImage(richMenuId, contentType, stream, contentLength);
+    }
+
+    /**
+     * Set RichMenu image streamed from an {@link InputStream}. The stream is closed when the upload completes.
+     *
+     * <p>The default implementation reads the whole image into memory and uploads it through
+     * {@link #setRichMenuImage(String, String, byte[])}, for implementations which predate streaming.
+     *
+     * @param contentLength number of bytes of the image, or {@code -1} if unknown.
+     * @see #setRichMenuImage(String, String, byte[])
+     */
+    default CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, InputStream content, long contentLength) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InputStream closing = content) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while ((read = closing.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new GeneralLineMessagingException(e.getMessage(), null, e));
+            return failed;
+        }
+        return setRichMenuImage(richMenuId, contentType, bytes.toByteArray());
+    }
+
+    /**
+     * Set RichMenu image streamed from a {@link ReadableByteChannel}. The channel is closed when the upload
+     * completes.
+     *
+     * @param contentLength number of bytes of the image, or {@code -1} if unknown.
+     * @see #setRichMenuImage(String, String, byte[])
+     */
+    default CompletableFuture<BotApiResponse> setRichMenuImage(
+            String richMenuId, String contentType, ReadableByteChannel content, long contentLength) {
+        return setRichMenuImage(richMenuId, contentType, Channels.newInputStream(content), contentLength);
+    }
+
     /**
      * Gets a list of all uploaded rich menus.
      *
@@ -19,27 +19,21 @@ package com.linecorp.bot.client;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
-
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
 import lombok.experimental.PackagePrivate;
+import okhttp3.Call;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import okhttp3.logging.HttpLoggingInterceptor.Level;
+import retrofit2.CallAdapter;
 import retrofit2.Retrofit;
-import retrofit2.converter.jackson.JacksonConverterFactory;
 
 @ToString
 @Accessors(fluent = true)
@@ -86,6 +80,15 @@ public class LineMessagingClientBuilder {
     @Setter
     private long writeTimeout = LineClientConstants.DEFAULT_WRITE_TIMEOUT_MILLIS;
 
+    private int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+    private int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+    private boolean dispatcherLimitsSet;
+    private int maxIdleConnections = LineClientConstants.DEFAULT_MAX_IDLE_CONNECTIONS;
+    private long keepAliveDuration = LineClientConstants.DEFAULT_KEEP_ALIVE_DURATION_MILLIS;
+    private boolean connectionPoolSet;
+
+    private HttpClientGauges httpClientGauges;
+
     /**
      * Channel token supplier of this client.
      *
@@ -117,6 +120,26 @@ public class LineMessagingClientBuilder {
 
     private OkHttpClient.Builder okHttpClientBuilder;
 
+    /**
+     * Transport which sends requests.
+     *
+     * <p>Default = {@link OkHttpTransport}.
+     *
+     * @see Http2Transport
+     */
+    @Setter
+    @NonNull
+    private HttpTransport httpTransport = OkHttpTransport.of();
+
+    /**
+     * Logging of requests and responses to {@code com.linecorp.bot.client.wire} logger.
+     *
+     * <p>Default = all exchanges with bodies truncated to 4096 bytes, while INFO is enabled for the logger.
+     */
+    @Setter
+    @NonNull
+    private WireLogging wireLogging = WireLogging.builder().build();
+
     /**
      * Custom interceptors.
      *
@@ -129,6 +152,85 @@ public class LineMessagingClientBuilder {
     @Setter
     private List<Interceptor> additionalInterceptors = new ArrayList<>();
 
+    /**
+     * Client side rate limiter.
+     *
+     * <p>Requests wait for a permit of the limiter before they are passed to OkHttp.
+     * Default = {@code null} (unlimited).
+     *
+     * @see TokenBucketRateLimiter
+     */
+    @Setter
+    private RateLimiter rateLimiter;
+
+    /**
+     * Retry policy of failed requests.
+     *
+     * <p>When configured, push, multicast and broadcast requests carry a generated {@code X-Line-Retry-Key}
+     * header so that retries never deliver messages twice.
+     * Default = {@code null} (no retry).
+     */
+    @Setter
+    private RetryPolicy retryPolicy;
+
+    /**
+     * Circuit breaker which rejects requests of failing endpoint groups without waiting for timeouts.
+     * Default = {@code null} (disabled).
+     */
+    @Setter
+    private CircuitBreaker circuitBreaker;
+
+    /**
+     * Bulkhead which limits concurrent requests per endpoint group.
+     * Default = {@code null} (unlimited).
+     */
+    @Setter
+    private Bulkhead bulkhead;
+
+    /**
+     * Lanes which share concurrent requests by priority, so that replies are sent ahead of bulk requests.
+     * The dispatcher allows at least {@link PriorityLanes.Builder#maxConcurrentCalls(int)} requests when
+     * configured. Default = {@code null} (first come, first served).
+     */
+    @Setter
+    private PriorityLanes priorityLanes;
+
+    /**
+     * Share a single request among identical {@code GET} requests in flight at the same time,
+     * e.g. {@link LineMessagingClient#getRichMenuList()} called by many handlers at once.
+     *
+     * <p>Note that a coalesced response may be stale: a {@code GET} issued after a write, e.g.
+     * {@link LineMessagingClient#setDefaultRichMenu(String)}, can join a {@code GET} which was sent
+     * before the write and does not reflect it. Enable only when such responses are acceptable.
+     * Default = {@code false}.
+     */
+    @Setter
+    private boolean coalesceRequests;
+
+    /**
+     * Metrics which record calls, outcomes, latencies and in-flight calls per endpoint.
+     * Default = {@code null} (not recorded).
+     */
+    @Setter
+    private ClientMetrics clientMetrics;
+
+    /**
+     * Recorder of DNS, connect, TLS, request, time-to-first-byte and response body timings of each HTTP call.
+     * Default = {@code null} (not recorded).
+     *
+     * @see HttpPhaseMetrics
+     */
+    @Setter
+    private HttpTimingsRecorder httpTimingsRecorder;
+
+    /**
+     * Commit a {@code com.linecorp.bot.client.HttpCall} JDK Flight Recorder event with the phase timings of
+     * each HTTP call. Ignored if the runtime doesn't support JDK Flight Recorder.
+     * Default = {@code false}.
+     */
+    @Setter
+    private boolean jfrEvents;
+
     /**
      * Set fixed channel token. This overwrites {@link #channelTokenSupplier(ChannelTokenSupplier)}.
      *
@@ -139,6 +241,72 @@ public class LineMessagingClientBuilder {
         return this;
     }
 
+    /**
+     * Gauges bound to the dispatcher and the connection pool of the built client.
+     * Default = {@code null} (not bound).
+     *
+     * <p>Gauges belong to a single builder. If the builder builds more than one client, the gauges show the
+     * one built last.
+     *
+     * @throws IllegalStateException if the gauges are already given to another builder.
+     */
+    public LineMessagingClientBuilder httpClientGauges(final HttpClientGauges httpClientGauges) {
+        if (httpClientGauges != null) {
+            httpClientGauges.claim(this);
+        }
+        this.httpClientGauges = httpClientGauges;
+        return this;
+    }
+
+    /**
+     * Max number of requests running at once. Further requests wait in the queue of OkHttp's dispatcher.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS}, or the limit of the dispatcher of
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} if given.
+     */
+    public LineMessagingClientBuilder maxRequests(final int maxRequests) {
+        this.maxRequests = maxRequests;
+        dispatcherLimitsSet = true;
+        return this;
+    }
+
+    /**
+     * Max number of requests running at once per host. As almost all requests go to a single host,
+     * this usually bounds throughput of asynchronous calls.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}, or the limit of the
+     * dispatcher of {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} if given.
+     */
+    public LineMessagingClientBuilder maxRequestsPerHost(final int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        dispatcherLimitsSet = true;
+        return this;
+    }
+
+    /**
+     * Max number of idle connections kept in the connection pool.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_MAX_IDLE_CONNECTIONS}, or the connection pool of
+     * {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} if given.
+     */
+    public LineMessagingClientBuilder maxIdleConnections(final int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        connectionPoolSet = true;
+        return this;
+    }
+
+    /**
+     * Duration to keep an idle connection in the connection pool.
+     *
+     * <p>Default value = {@value LineClientConstants#DEFAULT_KEEP_ALIVE_DURATION_MILLIS}ms, or the connection
+     * pool of {@link #okHttpClientBuilder(OkHttpClient.Builder, boolean)} if given.
+     */
+    public LineMessagingClientBuilder keepAliveDuration(final long keepAliveDuration) {
+        this.keepAliveDuration = keepAliveDuration;
+        connectionPoolSet = true;
+        return this;
+    }
+
     /**
      * Set customized OkHttpClient.Builder.
      *
@@ -147,6 +315,9 @@ public class LineMessagingClientBuilder {
      *
      * <p>To use this method, please add dependency to 'com.squareup.retrofit2:retrofit'.
      *
+     * <p>The dispatcher and the connection pool of the given builder are kept. Their limits are changed only
+     * by {@link #maxRequests(int)} and its siblings set explicitly, or raised for {@link #priorityLanes}.
+     *
      * @param addAuthenticationHeader If true, all default okhttp interceptors ignored.
      *         You should insert authentication headers yourself.
      */
@@ -163,7 +334,8 @@ public class LineMessagingClientBuilder {
      * Creates a new {@link LineMessagingService}.
      */
     LineMessagingService buildRetrofitIface() {
-        if (okHttpClientBuilder == null) {
+        final boolean customOkHttpClientBuilder = okHttpClientBuilder != null;
+        if (!customOkHttpClientBuilder) {
             okHttpClientBuilder = new OkHttpClient.Builder();
         }
 
@@ -174,7 +346,7 @@ public class LineMessagingClientBuilder {
         if (additionalInterceptors != null) {
             additionalInterceptors.forEach(okHttpClientBuilder::addInterceptor);
         }
-        okHttpClientBuilder.addInterceptor(buildLoggingInterceptor());
+        okHttpClientBuilder.addInterceptor(buildLoggingInterceptor(wireLogging));
 
         // Set timeout.
         okHttpClientBuilder
@@ -182,49 +354,105 @@ public class LineMessagingClientBuilder {
                 .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
                 .writeTimeout(writeTimeout, TimeUnit.MILLISECONDS);
 
-        final OkHttpClient okHttpClient = okHttpClientBuilder.build();
+        // Set phase timing listener.
+        final List<HttpTimingsRecorder> timingsRecorders = new ArrayList<>();
+        if (httpTimingsRecorder != null) {
+            timingsRecorders.add(httpTimingsRecorder);
+        }
+        if (jfrEvents) {
+            final JfrHttpTimingsRecorder jfrRecorder = JfrHttpTimingsRecorder.createIfAvailable();
+            if (jfrRecorder != null) {
+                timingsRecorders.add(jfrRecorder);
+            }
+        }
+        if (!timingsRecorders.isEmpty()) {
+            okHttpClientBuilder.eventListenerFactory(new PhaseTimingEventListener.Factory(timingsRecorders));
+        }
+
+        // Set concurrency limits, tuning the dispatcher and the connection pool of a custom builder only when
+        // asked. OkHttpClient.Builder has no getter; a client built from it shares the dispatcher.
+        final Dispatcher dispatcher = customOkHttpClientBuilder ? okHttpClientBuilder.build().dispatcher()
+                                                                : new Dispatcher();
+        if (!customOkHttpClientBuilder || dispatcherLimitsSet) {
+            dispatcher.setMaxRequests(maxRequests);
+            dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        }
+        if (priorityLanes != null) {
+            // Lanes order requests only while they wait for a permit, so the dispatcher must never queue them.
+            final int maxConcurrentCalls = priorityLanes.maxConcurrentCalls();
+            dispatcher.setMaxRequests(Math.max(dispatcher.getMaxRequests(), maxConcurrentCalls));
+            dispatcher.setMaxRequestsPerHost(Math.max(dispatcher.getMaxRequestsPerHost(), maxConcurrentCalls));
+        }
+        okHttpClientBuilder.dispatcher(dispatcher);
+        if (!customOkHttpClientBuilder || connectionPoolSet) {
+            okHttpClientBuilder.connectionPool(new ConnectionPool(maxIdleConnections, keepAliveDuration,
+                                                                  TimeUnit.MILLISECONDS));
+        }
+
+        final Call.Factory callFactory = httpTransport.newCallFactory(okHttpClientBuilder);
+        if (httpClientGauges != null) {
+            httpClientGauges.bind(callFactory instanceof OkHttpClient ? (OkHttpClient) callFactory : null);
+        }
 
         if (retrofitBuilder == null) {
             retrofitBuilder = createDefaultRetrofitBuilder();
         }
-        retrofitBuilder.client(okHttpClient);
+        retrofitBuilder.callFactory(callFactory);
         retrofitBuilder.baseUrl(apiEndPoint);
+        buildCallAdapterFactories().forEach(retrofitBuilder::addCallAdapterFactory);
 
         final Retrofit retrofit = retrofitBuilder.build();
 
         return retrofit.create(LineMessagingService.class);
     }
 
+    /**
+     * Creates {@link CallAdapter.Factory CallAdapter.Factories} wrapping calls. The first one is the outermost.
+     */
+    List<CallAdapter.Factory> buildCallAdapterFactories() {
+        final List<CallAdapter.Factory> factories = new ArrayList<>();
+        if (coalesceRequests) {
+            factories.add(new CoalescingCallAdapterFactory());
+        }
+        if (clientMetrics != null) {
+            factories.add(new MetricsCallAdapterFactory(clientMetrics));
+        }
+        if (retryPolicy != null) {
+            factories.add(new RetryingCallAdapterFactory(retryPolicy));
+        }
+        if (circuitBreaker != null) {
+            factories.add(new CircuitBreakerCallAdapterFactory(circuitBreaker));
+        }
+        if (bulkhead != null) {
+            factories.add(new BulkheadCallAdapterFactory(bulkhead));
+        }
+        if (rateLimiter != null) {
+            factories.add(new RateLimitingCallAdapterFactory(rateLimiter));
+        }
+        if (priorityLanes != null) {
+            factories.add(new PriorityCallAdapterFactory(priorityLanes));
+        }
+        return factories;
+    }
+
     static HeaderInterceptor buildAuthenticationInterceptor(ChannelTokenSupplier channelTokenSupplier) {
         Objects.requireNonNull(channelTokenSupplier, "channelTokenSupplier");
         return HeaderInterceptor.forChannelTokenSupplier(channelTokenSupplier);
     }
 
-    static Interceptor buildLoggingInterceptor() {
-        final Logger slf4jLogger = LoggerFactory.getLogger("com.linecorp.bot.client.wire");
-
-        return new HttpLoggingInterceptor(slf4jLogger::info)
-                .setLevel(Level.BODY);
+    static Interceptor buildLoggingInterceptor(final WireLogging wireLogging) {
+        return new WireLoggingInterceptor(wireLogging);
     }
 
-    // TODO: Split this method.
     static Retrofit.Builder createDefaultRetrofitBuilder() {
-        final ObjectMapper objectMapper = new ObjectMapper()
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-                // Register ParameterNamesModule to read parameter name from lombok generated constructor.
-                .registerModule(new ParameterNamesModule())
-                // Register JSR-310(java.time.temporal.*) module and read number as millsec.
-                .registerModule(new JavaTimeModule())
-                .configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
-
         return new Retrofit.Builder()
-                .addConverterFactory(JacksonConverterFactory.create(objectMapper));
+                .addConverterFactory(ModelCodecConverterFactory.of());
     }
 
     /**
      * Creates a new {@link LineMessagingService}.
      */
     public LineMessagingClient build() {
-        return new LineMessagingClientImpl(buildRetrofitIface());
+        return new LineMessagingClientImpl(buildRetrofitIface(), retryPolicy != null ? UUID::randomUUID : null);
     }
 }
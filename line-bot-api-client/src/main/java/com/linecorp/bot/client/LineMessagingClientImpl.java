@@ -18,9 +18,14 @@ package com.linecorp.bot.client;
 
 import static java.util.Collections.emptyList;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.model.Broadcast;
@@ -67,6 +72,16 @@ public class LineMessagingClientImpl implements LineMessagingClient {
 
     private final LineMessagingService retrofitImpl;
 
+    /**
+     * Generates {@code X-Line-Retry-Key} for requests without explicit key.
+     * {@code null} to send such requests without the header.
+     */
+    private final Supplier<UUID> retryKeyGenerator;
+
+    public LineMessagingClientImpl(final LineMessagingService retrofitImpl) {
+        this(retrofitImpl, null);
+    }
+
     @Override
     public CompletableFuture<BotApiResponse> replyMessage(final ReplyMessage replyMessage) {
         return toFuture(retrofitImpl.replyMessage(replyMessage));
@@ -74,17 +89,32 @@ public class LineMessagingClientImpl implements LineMessagingClient {
 
     @Override
     public CompletableFuture<BotApiResponse> pushMessage(final PushMessage pushMessage) {
-        return toFuture(retrofitImpl.pushMessage(pushMessage));
+        return pushMessage(generateRetryKey(), pushMessage);
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> pushMessage(final UUID retryKey, final PushMessage pushMessage) {
+        return toFuture(retrofitImpl.pushMessage(retryKey, pushMessage));
     }
 
     @Override
     public CompletableFuture<BotApiResponse> multicast(final Multicast multicast) {
-        return toFuture(retrofitImpl.multicast(multicast));
+        return multicast(generateRetryKey(), multicast);
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> multicast(final UUID retryKey, final Multicast multicast) {
+        return toFuture(retrofitImpl.multicast(retryKey, multicast));
     }
 
     @Override
     public CompletableFuture<BotApiResponse> broadcast(Broadcast broadcast) {
-        return toFuture(retrofitImpl.broadcast(broadcast));
+        return broadcast(generateRetryKey(), broadcast);
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> broadcast(final UUID retryKey, final Broadcast broadcast) {
+        return toFuture(retrofitImpl.broadcast(retryKey, broadcast));
     }
 
     @Override
@@ -219,6 +249,37 @@ public class LineMessagingClientImpl implements LineMessagingClient {
         return toBotApiFuture(retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
     }
 
+    @Override
+    public CompletableFuture<BotApiResponse> setRichMenuImage(
+            final String richMenuId, final String contentType, final Path content) {
+        final RequestBody requestBody;
+        try {
+            requestBody = StreamingRequestBody.of(MediaType.parse(contentType), content);
+        } catch (IOException e) {
+            final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new GeneralLineMessagingException(e.getMessage(), null, e));
+            return failed;
+        }
+        return toBotApiFuture(retrofitImpl.uploadRichMenuImage(richMenuId, requestBody));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> setRichMenuImage(
+            final String richMenuId, final String contentType, final InputStream content,
+            final long contentLength) {
+        final RequestBody requestBody =
+                StreamingRequestBody.of(MediaType.parse(contentType), content, contentLength);
+        return toBotApiFuture(retrofitImpl.uploadRichMenuImage(richMenuId, requestBody))
+                .whenComplete((response, t) -> {
+                    // Close also when the request failed before the body was written.
+                    try {
+                        content.close();
+                    } catch (IOException e) {
+                        log.debug("Failed to close rich menu image stream", e);
+                    }
+                });
+    }
+
     @Override
     public CompletableFuture<RichMenuListResponse> getRichMenuList() {
         return toFuture(retrofitImpl.getRichMenuList());
@@ -254,6 +315,10 @@ public class LineMessagingClientImpl implements LineMessagingClient {
         return toFuture(retrofitImpl.getNumberOfFollowers(date));
     }
 
+    private UUID generateRetryKey() {
+        return retryKeyGenerator == null ? null : retryKeyGenerator.get();
+    }
+
     // TODO: Extract this method.
     static <T> CompletableFuture<T> toFuture(Call<T> callToWrap) {
         final CallbackAdaptor<T> completableFuture = new CallbackAdaptor<>();
@@ -318,13 +383,10 @@ public class LineMessagingClientImpl implements LineMessagingClient {
         }
 
         private MessageContentResponse convert(final Response<ResponseBody> response) {
-            return MessageContentResponse
-                    .builder()
-                    .length(response.body().contentLength())
-                    .allHeaders(response.headers().toMultimap())
-                    .mimeType(response.body().contentType().toString())
-                    .stream(response.body().byteStream())
-                    .build();
+            return new MessageContentResponse(response.body().contentLength(),
+                                              response.body().byteStream(),
+                                              response.body().contentType().toString(),
+                                              response.headers());
         }
     }
 }
@@ -17,6 +17,7 @@
 package com.linecorp.bot.client;
 
 import java.util.List;
+import java.util.UUID;
 
 import com.linecorp.bot.model.Broadcast;
 import com.linecorp.bot.model.Multicast;
@@ -44,6 +45,7 @@ import retrofit2.Call;
 import retrofit2.http.Body;
 import retrofit2.http.DELETE;
 import retrofit2.http.GET;
+import retrofit2.http.Header;
 import retrofit2.http.POST;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
@@ -54,6 +56,8 @@ import retrofit2.http.Streaming;
  * It's implementation free.
  */
 interface LineMessagingService {
+    String RETRY_KEY_HEADER = "X-Line-Retry-Key";
+
     /**
      * Method for Retrofit.
      *
@@ -65,24 +69,31 @@ interface LineMessagingService {
     /**
      * Method for Retrofit.
      *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. The header is omitted if {@code null}.
      * @see LineMessagingClient#pushMessage(PushMessage)
      */
     @POST("v2/bot/message/push")
-    Call<BotApiResponse> pushMessage(@Body PushMessage pushMessage);
+    Call<BotApiResponse> pushMessage(@Header(RETRY_KEY_HEADER) UUID retryKey,
+                                     @Body PushMessage pushMessage);
 
     /**
      * Method for Retrofit.
      *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. The header is omitted if {@code null}.
      * @see LineMessagingClient#multicast(Multicast)
      */
     @POST("v2/bot/message/multicast")
-    Call<BotApiResponse> multicast(@Body Multicast multicast);
+    Call<BotApiResponse> multicast(@Header(RETRY_KEY_HEADER) UUID retryKey,
+                                   @Body Multicast multicast);
 
     /**
      * Sends push messages to multiple users at any time.
+     *
+     * @param retryKey value of {@code X-Line-Retry-Key} header. The header is omitted if {@code null}.
      */
     @POST("v2/bot/message/broadcast")
-    Call<BotApiResponse> broadcast(@Body Broadcast broadcast);
+    Call<BotApiResponse> broadcast(@Header(RETRY_KEY_HEADER) UUID retryKey,
+                                   @Body Broadcast broadcast);
 
     /**
      * Method for Retrofit.
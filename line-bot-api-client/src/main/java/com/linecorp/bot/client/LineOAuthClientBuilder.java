@@ -20,14 +20,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
-
 import lombok.NonNull;
 import lombok.Setter;
 import lombok.ToString;
@@ -35,10 +27,7 @@ import lombok.experimental.Accessors;
 import lombok.experimental.PackagePrivate;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
-import okhttp3.logging.HttpLoggingInterceptor.Level;
 import retrofit2.Retrofit;
-import retrofit2.converter.jackson.JacksonConverterFactory;
 
 @ToString
 @Accessors(fluent = true)
@@ -127,7 +116,7 @@ public class LineOAuthClientBuilder {
         if (additionalInterceptors != null) {
             additionalInterceptors.forEach(okHttpClientBuilder::addInterceptor);
         }
-        okHttpClientBuilder.addInterceptor(buildLoggingInterceptor());
+        okHttpClientBuilder.addInterceptor(new WireLoggingInterceptor(WireLogging.builder().build()));
 
         // Set timeout.
         okHttpClientBuilder
@@ -148,24 +137,9 @@ public class LineOAuthClientBuilder {
         return retrofit.create(LineOAuthService.class);
     }
 
-    private static Interceptor buildLoggingInterceptor() {
-        final Logger slf4jLogger = LoggerFactory.getLogger("com.linecorp.bot.client.wire");
-
-        return new HttpLoggingInterceptor(slf4jLogger::info)
-                .setLevel(Level.BODY);
-    }
-
     private static Retrofit.Builder createDefaultRetrofitBuilder() {
-        final ObjectMapper objectMapper = new ObjectMapper()
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
-                // Register ParameterNamesModule to read parameter name from lombok generated constructor.
-                .registerModule(new ParameterNamesModule())
-                // Register JSR-310(java.time.temporal.*) module and read number as millsec.
-                .registerModule(new JavaTimeModule())
-                .configure(DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS, false);
-
         return new Retrofit.Builder()
-                .addConverterFactory(JacksonConverterFactory.create(objectMapper));
+                .addConverterFactory(ModelCodecConverterFactory.of());
     }
 
     /**
@@ -19,12 +19,12 @@ package com.linecorp.bot.client;
 import java.io.IOException;
 import java.util.concurrent.CompletableFuture;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import com.linecorp.bot.model.oauth.ChannelAccessTokenException;
 import com.linecorp.bot.model.oauth.IssueChannelAccessTokenRequest;
 import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
-import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
 
 import lombok.AllArgsConstructor;
 import retrofit2.Call;
@@ -36,7 +36,7 @@ import retrofit2.Response;
  */
 @AllArgsConstructor
 class LineOAuthClientImpl implements LineOAuthClient {
-    private static final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+    private static final ObjectReader ERROR_READER = ModelCodec.readerFor(ChannelAccessTokenException.class);
 
     private final LineOAuthService service;
 
@@ -68,8 +68,8 @@ class LineOAuthClientImpl implements LineOAuthClient {
             }
             if (response.code() == 400) {
                 try {
-                    completeExceptionally(objectMapper.readValue(response.errorBody().string(),
-                                                                 ChannelAccessTokenException.class));
+                    completeExceptionally(ERROR_READER.<ChannelAccessTokenException>readValue(
+                            response.errorBody().string()));
                     return;
                 } catch (IOException e) {
                     completeExceptionally(e);
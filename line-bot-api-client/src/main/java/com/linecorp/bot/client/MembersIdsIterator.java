@@ -0,0 +1,130 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.linecorp.bot.model.profile.MembersIdsResponse;
+
+import lombok.NonNull;
+
+/**
+ * Lazily iterates over member IDs of a group or a room page by page.
+ *
+ * <p>The next page is requested as soon as the current page arrives, so that the next page is usually ready
+ * when the caller finishes the current one. At most two pages are held in memory. {@link #close()} stops
+ * fetching further pages.
+ *
+ * <p>{@link #hasNext()} blocks until the page is received. When a request fails, it throws
+ * {@link java.util.concurrent.CompletionException} whose cause is the failure of
+ * {@link LineMessagingClient}.
+ *
+ * <pre>{@code
+ * try (Stream<String> memberIds = client.streamGroupMembersIds(groupId)) {
+ *     memberIds.forEach(this::sync);
+ * }
+ * }</pre>
+ *
+ * @see LineMessagingClient#streamGroupMembersIds(String)
+ * @see LineMessagingClient#streamRoomMembersIds(String)
+ */
+public final class MembersIdsIterator implements Iterator<String>, Closeable {
+    private final Function<String, CompletableFuture<MembersIdsResponse>> pageFetcher;
+
+    private Iterator<String> current = Collections.emptyIterator();
+    // null when there's no more page.
+    private CompletableFuture<MembersIdsResponse> nextPage;
+    private volatile boolean closed;
+
+    private MembersIdsIterator(final Function<String, CompletableFuture<MembersIdsResponse>> pageFetcher) {
+        this.pageFetcher = pageFetcher;
+        nextPage = fetch(null);
+    }
+
+    /**
+     * Creates an iterator over member IDs of the given group. The first page is requested immediately.
+     */
+    public static MembersIdsIterator ofGroup(@NonNull final LineMessagingClient client,
+                                             @NonNull final String groupId) {
+        return new MembersIdsIterator(start -> client.getGroupMembersIds(groupId, start));
+    }
+
+    /**
+     * Creates an iterator over member IDs of the given room. The first page is requested immediately.
+     */
+    public static MembersIdsIterator ofRoom(@NonNull final LineMessagingClient client,
+                                            @NonNull final String roomId) {
+        return new MembersIdsIterator(start -> client.getRoomMembersIds(roomId, start));
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (nextPage == null || closed) {
+                return false;
+            }
+            final MembersIdsResponse page = nextPage.join();
+            current = page.getMemberIds().iterator();
+            nextPage = page.getNext().map(this::fetch).orElse(null);
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    /**
+     * Returns a sequential {@link Stream} backed by this iterator. Closing the stream closes this iterator.
+     */
+    public Stream<String> stream() {
+        return StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+                false).onClose(this::close);
+    }
+
+    /**
+     * Stops fetching further pages. Member IDs of the page already received are still available.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        if (nextPage != null) {
+            nextPage.cancel(false);
+        }
+    }
+
+    private CompletableFuture<MembersIdsResponse> fetch(final String start) {
+        if (closed) {
+            return null;
+        }
+        return pageFetcher.apply(start);
+    }
+}
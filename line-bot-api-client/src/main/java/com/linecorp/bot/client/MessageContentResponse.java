@@ -18,15 +18,24 @@ package com.linecorp.bot.client;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.Map;
 
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.ToString;
+import okhttp3.Headers;
 
 @Getter
-@Builder
 @ToString
 public class MessageContentResponse implements AutoCloseable {
     /** File size of this content. */
@@ -44,7 +53,123 @@ public class MessageContentResponse implements AutoCloseable {
      * <p>Note: there are no SPEC for those headers.
      * Current field values are provided AS-IS and can be changed/removed without announces.
      */
-    final Map<String, List<String>> allHeaders;
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private volatile Map<String, List<String>> allHeaders;
+
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    private final Headers headers;
+
+    @Builder
+    MessageContentResponse(final long length, final InputStream stream, final String mimeType,
+                           final Map<String, List<String>> allHeaders) {
+        this.length = length;
+        this.stream = stream;
+        this.mimeType = mimeType;
+        this.allHeaders = allHeaders;
+        headers = null;
+    }
+
+    /**
+     * Creates a response which converts HTTP headers to {@link #getAllHeaders()} on demand.
+     */
+    MessageContentResponse(final long length, final InputStream stream, final String mimeType,
+                           final Headers headers) {
+        this.length = length;
+        this.stream = stream;
+        this.mimeType = mimeType;
+        this.headers = headers;
+    }
+
+    /**
+     * All HTTP headers of API response.
+     *
+     * <p>Note: there are no SPEC for those headers.
+     * Current field values are provided AS-IS and can be changed/removed without announces.
+     */
+    @ToString.Include(name = "allHeaders")
+    public Map<String, List<String>> getAllHeaders() {
+        Map<String, List<String>> allHeaders = this.allHeaders;
+        if (allHeaders == null && headers != null) {
+            synchronized (this) {
+                allHeaders = this.allHeaders;
+                if (allHeaders == null) {
+                    allHeaders = headers.toMultimap();
+                    this.allHeaders = allHeaders;
+                }
+            }
+        }
+        return allHeaders;
+    }
+
+    /**
+     * Writes this content to the given file and closes this response. The file is created or truncated, and
+     * is deleted if the transfer fails.
+     *
+     * @throws ContentTooLargeException if the content exceeds {@link ContentTransferOptions#getMaxSize()}.
+     */
+    public ContentTransferResult transferTo(final Path path, final ContentTransferOptions options)
+            throws IOException {
+        boolean succeeded = false;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING,
+                                                    StandardOpenOption.WRITE)) {
+            final ContentTransferResult result = transferTo(channel, options);
+            succeeded = true;
+            return result;
+        } finally {
+            if (!succeeded) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Writes this content to the given channel through a fixed size buffer and closes this response.
+     * The channel is left open.
+     *
+     * @throws ContentTooLargeException if the content exceeds {@link ContentTransferOptions#getMaxSize()}.
+     */
+    public ContentTransferResult transferTo(final WritableByteChannel channel,
+                                            final ContentTransferOptions options) throws IOException {
+        try (InputStream in = stream) {
+            if (length > options.getMaxSize()) {
+                throw new ContentTooLargeException(options.getMaxSize());
+            }
+
+            final MessageDigest digest = newDigest(options.getDigestAlgorithm());
+            final byte[] array = new byte[options.getBufferSize()];
+            final ByteBuffer buffer = ByteBuffer.wrap(array);
+            long transferred = 0;
+            int read;
+            while ((read = in.read(array)) != -1) {
+                transferred += read;
+                if (transferred > options.getMaxSize()) {
+                    throw new ContentTooLargeException(options.getMaxSize());
+                }
+                if (digest != null) {
+                    digest.update(array, 0, read);
+                }
+                buffer.clear().limit(read);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+            return new ContentTransferResult(transferred, digest != null ? digest.digest() : null, mimeType);
+        }
+    }
+
+    private static MessageDigest newDigest(final String algorithm) throws IOException {
+        if (algorithm == null) {
+            return null;
+        }
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
 
     @Override
     public void close() throws IOException {
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+import lombok.AllArgsConstructor;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Records calls of {@link LineMessagingService} to {@link ClientMetrics}.
+ *
+ * <p>The {@link EndpointMetrics} is resolved once per service method instead of once per call.
+ */
+@AllArgsConstructor
+class MetricsCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private final ClientMetrics metrics;
+
+    @Override
+    UnaryOperator<Call<Object>> decoratorOf(final EndpointGroup group, final Annotation[] annotations) {
+        final EndpointMetrics endpoint = metrics.endpointMetricsOf(annotations);
+        return call -> new MeasuredCall<>(call, endpoint);
+    }
+
+    private final class MeasuredCall<T> extends ForwardingCall<T> {
+        private final EndpointMetrics endpoint;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private long startNanos;
+
+        MeasuredCall(final Call<T> delegate, final EndpointMetrics endpoint) {
+            super(delegate);
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            start();
+            final Response<T> response;
+            try {
+                response = delegate.execute();
+            } catch (IOException | RuntimeException e) {
+                complete(ClientMetrics.outcomeOf(e));
+                throw e;
+            }
+            complete(ClientMetrics.outcomeOf(response));
+            return response;
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Callback<T> forwarding = forwardTo(callback);
+            start();
+            try {
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(final Call<T> call, final Response<T> response) {
+                        complete(ClientMetrics.outcomeOf(response));
+                        forwarding.onResponse(call, response);
+                    }
+
+                    @Override
+                    public void onFailure(final Call<T> call, final Throwable t) {
+                        complete(ClientMetrics.outcomeOf(t));
+                        forwarding.onFailure(call, t);
+                    }
+                });
+            } catch (RuntimeException e) {
+                complete(ClientMetrics.outcomeOf(e));
+                throw e;
+            }
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new MeasuredCall<>(delegate.clone(), endpoint);
+        }
+
+        private void start() {
+            startNanos = System.nanoTime();
+            endpoint.onStart();
+        }
+
+        private void complete(final String outcome) {
+            // Guards against callbacks invoked more than once, which would make in-flight negative.
+            if (completed.compareAndSet(false, true)) {
+                metrics.onComplete(endpoint, outcome, System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
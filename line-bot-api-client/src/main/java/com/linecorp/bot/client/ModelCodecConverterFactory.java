@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * {@link Converter.Factory} which converts bodies with the shared readers and writers of {@link ModelCodec}.
+ */
+final class ModelCodecConverterFactory extends Converter.Factory {
+    private static final MediaType MEDIA_TYPE = MediaType.get("application/json; charset=UTF-8");
+    private static final ModelCodecConverterFactory INSTANCE = new ModelCodecConverterFactory();
+
+    private ModelCodecConverterFactory() {
+    }
+
+    static ModelCodecConverterFactory of() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(final Type type, final Annotation[] annotations,
+                                                            final Retrofit retrofit) {
+        final ObjectReader reader = ModelCodec.readerFor(type);
+        return body -> {
+            try {
+                return reader.readValue(body.charStream());
+            } finally {
+                body.close();
+            }
+        };
+    }
+
+    @Override
+    public Converter<?, RequestBody> requestBodyConverter(final Type type,
+                                                          final Annotation[] parameterAnnotations,
+                                                          final Annotation[] methodAnnotations,
+                                                          final Retrofit retrofit) {
+        final ObjectWriter writer = ModelCodec.writerFor(type);
+        return value -> RequestBody.create(MEDIA_TYPE, writer.writeValueAsBytes(value));
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.unmodifiableList;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import com.linecorp.bot.client.MulticastFanoutResult.ChunkResult;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Sends a {@link Multicast} to an arbitrary number of recipients.
+ *
+ * <p>Recipients are pulled lazily from the given source, split into chunks of {@link #chunkSize} and
+ * sent through {@link LineMessagingClient#multicast(Multicast)} with at most {@link #maxInFlight}
+ * requests in flight at the same time.
+ *
+ * <pre>{@code
+ * MulticastFanout fanout = MulticastFanout.builder()
+ *                                         .client(lineMessagingClient)
+ *                                         .maxInFlight(8)
+ *                                         .build();
+ * fanout.send(userIds, messages)
+ *       .thenAccept(result -> log.info("Failed chunks: {}", result.getFailedChunks()));
+ * }</pre>
+ */
+@Builder
+@ToString
+public final class MulticastFanout {
+    /**
+     * Max number of recipients of a single multicast request.
+     */
+    public static final int MAX_RECIPIENTS = 150;
+
+    /**
+     * Default number of concurrent multicast requests. Same as the default per host limit of OkHttp's
+     * dispatcher, so chunks are not queued in the dispatcher.
+     */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 5;
+
+    @NonNull
+    private final LineMessagingClient client;
+
+    /**
+     * Number of recipients per request.
+     *
+     * <p>Default value = {@value #MAX_RECIPIENTS}.
+     */
+    @Builder.Default
+    private final int chunkSize = MAX_RECIPIENTS;
+
+    /**
+     * Max number of multicast requests in flight.
+     *
+     * <p>Default value = {@value #DEFAULT_MAX_IN_FLIGHT}.
+     */
+    @Builder.Default
+    private final int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+
+    /**
+     * Sends messages to all recipients in the given {@link Iterable}.
+     */
+    public CompletableFuture<MulticastFanoutResult> send(
+            final Iterable<String> to, final List<Message> messages) {
+        return send(to.iterator(), messages);
+    }
+
+    /**
+     * Sends messages to all recipients in the given {@link Stream}. The stream is consumed lazily.
+     */
+    public CompletableFuture<MulticastFanoutResult> send(
+            final Stream<String> to, final List<Message> messages) {
+        final CompletableFuture<MulticastFanoutResult> future = send(to.iterator(), messages);
+        future.whenComplete((ignored, t) -> to.close());
+        return future;
+    }
+
+    /**
+     * Sends messages to all recipients returned by the given {@link Iterator}.
+     *
+     * <p>The returned future is completed after all chunks are sent. Failure of individual chunks
+     * doesn't fail the future; these are reported as {@link MulticastFanoutResult#getFailedChunks()}.
+     * When the given iterator throws an exception, no more recipients are taken, the recipients taken so
+     * far are still sent and the exception is reported as {@link MulticastFanoutResult#getIterationFailure()}.
+     */
+    public CompletableFuture<MulticastFanoutResult> send(
+            @NonNull final Iterator<String> to, @NonNull final List<Message> messages) {
+        if (chunkSize < 1 || chunkSize > MAX_RECIPIENTS) {
+            throw new IllegalArgumentException("chunkSize must be between 1 and " + MAX_RECIPIENTS);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+
+        final Fanout fanout = new Fanout(to, messages);
+        fanout.drain();
+        return fanout.future;
+    }
+
+    private final class Fanout {
+        private final CompletableFuture<MulticastFanoutResult> future = new CompletableFuture<>();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final Iterator<String> to;
+        private final List<Message> messages;
+
+        // Guarded by this.
+        private final List<ChunkResult> results = new ArrayList<>();
+        private int inFlight;
+        private int nextIndex;
+        private boolean exhausted;
+        private Throwable iterationFailure;
+
+        Fanout(final Iterator<String> to, final List<Message> messages) {
+            this.to = to;
+            this.messages = messages;
+        }
+
+        /**
+         * Sends chunks until {@link #maxInFlight} is reached. Reentrant calls from a synchronously completed
+         * future are folded into the outer loop to keep the stack flat.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                Chunk chunk;
+                while ((chunk = nextChunk()) != null) {
+                    send(chunk);
+                }
+                completeIfDone();
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private synchronized Chunk nextChunk() {
+            if (exhausted || inFlight >= maxInFlight) {
+                return null;
+            }
+
+            final Set<String> chunk = new LinkedHashSet<>();
+            try {
+                while (chunk.size() < chunkSize && to.hasNext()) {
+                    chunk.add(to.next());
+                }
+                exhausted = !to.hasNext();
+            } catch (RuntimeException e) {
+                // Sends the recipients taken so far, so that the result tells who was messaged.
+                iterationFailure = e;
+                exhausted = true;
+            }
+
+            if (chunk.isEmpty()) {
+                return null;
+            }
+            inFlight++;
+            return new Chunk(nextIndex++, chunk);
+        }
+
+        private void send(final Chunk chunk) {
+            final List<String> recipients = unmodifiableList(new ArrayList<>(chunk.to));
+            final CompletableFuture<BotApiResponse> response;
+            try {
+                response = client.multicast(new Multicast(chunk.to, messages));
+            } catch (RuntimeException e) {
+                onChunkComplete(new ChunkResult(chunk.index, recipients, null, e));
+                return;
+            }
+            response.whenComplete((botApiResponse, t) -> onChunkComplete(
+                    new ChunkResult(chunk.index, recipients, botApiResponse, t)));
+        }
+
+        private void onChunkComplete(final ChunkResult result) {
+            synchronized (this) {
+                results.add(result);
+                inFlight--;
+            }
+            drain();
+        }
+
+        private void completeIfDone() {
+            final List<ChunkResult> sorted;
+            final Throwable failure;
+            synchronized (this) {
+                if (!exhausted || inFlight > 0 || future.isDone()) {
+                    return;
+                }
+                sorted = new ArrayList<>(results);
+                failure = iterationFailure;
+            }
+
+            sorted.sort(Comparator.comparingInt(ChunkResult::getIndex));
+            future.complete(new MulticastFanoutResult(unmodifiableList(sorted), failure));
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Chunk {
+        final int index;
+        final Set<String> to;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.List;
+
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.Value;
+
+/**
+ * Aggregated result of {@link MulticastFanout}.
+ */
+@Value
+public class MulticastFanoutResult {
+    /**
+     * Results of all chunks in the order they were taken from the recipient source.
+     */
+    private final List<ChunkResult> chunks;
+
+    /**
+     * Exception thrown by the recipient source, which stopped the fanout before all recipients were taken.
+     * {@code null} if all recipients were taken.
+     */
+    private final Throwable iterationFailure;
+
+    /**
+     * Returns {@code true} if all recipients were taken and all chunks were sent successfully.
+     */
+    public boolean isAllSucceeded() {
+        return iterationFailure == null && chunks.stream().allMatch(ChunkResult::isSucceeded);
+    }
+
+    /**
+     * Returns chunks which couldn't be sent. Recipients of these chunks can be retried.
+     */
+    public List<ChunkResult> getFailedChunks() {
+        return chunks.stream()
+                     .filter(chunk -> !chunk.isSucceeded())
+                     .collect(toList());
+    }
+
+    /**
+     * Returns number of recipients sent successfully.
+     */
+    public int getSucceededRecipientCount() {
+        return chunks.stream()
+                     .filter(ChunkResult::isSucceeded)
+                     .mapToInt(chunk -> chunk.getTo().size())
+                     .sum();
+    }
+
+    /**
+     * Result of a single multicast request.
+     */
+    @Value
+    public static class ChunkResult {
+        /**
+         * 0-origin sequence number of this chunk.
+         */
+        private final int index;
+
+        /**
+         * Recipients of this chunk.
+         */
+        private final List<String> to;
+
+        /**
+         * Response of the API. {@code null} if the request failed.
+         */
+        private final BotApiResponse response;
+
+        /**
+         * Cause of the failure. {@code null} if the request succeeded.
+         */
+        private final Throwable cause;
+
+        public boolean isSucceeded() {
+            return cause == null;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.ToString;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+
+/**
+ * Default {@link HttpTransport} which uses {@link OkHttpClient} with OkHttp's default settings.
+ *
+ * <p>OkHttp opens a connection per concurrent request up to
+ * {@link okhttp3.Dispatcher#getMaxRequestsPerHost()}, and uses HTTP/2 only when the server and the JDK support
+ * ALPN.
+ */
+@ToString
+public final class OkHttpTransport implements HttpTransport {
+    private static final OkHttpTransport INSTANCE = new OkHttpTransport();
+
+    private OkHttpTransport() {
+    }
+
+    /**
+     * Returns the {@link OkHttpTransport}.
+     */
+    public static OkHttpTransport of() {
+        return INSTANCE;
+    }
+
+    @Override
+    public Call.Factory newCallFactory(final OkHttpClient.Builder okHttpClientBuilder) {
+        return okHttpClientBuilder.build();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import retrofit2.Invocation;
+
+/**
+ * {@link EventListener} which measures {@link HttpPhase HttpPhases} of a call and reports them to
+ * {@link HttpTimingsRecorder HttpTimingsRecorders} when the call ends.
+ *
+ * <p>A phase which happens more than once in a call, e.g. {@link HttpPhase#CONNECT} to multiple routes,
+ * is reported as the sum of its durations.
+ */
+@Slf4j
+final class PhaseTimingEventListener extends EventListener {
+    private final String endpoint;
+    private final List<HttpTimingsRecorder> recorders;
+
+    // Events of a call are delivered sequentially.
+    private final long[] nanos = new long[HttpPhase.values().length];
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long requestStart;
+    private long requestEnd;
+    private long responseBodyStart;
+    private boolean connecting;
+    private boolean connectionReused;
+
+    private PhaseTimingEventListener(final String endpoint, final List<HttpTimingsRecorder> recorders) {
+        this.endpoint = endpoint;
+        this.recorders = recorders;
+        Arrays.fill(nanos, -1);
+    }
+
+    @Override
+    public void callStart(final Call call) {
+        callStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsStart(final Call call, final String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(final Call call, final String domainName, final List<InetAddress> inetAddressList) {
+        add(HttpPhase.DNS, dnsStart);
+    }
+
+    @Override
+    public void connectStart(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy) {
+        connectStart = System.nanoTime();
+        connecting = true;
+    }
+
+    @Override
+    public void secureConnectStart(final Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(final Call call, final Handshake handshake) {
+        add(HttpPhase.TLS, secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy,
+                           final Protocol protocol) {
+        add(HttpPhase.CONNECT, connectStart);
+    }
+
+    @Override
+    public void connectFailed(final Call call, final InetSocketAddress inetSocketAddress, final Proxy proxy,
+                              final Protocol protocol, final IOException ioe) {
+        add(HttpPhase.CONNECT, connectStart);
+    }
+
+    @Override
+    public void connectionAcquired(final Call call, final Connection connection) {
+        add(HttpPhase.CONNECTION_ACQUIRE, callStart);
+        connectionReused = !connecting;
+        connecting = false;
+    }
+
+    @Override
+    public void requestHeadersStart(final Call call) {
+        requestStart = System.nanoTime();
+    }
+
+    @Override
+    public void requestHeadersEnd(final Call call, final Request request) {
+        requestEnd = System.nanoTime();
+        if (request.body() == null) {
+            add(HttpPhase.REQUEST_WRITE, requestStart, requestEnd);
+        }
+    }
+
+    @Override
+    public void requestBodyEnd(final Call call, final long byteCount) {
+        requestEnd = System.nanoTime();
+        add(HttpPhase.REQUEST_WRITE, requestStart, requestEnd);
+    }
+
+    @Override
+    public void responseHeadersStart(final Call call) {
+        add(HttpPhase.TIME_TO_FIRST_BYTE, requestEnd);
+    }
+
+    @Override
+    public void responseBodyStart(final Call call) {
+        responseBodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(final Call call, final long byteCount) {
+        add(HttpPhase.RESPONSE_BODY, responseBodyStart);
+    }
+
+    @Override
+    public void callEnd(final Call call) {
+        end(false);
+    }
+
+    @Override
+    public void callFailed(final Call call, final IOException ioe) {
+        end(true);
+    }
+
+    private void add(final HttpPhase phase, final long start) {
+        add(phase, start, System.nanoTime());
+    }
+
+    private void add(final HttpPhase phase, final long start, final long end) {
+        final int i = phase.ordinal();
+        nanos[i] = Math.max(0, nanos[i]) + end - start;
+    }
+
+    private void end(final boolean failed) {
+        add(HttpPhase.TOTAL, callStart);
+        final HttpCallTimings timings =
+                new HttpCallTimings(endpoint, EndpointGroup.of(endpoint), connectionReused, failed, nanos);
+        for (HttpTimingsRecorder recorder : recorders) {
+            try {
+                recorder.record(timings);
+            } catch (RuntimeException e) {
+                log.warn("Failed to record {} to {}", timings, recorder, e);
+            }
+        }
+    }
+
+    /**
+     * Creates {@link PhaseTimingEventListener} for each call. The endpoint is resolved from the
+     * {@link Invocation} tag of the request set by Retrofit.
+     */
+    @RequiredArgsConstructor
+    static final class Factory implements EventListener.Factory {
+        private static final String UNKNOWN = "UNKNOWN";
+
+        private final List<HttpTimingsRecorder> recorders;
+        private final ConcurrentMap<Method, String> endpoints = new ConcurrentHashMap<>();
+
+        @Override
+        public EventListener create(final Call call) {
+            final Invocation invocation = call.request().tag(Invocation.class);
+            final String endpoint = invocation == null ? UNKNOWN
+                                                       : endpoints.computeIfAbsent(invocation.method(),
+                                                                                   Factory::endpointOf);
+            return new PhaseTimingEventListener(endpoint, recorders);
+        }
+
+        private static String endpointOf(final Method method) {
+            final String endpoint = ClientMetrics.endpointOf(method.getAnnotations());
+            return endpoint != null ? endpoint : UNKNOWN;
+        }
+    }
+}
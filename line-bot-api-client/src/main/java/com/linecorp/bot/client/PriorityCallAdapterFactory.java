@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import com.linecorp.bot.model.ReplyMessage;
+
+import lombok.AllArgsConstructor;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Invocation;
+import retrofit2.Response;
+
+/**
+ * Delays calls until {@link PriorityLanes} gives them a permit.
+ */
+@AllArgsConstructor
+class PriorityCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private final PriorityLanes priorityLanes;
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return new PriorityCall<>(call, group);
+    }
+
+    private final class PriorityCall<T> extends ForwardingCall<T> {
+        private final EndpointGroup group;
+        // Shared with clones, so that retries of a reply keep the deadline of its token.
+        private final ReplyDeadline replyDeadline;
+
+        PriorityCall(final Call<T> delegate, final EndpointGroup group) {
+            this(delegate, group, group == EndpointGroup.REPLY ? new ReplyDeadline() : null);
+        }
+
+        private PriorityCall(final Call<T> delegate, final EndpointGroup group,
+                             final ReplyDeadline replyDeadline) {
+            super(delegate);
+            this.group = group;
+            this.replyDeadline = replyDeadline;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            try {
+                acquire().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for priority lane");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException) {
+                    throw (IOException) e.getCause();
+                }
+                throw new IOException(e.getCause());
+            }
+            try {
+                return delegate.execute();
+            } finally {
+                priorityLanes.release(group);
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            final Callback<T> forwarding = forwardTo(callback);
+            acquire().whenComplete((ignored, t) -> {
+                if (t != null) {
+                    forwarding.onFailure(delegate, t);
+                    return;
+                }
+                try {
+                    delegate.enqueue(new Callback<T>() {
+                        @Override
+                        public void onResponse(final Call<T> call, final Response<T> response) {
+                            priorityLanes.release(group);
+                            forwarding.onResponse(call, response);
+                        }
+
+                        @Override
+                        public void onFailure(final Call<T> call, final Throwable t) {
+                            priorityLanes.release(group);
+                            forwarding.onFailure(call, t);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    priorityLanes.release(group);
+                    forwarding.onFailure(delegate, e);
+                }
+            });
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new PriorityCall<>(delegate.clone(), group, replyDeadline);
+        }
+
+        private CompletableFuture<Void> acquire() {
+            return priorityLanes.acquire(group, replyDeadline != null ? replyDeadline.resolve(delegate) : null);
+        }
+    }
+
+    /**
+     * Deadline of the token of a reply, resolved on the first attempt.
+     */
+    private final class ReplyDeadline {
+        private boolean resolved;
+        private Instant deadline;
+
+        synchronized Instant resolve(final Call<?> call) {
+            if (!resolved) {
+                final String replyToken = replyToken(call);
+                deadline = replyToken != null ? priorityLanes.replyDeadline(replyToken) : null;
+                resolved = true;
+            }
+            return deadline;
+        }
+
+        private String replyToken(final Call<?> call) {
+            final Invocation invocation = call.request().tag(Invocation.class);
+            if (invocation != null) {
+                for (Object argument : invocation.arguments()) {
+                    if (argument instanceof ReplyMessage) {
+                        return ((ReplyMessage) argument).getReplyToken();
+                    }
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Shares a fixed number of concurrent requests among lanes of different priorities, so that bulk traffic
+ * such as broadcasts and content downloads can't delay replies.
+ *
+ * <p>When a request finishes, its permit goes to a waiting request of the highest priority lane.
+ * {@link Lane#INTERACTIVE} requests may use all permits, but requests of the other lanes may not use
+ * the permits {@link Builder#reservedForInteractive(int) reserved} for it.
+ *
+ * <p>A reply token expires shortly after the event was received. A reply waiting for a permit fails with
+ * {@link CallNotPermittedException} as soon as its token has expired, instead of wasting a request. Tell
+ * the receive time of tokens by {@link #replyTokenReceived(String, Instant)}. Otherwise the deadline is
+ * counted from when the reply was called.
+ *
+ * <p>Lanes hold requests before OkHttp {@link okhttp3.Dispatcher}, and the dispatcher of the built client
+ * allows at least {@link Builder#maxConcurrentCalls(int)} requests per host.
+ *
+ * <pre>{@code
+ * PriorityLanes priorityLanes = PriorityLanes.builder()
+ *                                            .maxConcurrentCalls(8)
+ *                                            .reservedForInteractive(3)
+ *                                            .build();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .priorityLanes(priorityLanes)
+ *                                                 .build();
+ * }</pre>
+ *
+ * @see LineMessagingClientBuilder#priorityLanes(PriorityLanes)
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class PriorityLanes {
+    private static final int MAX_REPLY_TOKENS = 10_000;
+
+    /**
+     * Priority of requests. Declared from the highest.
+     */
+    public enum Lane {
+        /**
+         * Replies, whose tokens expire soon.
+         */
+        INTERACTIVE,
+        /**
+         * Requests which are neither interactive nor bulk, e.g. pushes and profiles.
+         */
+        STANDARD,
+        /**
+         * Requests which may be delayed, e.g. multicasts, broadcasts, contents and rich menus.
+         */
+        BULK
+    }
+
+    @ToString.Include
+    private final int maxConcurrentCalls;
+    @ToString.Include
+    private final int reservedForInteractive;
+    private final Duration replyTokenTimeout;
+    private final Map<EndpointGroup, Lane> lanes;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+    private final LongAdder expiredReplies = new LongAdder();
+
+    // Guarded by this.
+    private final Map<Lane, Queue<Waiter>> waiters = new EnumMap<>(Lane.class);
+    private final int[] activeCalls = new int[Lane.values().length];
+    private int totalActiveCalls;
+
+    // Guarded by itself.
+    private final Map<String, Instant> replyTokenDeadlines =
+            new LinkedHashMap<String, Instant>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(final Entry<String, Instant> eldest) {
+                    return size() > MAX_REPLY_TOKENS;
+                }
+            };
+
+    private PriorityLanes(final Builder builder) {
+        maxConcurrentCalls = builder.maxConcurrentCalls;
+        reservedForInteractive = builder.reservedForInteractive;
+        replyTokenTimeout = builder.replyTokenTimeout;
+        lanes = new EnumMap<>(builder.lanes);
+        clock = builder.clock;
+        scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+        for (Lane lane : Lane.values()) {
+            waiters.put(lane, new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Tells the time when the event carrying the given reply token was received, e.g.
+     * {@link com.linecorp.bot.model.event.Event#getTimestamp()}. A reply with the token fails without being
+     * sent after {@link Builder#replyTokenTimeout(Duration)} from it.
+     */
+    public void replyTokenReceived(@NonNull final String replyToken, @NonNull final Instant receivedAt) {
+        synchronized (replyTokenDeadlines) {
+            replyTokenDeadlines.put(replyToken, receivedAt.plus(replyTokenTimeout));
+        }
+    }
+
+    /**
+     * Returns the lane of requests of the given endpoint group.
+     */
+    public Lane laneOf(final EndpointGroup group) {
+        return lanes.get(group);
+    }
+
+    /**
+     * Returns the number of in-flight requests of the given lane.
+     */
+    public synchronized int activeCalls(final Lane lane) {
+        return activeCalls[lane.ordinal()];
+    }
+
+    /**
+     * Returns the number of requests of the given lane waiting for a permit.
+     */
+    public synchronized int queueDepth(final Lane lane) {
+        return waiters.get(lane).size();
+    }
+
+    /**
+     * Returns the number of replies dropped because their tokens had expired.
+     */
+    public long expiredReplies() {
+        return expiredReplies.sum();
+    }
+
+    int maxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    /**
+     * Returns the time when the given reply token expires, and forgets the token because it can be used
+     * only once. Call this once per reply, not per attempt.
+     */
+    Instant replyDeadline(final String replyToken) {
+        final Instant deadline;
+        synchronized (replyTokenDeadlines) {
+            deadline = replyTokenDeadlines.remove(replyToken);
+        }
+        return deadline != null ? deadline : clock.instant().plus(replyTokenTimeout);
+    }
+
+    /**
+     * Returns a future which is completed when a request of the given group may be sent. The caller must call
+     * {@link #release(EndpointGroup)} after the request has finished.
+     *
+     * @param deadline {@link #replyDeadline(String) deadline} of a reply request, or {@code null}.
+     */
+    CompletableFuture<Void> acquire(final EndpointGroup group, final Instant deadline) {
+        final Lane lane = lanes.get(group);
+        final Waiter waiter;
+        synchronized (this) {
+            if (deadline == null || clock.instant().isBefore(deadline)) {
+                if (waiters.get(lane).isEmpty() && hasRoom(lane)) {
+                    activeCalls[lane.ordinal()]++;
+                    totalActiveCalls++;
+                    return completedFuture(null);
+                }
+                waiter = new Waiter(group, deadline);
+                waiters.get(lane).add(waiter);
+            } else {
+                waiter = null;
+            }
+        }
+
+        if (waiter == null) {
+            final CompletableFuture<Void> expired = new CompletableFuture<>();
+            expire(group, expired);
+            return expired;
+        }
+        if (deadline != null) {
+            final long delay = Math.max(0, Duration.between(clock.instant(), deadline).toNanos());
+            waiter.expiry = scheduler.schedule(() -> expireIfWaiting(lane, waiter),
+                                               delay, TimeUnit.NANOSECONDS);
+            // The waiter may have been granted before the timer was set.
+            if (waiter.future.isDone()) {
+                waiter.cancelExpiry();
+            }
+        }
+        return waiter.future;
+    }
+
+    void release(final EndpointGroup group) {
+        final Lane released = lanes.get(group);
+        final List<Waiter> granted = new ArrayList<>();
+        final List<Waiter> expired = new ArrayList<>();
+        synchronized (this) {
+            activeCalls[released.ordinal()]--;
+            totalActiveCalls--;
+            final Instant now = clock.instant();
+            for (Lane lane : Lane.values()) {
+                final Queue<Waiter> queue = waiters.get(lane);
+                while (!queue.isEmpty() && hasRoom(lane)) {
+                    final Waiter waiter = queue.poll();
+                    if (waiter.deadline != null && !now.isBefore(waiter.deadline)) {
+                        expired.add(waiter);
+                        continue;
+                    }
+                    activeCalls[lane.ordinal()]++;
+                    totalActiveCalls++;
+                    granted.add(waiter);
+                }
+            }
+        }
+        // Complete outside of the lock because dependent actions run synchronously.
+        expired.forEach(waiter -> {
+            expire(waiter.group, waiter.future);
+            waiter.cancelExpiry();
+        });
+        granted.forEach(waiter -> {
+            waiter.future.complete(null);
+            waiter.cancelExpiry();
+        });
+    }
+
+    private boolean hasRoom(final Lane lane) {
+        if (totalActiveCalls >= maxConcurrentCalls) {
+            return false;
+        }
+        return lane == Lane.INTERACTIVE
+               || totalActiveCalls - activeCalls[Lane.INTERACTIVE.ordinal()]
+                  < maxConcurrentCalls - reservedForInteractive;
+    }
+
+    private void expireIfWaiting(final Lane lane, final Waiter waiter) {
+        final boolean removed;
+        synchronized (this) {
+            removed = waiters.get(lane).remove(waiter);
+        }
+        if (removed) {
+            expire(waiter.group, waiter.future);
+        }
+    }
+
+    private void expire(final EndpointGroup group, final CompletableFuture<Void> future) {
+        expiredReplies.increment();
+        future.completeExceptionally(new CallNotPermittedException(group, "Reply token has expired"));
+    }
+
+    private static final class Waiter {
+        final EndpointGroup group;
+        final Instant deadline;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        // Timer which expires the waiter at the deadline, cancelled when the waiter leaves the queue.
+        volatile ScheduledFuture<?> expiry;
+
+        Waiter(final EndpointGroup group, final Instant deadline) {
+            this.group = group;
+            this.deadline = deadline;
+        }
+
+        void cancelExpiry() {
+            final ScheduledFuture<?> expiry = this.expiry;
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Builder of {@link PriorityLanes}.
+     */
+    public static final class Builder {
+        private final Map<EndpointGroup, Lane> lanes = new EnumMap<>(EndpointGroup.class);
+        private int maxConcurrentCalls = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+        private int reservedForInteractive = 1;
+        private Duration replyTokenTimeout = Duration.ofMinutes(1);
+        private Clock clock = Clock.systemUTC();
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+            for (EndpointGroup group : EndpointGroup.values()) {
+                lanes.put(group, Lane.STANDARD);
+            }
+            lanes.put(EndpointGroup.REPLY, Lane.INTERACTIVE);
+            lanes.put(EndpointGroup.MULTICAST, Lane.BULK);
+            lanes.put(EndpointGroup.BROADCAST, Lane.BULK);
+            lanes.put(EndpointGroup.CONTENT, Lane.BULK);
+            lanes.put(EndpointGroup.RICH_MENU, Lane.BULK);
+        }
+
+        /**
+         * Max number of in-flight requests of all lanes.
+         * Default = {@value LineClientConstants#DEFAULT_MAX_REQUESTS_PER_HOST}.
+         */
+        public Builder maxConcurrentCalls(final int maxConcurrentCalls) {
+            if (maxConcurrentCalls <= 0) {
+                throw new IllegalArgumentException("maxConcurrentCalls must be positive");
+            }
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            return this;
+        }
+
+        /**
+         * Number of permits which only {@link Lane#INTERACTIVE} requests may use. Default = 1.
+         */
+        public Builder reservedForInteractive(final int reservedForInteractive) {
+            if (reservedForInteractive < 0) {
+                throw new IllegalArgumentException("reservedForInteractive must not be negative");
+            }
+            this.reservedForInteractive = reservedForInteractive;
+            return this;
+        }
+
+        /**
+         * Time after which a reply token is considered expired. Default = 1 minute.
+         */
+        public Builder replyTokenTimeout(@NonNull final Duration replyTokenTimeout) {
+            if (replyTokenTimeout.isNegative() || replyTokenTimeout.isZero()) {
+                throw new IllegalArgumentException("replyTokenTimeout must be positive");
+            }
+            this.replyTokenTimeout = replyTokenTimeout;
+            return this;
+        }
+
+        /**
+         * Puts requests of the given endpoint group in the given lane. By default,
+         * {@link EndpointGroup#REPLY} is {@link Lane#INTERACTIVE}, {@link EndpointGroup#MULTICAST},
+         * {@link EndpointGroup#BROADCAST}, {@link EndpointGroup#CONTENT} and {@link EndpointGroup#RICH_MENU}
+         * are {@link Lane#BULK}, and others are {@link Lane#STANDARD}.
+         */
+        public Builder lane(@NonNull final EndpointGroup group, @NonNull final Lane lane) {
+            lanes.put(group, lane);
+            return this;
+        }
+
+        /**
+         * Clock used to check deadlines of reply tokens. Default = {@link Clock#systemUTC()}.
+         */
+        public Builder clock(@NonNull final Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Scheduler used to drop waiting replies whose tokens have expired. A shared daemon thread is used
+         * if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link PriorityLanes}.
+         */
+        public PriorityLanes build() {
+            if (reservedForInteractive >= maxConcurrentCalls) {
+                throw new IllegalArgumentException(
+                        "reservedForInteractive must be less than maxConcurrentCalls");
+            }
+            return new PriorityLanes(this);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.Value;
+
+/**
+ * Statistics of {@link CachingLineMessagingClient}.
+ */
+@Value
+public class ProfileCacheStats {
+    /**
+     * Number of requests served from the cache, including requests which joined an in-flight request.
+     */
+    private final long hitCount;
+
+    /**
+     * Number of requests sent to the server.
+     */
+    private final long missCount;
+
+    /**
+     * Number of requests to the server which failed. Failed results are not cached.
+     */
+    private final long loadFailureCount;
+
+    /**
+     * Number of entries evicted because the cache was full.
+     */
+    private final long evictionCount;
+
+    /**
+     * Current number of entries.
+     */
+    private final int size;
+
+    /**
+     * Returns the ratio of hits to all requests. {@code 1.0} if there was no request.
+     */
+    public double hitRate() {
+        final long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+}
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.ForbiddenException;
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.NotFoundException;
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.client.exception.UnauthorizedException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.response.BotApiResponse;
+import com.linecorp.bot.model.response.MessageQuotaResponse;
+import com.linecorp.bot.model.response.MessageQuotaResponse.QuotaType;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.experimental.Delegate;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link LineMessagingClient} which tracks the monthly message quota and rejects push and multicast
+ * messages exceeding it without sending them.
+ *
+ * <p>The quota and its consumption are read by {@link LineMessagingClient#getMessageQuota()} and
+ * {@link LineMessagingClient#getMessageQuotaConsumption()} when this client is built and at
+ * {@link Builder#refreshInterval(Duration) intervals}. Between them, each push message consumes one and
+ * each multicast consumes the number of its recipients. Messages rejected by {@code 4xx} errors or not sent
+ * at all give their quota back, but those failed by I/O errors or server errors keep it because they may have
+ * been delivered. Requests which would exceed the quota fail with {@link CallNotPermittedException}.
+ *
+ * <p>Replies are free and broadcasts are sent as is, because their consumption depends on the number of
+ * friends. Their consumption is reflected at the next refresh.
+ *
+ * <p>Campaign senders can pace themselves by {@link #pacedAllowance()}, which spreads the quota evenly over
+ * the billing month.
+ *
+ * <pre>{@code
+ * QuotaAwareLineMessagingClient client =
+ *         QuotaAwareLineMessagingClient.builder(LineMessagingClient.builder(channelToken).build())
+ *                                      .refreshInterval(Duration.ofMinutes(5))
+ *                                      .build();
+ * long sendable = client.pacedAllowance();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class QuotaAwareLineMessagingClient implements LineMessagingClient, AutoCloseable {
+    @Delegate(excludes = QuotaMethods.class)
+    private final LineMessagingClient delegate;
+    @ToString.Include
+    private final Duration refreshInterval;
+    private final ZoneId billingZone;
+    private final Clock clock;
+    private final ScheduledFuture<?> refreshTask;
+
+    // Guarded by this.
+    private boolean loaded;
+    private boolean limited;
+    private long limit;
+    private long serverUsage;
+    private long localUsage;
+    // Sends are counted in the epoch of the next refresh. Sends of refreshedEpoch and earlier are counted
+    // by serverUsage, and localUsageByEpoch holds the rest.
+    private long epoch;
+    private long refreshedEpoch = -1;
+    private final NavigableMap<Long, Long> localUsageByEpoch = new TreeMap<>();
+
+    private QuotaAwareLineMessagingClient(final Builder builder) {
+        delegate = builder.delegate;
+        refreshInterval = builder.refreshInterval;
+        billingZone = builder.billingZone;
+        clock = builder.clock;
+        refresh();
+        final ScheduledExecutorService scheduler =
+                builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+        refreshTask = scheduler.scheduleWithFixedDelay(this::refresh, refreshInterval.toNanos(),
+                                                       refreshInterval.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Creates a new {@link Builder} which decorates the given client.
+     */
+    public static Builder builder(final LineMessagingClient delegate) {
+        return new Builder(delegate);
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> pushMessage(final PushMessage pushMessage) {
+        return send(EndpointGroup.PUSH, 1, () -> delegate.pushMessage(pushMessage));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> pushMessage(final UUID retryKey, final PushMessage pushMessage) {
+        return send(EndpointGroup.PUSH, 1, () -> delegate.pushMessage(retryKey, pushMessage));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> multicast(final Multicast multicast) {
+        return send(EndpointGroup.MULTICAST, multicast.getTo().size(), () -> delegate.multicast(multicast));
+    }
+
+    @Override
+    public CompletableFuture<BotApiResponse> multicast(final UUID retryKey, final Multicast multicast) {
+        return send(EndpointGroup.MULTICAST, multicast.getTo().size(),
+                    () -> delegate.multicast(retryKey, multicast));
+    }
+
+    /**
+     * Reads the quota and its consumption from the server. Called periodically, but can be called to
+     * reflect broadcasts or other senders sharing the channel immediately.
+     */
+    public CompletableFuture<Void> refresh() {
+        final long refreshEpoch;
+        synchronized (this) {
+            refreshEpoch = epoch++;
+        }
+        final CompletableFuture<MessageQuotaResponse> quota = delegate.getMessageQuota();
+        return delegate.getMessageQuotaConsumption().thenAcceptBoth(quota, (consumption, quotaResponse) -> {
+            synchronized (this) {
+                if (refreshEpoch <= refreshedEpoch) {
+                    // A later refresh has finished first.
+                    return;
+                }
+                loaded = true;
+                limited = quotaResponse.getType() == QuotaType.limited;
+                limit = quotaResponse.getValue();
+                serverUsage = consumption.getTotalUsage();
+                // Messages sent while refreshing may or may not be counted by the server. Keep them.
+                final Map<Long, Long> counted = localUsageByEpoch.headMap(refreshEpoch, true);
+                for (long units : counted.values()) {
+                    localUsage -= units;
+                }
+                counted.clear();
+                refreshedEpoch = refreshEpoch;
+            }
+        }).whenComplete((ignored, t) -> {
+            if (t != null) {
+                log.warn("Failed to refresh message quota", t);
+            }
+        });
+    }
+
+    /**
+     * Returns the number of messages which can be sent until the end of the month.
+     * {@link Long#MAX_VALUE} if the quota is not limited or not read yet.
+     */
+    public synchronized long remaining() {
+        if (!loaded || !limited) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, limit - serverUsage - localUsage);
+    }
+
+    /**
+     * Returns the number of messages sent in this month, including those counted locally since the last
+     * refresh.
+     */
+    public synchronized long used() {
+        return serverUsage + localUsage;
+    }
+
+    /**
+     * Returns the number of messages which can be sent now, so that consumption follows a straight line
+     * from zero at the start of the billing month to the quota at its end. Unused allowance of the past is
+     * carried over. {@link Long#MAX_VALUE} if the quota is not limited or not read yet.
+     */
+    public synchronized long pacedAllowance() {
+        if (!loaded || !limited) {
+            return Long.MAX_VALUE;
+        }
+        final long target = (long) Math.ceil(limit * elapsedRatioOfMonth());
+        return Math.max(0, Math.min(remaining(), target - used()));
+    }
+
+    /**
+     * Returns the number of messages per second which spreads the remaining quota evenly over the rest of
+     * the billing month. {@link Double#POSITIVE_INFINITY} if the quota is not limited or not read yet.
+     */
+    public synchronized double pacedRate() {
+        if (!loaded || !limited) {
+            return Double.POSITIVE_INFINITY;
+        }
+        final ZonedDateTime now = ZonedDateTime.now(clock.withZone(billingZone));
+        final ZonedDateTime end = startOfMonth(now).plusMonths(1);
+        final double secondsLeft = Math.max(1, Duration.between(now, end).getSeconds());
+        return remaining() / secondsLeft;
+    }
+
+    /**
+     * Stops refreshing the quota.
+     */
+    @Override
+    public void close() {
+        refreshTask.cancel(false);
+    }
+
+    private CompletableFuture<BotApiResponse> send(final EndpointGroup group, final int units,
+                                                   final Supplier<CompletableFuture<BotApiResponse>> sender) {
+        final long sendEpoch;
+        synchronized (this) {
+            final long remaining = remaining();
+            if (units > remaining) {
+                final CompletableFuture<BotApiResponse> rejected = new CompletableFuture<>();
+                rejected.completeExceptionally(new CallNotPermittedException(
+                        group, "Message quota exceeded: " + units + " requested but " + remaining + " left"));
+                return rejected;
+            }
+            sendEpoch = epoch;
+            localUsage += units;
+            localUsageByEpoch.merge(sendEpoch, (long) units, Long::sum);
+        }
+        final CompletableFuture<BotApiResponse> future;
+        try {
+            future = sender.get();
+        } catch (RuntimeException e) {
+            release(sendEpoch, units);
+            throw e;
+        }
+        return future.whenComplete((response, t) -> {
+            final Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+            if (cause != null && isNotAccepted(cause)) {
+                release(sendEpoch, units);
+            }
+        });
+    }
+
+    /**
+     * Returns whether the message was certainly not accepted. Other failures such as timeouts and server
+     * errors may have been delivered.
+     */
+    private static boolean isNotAccepted(final Throwable cause) {
+        if (cause instanceof CallNotPermittedException
+            || cause.getCause() instanceof CallNotPermittedException) {
+            // Rejected before being sent, e.g. by a circuit breaker.
+            return true;
+        }
+        return cause instanceof BadRequestException
+               || cause instanceof UnauthorizedException
+               || cause instanceof ForbiddenException
+               || cause instanceof NotFoundException
+               || cause instanceof TooManyRequestsException
+               // Other 4xx which the converter has no type for.
+               || cause instanceof GeneralLineMessagingException && cause.getCause() == null
+                  && ((GeneralLineMessagingException) cause).getErrorResponse() != null;
+    }
+
+    private synchronized void release(final long sendEpoch, final int units) {
+        if (sendEpoch <= refreshedEpoch) {
+            // Already replaced by the consumption read from the server, which doesn't count rejections.
+            return;
+        }
+        localUsage -= units;
+        localUsageByEpoch.computeIfPresent(sendEpoch, (key, usage) -> usage == units ? null : usage - units);
+    }
+
+    private double elapsedRatioOfMonth() {
+        final ZonedDateTime now = ZonedDateTime.now(clock.withZone(billingZone));
+        final ZonedDateTime start = startOfMonth(now);
+        final ZonedDateTime end = start.plusMonths(1);
+        return Duration.between(start, now).toMillis() / (double) Duration.between(start, end).toMillis();
+    }
+
+    private static ZonedDateTime startOfMonth(final ZonedDateTime time) {
+        return time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS);
+    }
+
+    /**
+     * Methods not delegated as is. {@code multicastFanout} is excluded to send chunks through this client.
+     */
+    private interface QuotaMethods {
+        CompletableFuture<BotApiResponse> pushMessage(PushMessage pushMessage);
+
+        CompletableFuture<BotApiResponse> pushMessage(UUID retryKey, PushMessage pushMessage);
+
+        CompletableFuture<BotApiResponse> multicast(Multicast multicast);
+
+        CompletableFuture<BotApiResponse> multicast(UUID retryKey, Multicast multicast);
+
+        CompletableFuture<MulticastFanoutResult> multicastFanout(Iterable<String> to,
+                                                                 List<Message> messages);
+    }
+
+    /**
+     * Builder of {@link QuotaAwareLineMessagingClient}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient delegate;
+        private Duration refreshInterval = Duration.ofMinutes(5);
+        private ZoneId billingZone = ZoneId.of("Asia/Tokyo");
+        private Clock clock = Clock.systemUTC();
+        private ScheduledExecutorService scheduler;
+
+        private Builder(@NonNull final LineMessagingClient delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * Interval to read the quota and its consumption from the server. Default = 5 minutes.
+         */
+        public Builder refreshInterval(@NonNull final Duration refreshInterval) {
+            if (refreshInterval.isNegative() || refreshInterval.isZero()) {
+                throw new IllegalArgumentException("refreshInterval must be positive");
+            }
+            this.refreshInterval = refreshInterval;
+            return this;
+        }
+
+        /**
+         * Time zone in which the billing month starts. Default = {@code Asia/Tokyo}.
+         */
+        public Builder billingZone(@NonNull final ZoneId billingZone) {
+            this.billingZone = billingZone;
+            return this;
+        }
+
+        /**
+         * Clock used to pace messages over the billing month. Default = {@link Clock#systemUTC()}.
+         */
+        public Builder clock(@NonNull final Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Scheduler used to refresh the quota. A shared daemon thread is used if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link QuotaAwareLineMessagingClient} and starts reading the quota.
+         */
+        public QuotaAwareLineMessagingClient build() {
+            return new QuotaAwareLineMessagingClient(this);
+        }
+    }
+}
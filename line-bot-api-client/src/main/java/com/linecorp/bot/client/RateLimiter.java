@@ -0,0 +1,47 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client side rate limiter of {@link LineMessagingClient}.
+ *
+ * <p>Requests wait for {@link #acquire(EndpointGroup)} before they are passed to OkHttp.
+ *
+ * @see LineMessagingClientBuilder#rateLimiter(RateLimiter)
+ * @see TokenBucketRateLimiter
+ */
+public interface RateLimiter {
+    /**
+     * Returns a future which is completed when a request of the given group may be sent.
+     */
+    CompletableFuture<Void> acquire(EndpointGroup group);
+
+    /**
+     * Called when the server responded {@code 429 Too Many Requests}.
+     *
+     * @param retryAfter value of {@code Retry-After} header. {@code null} if not available.
+     */
+    void onTooManyRequests(EndpointGroup group, Duration retryAfter);
+
+    /**
+     * Returns the number of requests waiting for {@link #acquire(EndpointGroup)}.
+     */
+    int queueDepth(EndpointGroup group);
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import lombok.AllArgsConstructor;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Delays calls until {@link RateLimiter} allows them.
+ */
+@AllArgsConstructor
+class RateLimitingCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        return new RateLimitedCall<>(call, group);
+    }
+
+    /**
+     * Parses {@code Retry-After} header in either delay-seconds or HTTP-date format.
+     *
+     * @return {@code null} if the header is absent or malformed.
+     */
+    static Duration retryAfter(final Response<?> response) {
+        final String value = response.headers().get("Retry-After");
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException ignored) {
+            // Fall through to HTTP-date.
+        }
+        try {
+            final ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            final Duration duration = Duration.between(ZonedDateTime.now(date.getZone()), date);
+            return duration.isNegative() ? Duration.ZERO : duration;
+        } catch (DateTimeParseException ignored) {
+            return null;
+        }
+    }
+
+    private final class RateLimitedCall<T> extends ForwardingCall<T> {
+        private final EndpointGroup group;
+        private final AtomicBoolean executed = new AtomicBoolean();
+
+        RateLimitedCall(final Call<T> delegate, final EndpointGroup group) {
+            super(delegate);
+            this.group = group;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            checkNotExecuted();
+            try {
+                rateLimiter.acquire(group).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for rate limiter");
+            } catch (ExecutionException e) {
+                throw new IOException(e.getCause());
+            }
+            return observe(delegate.execute());
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            checkNotExecuted();
+            final Callback<T> forwarding = forwardTo(callback);
+            rateLimiter.acquire(group).whenComplete((ignored, t) -> {
+                if (t != null) {
+                    forwarding.onFailure(delegate, t);
+                    return;
+                }
+                delegate.enqueue(new Callback<T>() {
+                    @Override
+                    public void onResponse(final Call<T> call, final Response<T> response) {
+                        forwarding.onResponse(call, observe(response));
+                    }
+
+                    @Override
+                    public void onFailure(final Call<T> call, final Throwable t) {
+                        forwarding.onFailure(call, t);
+                    }
+                });
+            });
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed.get();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new RateLimitedCall<>(delegate.clone(), group);
+        }
+
+        private void checkNotExecuted() {
+            if (!executed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Already executed.");
+            }
+        }
+
+        private Response<T> observe(final Response<T> response) {
+            if (response.code() == TOO_MANY_REQUESTS) {
+                rateLimiter.onTooManyRequests(group, retryAfter(response));
+            }
+            return response;
+        }
+    }
+}
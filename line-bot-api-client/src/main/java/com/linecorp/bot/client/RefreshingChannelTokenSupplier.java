@@ -0,0 +1,232 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenRequest;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * {@link ChannelTokenSupplier} which issues short-lived channel access tokens with {@link LineOAuthClient}
+ * and reissues them in the background before they expire.
+ *
+ * <p>{@link #get()} only reads the current token and never blocks once the first token is issued.
+ * When reissuing fails, the current token is kept and reissuing is retried after {@code retryInterval}.
+ *
+ * <pre>{@code
+ * RefreshingChannelTokenSupplier supplier =
+ *         RefreshingChannelTokenSupplier.builder(LineOAuthClient.builder().build(), channelId, channelSecret)
+ *                                       .build();
+ * LineMessagingClient client = LineMessagingClient.builder(supplier).build();
+ * }</pre>
+ */
+@Slf4j
+@ToString(onlyExplicitlyIncluded = true)
+public final class RefreshingChannelTokenSupplier implements ChannelTokenSupplier, Closeable {
+    private final LineOAuthClient oAuthClient;
+    private final IssueChannelAccessTokenRequest request;
+    @ToString.Include
+    private final double refreshRatio;
+    @ToString.Include
+    private final Duration retryInterval;
+    private final ScheduledExecutorService scheduler;
+
+    private final CompletableFuture<String> initialToken = new CompletableFuture<>();
+    private volatile String token;
+    private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+    private volatile ScheduledFuture<?> scheduledRefresh;
+    private volatile boolean closed;
+
+    private RefreshingChannelTokenSupplier(final Builder builder) {
+        oAuthClient = builder.oAuthClient;
+        request = IssueChannelAccessTokenRequest.builder()
+                                                .clientId(builder.channelId)
+                                                .clientSecret(builder.channelSecret)
+                                                .build();
+        refreshRatio = builder.refreshRatio;
+        retryInterval = builder.retryInterval;
+        scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     *
+     * @param channelId channel ID used as the client ID.
+     * @param channelSecret channel secret used as the client secret.
+     */
+    public static Builder builder(final LineOAuthClient oAuthClient, final String channelId,
+                                  final String channelSecret) {
+        return new Builder(oAuthClient, channelId, channelSecret);
+    }
+
+    /**
+     * Returns the current channel access token. Blocks only until the first token is issued.
+     *
+     * @throws IllegalStateException if the first token couldn't be issued.
+     */
+    @Override
+    public String get() {
+        final String token = this.token;
+        if (token != null) {
+            return token;
+        }
+        try {
+            return initialToken.join();
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Failed to issue a channel access token", e.getCause());
+        }
+    }
+
+    /**
+     * Issues a new token now. Returns the in-flight request if a token is being issued already.
+     */
+    public CompletableFuture<String> refresh() {
+        for (;;) {
+            final CompletableFuture<String> current = inFlight.get();
+            if (current != null) {
+                return current;
+            }
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, future)) {
+                issue(future);
+                return future;
+            }
+        }
+    }
+
+    /**
+     * Stops reissuing tokens. The current token is still returned by {@link #get()}.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        final ScheduledFuture<?> scheduledRefresh = this.scheduledRefresh;
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+    }
+
+    private void issue(final CompletableFuture<String> future) {
+        final CompletableFuture<IssueChannelAccessTokenResponse> response;
+        try {
+            response = oAuthClient.issueChannelToken(request);
+        } catch (RuntimeException e) {
+            onIssued(future, null, e);
+            return;
+        }
+        response.whenComplete((result, t) -> onIssued(future, result, t));
+    }
+
+    private void onIssued(final CompletableFuture<String> future,
+                          final IssueChannelAccessTokenResponse response, final Throwable cause) {
+        inFlight.set(null);
+        if (cause != null) {
+            log.warn("Failed to issue a channel access token. Retrying in {}", retryInterval, cause);
+            if (token == null) {
+                initialToken.completeExceptionally(cause);
+            }
+            schedule(retryInterval);
+            future.completeExceptionally(cause);
+            return;
+        }
+
+        token = response.getAccessToken();
+        initialToken.complete(token);
+        final Duration refreshAfter =
+                Duration.ofMillis((long) (response.getExpiresInSecs() * 1000L * refreshRatio));
+        log.info("Issued a channel access token. Reissuing in {}", refreshAfter);
+        schedule(refreshAfter);
+        future.complete(token);
+    }
+
+    private synchronized void schedule(final Duration delay) {
+        if (closed) {
+            return;
+        }
+        // A manual refresh() reschedules, so the pending refresh must not issue another token later.
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = scheduler.schedule(this::refresh, delay.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Builder of {@link RefreshingChannelTokenSupplier}.
+     */
+    public static final class Builder {
+        private final LineOAuthClient oAuthClient;
+        private final String channelId;
+        private final String channelSecret;
+        private double refreshRatio = 0.8;
+        private Duration retryInterval = Duration.ofMinutes(1);
+        private ScheduledExecutorService scheduler;
+
+        private Builder(@NonNull final LineOAuthClient oAuthClient, @NonNull final String channelId,
+                        @NonNull final String channelSecret) {
+            this.oAuthClient = oAuthClient;
+            this.channelId = channelId;
+            this.channelSecret = channelSecret;
+        }
+
+        /**
+         * Ratio of the lifetime of a token after which the token is reissued. Default = 0.8.
+         */
+        public Builder refreshRatio(final double refreshRatio) {
+            if (refreshRatio <= 0 || refreshRatio >= 1) {
+                throw new IllegalArgumentException("refreshRatio must be in (0, 1)");
+            }
+            this.refreshRatio = refreshRatio;
+            return this;
+        }
+
+        /**
+         * Interval to retry after failing to issue a token. Default = 1 minute.
+         */
+        public Builder retryInterval(@NonNull final Duration retryInterval) {
+            this.retryInterval = retryInterval;
+            return this;
+        }
+
+        /**
+         * Scheduler used to reissue tokens. A shared daemon thread is used if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link RefreshingChannelTokenSupplier} and starts issuing the first token.
+         */
+        public RefreshingChannelTokenSupplier build() {
+            final RefreshingChannelTokenSupplier supplier = new RefreshingChannelTokenSupplier(this);
+            supplier.refresh();
+            return supplier;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.concurrent.TimeUnit;
+
+import lombok.ToString;
+
+/**
+ * Limits the number of retries relative to the number of requests, so that retries don't multiply
+ * the load on the server during an outage.
+ *
+ * <p>Each request deposits {@link #getRetryRatio()} tokens and each retry withdraws one token.
+ * In addition, {@link #getMinRetriesPerSecond()} retries are always allowed to keep low traffic clients
+ * retrying. A single budget can be shared by multiple clients.
+ */
+@ToString
+public final class RetryBudget {
+    private static final int MAX_DEPOSIT_REQUESTS = 1_000;
+
+    private final double retryRatio;
+    private final double minRetriesPerSecond;
+    private final double maxBalance;
+
+    // Guarded by this.
+    private double balance;
+    private double reserve;
+    private long lastReserveRefillNanos = System.nanoTime();
+
+    private RetryBudget(final double retryRatio, final double minRetriesPerSecond) {
+        this.retryRatio = retryRatio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        maxBalance = Math.max(1, retryRatio * MAX_DEPOSIT_REQUESTS);
+        reserve = minRetriesPerSecond;
+    }
+
+    /**
+     * Creates a new {@link RetryBudget}.
+     *
+     * @param retryRatio max ratio of retries to requests, e.g. {@code 0.1} allows 1 retry per 10 requests.
+     * @param minRetriesPerSecond number of retries allowed per second regardless of {@code retryRatio}.
+     */
+    public static RetryBudget of(final double retryRatio, final double minRetriesPerSecond) {
+        if (retryRatio < 0 || minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("retryRatio and minRetriesPerSecond must not be negative");
+        }
+        return new RetryBudget(retryRatio, minRetriesPerSecond);
+    }
+
+    public double getRetryRatio() {
+        return retryRatio;
+    }
+
+    public double getMinRetriesPerSecond() {
+        return minRetriesPerSecond;
+    }
+
+    /**
+     * Records a new (non-retry) request.
+     */
+    synchronized void onRequest() {
+        balance = Math.min(maxBalance, balance + retryRatio);
+    }
+
+    /**
+     * Withdraws a token for a retry.
+     *
+     * @return {@code false} if the budget is exhausted and the request must not be retried.
+     */
+    synchronized boolean tryRetry() {
+        final long now = System.nanoTime();
+        final double elapsedSeconds = (now - lastReserveRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        reserve = Math.min(minRetriesPerSecond, reserve + elapsedSeconds * minRetriesPerSecond);
+        lastReserveRefillNanos = now;
+
+        if (reserve >= 1) {
+            reserve -= 1;
+            return true;
+        }
+        if (balance >= 1) {
+            balance -= 1;
+            return true;
+        }
+        return false;
+    }
+}
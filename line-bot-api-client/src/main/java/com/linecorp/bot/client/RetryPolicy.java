@@ -0,0 +1,165 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Retry policy of {@link LineMessagingClient}.
+ *
+ * <p>Requests are retried on network failures, {@code 5xx} and {@code 429 Too Many Requests} with
+ * exponential backoff and jitter. {@code Retry-After} header is respected.
+ *
+ * <p>When a retry policy is configured, {@link LineMessagingClient#pushMessage(PushMessage)},
+ * {@link LineMessagingClient#multicast(Multicast)} and {@link LineMessagingClient#broadcast(Broadcast)}
+ * automatically send {@code X-Line-Retry-Key} header, and all attempts of a logical request share the same
+ * key. Thus retries never produce duplicate deliveries.
+ *
+ * <pre>{@code
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .retryPolicy(RetryPolicy.builder()
+ *                                                                         .maxAttempts(5)
+ *                                                                         .build())
+ *                                                 .build();
+ * }</pre>
+ *
+ * @see LineMessagingClientBuilder#retryPolicy(RetryPolicy)
+ */
+@Value
+@Builder
+public class RetryPolicy {
+    private static final Set<EndpointGroup> RETRY_KEY_GROUPS =
+            Collections.unmodifiableSet(
+                    EnumSet.of(EndpointGroup.PUSH, EndpointGroup.MULTICAST, EndpointGroup.BROADCAST));
+
+    /**
+     * Max number of attempts including the first one.
+     *
+     * <p>Default = 3.
+     */
+    @Builder.Default
+    private final int maxAttempts = 3;
+
+    /**
+     * Backoff before the first retry.
+     *
+     * <p>Default = 200ms.
+     */
+    @NonNull
+    @Builder.Default
+    private final Duration initialBackoff = Duration.ofMillis(200);
+
+    /**
+     * Upper bound of backoff, except when {@code Retry-After} header requests longer one.
+     *
+     * <p>Default = 10s.
+     */
+    @NonNull
+    @Builder.Default
+    private final Duration maxBackoff = Duration.ofSeconds(10);
+
+    /**
+     * Multiplier of backoff per retry.
+     *
+     * <p>Default = 2.0.
+     */
+    @Builder.Default
+    private final double multiplier = 2.0;
+
+    /**
+     * Random jitter ratio of backoff. Backoff is randomized within {@code ±jitter}.
+     *
+     * <p>Default = 0.2.
+     */
+    @Builder.Default
+    private final double jitter = 0.2;
+
+    /**
+     * Endpoint groups to retry.
+     *
+     * <p>Only {@link EndpointGroup#PUSH}, {@link EndpointGroup#MULTICAST} and {@link EndpointGroup#BROADCAST}
+     * are allowed because other endpoints don't accept {@code X-Line-Retry-Key} and a retry of them may be
+     * processed twice.
+     *
+     * <p>Default = {@link EndpointGroup#PUSH}, {@link EndpointGroup#MULTICAST} and
+     * {@link EndpointGroup#BROADCAST}.
+     */
+    @NonNull
+    @Builder.Default
+    private final Set<EndpointGroup> endpointGroups = RETRY_KEY_GROUPS;
+
+    /**
+     * Budget shared by all requests of the client.
+     *
+     * <p>Default = 10% of requests + 10 retries per second.
+     */
+    @NonNull
+    @Builder.Default
+    private final RetryBudget budget = RetryBudget.of(0.1, 10);
+
+    /**
+     * Scheduler used to start retries after backoff. Default = shared daemon thread.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    private RetryPolicy(final int maxAttempts, @NonNull final Duration initialBackoff,
+                        @NonNull final Duration maxBackoff, final double multiplier, final double jitter,
+                        @NonNull final Set<EndpointGroup> endpointGroups, @NonNull final RetryBudget budget,
+                        final ScheduledExecutorService scheduler) {
+        if (!RETRY_KEY_GROUPS.containsAll(endpointGroups)) {
+            throw new IllegalArgumentException("endpointGroups must be PUSH, MULTICAST or BROADCAST");
+        }
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.endpointGroups = endpointGroups;
+        this.budget = budget;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Returns the backoff before the given retry.
+     *
+     * @param retry 1-origin number of the retry.
+     * @param retryAfter value of {@code Retry-After} header. {@code null} if not available.
+     */
+    Duration backoff(final int retry, final Duration retryAfter) {
+        final double exponential = initialBackoff.toNanos() * Math.pow(multiplier, retry - 1);
+        final double capped = Math.min(maxBackoff.toNanos(), exponential);
+        final double randomized = capped * (1 + jitter * ThreadLocalRandom.current().nextDouble(-1, 1));
+        final Duration backoff = Duration.ofNanos((long) Math.max(0, randomized));
+        if (retryAfter != null && retryAfter.compareTo(backoff) > 0) {
+            return retryAfter;
+        }
+        return backoff;
+    }
+
+    ScheduledExecutorService schedulerOrDefault() {
+        return scheduler != null ? scheduler : SharedScheduler.get();
+    }
+}
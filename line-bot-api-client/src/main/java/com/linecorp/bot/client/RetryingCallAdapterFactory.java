@@ -0,0 +1,231 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Retries calls according to {@link RetryPolicy}.
+ *
+ * <p>Each attempt is a {@link Call#clone() clone} of the original call, so that all attempts send the same
+ * {@code X-Line-Retry-Key} header. Calls rejected by {@link CircuitBreaker} or {@link Bulkhead} are not
+ * retried. {@code 409 Conflict} to a retried request with the header means that an earlier attempt was
+ * accepted, so it completes the call successfully.
+ */
+@Slf4j
+@AllArgsConstructor
+class RetryingCallAdapterFactory extends DecoratingCallAdapterFactory {
+    private static final int CONFLICT = 409;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final RetryPolicy retryPolicy;
+
+    @Override
+    <T> Call<T> decorate(final EndpointGroup group, final Call<T> call) {
+        if (!retryPolicy.getEndpointGroups().contains(group)) {
+            return call;
+        }
+        return new RetryingCall<>(call, group);
+    }
+
+    static boolean isRetryable(final Response<?> response) {
+        return response.code() >= 500 || response.code() == TOO_MANY_REQUESTS;
+    }
+
+    private final class RetryingCall<T> extends ForwardingCall<T> {
+        private final EndpointGroup group;
+        private final AtomicBoolean executed = new AtomicBoolean();
+        private volatile boolean canceled;
+        private volatile Call<T> current;
+
+        RetryingCall(final Call<T> delegate, final EndpointGroup group) {
+            super(delegate);
+            this.group = group;
+            current = delegate;
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            checkNotExecuted();
+            retryPolicy.getBudget().onRequest();
+            for (int attempt = 1; ; attempt++) {
+                final Call<T> call = current;
+                Duration backoff;
+                try {
+                    final Response<T> response = call.execute();
+                    backoff = backoffOrNull(attempt, response);
+                    if (backoff == null) {
+                        return acceptedOrAsIs(attempt, call, response);
+                    }
+                } catch (CallNotPermittedException e) {
+                    throw e;
+                } catch (IOException e) {
+                    if (canceled || !canRetry(attempt)) {
+                        throw e;
+                    }
+                    backoff = retryPolicy.backoff(attempt, null);
+                    log.debug("Retrying {} request in {}: {}", group, backoff, e.toString());
+                }
+
+                try {
+                    TimeUnit.NANOSECONDS.sleep(backoff.toNanos());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for retry");
+                }
+                current = call.clone();
+                checkNotCanceled();
+            }
+        }
+
+        @Override
+        public void enqueue(final Callback<T> callback) {
+            checkNotExecuted();
+            retryPolicy.getBudget().onRequest();
+            attempt(1, forwardTo(callback));
+        }
+
+        private void attempt(final int attempt, final Callback<T> callback) {
+            final Call<T> call = current;
+            call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(final Call<T> ignored, final Response<T> response) {
+                    final Duration backoff = backoffOrNull(attempt, response);
+                    if (backoff == null) {
+                        callback.onResponse(call, acceptedOrAsIs(attempt, call, response));
+                    } else {
+                        scheduleRetry(attempt, call, backoff, callback);
+                    }
+                }
+
+                @Override
+                public void onFailure(final Call<T> ignored, final Throwable t) {
+                    if (canceled || !(t instanceof IOException) || t instanceof CallNotPermittedException
+                            || !canRetry(attempt)) {
+                        callback.onFailure(call, t);
+                        return;
+                    }
+                    final Duration backoff = retryPolicy.backoff(attempt, null);
+                    log.debug("Retrying {} request in {}: {}", group, backoff, t.toString());
+                    scheduleRetry(attempt, call, backoff, callback);
+                }
+            });
+        }
+
+        private void scheduleRetry(final int attempt, final Call<T> call, final Duration backoff,
+                                   final Callback<T> callback) {
+            retryPolicy.schedulerOrDefault().schedule(() -> {
+                current = call.clone();
+                if (canceled) {
+                    callback.onFailure(call, new IOException("Canceled"));
+                    return;
+                }
+                attempt(attempt + 1, callback);
+            }, backoff.toNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Returns the backoff before retrying the given response, or {@code null} if the response should be
+         * returned as is. The body of a response to be retried is closed.
+         */
+        private Duration backoffOrNull(final int attempt, final Response<T> response) {
+            if (!isRetryable(response) || canceled || !canRetry(attempt)) {
+                return null;
+            }
+            final ResponseBody errorBody = response.errorBody();
+            if (errorBody != null) {
+                errorBody.close();
+            }
+            final Duration backoff =
+                    retryPolicy.backoff(attempt, RateLimitingCallAdapterFactory.retryAfter(response));
+            log.debug("Retrying {} request in {}: status={}", group, backoff, response.code());
+            return backoff;
+        }
+
+        /**
+         * Returns a successful response in place of {@code 409 Conflict} to a retried request with
+         * {@code X-Line-Retry-Key}. The server answers so when an earlier attempt was accepted.
+         */
+        @SuppressWarnings("unchecked")
+        private Response<T> acceptedOrAsIs(final int attempt, final Call<T> call, final Response<T> response) {
+            if (attempt == 1 || response.code() != CONFLICT
+                || call.request().header(LineMessagingService.RETRY_KEY_HEADER) == null) {
+                return response;
+            }
+            final ResponseBody errorBody = response.errorBody();
+            if (errorBody != null) {
+                errorBody.close();
+            }
+            log.debug("{} request was accepted by an earlier attempt", group);
+            // Only push, multicast and broadcast take X-Line-Retry-Key, all of which return BotApiResponse.
+            return Response.success((T) new BotApiResponse("", emptyList()),
+                                    response.raw().newBuilder().code(200).message("OK").build());
+        }
+
+        private boolean canRetry(final int attempt) {
+            return attempt < retryPolicy.getMaxAttempts() && retryPolicy.getBudget().tryRetry();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return executed.get();
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            current.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled || current.isCanceled();
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new RetryingCall<>(delegate.clone(), group);
+        }
+
+        private void checkNotExecuted() {
+            if (!executed.compareAndSet(false, true)) {
+                throw new IllegalStateException("Already executed.");
+            }
+        }
+
+        private void checkNotCanceled() throws IOException {
+            if (canceled) {
+                throw new IOException("Canceled");
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.nio.file.Path;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Uploads images of many rich menus in parallel, streaming each image from its file.
+ *
+ * <p>At most {@code maxConcurrentUploads} images are uploaded at once; the next upload starts when one
+ * completes. Content type is derived from the file extension ({@code .png}, {@code .jpg} or {@code .jpeg}).
+ *
+ * <pre>{@code
+ * RichMenuImageUploader uploader = RichMenuImageUploader.builder(lineMessagingClient)
+ *                                                       .maxConcurrentUploads(8)
+ *                                                       .build();
+ * Map<String, CompletableFuture<BotApiResponse>> results = uploader.uploadAll(imageOfRichMenu);
+ * CompletableFuture.allOf(results.values().toArray(new CompletableFuture[0])).join();
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class RichMenuImageUploader {
+    private final LineMessagingClient client;
+    @ToString.Include
+    private final int maxConcurrentUploads;
+
+    private RichMenuImageUploader(final Builder builder) {
+        client = builder.client;
+        maxConcurrentUploads = builder.maxConcurrentUploads;
+    }
+
+    /**
+     * Creates a new {@link Builder} which uploads images through the given client.
+     */
+    public static Builder builder(final LineMessagingClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Uploads images of rich menus.
+     *
+     * @param images image files keyed by rich menu ID.
+     * @return results keyed by rich menu ID, in the iteration order of {@code images}.
+     */
+    public Map<String, CompletableFuture<BotApiResponse>> uploadAll(@NonNull final Map<String, Path> images) {
+        final Uploads uploads = new Uploads(images);
+        uploads.drain();
+        return uploads.results;
+    }
+
+    private final class Uploads {
+        private final Map<String, CompletableFuture<BotApiResponse>> results = new LinkedHashMap<>();
+        private final AtomicInteger wip = new AtomicInteger();
+
+        // Guarded by this.
+        private final Queue<Entry<String, Path>> pending = new ArrayDeque<>();
+        private int inFlight;
+
+        Uploads(final Map<String, Path> images) {
+            images.forEach((richMenuId, path) -> {
+                results.put(richMenuId, new CompletableFuture<>());
+                pending.add(new SimpleImmutableEntry<>(richMenuId, path));
+            });
+        }
+
+        /**
+         * Starts uploads until {@link #maxConcurrentUploads} is reached. Reentrant calls from a synchronously
+         * completed upload are folded into the outer loop to keep the stack flat.
+         */
+        void drain() {
+            if (wip.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                Entry<String, Path> next;
+                while ((next = poll()) != null) {
+                    upload(next);
+                }
+            } while (wip.decrementAndGet() != 0);
+        }
+
+        private synchronized Entry<String, Path> poll() {
+            if (inFlight >= maxConcurrentUploads || pending.isEmpty()) {
+                return null;
+            }
+            inFlight++;
+            return pending.poll();
+        }
+
+        private void upload(final Entry<String, Path> image) {
+            final CompletableFuture<BotApiResponse> result = results.get(image.getKey());
+            final CompletableFuture<BotApiResponse> upload;
+            try {
+                upload = client.setRichMenuImage(image.getKey(), contentTypeOf(image.getValue()),
+                                                 image.getValue());
+            } catch (RuntimeException e) {
+                onComplete(result, null, e);
+                return;
+            }
+            upload.whenComplete((response, t) -> onComplete(result, response, t));
+        }
+
+        private void onComplete(final CompletableFuture<BotApiResponse> result,
+                                final BotApiResponse response, final Throwable cause) {
+            synchronized (this) {
+                inFlight--;
+            }
+            if (cause != null) {
+                result.completeExceptionally(cause);
+            } else {
+                result.complete(response);
+            }
+            drain();
+        }
+    }
+
+    /**
+     * Returns the content type of a rich menu image file from its extension.
+     *
+     * @throws IllegalArgumentException if the extension is not supported by rich menus.
+     */
+    static String contentTypeOf(final Path path) {
+        final String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".png")) {
+            return "image/png";
+        }
+        if (name.endsWith(".jpg") || name.endsWith(".jpeg")) {
+            return "image/jpeg";
+        }
+        throw new IllegalArgumentException("Unsupported rich menu image: " + path);
+    }
+
+    /**
+     * Builder of {@link RichMenuImageUploader}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient client;
+        private int maxConcurrentUploads = 4;
+
+        private Builder(@NonNull final LineMessagingClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Max number of images uploaded at once. Default = 4.
+         */
+        public Builder maxConcurrentUploads(final int maxConcurrentUploads) {
+            if (maxConcurrentUploads <= 0) {
+                throw new IllegalArgumentException("maxConcurrentUploads must be positive");
+            }
+            this.maxConcurrentUploads = maxConcurrentUploads;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link RichMenuImageUploader}.
+         */
+        public RichMenuImageUploader build() {
+            return new RichMenuImageUploader(this);
+        }
+    }
+}
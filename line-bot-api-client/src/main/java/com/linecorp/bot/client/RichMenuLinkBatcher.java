@@ -0,0 +1,259 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Groups single rich menu link and unlink requests into bulk requests.
+ *
+ * <p>Requests are held for up to {@code linger} and sent as
+ * {@link LineMessagingClient#linkRichMenuIdToUsers(List, String)} per rich menu ID or
+ * {@link LineMessagingClient#unlinkRichMenuIdFromUsers(List)}. A batch is sent immediately when it reaches
+ * {@code maxBatchSize}. Each caller receives the result of the bulk request which contained its user.
+ *
+ * <p>Requests of the same user are sent in the order they were made; when a user already waits in another
+ * batch, that batch is sent first.
+ *
+ * <pre>{@code
+ * RichMenuLinkBatcher batcher = RichMenuLinkBatcher.builder(lineMessagingClient)
+ *                                                  .linger(Duration.ofMillis(100))
+ *                                                  .build();
+ * batcher.link(userId, richMenuId);
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class RichMenuLinkBatcher implements Closeable {
+    /**
+     * Max number of users of a single bulk link or unlink request.
+     */
+    public static final int MAX_BATCH_SIZE = 150;
+
+    private final LineMessagingClient client;
+    @ToString.Include
+    private final int maxBatchSize;
+    @ToString.Include
+    private final Duration linger;
+    private final ScheduledExecutorService scheduler;
+
+    // Guarded by this. Key of the unlink batch is null.
+    private final Map<String, Batch> batches = new HashMap<>();
+    private final Map<String, Batch> batchOfUser = new HashMap<>();
+
+    private RichMenuLinkBatcher(final Builder builder) {
+        client = builder.client;
+        maxBatchSize = builder.maxBatchSize;
+        linger = builder.linger;
+        scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * Creates a new {@link Builder} which sends bulk requests through the given client.
+     */
+    public static Builder builder(final LineMessagingClient client) {
+        return new Builder(client);
+    }
+
+    /**
+     * Links the rich menu to the user in a bulk request.
+     *
+     * @see LineMessagingClient#linkRichMenuIdToUser(String, String)
+     */
+    public CompletableFuture<BotApiResponse> link(@NonNull final String userId,
+                                                  @NonNull final String richMenuId) {
+        return add(richMenuId, userId);
+    }
+
+    /**
+     * Unlinks the rich menu from the user in a bulk request.
+     *
+     * @see LineMessagingClient#unlinkRichMenuIdFromUser(String)
+     */
+    public CompletableFuture<BotApiResponse> unlink(@NonNull final String userId) {
+        return add(null, userId);
+    }
+
+    /**
+     * Sends all pending requests immediately.
+     */
+    public void flush() {
+        final List<Batch> flushed;
+        synchronized (this) {
+            flushed = new ArrayList<>(batches.values());
+            flushed.forEach(this::detach);
+        }
+        flushed.forEach(Batch::send);
+    }
+
+    /**
+     * Sends all pending requests. Requests made after closing are still accepted and batched.
+     */
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private CompletableFuture<BotApiResponse> add(final String richMenuId, final String userId) {
+        final List<Batch> ready = new ArrayList<>(2);
+        final CompletableFuture<BotApiResponse> future;
+        synchronized (this) {
+            final Batch pending = batchOfUser.get(userId);
+            if (pending != null && !pending.isFor(richMenuId)) {
+                // Keep the order of requests of the same user.
+                detach(pending);
+                ready.add(pending);
+            }
+
+            Batch batch = batches.get(richMenuId);
+            if (batch == null) {
+                batch = new Batch(richMenuId);
+                batches.put(richMenuId, batch);
+                final Batch scheduled = batch;
+                scheduler.schedule(() -> sendIfPending(scheduled), linger.toNanos(), TimeUnit.NANOSECONDS);
+            }
+            future = batch.add(userId);
+            batchOfUser.put(userId, batch);
+
+            if (batch.size() >= maxBatchSize) {
+                detach(batch);
+                ready.add(batch);
+            }
+        }
+        ready.forEach(Batch::send);
+        return future;
+    }
+
+    private void sendIfPending(final Batch batch) {
+        synchronized (this) {
+            if (batches.get(batch.richMenuId) != batch) {
+                // Already sent.
+                return;
+            }
+            detach(batch);
+        }
+        batch.send();
+    }
+
+    private void detach(final Batch batch) {
+        batches.remove(batch.richMenuId, batch);
+        batch.futures.keySet().forEach(userId -> batchOfUser.remove(userId, batch));
+    }
+
+    private final class Batch {
+        private final String richMenuId;
+        // Users in the order of requests. Duplicated requests of a user share a future.
+        private final Map<String, CompletableFuture<BotApiResponse>> futures = new LinkedHashMap<>();
+
+        Batch(final String richMenuId) {
+            this.richMenuId = richMenuId;
+        }
+
+        boolean isFor(final String richMenuId) {
+            return this.richMenuId == null ? richMenuId == null : this.richMenuId.equals(richMenuId);
+        }
+
+        CompletableFuture<BotApiResponse> add(final String userId) {
+            return futures.computeIfAbsent(userId, ignored -> new CompletableFuture<>())
+                          .thenApply(response -> response);
+        }
+
+        int size() {
+            return futures.size();
+        }
+
+        void send() {
+            final List<String> userIds = new ArrayList<>(futures.keySet());
+            final CompletableFuture<BotApiResponse> response;
+            try {
+                response = richMenuId != null ? client.linkRichMenuIdToUsers(userIds, richMenuId)
+                                              : client.unlinkRichMenuIdFromUsers(userIds);
+            } catch (RuntimeException e) {
+                futures.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            response.whenComplete((result, t) -> futures.values().forEach(future -> {
+                if (t != null) {
+                    future.completeExceptionally(t);
+                } else {
+                    future.complete(result);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Builder of {@link RichMenuLinkBatcher}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient client;
+        private int maxBatchSize = MAX_BATCH_SIZE;
+        private Duration linger = Duration.ofMillis(50);
+        private ScheduledExecutorService scheduler;
+
+        private Builder(@NonNull final LineMessagingClient client) {
+            this.client = client;
+        }
+
+        /**
+         * Max number of users of a single bulk request. Default = {@value RichMenuLinkBatcher#MAX_BATCH_SIZE}.
+         */
+        public Builder maxBatchSize(final int maxBatchSize) {
+            if (maxBatchSize <= 0 || maxBatchSize > MAX_BATCH_SIZE) {
+                throw new IllegalArgumentException("maxBatchSize must be in [1, " + MAX_BATCH_SIZE + ']');
+            }
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Max duration to hold a request before sending it. Default = 50ms.
+         */
+        public Builder linger(@NonNull final Duration linger) {
+            this.linger = linger;
+            return this;
+        }
+
+        /**
+         * Scheduler used to send batches after linger. A shared daemon thread is used if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link RichMenuLinkBatcher}.
+         */
+        public RichMenuLinkBatcher build() {
+            return new RichMenuLinkBatcher(this);
+        }
+    }
+}
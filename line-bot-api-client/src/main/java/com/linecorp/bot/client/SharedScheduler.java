@@ -0,0 +1,50 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Holder of the default scheduler used for delayed tasks of this client, e.g. waking up rate limited
+ * requests or retrying requests after backoff.
+ *
+ * <p>Tasks scheduled on it must be short and non-blocking.
+ */
+final class SharedScheduler {
+    private SharedScheduler() {
+    }
+
+    static ScheduledExecutorService get() {
+        return Holder.INSTANCE;
+    }
+
+    private static final class Holder {
+        static final ScheduledExecutorService INSTANCE = newScheduler();
+
+        private static ScheduledExecutorService newScheduler() {
+            final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                final Thread thread = new Thread(runnable, "line-bot-client-scheduler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            // Timeouts are usually cancelled long before they fire, e.g. deadlines of granted replies.
+            executor.setRemoveOnCancelPolicy(true);
+            return executor;
+        }
+    }
+}
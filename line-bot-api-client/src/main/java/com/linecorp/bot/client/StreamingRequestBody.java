@@ -0,0 +1,100 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Source;
+
+/**
+ * {@link RequestBody} which streams its content from a file or a stream through Okio's pooled segments
+ * instead of holding it on the heap.
+ */
+abstract class StreamingRequestBody extends RequestBody {
+    private final MediaType contentType;
+    private final long contentLength;
+
+    private StreamingRequestBody(final MediaType contentType, final long contentLength) {
+        this.contentType = contentType;
+        this.contentLength = contentLength;
+    }
+
+    /**
+     * Creates a body which reads the given file on each write. Thus the request can be retried.
+     */
+    static RequestBody of(final MediaType contentType, final Path path) throws IOException {
+        return new StreamingRequestBody(contentType, Files.size(path)) {
+            @Override
+            Source open() throws IOException {
+                return Okio.source(path);
+            }
+        };
+    }
+
+    /**
+     * Creates a body which can be written only once.
+     *
+     * @param contentLength number of bytes to be read from the stream, or {@code -1} if unknown.
+     */
+    static RequestBody of(final MediaType contentType, final InputStream stream, final long contentLength) {
+        final AtomicBoolean opened = new AtomicBoolean();
+        return new StreamingRequestBody(contentType, contentLength) {
+            @Override
+            Source open() throws IOException {
+                if (!opened.compareAndSet(false, true)) {
+                    throw new IOException("The stream has already been consumed.");
+                }
+                return Okio.source(stream);
+            }
+
+            @Override
+            public boolean isOneShot() {
+                return true;
+            }
+        };
+    }
+
+    abstract Source open() throws IOException;
+
+    @Override
+    public MediaType contentType() {
+        return contentType;
+    }
+
+    @Override
+    public long contentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+        try (Source source = open()) {
+            final long written = sink.writeAll(source);
+            if (contentLength >= 0 && written != contentLength) {
+                throw new IOException("Expected " + contentLength + " bytes but got " + written);
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * {@link RateLimiter} which has a token bucket per {@link EndpointGroup}.
+ *
+ * <p>Requests of a group without configured limit are never delayed. When the server responds
+ * {@code 429 Too Many Requests}, the bucket stops issuing tokens until {@code Retry-After} has passed,
+ * halves its rate and then recovers linearly to the configured rate.
+ *
+ * <pre>{@code
+ * RateLimiter rateLimiter = TokenBucketRateLimiter.builder()
+ *                                                 .limit(EndpointGroup.PUSH, 1000)
+ *                                                 .limit(EndpointGroup.MULTICAST, 200)
+ *                                                 .build();
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .rateLimiter(rateLimiter)
+ *                                                 .build();
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class TokenBucketRateLimiter implements RateLimiter {
+    private static final Duration DEFAULT_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration RECOVERY_PERIOD = Duration.ofSeconds(10);
+    private static final double MIN_RATE_RATIO = 0.05;
+
+    @ToString.Include
+    private final Map<EndpointGroup, Bucket> buckets;
+    private final ScheduledExecutorService scheduler;
+
+    private TokenBucketRateLimiter(final Builder builder) {
+        buckets = new EnumMap<>(EndpointGroup.class);
+        builder.limits.forEach((group, limit) -> buckets.put(group, new Bucket(limit[0], limit[1])));
+        scheduler = builder.scheduler != null ? builder.scheduler : SharedScheduler.get();
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public CompletableFuture<Void> acquire(final EndpointGroup group) {
+        final Bucket bucket = buckets.get(group);
+        if (bucket == null) {
+            return completedFuture(null);
+        }
+        return bucket.acquire();
+    }
+
+    @Override
+    public void onTooManyRequests(final EndpointGroup group, final Duration retryAfter) {
+        final Bucket bucket = buckets.get(group);
+        if (bucket != null) {
+            bucket.backOff(retryAfter != null ? retryAfter : DEFAULT_BACKOFF);
+        }
+    }
+
+    @Override
+    public int queueDepth(final EndpointGroup group) {
+        final Bucket bucket = buckets.get(group);
+        return bucket == null ? 0 : bucket.queueDepth();
+    }
+
+    /**
+     * Returns the current permits per second of the given group. Lower than the configured value after
+     * {@code 429 Too Many Requests}. {@link Double#POSITIVE_INFINITY} if the group is not limited.
+     */
+    public double currentRate(final EndpointGroup group) {
+        final Bucket bucket = buckets.get(group);
+        return bucket == null ? Double.POSITIVE_INFINITY : bucket.currentRate();
+    }
+
+    @ToString
+    private final class Bucket {
+        private final double configuredRate;
+        private final double capacity;
+
+        // Guarded by this.
+        private double rate;
+        private double tokens;
+        private long lastRefillNanos;
+        private long pausedUntilNanos;
+        private boolean drainScheduled;
+        @ToString.Exclude
+        private final Queue<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+
+        Bucket(final double configuredRate, final double capacity) {
+            this.configuredRate = configuredRate;
+            this.capacity = capacity;
+            rate = configuredRate;
+            tokens = capacity;
+            lastRefillNanos = System.nanoTime();
+            pausedUntilNanos = lastRefillNanos;
+        }
+
+        synchronized CompletableFuture<Void> acquire() {
+            final long now = System.nanoTime();
+            refill(now);
+            if (waiters.isEmpty() && now - pausedUntilNanos >= 0 && tokens >= 1) {
+                tokens -= 1;
+                return completedFuture(null);
+            }
+
+            final CompletableFuture<Void> waiter = new CompletableFuture<>();
+            waiters.add(waiter);
+            scheduleDrain(now);
+            return waiter;
+        }
+
+        synchronized void backOff(final Duration retryAfter) {
+            final long now = System.nanoTime();
+            refill(now);
+            pausedUntilNanos = Math.max(pausedUntilNanos - now, retryAfter.toNanos()) + now;
+            rate = Math.max(configuredRate * MIN_RATE_RATIO, rate / 2);
+            tokens = 0;
+        }
+
+        synchronized int queueDepth() {
+            return waiters.size();
+        }
+
+        synchronized double currentRate() {
+            refill(System.nanoTime());
+            return rate;
+        }
+
+        private void drain() {
+            final List<CompletableFuture<Void>> granted = new ArrayList<>();
+            synchronized (this) {
+                drainScheduled = false;
+                final long now = System.nanoTime();
+                refill(now);
+                if (now - pausedUntilNanos >= 0) {
+                    while (!waiters.isEmpty() && tokens >= 1) {
+                        tokens -= 1;
+                        granted.add(waiters.poll());
+                    }
+                }
+                if (!waiters.isEmpty()) {
+                    scheduleDrain(now);
+                }
+            }
+            // Complete outside of the lock because dependent actions run synchronously.
+            granted.forEach(waiter -> waiter.complete(null));
+        }
+
+        private void scheduleDrain(final long now) {
+            if (drainScheduled) {
+                return;
+            }
+            drainScheduled = true;
+            final long untilResume = Math.max(0, pausedUntilNanos - now);
+            final long untilToken = (long) (Math.max(0, 1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1));
+            scheduler.schedule(this::drain, Math.max(untilResume, untilToken), TimeUnit.NANOSECONDS);
+        }
+
+        private void refill(final long now) {
+            final long from = Math.max(lastRefillNanos, pausedUntilNanos);
+            if (now - from > 0) {
+                final double elapsedSeconds = (now - from) / (double) TimeUnit.SECONDS.toNanos(1);
+                rate = Math.min(configuredRate,
+                                rate + configuredRate * elapsedSeconds / RECOVERY_PERIOD.getSeconds());
+                tokens = Math.min(capacity, tokens + elapsedSeconds * rate);
+            }
+            lastRefillNanos = Math.max(lastRefillNanos, now);
+        }
+    }
+
+    /**
+     * Builder of {@link TokenBucketRateLimiter}.
+     */
+    public static final class Builder {
+        private final Map<EndpointGroup, double[]> limits = new EnumMap<>(EndpointGroup.class);
+        private ScheduledExecutorService scheduler;
+
+        private Builder() {
+        }
+
+        /**
+         * Limits requests of the given group. Burst size is the same as {@code permitsPerSecond}.
+         */
+        public Builder limit(final EndpointGroup group, final double permitsPerSecond) {
+            return limit(group, permitsPerSecond, Math.max(1, permitsPerSecond));
+        }
+
+        /**
+         * Limits requests of the given group.
+         *
+         * @param permitsPerSecond steady rate of requests.
+         * @param burst max number of requests which can be sent at once after idle period.
+         */
+        public Builder limit(@NonNull final EndpointGroup group, final double permitsPerSecond,
+                             final double burst) {
+            if (permitsPerSecond <= 0 || burst < 1) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive and burst must be >= 1");
+            }
+            limits.put(group, new double[] { permitsPerSecond, burst });
+            return this;
+        }
+
+        /**
+         * Scheduler used to wake up waiting requests. A shared daemon thread is used if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link TokenBucketRateLimiter}.
+         */
+        public TokenBucketRateLimiter build() {
+            return new TokenBucketRateLimiter(this);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Logging of HTTP requests and responses to {@code com.linecorp.bot.client.wire} logger at INFO level.
+ *
+ * <p>Nothing is formatted nor buffered while INFO is disabled for the logger. Bodies are truncated to
+ * {@link #maxBodyBytes}, binary bodies are omitted, and the {@code Authorization} header and tokens and
+ * secrets in bodies are redacted.
+ *
+ * <pre>{@code
+ * LineMessagingClient client = LineMessagingClient.builder(channelToken)
+ *                                                 .wireLogging(WireLogging.builder()
+ *                                                                         .sampleEvery(100)
+ *                                                                         .maxBodyBytes(1024)
+ *                                                                         .build())
+ *                                                 .build();
+ * }</pre>
+ *
+ * @see LineMessagingClientBuilder#wireLogging(WireLogging)
+ */
+@Value
+@Builder
+public class WireLogging {
+    /**
+     * Detail of logs.
+     */
+    public enum Level {
+        /**
+         * No logs.
+         */
+        NONE,
+        /**
+         * Request lines and response lines.
+         */
+        BASIC,
+        /**
+         * Request lines, response lines and their headers.
+         */
+        HEADERS,
+        /**
+         * Request lines, response lines, their headers and bodies.
+         */
+        BODY,
+    }
+
+    /**
+     * Detail of logs.
+     *
+     * <p>Default = {@link Level#BODY}.
+     */
+    @NonNull
+    @Builder.Default
+    private final Level level = Level.BODY;
+
+    /**
+     * Log one of every {@code sampleEvery} successful exchanges. Failed exchanges, i.e. network errors and
+     * non-{@code 2xx} responses, are always logged.
+     *
+     * <p>Default = 1 (all exchanges).
+     */
+    @Builder.Default
+    private final int sampleEvery = 1;
+
+    /**
+     * Log failed exchanges only.
+     *
+     * <p>Default = {@code false}.
+     */
+    @Builder.Default
+    private final boolean errorsOnly = false;
+
+    /**
+     * Max number of bytes of a body to log. The rest is omitted.
+     *
+     * <p>Default = 4096.
+     */
+    @Builder.Default
+    private final int maxBodyBytes = 4096;
+}
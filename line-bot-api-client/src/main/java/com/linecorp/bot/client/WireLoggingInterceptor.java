@@ -0,0 +1,245 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.linecorp.bot.client.WireLogging.Level;
+
+import okhttp3.Headers;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Timeout;
+
+/**
+ * {@link Interceptor} which logs exchanges as configured by {@link WireLogging}.
+ *
+ * <p>Each exchange is logged as a single message after the response arrives, so that messages of concurrent
+ * requests are not interleaved.
+ */
+class WireLoggingInterceptor implements Interceptor {
+    static final String LOGGER_NAME = "com.linecorp.bot.client.wire";
+    private static final String REDACTED = "****";
+    private static final Pattern JSON_SECRET = Pattern.compile(
+            "(\"(?:access_token|refresh_token|client_secret|replyToken)\"\\s*:\\s*\")[^\"]*");
+    private static final Pattern FORM_SECRET = Pattern.compile(
+            "((?:^|&)(?:access_token|refresh_token|client_secret)=)[^&]*");
+
+    private final WireLogging config;
+    private final Logger logger;
+    private final AtomicLong successCount = new AtomicLong();
+
+    WireLoggingInterceptor(final WireLogging config) {
+        this(config, LoggerFactory.getLogger(LOGGER_NAME));
+    }
+
+    WireLoggingInterceptor(final WireLogging config, final Logger logger) {
+        if (config.getSampleEvery() < 1 || config.getMaxBodyBytes() < 0) {
+            throw new IllegalArgumentException("sampleEvery must be positive and maxBodyBytes must be >= 0");
+        }
+        this.config = config;
+        this.logger = logger;
+    }
+
+    @Override
+    public Response intercept(final Chain chain) throws IOException {
+        final Request request = chain.request();
+        if (config.getLevel() == Level.NONE || !logger.isInfoEnabled()) {
+            return chain.proceed(request);
+        }
+
+        final long startNanos = System.nanoTime();
+        final Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            final StringBuilder message = new StringBuilder();
+            appendRequest(message, request);
+            message.append("\n<-- HTTP FAILED: ").append(e);
+            logger.info(message.toString());
+            throw e;
+        }
+
+        if (response.isSuccessful() && !sampled()) {
+            return response;
+        }
+        final long tookMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        final StringBuilder message = new StringBuilder();
+        appendRequest(message, request);
+        appendResponse(message, response, tookMs);
+        logger.info(message.toString());
+        return response;
+    }
+
+    private boolean sampled() {
+        return !config.isErrorsOnly() && successCount.getAndIncrement() % config.getSampleEvery() == 0;
+    }
+
+    private void appendRequest(final StringBuilder message, final Request request) throws IOException {
+        final RequestBody body = request.body();
+        message.append("--> ").append(request.method()).append(' ').append(request.url());
+        if (body != null && body.contentLength() >= 0) {
+            message.append(" (").append(body.contentLength()).append("-byte body)");
+        }
+        if (config.getLevel() == Level.BASIC) {
+            return;
+        }
+        appendHeaders(message, request.headers());
+        if (config.getLevel() != Level.BODY || body == null) {
+            return;
+        }
+        if (body.isOneShot() || body.isDuplex()) {
+            message.append("\n(one-shot body omitted)");
+        } else if (!isText(body.contentType())) {
+            message.append("\n(binary body omitted)");
+        } else {
+            final TruncatingSink sink = new TruncatingSink(config.getMaxBodyBytes());
+            final BufferedSink bufferedSink = Okio.buffer(sink);
+            body.writeTo(bufferedSink);
+            bufferedSink.flush();
+            final Buffer logged = sink.captured;
+            final long omitted = sink.size - logged.size();
+            appendBody(message, logged.readString(charset(body.contentType())), omitted);
+        }
+    }
+
+    private void appendResponse(final StringBuilder message, final Response response, final long tookMs)
+            throws IOException {
+        message.append("\n<-- ").append(response.code());
+        if (!response.message().isEmpty()) {
+            message.append(' ').append(response.message());
+        }
+        message.append(' ').append(response.request().url()).append(" (").append(tookMs).append("ms)");
+        if (config.getLevel() == Level.BASIC) {
+            return;
+        }
+        appendHeaders(message, response.headers());
+        final ResponseBody body = response.body();
+        if (config.getLevel() != Level.BODY || body == null) {
+            return;
+        }
+        if (!isText(body.contentType())) {
+            message.append("\n(binary body omitted)");
+            return;
+        }
+        // Peek only the logged part, leaving the body to the caller.
+        final ResponseBody peeked = response.peekBody(config.getMaxBodyBytes());
+        final long logged = peeked.contentLength();
+        final long omitted;
+        if (body.contentLength() >= 0) {
+            omitted = body.contentLength() - logged;
+        } else {
+            omitted = logged < config.getMaxBodyBytes() ? 0 : -1;
+        }
+        appendBody(message, peeked.string(), omitted);
+    }
+
+    private static void appendHeaders(final StringBuilder message, final Headers headers) {
+        for (int i = 0; i < headers.size(); i++) {
+            final String name = headers.name(i);
+            message.append('\n').append(name).append(": ")
+                   .append("Authorization".equalsIgnoreCase(name) ? REDACTED : headers.value(i));
+        }
+    }
+
+    /**
+     * Appends a body.
+     *
+     * @param omitted number of omitted bytes. Negative if unknown.
+     */
+    private static void appendBody(final StringBuilder message, final String text, final long omitted) {
+        message.append("\n\n").append(redact(text));
+        if (omitted > 0) {
+            message.append("...\n(").append(omitted).append(" more bytes)");
+        } else if (omitted < 0) {
+            message.append("...");
+        }
+    }
+
+    static String redact(final String text) {
+        final String json = JSON_SECRET.matcher(text).replaceAll("$1" + REDACTED);
+        return FORM_SECRET.matcher(json).replaceAll("$1" + REDACTED);
+    }
+
+    private static boolean isText(final MediaType mediaType) {
+        if (mediaType == null) {
+            return false;
+        }
+        final String subtype = mediaType.subtype();
+        return "text".equals(mediaType.type())
+               || subtype.contains("json")
+               || subtype.contains("xml")
+               || "x-www-form-urlencoded".equals(subtype);
+    }
+
+    private static Charset charset(final MediaType mediaType) {
+        return mediaType == null ? UTF_8 : mediaType.charset(UTF_8);
+    }
+
+    /**
+     * {@link Sink} which keeps the first {@code limit} bytes and only counts the rest.
+     */
+    private static final class TruncatingSink implements Sink {
+        private final Buffer captured = new Buffer();
+        private final long limit;
+        private long size;
+
+        TruncatingSink(final long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public void write(final Buffer source, final long byteCount) throws IOException {
+            final long kept = Math.min(byteCount, limit - captured.size());
+            if (kept > 0) {
+                captured.write(source, kept);
+            }
+            source.skip(byteCount - Math.max(kept, 0));
+            size += byteCount;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public Timeout timeout() {
+            return Timeout.NONE;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class BulkheadCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    private final Bulkhead bulkhead = Bulkhead.builder()
+                                              .limit(EndpointGroup.CONTENT, 1, 1)
+                                              .limit(EndpointGroup.PROFILE, 1, 1)
+                                              .build();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .bulkhead(bulkhead)
+                                  .build();
+    }
+
+    @Test
+    public void contentPermitIsHeldUntilBodyIsClosed() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeader("Content-Type", "image/jpeg")
+                                                .setBody("content"));
+
+        // Do
+        final MessageContentResponse response = lineMessagingClient.getMessageContent("ID").get();
+
+        // Verify
+        assertThat(bulkhead.activeCalls(EndpointGroup.CONTENT)).isEqualTo(1);
+        response.close();
+        assertThat(bulkhead.activeCalls(EndpointGroup.CONTENT)).isEqualTo(0);
+    }
+
+    @Test
+    public void errorResponseReleasesPermit() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404).setBody("{}"));
+
+        // Do
+        lineMessagingClient.getMessageContent("ID").exceptionally(t -> null).get();
+
+        // Verify
+        assertThat(bulkhead.activeCalls(EndpointGroup.CONTENT)).isEqualTo(0);
+    }
+
+    @Test
+    public void decodedResponseReleasesPermit() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        lineMessagingClient.getProfile("USER_ID").get();
+
+        // Verify
+        assertThat(bulkhead.activeCalls(EndpointGroup.PROFILE)).isEqualTo(0);
+    }
+}
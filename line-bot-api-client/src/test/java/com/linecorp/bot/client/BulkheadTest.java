@@ -0,0 +1,71 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Test;
+
+public class BulkheadTest {
+    private final Bulkhead target = Bulkhead.builder()
+                                            .limit(EndpointGroup.CONTENT, 2, 1)
+                                            .build();
+
+    @Test
+    public void limitConcurrentCalls() {
+        // Do
+        final CompletableFuture<Void> first = target.acquire(EndpointGroup.CONTENT);
+        final CompletableFuture<Void> second = target.acquire(EndpointGroup.CONTENT);
+        final CompletableFuture<Void> third = target.acquire(EndpointGroup.CONTENT);
+
+        // Verify
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(target.activeCalls(EndpointGroup.CONTENT)).isEqualTo(2);
+        assertThat(target.queueDepth(EndpointGroup.CONTENT)).isEqualTo(1);
+
+        target.release(EndpointGroup.CONTENT);
+        assertThat(third).isCompleted();
+        assertThat(target.activeCalls(EndpointGroup.CONTENT)).isEqualTo(2);
+        assertThat(target.queueDepth(EndpointGroup.CONTENT)).isEqualTo(0);
+    }
+
+    @Test
+    public void rejectWhenQueueIsFull() {
+        target.acquire(EndpointGroup.CONTENT);
+        target.acquire(EndpointGroup.CONTENT);
+        target.acquire(EndpointGroup.CONTENT);
+
+        // Do
+        final CompletableFuture<Void> rejected = target.acquire(EndpointGroup.CONTENT);
+
+        // Verify
+        assertThat(rejected).hasFailedWithThrowableThat().isInstanceOf(CallNotPermittedException.class);
+    }
+
+    @Test
+    public void otherGroupsAreNotLimited() {
+        target.acquire(EndpointGroup.CONTENT);
+        target.acquire(EndpointGroup.CONTENT);
+
+        // Verify
+        assertThat(target.acquire(EndpointGroup.REPLY)).isCompleted();
+    }
+}
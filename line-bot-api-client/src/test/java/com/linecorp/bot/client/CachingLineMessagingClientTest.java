@@ -0,0 +1,195 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.model.event.MemberLeftEvent;
+import com.linecorp.bot.model.event.MemberLeftEvent.LeftMembers;
+import com.linecorp.bot.model.event.source.GroupSource;
+import com.linecorp.bot.model.event.source.UserSource;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+
+public class CachingLineMessagingClientTest {
+    private static final UserProfileResponse PROFILE =
+            new UserProfileResponse("name", "USER_ID", null, null);
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient delegate;
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    private CachingLineMessagingClient target;
+
+    @Before
+    public void setUp() {
+        target = CachingLineMessagingClient.builder(delegate)
+                                           .maximumSize(2)
+                                           .ttl(Duration.ofSeconds(10))
+                                           .ticker(nanoTime::get)
+                                           .build();
+    }
+
+    @Test
+    public void cacheProfile() {
+        when(delegate.getProfile("USER_ID")).thenReturn(completedFuture(PROFILE));
+
+        // Do
+        target.getProfile("USER_ID").join();
+        final UserProfileResponse profile = target.getProfile("USER_ID").join();
+
+        // Verify
+        assertThat(profile).isSameAs(PROFILE);
+        verify(delegate, times(1)).getProfile("USER_ID");
+        assertThat(target.stats().getHitCount()).isEqualTo(1);
+        assertThat(target.stats().getMissCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentMissesShareRequest() {
+        final CompletableFuture<UserProfileResponse> response = new CompletableFuture<>();
+        when(delegate.getGroupMemberProfile("GROUP_ID", "USER_ID")).thenReturn(response);
+
+        // Do
+        final CompletableFuture<UserProfileResponse> first =
+                target.getGroupMemberProfile("GROUP_ID", "USER_ID");
+        final CompletableFuture<UserProfileResponse> second =
+                target.getGroupMemberProfile("GROUP_ID", "USER_ID");
+        response.complete(PROFILE);
+
+        // Verify
+        assertThat(first.join()).isSameAs(PROFILE);
+        assertThat(second.join()).isSameAs(PROFILE);
+        verify(delegate, times(1)).getGroupMemberProfile("GROUP_ID", "USER_ID");
+    }
+
+    @Test
+    public void expireAfterTtl() {
+        when(delegate.getProfile("USER_ID")).thenReturn(completedFuture(PROFILE));
+        target.getProfile("USER_ID").join();
+
+        // Do
+        nanoTime.addAndGet(Duration.ofSeconds(10).toNanos());
+        target.getProfile("USER_ID").join();
+
+        // Verify
+        verify(delegate, times(2)).getProfile("USER_ID");
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        when(delegate.getProfile(any())).thenReturn(completedFuture(PROFILE));
+        target.getProfile("A").join();
+        target.getProfile("B").join();
+        target.getProfile("A").join();
+
+        // Do
+        target.getProfile("C").join();
+        target.getProfile("A").join();
+        target.getProfile("B").join();
+
+        // Verify
+        verify(delegate, times(1)).getProfile("A");
+        verify(delegate, times(2)).getProfile("B");
+        assertThat(target.stats().getEvictionCount()).isEqualTo(2);
+        assertThat(target.stats().getSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void failureIsNotCached() {
+        final CompletableFuture<UserProfileResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        when(delegate.getProfile("USER_ID")).thenReturn(failed, completedFuture(PROFILE));
+
+        // Do
+        assertThat(target.getProfile("USER_ID")).isCompletedExceptionally();
+        final UserProfileResponse profile = target.getProfile("USER_ID").join();
+
+        // Verify
+        assertThat(profile).isSameAs(PROFILE);
+        assertThat(target.stats().getLoadFailureCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void invalidateByFollowEvent() {
+        when(delegate.getProfile("USER_ID")).thenReturn(completedFuture(PROFILE));
+        when(delegate.getGroupMemberProfile("GROUP_ID", "USER_ID")).thenReturn(completedFuture(PROFILE));
+        target.getProfile("USER_ID").join();
+        target.getGroupMemberProfile("GROUP_ID", "USER_ID").join();
+
+        // Do
+        target.invalidate(new FollowEvent("TOKEN", new UserSource("USER_ID"), Instant.now()));
+
+        // Verify
+        assertThat(target.stats().getSize()).isZero();
+    }
+
+    @Test
+    public void invalidateByMemberLeftEvent() {
+        when(delegate.getProfile("USER_ID")).thenReturn(completedFuture(PROFILE));
+        when(delegate.getGroupMemberProfile("GROUP_ID", "USER_ID")).thenReturn(completedFuture(PROFILE));
+        target.getProfile("USER_ID").join();
+        target.getGroupMemberProfile("GROUP_ID", "USER_ID").join();
+
+        // Do
+        target.invalidate(new MemberLeftEvent(
+                new GroupSource("GROUP_ID", null),
+                new LeftMembers(singletonList(new UserSource("USER_ID"))),
+                Instant.now()));
+
+        // Verify
+        assertThat(target.stats().getSize()).isEqualTo(1);
+        target.getGroupMemberProfile("GROUP_ID", "USER_ID").join();
+        verify(delegate, times(2)).getGroupMemberProfile("GROUP_ID", "USER_ID");
+    }
+
+    @Test
+    public void otherMethodsAreDelegated() {
+        // Do
+        target.getMessageContent("MESSAGE_ID");
+
+        // Verify
+        verify(delegate).getMessageContent("MESSAGE_ID");
+    }
+}
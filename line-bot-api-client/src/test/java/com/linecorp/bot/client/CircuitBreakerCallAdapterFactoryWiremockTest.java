@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.CircuitBreaker.State;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class CircuitBreakerCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.builder()
+                                                                .slidingWindowSize(2)
+                                                                .openDuration(Duration.ofMinutes(1))
+                                                                .build();
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .circuitBreaker(circuitBreaker)
+                                  .bulkhead(Bulkhead.builder().limit(EndpointGroup.CONTENT, 1).build())
+                                  .retryPolicy(RetryPolicy.builder()
+                                                          .initialBackoff(Duration.ofMillis(10))
+                                                          .maxAttempts(5)
+                                                          .build())
+                                  .build();
+    }
+
+    @Test
+    public void failFastWhenOpen() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+
+        // Do
+        assertThatThrownBy(() -> lineMessagingClient.pushMessage(PUSH_MESSAGE).get())
+                .hasRootCauseInstanceOf(CallNotPermittedException.class);
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        assertThat(circuitBreaker.state(EndpointGroup.PUSH)).isEqualTo(State.OPEN);
+        assertThat(circuitBreaker.state(EndpointGroup.REPLY)).isEqualTo(State.CLOSED);
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+import com.linecorp.bot.client.CircuitBreaker.State;
+
+public class CircuitBreakerTest {
+    private final CircuitBreaker target = CircuitBreaker.builder()
+                                                        .slidingWindowSize(4)
+                                                        .failureRateThreshold(0.5)
+                                                        .openDuration(Duration.ofMillis(100))
+                                                        .endpointGroups(EnumSet.of(EndpointGroup.CONTENT))
+                                                        .build();
+
+    @Test
+    public void opensWhenFailureRateReachesThreshold() {
+        // Do
+        record(false, true, false);
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.CLOSED);
+        record(true);
+
+        // Verify
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.OPEN);
+        assertThat(target.tryAcquirePermission(EndpointGroup.CONTENT)).isFalse();
+        assertThat(target.tryAcquirePermission(EndpointGroup.REPLY)).isTrue();
+    }
+
+    @Test
+    public void staysClosedBelowThreshold() {
+        // Do
+        record(false, false, false, true, false, false, false, true);
+
+        // Verify
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void halfOpenAllowsSingleTrial() throws Exception {
+        record(true, true, true, true);
+
+        // Do
+        Thread.sleep(150);
+
+        // Verify
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.HALF_OPEN);
+        assertThat(target.tryAcquirePermission(EndpointGroup.CONTENT)).isTrue();
+        assertThat(target.tryAcquirePermission(EndpointGroup.CONTENT)).isFalse();
+
+        target.onSuccess(EndpointGroup.CONTENT);
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.CLOSED);
+    }
+
+    @Test
+    public void failedTrialOpensAgain() throws Exception {
+        record(true, true, true, true);
+        Thread.sleep(150);
+
+        // Do
+        assertThat(target.tryAcquirePermission(EndpointGroup.CONTENT)).isTrue();
+        target.onFailure(EndpointGroup.CONTENT);
+
+        // Verify
+        assertThat(target.state(EndpointGroup.CONTENT)).isEqualTo(State.OPEN);
+    }
+
+    private void record(final boolean... failures) {
+        for (boolean failure : failures) {
+            assertThat(target.tryAcquirePermission(EndpointGroup.CONTENT)).isTrue();
+            if (failure) {
+                target.onFailure(EndpointGroup.CONTENT);
+            } else {
+                target.onSuccess(EndpointGroup.CONTENT);
+            }
+        }
+    }
+}
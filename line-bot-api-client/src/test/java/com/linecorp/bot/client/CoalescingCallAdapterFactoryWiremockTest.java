@@ -0,0 +1,149 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.exception.NotFoundException;
+import com.linecorp.bot.model.richmenu.RichMenuListResponse;
+import com.linecorp.bot.model.richmenu.RichMenuResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class CoalescingCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .coalesceRequests(true)
+                                  .build();
+    }
+
+    @Test
+    public void notCoalescedByDefault() throws Exception {
+        final LineMessagingClient client = super.createLineMessagingClient(mockWebServer);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                                                .setBody("{\"richmenus\":[]}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setBody("{\"richmenus\":[]}"));
+
+        // Do
+        final CompletableFuture<RichMenuListResponse> first = client.getRichMenuList();
+        final CompletableFuture<RichMenuListResponse> second = client.getRichMenuList();
+
+        // Verify
+        assertThat(first.get()).isNotSameAs(second.get());
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void coalesceIdenticalRequests() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                                                .setBody("{\"richmenus\":[]}"));
+
+        // Do
+        final CompletableFuture<RichMenuListResponse> first = lineMessagingClient.getRichMenuList();
+        final CompletableFuture<RichMenuListResponse> second = lineMessagingClient.getRichMenuList();
+
+        // Verify
+        assertThat(first.get()).isSameAs(second.get());
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void differentRequestsAreNotCoalesced() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                                                .setBody("{\"richMenuId\":\"A\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setBody("{\"richMenuId\":\"B\"}"));
+
+        // Do
+        final CompletableFuture<RichMenuResponse> first = lineMessagingClient.getRichMenu("A");
+        final CompletableFuture<RichMenuResponse> second = lineMessagingClient.getRichMenu("B");
+        first.get();
+        second.get();
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void errorIsDeliveredToAllCallers() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(404)
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                                                .setBody("{\"message\":\"Not found\"}"));
+
+        // Do
+        final CompletableFuture<RichMenuResponse> first = lineMessagingClient.getRichMenu("A");
+        final CompletableFuture<RichMenuResponse> second = lineMessagingClient.getRichMenu("A");
+
+        // Verify
+        assertThatThrownBy(first::get).hasCauseInstanceOf(NotFoundException.class)
+                                      .hasMessageContaining("Not found");
+        assertThatThrownBy(second::get).hasCauseInstanceOf(NotFoundException.class)
+                                       .hasMessageContaining("Not found");
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void contentIsNotCoalesced() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS)
+                                                .setHeader("Content-Type", "image/jpeg")
+                                                .setBody("1"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200)
+                                                .setHeader("Content-Type", "image/jpeg")
+                                                .setBody("2"));
+
+        // Do
+        final CompletableFuture<MessageContentResponse> first = lineMessagingClient.getMessageContent("ID");
+        final CompletableFuture<MessageContentResponse> second = lineMessagingClient.getMessageContent("ID");
+        first.get();
+        second.get();
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void completedRequestIsNotReused() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"richmenus\":[]}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"richmenus\":[]}"));
+
+        // Do
+        lineMessagingClient.getRichMenuList().get();
+        lineMessagingClient.getRichMenuList().get();
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class EndpointGroupTest {
+    @Test
+    public void resolveByPath() {
+        assertThat(EndpointGroup.of("v2/bot/message/reply")).isEqualTo(EndpointGroup.REPLY);
+        assertThat(EndpointGroup.of("/v2/bot/message/push")).isEqualTo(EndpointGroup.PUSH);
+        assertThat(EndpointGroup.of("/base/v2/bot/message/multicast")).isEqualTo(EndpointGroup.MULTICAST);
+        assertThat(EndpointGroup.of("v2/bot/message/broadcast")).isEqualTo(EndpointGroup.BROADCAST);
+        assertThat(EndpointGroup.of("v2/bot/message/{messageId}/content")).isEqualTo(EndpointGroup.CONTENT);
+        assertThat(EndpointGroup.of("v2/bot/message/quota/consumption")).isEqualTo(EndpointGroup.INSIGHT);
+        assertThat(EndpointGroup.of("v2/bot/message/delivery/push")).isEqualTo(EndpointGroup.INSIGHT);
+        assertThat(EndpointGroup.of("v2/bot/insight/followers")).isEqualTo(EndpointGroup.INSIGHT);
+        assertThat(EndpointGroup.of("v2/bot/profile/U1234")).isEqualTo(EndpointGroup.PROFILE);
+        assertThat(EndpointGroup.of("v2/bot/group/G1234/member/U1234")).isEqualTo(EndpointGroup.PROFILE);
+        assertThat(EndpointGroup.of("v2/bot/room/R1234/members/ids")).isEqualTo(EndpointGroup.PROFILE);
+        assertThat(EndpointGroup.of("v2/bot/richmenu/{richMenuId}/content")).isEqualTo(EndpointGroup.RICH_MENU);
+        assertThat(EndpointGroup.of("/v2/bot/user/all/richmenu")).isEqualTo(EndpointGroup.RICH_MENU);
+        assertThat(EndpointGroup.of("v2/bot/user/U1234/richmenu/R1234")).isEqualTo(EndpointGroup.RICH_MENU);
+        assertThat(EndpointGroup.of("v2/bot/user/U1234/linkToken")).isEqualTo(EndpointGroup.OTHER);
+        assertThat(EndpointGroup.of("liff/v1/apps")).isEqualTo(EndpointGroup.OTHER);
+    }
+}
@@ -22,8 +22,10 @@ import static org.mockito.Mockito.when;
 
 import org.junit.Test;
 
+import com.linecorp.bot.client.exception.ConflictException;
 import com.linecorp.bot.client.exception.GeneralLineMessagingException;
 import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.client.exception.LineServerException;
 import com.linecorp.bot.client.exception.UnauthorizedException;
 
 import okhttp3.MediaType;
@@ -48,6 +50,31 @@ public class ExceptionConverterTest {
                 .isInstanceOf(UnauthorizedException.class);
     }
 
+    @Test
+    public void convertConflictTest() {
+        final ResponseBody responseBody =
+                ResponseBody.create(MediaType.parse("application/json"),
+                                    "{}");
+        final LineMessagingException result =
+                target.apply(Response.error(409, responseBody));
+
+        assertThat(result)
+                .isInstanceOf(ConflictException.class);
+    }
+
+    @Test
+    public void convertServerErrorTest() {
+        final ResponseBody responseBody =
+                ResponseBody.create(MediaType.parse("application/json"),
+                                    "{}");
+        final LineMessagingException result =
+                target.apply(Response.error(503, responseBody));
+
+        assertThat(result)
+                .isInstanceOf(LineServerException.class);
+        assertThat(ExceptionConverter.exceptionTypeOf(503)).isEqualTo(LineServerException.class);
+    }
+
     @Test
     public void convertUnknownExceptionTest() {
         final ResponseBody responseBody =
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+public class Http2TransportTest {
+    private final Http2Transport target = Http2Transport.builder()
+                                                        .maxConcurrentStreams(100)
+                                                        .build();
+
+    @Test
+    public void raiseLimitsOfGivenDispatcher() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(5);
+
+        // Do
+        final OkHttpClient client =
+                (OkHttpClient) target.newCallFactory(new OkHttpClient.Builder().dispatcher(dispatcher));
+
+        // Verify
+        assertThat(client.dispatcher()).isSameAs(dispatcher);
+        assertThat(dispatcher.getMaxRequests()).isEqualTo(100);
+        assertThat(dispatcher.getMaxRequestsPerHost()).isEqualTo(100);
+    }
+
+    @Test
+    public void keepHigherLimits() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(500);
+        dispatcher.setMaxRequestsPerHost(200);
+
+        // Do
+        target.newCallFactory(new OkHttpClient.Builder().dispatcher(dispatcher));
+
+        // Verify
+        assertThat(dispatcher.getMaxRequests()).isEqualTo(500);
+        assertThat(dispatcher.getMaxRequestsPerHost()).isEqualTo(200);
+    }
+
+    @Test
+    public void keepConnectionPoolOfGivenBuilder() {
+        final ConnectionPool pool = new ConnectionPool(64, 1, TimeUnit.MINUTES);
+
+        // Do
+        final OkHttpClient client =
+                (OkHttpClient) target.newCallFactory(new OkHttpClient.Builder().connectionPool(pool));
+
+        // Verify
+        assertThat(client.connectionPool()).isSameAs(pool);
+        assertThat(client.protocols()).isEqualTo(new OkHttpClient().protocols());
+    }
+
+    @Test
+    public void replaceConnectionPoolIfConfigured() {
+        final ConnectionPool pool = new ConnectionPool(64, 1, TimeUnit.MINUTES);
+        final Http2Transport target = Http2Transport.builder()
+                                                    .maxIdleConnections(2)
+                                                    .build();
+
+        // Do
+        final OkHttpClient client =
+                (OkHttpClient) target.newCallFactory(new OkHttpClient.Builder().connectionPool(pool));
+
+        // Verify
+        assertThat(client.connectionPool()).isNotSameAs(pool);
+    }
+}
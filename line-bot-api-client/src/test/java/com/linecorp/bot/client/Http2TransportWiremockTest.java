@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class Http2TransportWiremockTest extends AbstractWiremockTest {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        mockWebServer.setProtocols(singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .httpTransport(Http2Transport.builder()
+                                                               .priorKnowledge(true)
+                                                               .build())
+                                  .build();
+    }
+
+    @Test
+    public void concurrentRequestsShareConnection() throws Exception {
+        final int requests = 20;
+        for (int i = 0; i <= requests; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        }
+        // Establish the connection first.
+        lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+
+        // Do
+        final List<CompletableFuture<BotApiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(lineMessagingClient.pushMessage(PUSH_MESSAGE));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+
+        // Verify
+        final Set<Integer> sequenceNumbers = new HashSet<>();
+        for (int i = 0; i <= requests; i++) {
+            final RecordedRequest request = mockWebServer.takeRequest();
+            assertThat(request.getHeader("Authorization")).isEqualTo("Bearer token");
+            sequenceNumbers.add(request.getSequenceNumber());
+        }
+        // Sequence numbers are assigned per connection.
+        assertThat(sequenceNumbers).hasSize(requests + 1);
+    }
+}
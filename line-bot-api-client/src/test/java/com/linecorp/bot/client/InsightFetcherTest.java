@@ -0,0 +1,169 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.model.response.GetNumberOfFollowersResponse;
+import com.linecorp.bot.model.response.NumberOfMessagesResponse;
+import com.linecorp.bot.model.response.NumberOfMessagesResponse.Status;
+
+public class InsightFetcherTest {
+    private static final LocalDate FROM = LocalDate.of(2019, 9, 1);
+    private static final LocalDate TO = LocalDate.of(2019, 9, 30);
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Test
+    public void fetchRangeWithBoundedConcurrency() {
+        final List<CompletableFuture<NumberOfMessagesResponse>> inFlight = new ArrayList<>();
+        when(client.getNumberOfSentPushMessages(any())).thenAnswer(invocation -> {
+            final CompletableFuture<NumberOfMessagesResponse> future = new CompletableFuture<>();
+            inFlight.add(future);
+            return future;
+        });
+        final InsightFetcher target = InsightFetcher.builder(client).maxConcurrentRequests(3).build();
+
+        // Do
+        final CompletableFuture<InsightSeries<NumberOfMessagesResponse>> result =
+                target.sentPushMessages(FROM, TO);
+
+        // Verify
+        assertThat(inFlight).hasSize(3);
+        for (int i = 0; i < inFlight.size(); i++) {
+            inFlight.get(i).complete(new NumberOfMessagesResponse(Status.Ready, i));
+        }
+        final InsightSeries<NumberOfMessagesResponse> series = result.join();
+        assertThat(inFlight).hasSize(30);
+        assertThat(series.size()).isEqualTo(30);
+        assertThat(series.asMap().firstKey()).isEqualTo(FROM);
+        assertThat(series.get(TO)).isNotNull();
+        verify(client).getNumberOfSentPushMessages("20190901");
+        verify(client).getNumberOfSentPushMessages("20190930");
+    }
+
+    @Test
+    public void longRangeOfSynchronousResponsesDoesNotOverflowStack() {
+        when(client.getNumberOfSentMulticastMessages(any())).thenReturn(
+                CompletableFuture.completedFuture(new NumberOfMessagesResponse(Status.Ready, 1)));
+        final InsightFetcher target = InsightFetcher.builder(client)
+                                                    .maxConcurrentRequests(1)
+                                                    .storeDirectory(folder.getRoot().toPath())
+                                                    .build();
+
+        // Do
+        final InsightSeries<NumberOfMessagesResponse> series =
+                target.sentMulticastMessages(TO.minusDays(9_999), TO).join();
+
+        // Verify
+        assertThat(series.size()).isEqualTo(10_000);
+    }
+
+    @Test
+    public void cacheOnlyFinalValues() {
+        when(client.getNumberOfSentReplyMessages(any())).thenReturn(
+                CompletableFuture.completedFuture(new NumberOfMessagesResponse(Status.Ready, 10)));
+        when(client.getNumberOfSentReplyMessages("20190930")).thenReturn(
+                CompletableFuture.completedFuture(new NumberOfMessagesResponse(Status.Unready, 0)));
+        final InsightFetcher target = InsightFetcher.builder(client).build();
+        target.sentReplyMessages(FROM, TO).join();
+
+        // Do
+        final InsightSeries<NumberOfMessagesResponse> series = target.sentReplyMessages(FROM, TO).join();
+
+        // Verify
+        assertThat(series.toLongArray(NumberOfMessagesResponse::getSuccess)).hasSize(30).startsWith(10, 10);
+        verify(client, times(1)).getNumberOfSentReplyMessages("20190901");
+        verify(client, times(2)).getNumberOfSentReplyMessages("20190930");
+    }
+
+    @Test
+    public void keepFinalValuesInStoreDirectory() {
+        final GetNumberOfFollowersResponse followers =
+                GetNumberOfFollowersResponse.builder()
+                                            .status(GetNumberOfFollowersResponse.Status.Ready)
+                                            .followers(100L)
+                                            .targetedReaches(80L)
+                                            .blocks(3L)
+                                            .build();
+        when(client.getNumberOfFollowersResponse(any()))
+                .thenReturn(CompletableFuture.completedFuture(followers));
+        InsightFetcher.builder(client)
+                      .storeDirectory(folder.getRoot().toPath())
+                      .build()
+                      .followers(FROM, TO)
+                      .join();
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+
+        // Do
+        final InsightSeries<GetNumberOfFollowersResponse> series =
+                InsightFetcher.builder(restarted)
+                              .storeDirectory(folder.getRoot().toPath())
+                              .build()
+                              .followers(FROM, TO)
+                              .join();
+
+        // Verify
+        assertThat(series.size()).isEqualTo(30);
+        assertThat(series.get(FROM)).isEqualTo(followers);
+        verify(restarted, never()).getNumberOfFollowersResponse(any());
+    }
+
+    @Test
+    public void failWhenRequestFails() {
+        final CompletableFuture<NumberOfMessagesResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("failed"));
+        when(client.getNumberOfSentBroadcastMessages(any())).thenReturn(failed);
+
+        // Do
+        final CompletableFuture<InsightSeries<NumberOfMessagesResponse>> result =
+                InsightFetcher.builder(client).build().sentBroadcastMessages(FROM, TO);
+
+        // Verify
+        assertThat(result).isCompletedExceptionally();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class JfrHttpTimingsRecorderTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void unavailableWithoutJfr() {
+        final ClassLoader withoutJfr = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(final String name, final boolean resolve)
+                    throws ClassNotFoundException {
+                if (name.startsWith("jdk.jfr.")) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+
+        // Verify
+        assertThat(JfrHttpTimingsRecorder.createIfAvailable(withoutJfr)).isNull();
+    }
+
+    @Test
+    public void commitEvent() throws Exception {
+        assumeTrue(isJfrAvailable());
+        final JfrHttpTimingsRecorder target = JfrHttpTimingsRecorder.createIfAvailable();
+        assertThat(target).isNotNull();
+        final long[] nanos = new long[HttpPhase.values().length];
+        nanos[HttpPhase.DNS.ordinal()] = -1;
+        nanos[HttpPhase.TOTAL.ordinal()] = 1000;
+        final HttpCallTimings timings =
+                new HttpCallTimings("POST v2/bot/message/push", EndpointGroup.PUSH, true, false, nanos);
+
+        // jdk.jfr isn't on the compile classpath of Java 8, so the recording is driven by reflection too.
+        final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        final Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("enable", String.class).invoke(recording, "com.linecorp.bot.client.HttpCall");
+        recordingClass.getMethod("start").invoke(recording);
+
+        // Do
+        target.record(timings);
+
+        // Verify
+        recordingClass.getMethod("stop").invoke(recording);
+        final Path file = temporaryFolder.newFile("calls.jfr").toPath();
+        recordingClass.getMethod("dump", Path.class).invoke(recording, file);
+        recordingClass.getMethod("close").invoke(recording);
+        final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                                              .getMethod("readAllEvents", Path.class)
+                                              .invoke(null, file);
+        assertThat(events).hasSize(1);
+        final Object event = events.get(0);
+        final Class<?> recordedObject = Class.forName("jdk.jfr.consumer.RecordedObject");
+        assertThat(recordedObject.getMethod("getString", String.class).invoke(event, "endpoint"))
+                .isEqualTo("POST v2/bot/message/push");
+        assertThat(recordedObject.getMethod("getLong", String.class).invoke(event, "dns")).isEqualTo(-1L);
+        assertThat(recordedObject.getMethod("getLong", String.class).invoke(event, "total")).isEqualTo(1000L);
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.EventFactory");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
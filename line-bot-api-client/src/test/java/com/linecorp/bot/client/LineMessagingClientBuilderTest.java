@@ -19,11 +19,23 @@ package com.linecorp.bot.client;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.mockito.junit.MockitoJUnit;
 import org.mockito.junit.MockitoRule;
 
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.RecordedRequest;
 
 public class LineMessagingClientBuilderTest extends AbstractWiremockTest {
@@ -62,6 +74,92 @@ public class LineMessagingClientBuilderTest extends AbstractWiremockTest {
                 .isEqualTo("Bearer MOCKED_TOKEN");
     }
 
+    @Test
+    public void testConcurrencyLimits() throws Exception {
+        final HttpClientGauges gauges = new HttpClientGauges();
+        lineMessagingClient =
+                LineMessagingClient.builder("MOCKED_TOKEN")
+                                   .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                   .maxRequestsPerHost(1)
+                                   .httpClientGauges(gauges)
+                                   .build();
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setBody("{}")
+                                                    .setHeadersDelay(100, TimeUnit.MILLISECONDS));
+        }
+
+        // Do
+        final List<CompletableFuture<BotApiResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(lineMessagingClient.pushMessage(new PushMessage("TO", new TextMessage("text"))));
+        }
+
+        // Verify
+        assertThat(gauges.runningCalls()).isEqualTo(1);
+        assertThat(gauges.queuedCalls()).isEqualTo(2);
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get();
+        assertThat(gauges.queuedCalls()).isZero();
+        assertThat(gauges.connections()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCustomDispatcherIsKept() {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(300);
+        dispatcher.setMaxRequestsPerHost(200);
+
+        // Do
+        LineMessagingClient.builder("MOCKED_TOKEN")
+                           .okHttpClientBuilder(new OkHttpClient.Builder().dispatcher(dispatcher), true)
+                           .build();
+
+        // Verify
+        assertThat(dispatcher.getMaxRequests()).isEqualTo(300);
+        assertThat(dispatcher.getMaxRequestsPerHost()).isEqualTo(200);
+    }
+
+    @Test
+    public void testExplicitLimitsTuneCustomDispatcher() {
+        final Dispatcher dispatcher = new Dispatcher();
+
+        // Do
+        LineMessagingClient.builder("MOCKED_TOKEN")
+                           .okHttpClientBuilder(new OkHttpClient.Builder().dispatcher(dispatcher), true)
+                           .maxRequestsPerHost(20)
+                           .build();
+
+        // Verify
+        assertThat(dispatcher.getMaxRequests()).isEqualTo(LineClientConstants.DEFAULT_MAX_REQUESTS);
+        assertThat(dispatcher.getMaxRequestsPerHost()).isEqualTo(20);
+    }
+
+    @Test
+    public void testGaugesCanNotBeShared() {
+        final HttpClientGauges gauges = new HttpClientGauges();
+        LineMessagingClient.builder("MOCKED_TOKEN").httpClientGauges(gauges).build();
+
+        assertThatThrownBy(() -> LineMessagingClient.builder("MOCKED_TOKEN").httpClientGauges(gauges))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testGaugesShowClientBuiltLast() throws Exception {
+        final HttpClientGauges gauges = new HttpClientGauges();
+        final LineMessagingClientBuilder builder =
+                LineMessagingClient.builder("MOCKED_TOKEN")
+                                   .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                   .httpClientGauges(gauges);
+        builder.build();
+        lineMessagingClient = builder.build();
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        lineMessagingClient.pushMessage(new PushMessage("TO", new TextMessage("text"))).get();
+
+        // Verify
+        assertThat(gauges.connections()).isEqualTo(1);
+    }
+
     @Test
     public void testBuildWithoutChannelToken() {
         assertThatThrownBy(() -> {
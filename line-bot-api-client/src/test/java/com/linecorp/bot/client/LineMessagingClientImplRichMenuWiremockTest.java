@@ -19,14 +19,25 @@ package com.linecorp.bot.client;
 import static java.util.Collections.emptyList;
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.linecorp.bot.model.response.BotApiResponse;
 
 import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.RecordedRequest;
 
 public class LineMessagingClientImplRichMenuWiremockTest extends AbstractWiremockTest {
     public static final BotApiResponse SUCCESS = new BotApiResponse("", emptyList());
+    private static final byte[] IMAGE = new byte[10_000];
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
 
     @Test(timeout = ASYNC_TEST_TIMEOUT)
     public void status200WithoutBodyTest() throws Exception {
@@ -38,6 +49,39 @@ public class LineMessagingClientImplRichMenuWiremockTest extends AbstractWiremoc
         assertThat(botApiResponse).isEqualTo(SUCCESS);
     }
 
+    @Test(timeout = ASYNC_TEST_TIMEOUT)
+    public void setRichMenuImageFromPathTest() throws Exception {
+        // Mocking
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+        final Path image = temporaryFolder.newFile("image.png").toPath();
+        Files.write(image, IMAGE);
+
+        // Do
+        lineMessagingClient.setRichMenuImage("RICH_MENU_ID", "image/png", image).get();
+
+        // Verify
+        final RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getPath()).isEqualTo("/v2/bot/richmenu/RICH_MENU_ID/content");
+        assertThat(request.getHeader("Content-Type")).isEqualTo("image/png");
+        assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(IMAGE.length));
+        assertThat(request.getBody().readByteArray()).isEqualTo(IMAGE);
+    }
+
+    @Test(timeout = ASYNC_TEST_TIMEOUT)
+    public void setRichMenuImageFromStreamTest() throws Exception {
+        // Mocking
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200));
+
+        // Do
+        lineMessagingClient.setRichMenuImage("RICH_MENU_ID", "image/jpeg", new ByteArrayInputStream(IMAGE),
+                                             IMAGE.length).get();
+
+        // Verify
+        final RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader("Content-Length")).isEqualTo(String.valueOf(IMAGE.length));
+        assertThat(request.getBody().readByteArray()).isEqualTo(IMAGE);
+    }
+
     @Test(timeout = ASYNC_TEST_TIMEOUT)
     public void status200WithBodyTest() throws Exception {
         // Mocking
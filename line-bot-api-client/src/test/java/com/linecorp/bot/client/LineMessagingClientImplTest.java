@@ -101,7 +101,7 @@ public class LineMessagingClientImplTest {
 
     @Test
     public void pushMessageTest() throws Exception {
-        whenCall(retrofitMock.pushMessage(any()),
+        whenCall(retrofitMock.pushMessage(any(), any()),
                  BOT_API_SUCCESS_RESPONSE);
         final PushMessage pushMessage = new PushMessage("TO", new TextMessage("text"));
 
@@ -110,13 +110,13 @@ public class LineMessagingClientImplTest {
                 target.pushMessage(pushMessage).get();
 
         // Verify
-        verify(retrofitMock, only()).pushMessage(pushMessage);
+        verify(retrofitMock, only()).pushMessage(null, pushMessage);
         assertThat(botApiResponse).isEqualTo(BOT_API_SUCCESS_RESPONSE);
     }
 
     @Test
     public void multicastTest() throws Exception {
-        whenCall(retrofitMock.multicast(any()),
+        whenCall(retrofitMock.multicast(any(), any()),
                  BOT_API_SUCCESS_RESPONSE);
         final Multicast multicast = new Multicast(singleton("TO"), new TextMessage("text"));
 
@@ -125,17 +125,17 @@ public class LineMessagingClientImplTest {
                 target.multicast(multicast).get();
 
         // Verify
-        verify(retrofitMock, only()).multicast(multicast);
+        verify(retrofitMock, only()).multicast(null, multicast);
         assertThat(botApiResponse).isEqualTo(BOT_API_SUCCESS_RESPONSE);
     }
 
     @Test
     public void broadcast() {
-        whenCall(retrofitMock.broadcast(any()), BOT_API_SUCCESS_RESPONSE);
+        whenCall(retrofitMock.broadcast(any(), any()), BOT_API_SUCCESS_RESPONSE);
         final Broadcast broadcast = new Broadcast(Collections.singletonList(new TextMessage("text")), true);
 
         final BotApiResponse botApiResponse = target.broadcast(broadcast).join();
-        verify(retrofitMock).broadcast(broadcast);
+        verify(retrofitMock).broadcast(null, broadcast);
         assertThat(botApiResponse).isEqualTo(BOT_API_SUCCESS_RESPONSE);
     }
 
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.profile.MembersIdsResponse;
+
+public class MembersIdsIteratorTest {
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Test
+    public void iterateAllPages() {
+        when(client.getGroupMembersIds(eq("GROUP_ID"), isNull()))
+                .thenReturn(completedFuture(new MembersIdsResponse(asList("A", "B"), "p2")));
+        when(client.getGroupMembersIds("GROUP_ID", "p2"))
+                .thenReturn(completedFuture(new MembersIdsResponse(asList("C"), "p3")));
+        when(client.getGroupMembersIds("GROUP_ID", "p3"))
+                .thenReturn(completedFuture(new MembersIdsResponse(asList("D"), null)));
+        when(client.streamGroupMembersIds(any())).thenCallRealMethod();
+
+        // Do
+        final List<String> memberIds;
+        try (Stream<String> stream = client.streamGroupMembersIds("GROUP_ID")) {
+            memberIds = stream.collect(toList());
+        }
+
+        // Verify
+        assertThat(memberIds).containsExactly("A", "B", "C", "D");
+    }
+
+    @Test
+    public void prefetchNextPage() {
+        final CompletableFuture<MembersIdsResponse> secondPage = new CompletableFuture<>();
+        when(client.getRoomMembersIds(eq("ROOM_ID"), isNull()))
+                .thenReturn(completedFuture(new MembersIdsResponse(asList("A", "B"), "p2")));
+        when(client.getRoomMembersIds("ROOM_ID", "p2")).thenReturn(secondPage);
+        final MembersIdsIterator target = MembersIdsIterator.ofRoom(client, "ROOM_ID");
+
+        // Do
+        assertThat(target.next()).isEqualTo("A");
+
+        // Verify
+        verify(client).getRoomMembersIds("ROOM_ID", "p2");
+        assertThat(target.next()).isEqualTo("B");
+        secondPage.complete(new MembersIdsResponse(asList("C"), null));
+        assertThat(target.next()).isEqualTo("C");
+        assertThat(target.hasNext()).isFalse();
+    }
+
+    @Test
+    public void closeStopsFetching() {
+        final CompletableFuture<MembersIdsResponse> secondPage = new CompletableFuture<>();
+        when(client.getGroupMembersIds(eq("GROUP_ID"), isNull()))
+                .thenReturn(completedFuture(new MembersIdsResponse(asList("A"), "p2")));
+        when(client.getGroupMembersIds("GROUP_ID", "p2")).thenReturn(secondPage);
+        final MembersIdsIterator target = MembersIdsIterator.ofGroup(client, "GROUP_ID");
+        assertThat(target.next()).isEqualTo("A");
+
+        // Do
+        target.close();
+
+        // Verify
+        assertThat(target.hasNext()).isFalse();
+        assertThat(secondPage).isCancelled();
+        verify(client, never()).getGroupMembersIds("GROUP_ID", "p3");
+    }
+
+    @Test
+    public void failureIsPropagated() {
+        final CompletableFuture<MembersIdsResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        when(client.getGroupMembersIds(eq("GROUP_ID"), isNull())).thenReturn(failed);
+        final MembersIdsIterator target = MembersIdsIterator.ofGroup(client, "GROUP_ID");
+
+        // Verify
+        assertThatThrownBy(target::hasNext).isInstanceOf(CompletionException.class)
+                                           .hasCauseInstanceOf(LineServerException.class);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+import okhttp3.mockwebserver.MockResponse;
+import okio.Buffer;
+
+public class MessageContentDownloadWiremockTest extends AbstractWiremockTest {
+    private static final byte[] CONTENT = new byte[100_000];
+
+    static {
+        Arrays.fill(CONTENT, (byte) 'x');
+    }
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void downloadToPath() throws Exception {
+        mockContent();
+        final Path path = temporaryFolder.getRoot().toPath().resolve("content.jpg");
+
+        // Do
+        final ContentTransferResult result =
+                lineMessagingClient.downloadMessageContent("ID", path, ContentTransferOptions.builder()
+                                                                                           .bufferSize(1000)
+                                                                                           .build())
+                                   .get();
+
+        // Verify
+        assertThat(Files.readAllBytes(path)).isEqualTo(CONTENT);
+        assertThat(result.getLength()).isEqualTo(CONTENT.length);
+        assertThat(result.getMimeType()).isEqualTo("image/jpeg");
+        assertThat(result.getDigest()).isEqualTo(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+    }
+
+    @Test
+    public void downloadToChannel() throws Exception {
+        mockContent();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Do
+        final ContentTransferResult result =
+                lineMessagingClient.downloadMessageContent("ID", Channels.newChannel(out),
+                                                           ContentTransferOptions.builder()
+                                                                                 .digestAlgorithm(null)
+                                                                                 .build())
+                                   .get();
+
+        // Verify
+        assertThat(out.toByteArray()).isEqualTo(CONTENT);
+        assertThat(result.getDigest()).isNull();
+    }
+
+    @Test
+    public void tooLargeContentIsDeleted() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg")
+                                                .setChunkedBody(new Buffer().write(CONTENT), 1000));
+        final Path path = temporaryFolder.getRoot().toPath().resolve("content.jpg");
+
+        // Do
+        final CompletableFuture<ContentTransferResult> future =
+                lineMessagingClient.downloadMessageContent("ID", path, ContentTransferOptions.builder()
+                                                                                           .maxSize(1000)
+                                                                                           .build());
+
+        // Verify
+        assertThatThrownBy(future::get).hasCauseInstanceOf(ContentTooLargeException.class);
+        assertThat(path).doesNotExist();
+    }
+
+    @Test
+    public void headersAreConvertedOnDemand() throws Exception {
+        mockContent();
+
+        // Do
+        try (MessageContentResponse response = lineMessagingClient.getMessageContent("ID").get()) {
+            // Verify
+            assertThat(response.getLength()).isEqualTo(CONTENT.length);
+            assertThat(response.getAllHeaders()).containsKey("content-type");
+        }
+    }
+
+    @Test
+    public void toStringIncludesHeadersNotConvertedYet() throws Exception {
+        mockContent();
+
+        // Do
+        try (MessageContentResponse response = lineMessagingClient.getMessageContent("ID").get()) {
+            // Verify
+            assertThat(response.toString()).contains("allHeaders={").contains("image/jpeg");
+        }
+    }
+
+    private void mockContent() {
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Type", "image/jpeg")
+                                                .setBody(new Buffer().write(CONTENT)));
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+public class MetricsCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+    private static final String PUSH = "POST v2/bot/message/push";
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final ClientMetrics metrics = new ClientMetrics();
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .clientMetrics(metrics)
+                                  .build();
+    }
+
+    @Test
+    public void endpointsAreRegisteredUpFront() {
+        assertThat(metrics.endpoints())
+                .containsKeys(PUSH, "POST v2/bot/message/reply", "GET v2/bot/profile/{userId}");
+        assertThat(metrics.endpoints().get(PUSH).getGroup()).isEqualTo(EndpointGroup.PUSH);
+        assertThat(metrics.endpoints().get(PUSH).calls()).isZero();
+    }
+
+    @Test
+    public void recordsOutcomesPerEndpoint() throws Exception {
+        final List<String> notified = Collections.synchronizedList(new ArrayList<>());
+        metrics.addListener((endpoint, outcome, nanos) -> notified.add(endpoint.getEndpoint() + ' ' + outcome));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429).setBody("{}"));
+        // OkHttp retries a connection failure on a fresh connection.
+        for (int i = 0; i < 3; i++) {
+            mockWebServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START));
+        }
+
+        // Do
+        lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+        assertThatThrownBy(() -> lineMessagingClient.pushMessage(PUSH_MESSAGE).get())
+                .hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> lineMessagingClient.pushMessage(PUSH_MESSAGE).get());
+
+        // Verify
+        final EndpointMetrics push = metrics.endpoints().get(PUSH);
+        assertThat(push.calls()).isEqualTo(3);
+        assertThat(push.inFlight()).isZero();
+        assertThat(push.outcomes()).containsEntry(EndpointMetrics.SUCCESS, 1L)
+                                   .containsEntry("TooManyRequestsException", 1L)
+                                   .containsEntry("IOException", 1L);
+        assertThat(push.latency().count()).isEqualTo(3);
+        assertThat(push.latency().percentile(0.999)).isGreaterThan(Duration.ZERO);
+        assertThat(metrics.endpoints().get("POST v2/bot/message/reply").calls()).isZero();
+        assertThat(notified).containsExactly(PUSH + " success",
+                                             PUSH + " TooManyRequestsException",
+                                             PUSH + " IOException");
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.MulticastFanoutResult.ChunkResult;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class MulticastFanoutTest {
+    private static final BotApiResponse BOT_API_SUCCESS_RESPONSE = new BotApiResponse("", emptyList());
+    private static final List<Message> MESSAGES = singletonList(new TextMessage("text"));
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Test
+    public void splitIntoChunks() {
+        when(client.multicast(any())).thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+        final List<String> to = userIds(1000);
+
+        // Do
+        final MulticastFanoutResult result = MulticastFanout.builder()
+                                                            .client(client)
+                                                            .build()
+                                                            .send(to, MESSAGES)
+                                                            .join();
+
+        // Verify
+        verify(client, times(7)).multicast(any());
+        assertThat(result.isAllSucceeded()).isTrue();
+        assertThat(result.getSucceededRecipientCount()).isEqualTo(1000);
+        assertThat(result.getChunks()).hasSize(7);
+        assertThat(result.getChunks().get(0).getTo()).hasSize(150).startsWith("user0");
+        assertThat(result.getChunks().get(6).getTo()).hasSize(100).endsWith("user999");
+    }
+
+    @Test
+    public void boundedInFlight() {
+        final Queue<CompletableFuture<BotApiResponse>> pending = new ConcurrentLinkedQueue<>();
+        when(client.multicast(any())).then(invocation -> {
+            final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        });
+
+        // Do
+        final CompletableFuture<MulticastFanoutResult> result =
+                MulticastFanout.builder()
+                               .client(client)
+                               .chunkSize(10)
+                               .maxInFlight(2)
+                               .build()
+                               .send(userIds(45).stream(), MESSAGES);
+
+        // Verify
+        int completed = 0;
+        while (!result.isDone()) {
+            assertThat(pending).hasSizeLessThanOrEqualTo(2);
+            pending.poll().complete(BOT_API_SUCCESS_RESPONSE);
+            completed++;
+        }
+        assertThat(completed).isEqualTo(5);
+        assertThat(result.join().getSucceededRecipientCount()).isEqualTo(45);
+    }
+
+    @Test
+    public void multicastFanoutWithDefaultSettings() {
+        when(client.multicast(any())).thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+        when(client.multicastFanout(any(), any())).thenCallRealMethod();
+
+        // Do
+        final MulticastFanoutResult result = client.multicastFanout(userIds(3), MESSAGES).join();
+
+        // Verify
+        verify(client).multicast(new Multicast(new LinkedHashSet<>(userIds(3)), MESSAGES));
+        assertThat(result.isAllSucceeded()).isTrue();
+    }
+
+    @Test
+    public void failedChunksAreReported() {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new LineServerException("error", null));
+        when(client.multicast(any()))
+                .thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE))
+                .thenReturn(failure)
+                .thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+
+        // Do
+        final MulticastFanoutResult result = MulticastFanout.builder()
+                                                            .client(client)
+                                                            .chunkSize(1)
+                                                            .build()
+                                                            .send(userIds(3), MESSAGES)
+                                                            .join();
+
+        // Verify
+        assertThat(result.isAllSucceeded()).isFalse();
+        assertThat(result.getSucceededRecipientCount()).isEqualTo(2);
+        assertThat(result.getFailedChunks()).hasSize(1);
+        assertThat(result.getFailedChunks().get(0).getTo()).containsExactly("user1");
+        assertThat(result.getFailedChunks().get(0).getCause()).isInstanceOf(LineServerException.class);
+    }
+
+    @Test
+    public void iterationFailureKeepsSentChunks() {
+        when(client.multicast(any())).thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+        final IllegalStateException exception = new IllegalStateException("source failed");
+        final Iterator<String> to = new Iterator<String>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public String next() {
+                if (next == 3) {
+                    throw exception;
+                }
+                return "user" + next++;
+            }
+        };
+
+        // Do
+        final MulticastFanoutResult result = MulticastFanout.builder()
+                                                            .client(client)
+                                                            .chunkSize(2)
+                                                            .build()
+                                                            .send(to, MESSAGES)
+                                                            .join();
+
+        // Verify
+        assertThat(result.isAllSucceeded()).isFalse();
+        assertThat(result.getIterationFailure()).isSameAs(exception);
+        assertThat(result.getChunks()).extracting(ChunkResult::getTo)
+                                      .containsExactly(asList("user0", "user1"), singletonList("user2"));
+        assertThat(result.getSucceededRecipientCount()).isEqualTo(3);
+    }
+
+    private static List<String> userIds(int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(i -> "user" + i)
+                        .collect(toList());
+    }
+}
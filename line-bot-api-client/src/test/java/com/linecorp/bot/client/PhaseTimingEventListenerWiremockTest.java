@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class PhaseTimingEventListenerWiremockTest extends AbstractWiremockTest {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+    private static final String PUSH = "POST v2/bot/message/push";
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final HttpPhaseMetrics phaseMetrics = new HttpPhaseMetrics();
+    private final List<HttpCallTimings> recorded = new CopyOnWriteArrayList<>();
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        phaseMetrics.addListener(recorded::add);
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .httpTimingsRecorder(phaseMetrics)
+                                  .jfrEvents(true)
+                                  .build();
+    }
+
+    @Test
+    public void recordsPhasesAndConnectionReuse() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+        lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+
+        // Verify
+        assertThat(recorded).hasSize(2);
+        final HttpCallTimings first = recorded.get(0);
+        assertThat(first.getEndpoint()).isEqualTo(PUSH);
+        assertThat(first.getGroup()).isEqualTo(EndpointGroup.PUSH);
+        assertThat(first.isConnectionReused()).isFalse();
+        assertThat(first.isFailed()).isFalse();
+        assertThat(first.nanos(HttpPhase.CONNECT)).isNotNegative();
+        assertThat(first.nanos(HttpPhase.TLS)).isEqualTo(-1);
+        assertThat(first.nanos(HttpPhase.TIME_TO_FIRST_BYTE)).isNotNegative();
+        assertThat(first.nanos(HttpPhase.TOTAL)).isGreaterThanOrEqualTo(first.nanos(HttpPhase.REQUEST_WRITE));
+
+        final HttpCallTimings second = recorded.get(1);
+        assertThat(second.isConnectionReused()).isTrue();
+        assertThat(second.nanos(HttpPhase.CONNECT)).isEqualTo(-1);
+
+        final EndpointPhaseMetrics push = phaseMetrics.endpoints().get(PUSH);
+        assertThat(push.newConnections()).isEqualTo(1);
+        assertThat(push.reusedConnections()).isEqualTo(1);
+        assertThat(push.reuseRatio()).isEqualTo(0.5);
+        assertThat(push.latency(HttpPhase.TOTAL).count()).isEqualTo(2);
+        assertThat(push.latency(HttpPhase.CONNECT).count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.model.Broadcast;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import retrofit2.Call;
+
+public class PriorityCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    private static final Broadcast BROADCAST = new Broadcast(singletonList(new TextMessage("text")), false);
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final PriorityLanes priorityLanes = PriorityLanes.builder()
+                                                             .maxConcurrentCalls(2)
+                                                             .reservedForInteractive(1)
+                                                             .build();
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .priorityLanes(priorityLanes)
+                                  .build();
+    }
+
+    @Test
+    public void replyOvertakesBroadcast() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}")
+                                                .setHeadersDelay(500, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        final CompletableFuture<BotApiResponse> first = lineMessagingClient.broadcast(BROADCAST);
+        assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/v2/bot/message/broadcast");
+        final CompletableFuture<BotApiResponse> second = lineMessagingClient.broadcast(BROADCAST);
+
+        // Do
+        lineMessagingClient.replyMessage(new ReplyMessage("token", new TextMessage("reply"))).get();
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+        assertThat(second).isNotDone();
+        first.get();
+        second.get();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void expiredReplyIsNotSent() {
+        priorityLanes.replyTokenReceived("expired", Instant.now().minusSeconds(120));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future =
+                lineMessagingClient.replyMessage(new ReplyMessage("expired", new TextMessage("reply")));
+
+        // Verify
+        assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class)
+                                       .hasRootCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(mockWebServer.getRequestCount()).isZero();
+    }
+
+    @Test
+    public void cloneKeepsDeadlineOfReplyToken() throws Exception {
+        final PriorityLanes priorityLanes = PriorityLanes.builder()
+                                                         .replyTokenTimeout(Duration.ofMillis(300))
+                                                         .build();
+        final LineMessagingService service =
+                LineMessagingClientBuilder.createDefaultRetrofitBuilder()
+                                          .baseUrl("http://localhost:" + mockWebServer.getPort())
+                                          .addCallAdapterFactory(new PriorityCallAdapterFactory(priorityLanes))
+                                          .build()
+                                          .create(LineMessagingService.class);
+        priorityLanes.replyTokenReceived("token", Instant.now().minusMillis(200));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}")
+                                                .setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+        final Call<BotApiResponse> call =
+                service.replyMessage(new ReplyMessage("token", new TextMessage("reply")));
+        assertThat(call.execute().code()).isEqualTo(500);
+
+        // Do
+        final Call<BotApiResponse> retry = call.clone();
+
+        // Verify
+        assertThatThrownBy(retry::execute).isInstanceOf(CallNotPermittedException.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+        assertThat(priorityLanes.expiredReplies()).isPositive();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.PriorityLanes.Lane;
+
+public class PriorityLanesTest {
+    private static final Instant NOW = Instant.parse("2019-10-01T00:00:00Z");
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final PriorityLanes target = PriorityLanes.builder()
+                                                      .maxConcurrentCalls(3)
+                                                      .reservedForInteractive(1)
+                                                      .clock(Clock.fixed(NOW, ZoneOffset.UTC))
+                                                      .build();
+
+    @Test
+    public void reserveCapacityForInteractive() {
+        // Do
+        final CompletableFuture<Void> first = target.acquire(EndpointGroup.BROADCAST, null);
+        final CompletableFuture<Void> second = target.acquire(EndpointGroup.PUSH, null);
+        final CompletableFuture<Void> third = target.acquire(EndpointGroup.CONTENT, null);
+        final CompletableFuture<Void> reply = reply(target, "token");
+
+        // Verify
+        assertThat(first).isCompleted();
+        assertThat(second).isCompleted();
+        assertThat(third).isNotDone();
+        assertThat(reply).isCompleted();
+        assertThat(target.activeCalls(Lane.INTERACTIVE)).isEqualTo(1);
+        assertThat(target.queueDepth(Lane.BULK)).isEqualTo(1);
+    }
+
+    @Test
+    public void grantPermitToHigherLaneFirst() {
+        target.acquire(EndpointGroup.BROADCAST, null);
+        target.acquire(EndpointGroup.BROADCAST, null);
+        reply(target, "first");
+        final CompletableFuture<Void> bulk = target.acquire(EndpointGroup.MULTICAST, null);
+        final CompletableFuture<Void> standard = target.acquire(EndpointGroup.PUSH, null);
+        final CompletableFuture<Void> reply = reply(target, "second");
+
+        // Do
+        target.release(EndpointGroup.BROADCAST);
+
+        // Verify
+        assertThat(reply).isCompleted();
+        assertThat(standard).isNotDone();
+        assertThat(bulk).isNotDone();
+
+        target.release(EndpointGroup.REPLY);
+        assertThat(standard).isCompleted();
+        assertThat(bulk).isNotDone();
+    }
+
+    @Test
+    public void dropExpiredReplyToken() {
+        target.replyTokenReceived("token", NOW.minus(Duration.ofMinutes(2)));
+
+        // Do
+        final CompletableFuture<Void> reply = reply(target, "token");
+
+        // Verify
+        assertThat(reply).hasFailedWithThrowableThat().isInstanceOf(CallNotPermittedException.class);
+        assertThat(target.expiredReplies()).isEqualTo(1);
+        assertThat(target.activeCalls(Lane.INTERACTIVE)).isZero();
+    }
+
+    @Test
+    public void dropWaitingReplyWhenTokenExpires() {
+        final PriorityLanes target = PriorityLanes.builder()
+                                                  .maxConcurrentCalls(1)
+                                                  .reservedForInteractive(0)
+                                                  .replyTokenTimeout(Duration.ofMillis(100))
+                                                  .build();
+        reply(target, "first");
+
+        // Do
+        final CompletableFuture<Void> reply = reply(target, "second");
+
+        // Verify
+        assertThatThrownBy(reply::get).isInstanceOf(ExecutionException.class)
+                                      .hasCauseInstanceOf(CallNotPermittedException.class);
+        assertThat(target.queueDepth(Lane.INTERACTIVE)).isZero();
+    }
+
+    @Test
+    public void cancelExpiryOfGrantedReply() {
+        final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+        scheduler.setRemoveOnCancelPolicy(true);
+        final PriorityLanes target = PriorityLanes.builder()
+                                                  .maxConcurrentCalls(1)
+                                                  .reservedForInteractive(0)
+                                                  .scheduler(scheduler)
+                                                  .build();
+        reply(target, "first");
+        final CompletableFuture<Void> reply = reply(target, "second");
+        assertThat(scheduler.getQueue()).hasSize(1);
+
+        // Do
+        target.release(EndpointGroup.REPLY);
+
+        // Verify
+        assertThat(reply).isCompleted();
+        assertThat(scheduler.getQueue()).isEmpty();
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void rejectReservationNotLessThanMax() {
+        assertThatThrownBy(() -> PriorityLanes.builder()
+                                              .maxConcurrentCalls(2)
+                                              .reservedForInteractive(2)
+                                              .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CompletableFuture<Void> reply(final PriorityLanes lanes, final String replyToken) {
+        return lanes.acquire(EndpointGroup.REPLY, lanes.replyDeadline(replyToken));
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+import com.linecorp.bot.model.response.MessageQuotaResponse;
+import com.linecorp.bot.model.response.MessageQuotaResponse.QuotaType;
+import com.linecorp.bot.model.response.QuotaConsumptionResponse;
+
+public class QuotaAwareLineMessagingClientTest {
+    private static final BotApiResponse BOT_API_SUCCESS_RESPONSE = new BotApiResponse("", emptyList());
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("USER_ID", new TextMessage("text"));
+    private static final CompletableFuture<BotApiResponse> SUCCESS =
+            CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE);
+    // Half of November 2019 has passed in Asia/Tokyo.
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2019-11-15T15:00:00Z"), ZoneOffset.UTC);
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient delegate;
+
+    private QuotaAwareLineMessagingClient target;
+
+    @Before
+    public void setUp() {
+        when(delegate.getMessageQuota()).thenReturn(CompletableFuture.completedFuture(
+                MessageQuotaResponse.builder().type(QuotaType.limited).value(1000).build()));
+        when(delegate.getMessageQuotaConsumption()).thenReturn(
+                CompletableFuture.completedFuture(new QuotaConsumptionResponse(300)));
+        when(delegate.pushMessage(any())).thenReturn(SUCCESS);
+        when(delegate.multicast(any())).thenReturn(SUCCESS);
+
+        target = QuotaAwareLineMessagingClient.builder(delegate)
+                                              .refreshInterval(Duration.ofHours(1))
+                                              .clock(CLOCK)
+                                              .build();
+    }
+
+    @After
+    public void tearDown() {
+        target.close();
+    }
+
+    @Test
+    public void countConsumptionLocally() {
+        // Do
+        target.pushMessage(PUSH_MESSAGE);
+        target.multicast(new Multicast(new HashSet<>(Arrays.asList("A", "B", "C")), new TextMessage("text")));
+
+        // Verify
+        assertThat(target.used()).isEqualTo(304);
+        assertThat(target.remaining()).isEqualTo(696);
+    }
+
+    @Test
+    public void paceOverBillingMonth() {
+        // Verify
+        assertThat(target.pacedAllowance()).isEqualTo(200);
+        assertThat(target.pacedRate()).isEqualTo(700 / (15 * 24 * 3600.0));
+    }
+
+    @Test
+    public void rejectWhenQuotaWouldBeExceeded() {
+        when(delegate.getMessageQuotaConsumption()).thenReturn(
+                CompletableFuture.completedFuture(new QuotaConsumptionResponse(999)));
+        target.refresh();
+        final Multicast multicast =
+                new Multicast(new HashSet<>(Arrays.asList("A", "B")), new TextMessage("text"));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = target.multicast(multicast);
+
+        // Verify
+        assertThat(future).hasFailedWithThrowableThat().isInstanceOf(CallNotPermittedException.class);
+        verify(delegate, never()).multicast(any());
+        assertThat(target.pushMessage(PUSH_MESSAGE)).isCompleted();
+        assertThat(target.remaining()).isZero();
+    }
+
+    @Test
+    public void giveBackQuotaRejectedByServer() {
+        final CompletableFuture<BotApiResponse> rejected = new CompletableFuture<>();
+        rejected.completeExceptionally(new BadRequestException("Invalid user", null));
+        when(delegate.pushMessage(any())).thenReturn(rejected);
+
+        // Do
+        target.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThat(target.used()).isEqualTo(300);
+    }
+
+    @Test
+    public void keepQuotaOfTimedOutMessage() {
+        final CompletableFuture<BotApiResponse> timedOut = new CompletableFuture<>();
+        timedOut.completeExceptionally(
+                new GeneralLineMessagingException("timeout", null, new SocketTimeoutException()));
+        when(delegate.pushMessage(any())).thenReturn(timedOut);
+
+        // Do
+        target.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThat(target.used()).isEqualTo(301);
+    }
+
+    @Test
+    public void keepQuotaOfServerError() {
+        final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("Internal Server Error", null));
+        when(delegate.pushMessage(any())).thenReturn(failed);
+
+        // Do
+        target.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThat(target.used()).isEqualTo(301);
+    }
+
+    @Test
+    public void giveBackQuotaNotPermitted() {
+        final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new GeneralLineMessagingException(
+                "Circuit open", null, new CallNotPermittedException(EndpointGroup.PUSH, "Circuit open")));
+        when(delegate.pushMessage(any())).thenReturn(failed);
+
+        // Do
+        target.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThat(target.used()).isEqualTo(300);
+    }
+
+    @Test
+    public void refreshReplacesLocalCount() {
+        target.pushMessage(PUSH_MESSAGE);
+        when(delegate.getMessageQuotaConsumption()).thenReturn(
+                CompletableFuture.completedFuture(new QuotaConsumptionResponse(310)));
+
+        // Do
+        target.refresh();
+
+        // Verify
+        assertThat(target.used()).isEqualTo(310);
+    }
+
+    @Test
+    public void rejectionAfterRefreshIsNotGivenBackTwice() {
+        final CompletableFuture<BotApiResponse> rejected = new CompletableFuture<>();
+        when(delegate.pushMessage(any())).thenReturn(rejected);
+        target.pushMessage(PUSH_MESSAGE);
+        target.refresh();
+
+        // Do
+        rejected.completeExceptionally(new BadRequestException("Invalid user", null));
+
+        // Verify
+        assertThat(target.used()).isEqualTo(300);
+        assertThat(target.remaining()).isEqualTo(700);
+    }
+
+    @Test
+    public void rejectionDuringRefreshIsGivenBack() {
+        final CompletableFuture<QuotaConsumptionResponse> consumption = new CompletableFuture<>();
+        when(delegate.getMessageQuotaConsumption()).thenReturn(consumption);
+        final CompletableFuture<BotApiResponse> rejected = new CompletableFuture<>();
+        when(delegate.pushMessage(any())).thenReturn(rejected);
+        target.refresh();
+        target.pushMessage(PUSH_MESSAGE);
+        consumption.complete(new QuotaConsumptionResponse(300));
+
+        // Do
+        rejected.completeExceptionally(new BadRequestException("Invalid user", null));
+
+        // Verify
+        assertThat(target.used()).isEqualTo(300);
+    }
+
+    @Test
+    public void unlimitedQuota() {
+        when(delegate.getMessageQuota()).thenReturn(CompletableFuture.completedFuture(
+                MessageQuotaResponse.builder().type(QuotaType.none).build()));
+
+        // Do
+        target.refresh();
+
+        // Verify
+        assertThat(target.remaining()).isEqualTo(Long.MAX_VALUE);
+        assertThat(target.pacedAllowance()).isEqualTo(Long.MAX_VALUE);
+    }
+}
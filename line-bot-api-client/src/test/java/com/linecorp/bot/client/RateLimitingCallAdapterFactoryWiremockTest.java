@@ -0,0 +1,94 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class RateLimitingCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private RateLimiter rateLimiter;
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .rateLimiter(rateLimiter)
+                                  .build();
+    }
+
+    @Test
+    public void waitForPermit() throws Exception {
+        final CompletableFuture<Void> permit = new CompletableFuture<>();
+        when(rateLimiter.acquire(EndpointGroup.PROFILE)).thenReturn(permit);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        final CompletableFuture<UserProfileResponse> future = lineMessagingClient.getProfile("USER_ID");
+
+        // Verify
+        assertThat(mockWebServer.takeRequest(100, TimeUnit.MILLISECONDS)).isNull();
+        permit.complete(null);
+        assertThat(mockWebServer.takeRequest().getPath()).isEqualTo("/v2/bot/profile/USER_ID");
+        future.get();
+    }
+
+    @Test
+    public void tooManyRequestsIsNotified() throws Exception {
+        when(rateLimiter.acquire(any())).thenReturn(CompletableFuture.completedFuture(null));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429)
+                                                .setHeader("Retry-After", "3")
+                                                .setBody("{\"message\":\"Too many requests\"}"));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future =
+                lineMessagingClient.pushMessage(new PushMessage("TO", new TextMessage("text")));
+
+        // Verify
+        assertThatThrownBy(future::get).hasCauseInstanceOf(TooManyRequestsException.class);
+        verify(rateLimiter).onTooManyRequests(EndpointGroup.PUSH, Duration.ofSeconds(3));
+    }
+}
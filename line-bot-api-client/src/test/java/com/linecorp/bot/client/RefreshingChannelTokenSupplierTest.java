@@ -0,0 +1,152 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.model.oauth.ChannelAccessTokenException;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenRequest;
+import com.linecorp.bot.model.oauth.IssueChannelAccessTokenResponse;
+
+public class RefreshingChannelTokenSupplierTest {
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineOAuthClient oAuthClient;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private ScheduledFuture<?> firstRefresh;
+
+    @Mock
+    private ScheduledFuture<?> secondRefresh;
+
+    @Test
+    public void issueAndReissueBeforeExpiry() {
+        when(oAuthClient.issueChannelToken(any()))
+                .thenReturn(completedFuture(token("TOKEN1", 1)), completedFuture(token("TOKEN2", 60)));
+
+        // Do
+        final RefreshingChannelTokenSupplier target =
+                RefreshingChannelTokenSupplier.builder(oAuthClient, "ID", "SECRET")
+                                              .refreshRatio(0.1)
+                                              .build();
+
+        // Verify
+        assertThat(target.get()).isEqualTo("TOKEN1");
+        verify(oAuthClient, timeout(1000).times(2)).issueChannelToken(
+                IssueChannelAccessTokenRequest.builder().clientId("ID").clientSecret("SECRET").build());
+        while (!"TOKEN2".equals(target.get())) {
+            Thread.yield();
+        }
+        target.close();
+    }
+
+    @Test
+    public void concurrentRefreshesAreCollapsed() {
+        final CompletableFuture<IssueChannelAccessTokenResponse> response = new CompletableFuture<>();
+        when(oAuthClient.issueChannelToken(any())).thenReturn(response);
+        final RefreshingChannelTokenSupplier target =
+                RefreshingChannelTokenSupplier.builder(oAuthClient, "ID", "SECRET").build();
+
+        // Do
+        final CompletableFuture<String> first = target.refresh();
+        final CompletableFuture<String> second = target.refresh();
+        response.complete(token("TOKEN", 3600));
+
+        // Verify
+        assertThat(first).isSameAs(second);
+        assertThat(first.join()).isEqualTo("TOKEN");
+        verify(oAuthClient, times(1)).issueChannelToken(any());
+        target.close();
+    }
+
+    @Test
+    public void keepTokenWhenReissueFails() {
+        final CompletableFuture<IssueChannelAccessTokenResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new ChannelAccessTokenException("error"));
+        when(oAuthClient.issueChannelToken(any()))
+                .thenReturn(completedFuture(token("TOKEN1", 3600)), failed);
+        final RefreshingChannelTokenSupplier target =
+                RefreshingChannelTokenSupplier.builder(oAuthClient, "ID", "SECRET")
+                                              .retryInterval(Duration.ofMillis(10))
+                                              .build();
+
+        // Do
+        assertThat(target.refresh()).isCompletedExceptionally();
+
+        // Verify
+        assertThat(target.get()).isEqualTo("TOKEN1");
+        verify(oAuthClient, timeout(1000).atLeast(3)).issueChannelToken(any());
+        assertThat(target.get()).isEqualTo("TOKEN1");
+        target.close();
+    }
+
+    @Test
+    public void manualRefreshCancelsScheduledRefresh() {
+        when(oAuthClient.issueChannelToken(any())).thenReturn(completedFuture(token("TOKEN", 3600)));
+        doReturn(firstRefresh, secondRefresh).when(scheduler).schedule(any(Callable.class), anyLong(), any());
+        final RefreshingChannelTokenSupplier target =
+                RefreshingChannelTokenSupplier.builder(oAuthClient, "ID", "SECRET")
+                                              .scheduler(scheduler)
+                                              .build();
+
+        // Do
+        target.refresh().join();
+
+        // Verify
+        verify(firstRefresh).cancel(false);
+        verify(secondRefresh, never()).cancel(false);
+        target.close();
+        verify(secondRefresh).cancel(false);
+    }
+
+    private static IssueChannelAccessTokenResponse token(final String accessToken, final int expiresInSecs) {
+        return IssueChannelAccessTokenResponse.builder()
+                                              .accessToken(accessToken)
+                                              .expiresInSecs(expiresInSecs)
+                                              .build();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.EnumSet;
+
+import org.junit.Test;
+
+public class RetryPolicyTest {
+    @Test
+    public void exponentialBackoff() {
+        final RetryPolicy policy = RetryPolicy.builder()
+                                              .initialBackoff(Duration.ofMillis(100))
+                                              .maxBackoff(Duration.ofMillis(300))
+                                              .jitter(0)
+                                              .build();
+
+        // Verify
+        assertThat(policy.backoff(1, null)).isEqualTo(Duration.ofMillis(100));
+        assertThat(policy.backoff(2, null)).isEqualTo(Duration.ofMillis(200));
+        assertThat(policy.backoff(3, null)).isEqualTo(Duration.ofMillis(300));
+    }
+
+    @Test
+    public void backoffWithJitter() {
+        final RetryPolicy policy = RetryPolicy.builder()
+                                              .initialBackoff(Duration.ofMillis(100))
+                                              .jitter(0.5)
+                                              .build();
+
+        // Verify
+        for (int i = 0; i < 100; i++) {
+            assertThat(policy.backoff(1, null)).isBetween(Duration.ofMillis(50), Duration.ofMillis(150));
+        }
+    }
+
+    @Test
+    public void retryAfterWins() {
+        final RetryPolicy policy = RetryPolicy.builder()
+                                              .initialBackoff(Duration.ofMillis(100))
+                                              .jitter(0)
+                                              .build();
+
+        // Verify
+        assertThat(policy.backoff(1, Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(policy.backoff(1, Duration.ofMillis(10))).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    public void rejectEndpointGroupsWithoutRetryKey() {
+        assertThatThrownBy(() -> RetryPolicy.builder()
+                                            .endpointGroups(EnumSet.of(EndpointGroup.PUSH, EndpointGroup.REPLY))
+                                            .build())
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void acceptEndpointGroupsWithRetryKey() {
+        final RetryPolicy policy = RetryPolicy.builder()
+                                              .endpointGroups(EnumSet.of(EndpointGroup.MULTICAST))
+                                              .build();
+
+        // Verify
+        assertThat(policy.getEndpointGroups()).containsExactly(EndpointGroup.MULTICAST);
+        assertThat(RetryPolicy.builder().build().getEndpointGroups())
+                .containsExactlyInAnyOrder(EndpointGroup.PUSH, EndpointGroup.MULTICAST,
+                                           EndpointGroup.BROADCAST);
+    }
+
+    @Test
+    public void budgetLimitsRetriesByRatio() {
+        final RetryBudget budget = RetryBudget.of(0.5, 0);
+
+        // Do
+        for (int i = 0; i < 4; i++) {
+            budget.onRequest();
+        }
+
+        // Verify
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+    }
+
+    @Test
+    public void budgetAllowsMinRetries() {
+        final RetryBudget budget = RetryBudget.of(0, 2);
+
+        // Verify
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isTrue();
+        assertThat(budget.tryRetry()).isFalse();
+    }
+}
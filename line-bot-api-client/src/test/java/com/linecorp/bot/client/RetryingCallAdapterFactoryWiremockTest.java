@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.LineMessagingException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class RetryingCallAdapterFactoryWiremockTest extends AbstractWiremockTest {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Override
+    protected LineMessagingClient createLineMessagingClient(final MockWebServer mockWebServer) {
+        return LineMessagingClient.builder("token")
+                                  .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                  .retryPolicy(RetryPolicy.builder()
+                                                          .initialBackoff(Duration.ofMillis(10))
+                                                          .build())
+                                  .build();
+    }
+
+    @Test
+    public void retryWithSameRetryKey() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        final BotApiResponse response = lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+
+        // Verify
+        assertThat(response).isNotNull();
+        final RecordedRequest first = mockWebServer.takeRequest();
+        final RecordedRequest second = mockWebServer.takeRequest();
+        assertThat(first.getHeader(LineMessagingService.RETRY_KEY_HEADER)).isNotEmpty();
+        assertThat(second.getHeader(LineMessagingService.RETRY_KEY_HEADER))
+                .isEqualTo(first.getHeader(LineMessagingService.RETRY_KEY_HEADER));
+    }
+
+    @Test
+    public void conflictAfterRetryIsSuccess() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(409)
+                                                .setBody("{\"message\":\"Already accepted\"}"));
+
+        // Do
+        final BotApiResponse response = lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+
+        // Verify
+        assertThat(response).isNotNull();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void conflictOfFirstAttemptIsFailure() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(409)
+                                                .setBody("{\"message\":\"Already accepted\"}"));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = lineMessagingClient.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThatThrownBy(future::get).hasCauseInstanceOf(LineMessagingException.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void retryAfterTooManyRequests() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(429)
+                                                .setHeader("Retry-After", "0")
+                                                .setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        lineMessagingClient.pushMessage(PUSH_MESSAGE).get();
+
+        // Verify
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400).setBody("{\"message\":\"Invalid\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = lineMessagingClient.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThatThrownBy(future::get).hasCauseInstanceOf(BadRequestException.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void giveUpAfterMaxAttempts() throws Exception {
+        for (int i = 0; i < 4; i++) {
+            mockWebServer.enqueue(new MockResponse().setResponseCode(503).setBody("{}"));
+        }
+
+        // Do
+        final CompletableFuture<BotApiResponse> future = lineMessagingClient.pushMessage(PUSH_MESSAGE);
+
+        // Verify
+        assertThatThrownBy(future::get).hasCauseInstanceOf(LineMessagingException.class);
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void otherGroupIsNotRetried() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        // Do
+        final CompletableFuture<UserProfileResponse> future = lineMessagingClient.getProfile("USER_ID");
+
+        // Verify
+        assertThatThrownBy(future::get).isNotNull();
+        assertThat(mockWebServer.takeRequest(100, TimeUnit.MILLISECONDS).getHeader(
+                LineMessagingService.RETRY_KEY_HEADER)).isNull();
+        assertThat(mockWebServer.getRequestCount()).isEqualTo(1);
+    }
+}
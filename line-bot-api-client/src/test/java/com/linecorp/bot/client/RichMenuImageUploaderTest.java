@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Collections.emptyList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class RichMenuImageUploaderTest {
+    private static final BotApiResponse BOT_API_SUCCESS_RESPONSE = new BotApiResponse("", emptyList());
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Test
+    public void concurrentUploadsAreBounded() {
+        final List<CompletableFuture<BotApiResponse>> uploads = new ArrayList<>();
+        when(client.setRichMenuImage(anyString(), anyString(), any(Path.class))).thenAnswer(invocation -> {
+            final CompletableFuture<BotApiResponse> upload = new CompletableFuture<>();
+            uploads.add(upload);
+            return upload;
+        });
+        final Map<String, Path> images = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            images.put("MENU" + i, Paths.get("menu" + i + ".png"));
+        }
+        final RichMenuImageUploader target = RichMenuImageUploader.builder(client)
+                                                                  .maxConcurrentUploads(2)
+                                                                  .build();
+
+        // Do
+        final Map<String, CompletableFuture<BotApiResponse>> results = target.uploadAll(images);
+
+        // Verify
+        assertThat(results).containsOnlyKeys(images.keySet());
+        assertThat(uploads).hasSize(2);
+        uploads.get(0).complete(BOT_API_SUCCESS_RESPONSE);
+        assertThat(uploads).hasSize(3);
+        assertThat(results.get("MENU0")).isCompletedWithValue(BOT_API_SUCCESS_RESPONSE);
+        uploads.get(1).completeExceptionally(new RuntimeException("failed"));
+        assertThat(results.get("MENU1")).isCompletedExceptionally();
+        for (int i = 2; i < 5; i++) {
+            uploads.get(i).complete(BOT_API_SUCCESS_RESPONSE);
+        }
+        assertThat(uploads).hasSize(5);
+        verify(client, times(5)).setRichMenuImage(anyString(), eq("image/png"), any(Path.class));
+    }
+
+    @Test
+    public void unsupportedImageFailsWithoutUpload() {
+        final Map<String, Path> images = new LinkedHashMap<>();
+        images.put("MENU", Paths.get("menu.gif"));
+
+        // Do
+        final Map<String, CompletableFuture<BotApiResponse>> results =
+                RichMenuImageUploader.builder(client).build().uploadAll(images);
+
+        // Verify
+        assertThatThrownBy(results.get("MENU")::join).hasCauseInstanceOf(IllegalArgumentException.class);
+        verify(client, never()).setRichMenuImage(anyString(), anyString(), any(Path.class));
+    }
+
+    @Test
+    public void manySynchronousUploadsDoNotOverflowStack() {
+        when(client.setRichMenuImage(anyString(), anyString(), any(Path.class)))
+                .thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+        final Path path = Paths.get("menu.png");
+        final Map<String, Path> images = new LinkedHashMap<>();
+        for (int i = 0; i < 5_000; i++) {
+            images.put("MENU" + i, path);
+        }
+
+        // Do
+        final Map<String, CompletableFuture<BotApiResponse>> results =
+                RichMenuImageUploader.builder(client).maxConcurrentUploads(1).build().uploadAll(images);
+
+        // Verify
+        assertThat(results.values()).allMatch(result -> result.getNow(null) == BOT_API_SUCCESS_RESPONSE);
+    }
+
+    @Test
+    public void defaultStreamUploadReadsImage() throws Exception {
+        when(client.setRichMenuImage(anyString(), anyString(), any(InputStream.class), anyLong()))
+                .thenCallRealMethod();
+        when(client.setRichMenuImage(anyString(), anyString(), any(byte[].class)))
+                .thenReturn(CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE));
+        final byte[] image = { 1, 2, 3 };
+
+        // Do
+        final BotApiResponse response = client.setRichMenuImage("MENU", "image/png",
+                                                                new ByteArrayInputStream(image), image.length)
+                                              .get();
+
+        // Verify
+        assertThat(response).isSameAs(BOT_API_SUCCESS_RESPONSE);
+        verify(client).setRichMenuImage("MENU", "image/png", image);
+    }
+
+    @Test
+    public void contentTypeOf() {
+        assertThat(RichMenuImageUploader.contentTypeOf(Paths.get("a/B.PNG"))).isEqualTo("image/png");
+        assertThat(RichMenuImageUploader.contentTypeOf(Paths.get("a.jpeg"))).isEqualTo("image/jpeg");
+    }
+}
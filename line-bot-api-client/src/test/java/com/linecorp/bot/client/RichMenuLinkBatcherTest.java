@@ -0,0 +1,145 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class RichMenuLinkBatcherTest {
+    private static final BotApiResponse BOT_API_SUCCESS_RESPONSE = new BotApiResponse("", emptyList());
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    @Before
+    public void setUp() {
+        when(client.linkRichMenuIdToUsers(anyList(), anyString()))
+                .thenReturn(completedFuture(BOT_API_SUCCESS_RESPONSE));
+        when(client.unlinkRichMenuIdFromUsers(anyList()))
+                .thenReturn(completedFuture(BOT_API_SUCCESS_RESPONSE));
+    }
+
+    @Test
+    public void batchByRichMenuAfterLinger() {
+        final RichMenuLinkBatcher target = RichMenuLinkBatcher.builder(client)
+                                                              .linger(Duration.ofMillis(50))
+                                                              .build();
+
+        // Do
+        final CompletableFuture<BotApiResponse> first = target.link("A", "MENU1");
+        final CompletableFuture<BotApiResponse> second = target.link("B", "MENU1");
+        final CompletableFuture<BotApiResponse> third = target.link("C", "MENU2");
+        final CompletableFuture<BotApiResponse> fourth = target.unlink("D");
+
+        // Verify
+        assertThat(first.join()).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+        assertThat(second.join()).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+        third.join();
+        fourth.join();
+        verify(client).linkRichMenuIdToUsers(asList("A", "B"), "MENU1");
+        verify(client).linkRichMenuIdToUsers(asList("C"), "MENU2");
+        verify(client).unlinkRichMenuIdFromUsers(asList("D"));
+    }
+
+    @Test
+    public void sendWhenBatchIsFull() {
+        final RichMenuLinkBatcher target = RichMenuLinkBatcher.builder(client)
+                                                              .maxBatchSize(2)
+                                                              .linger(Duration.ofMinutes(1))
+                                                              .build();
+
+        // Do
+        target.link("A", "MENU1");
+        final CompletableFuture<BotApiResponse> future = target.link("B", "MENU1");
+        target.link("C", "MENU1");
+
+        // Verify
+        assertThat(future).isCompleted();
+        verify(client).linkRichMenuIdToUsers(asList("A", "B"), "MENU1");
+        verify(client, never()).linkRichMenuIdToUsers(asList("C"), "MENU1");
+
+        target.flush();
+        verify(client).linkRichMenuIdToUsers(asList("C"), "MENU1");
+    }
+
+    @Test
+    public void keepOrderOfSameUser() {
+        final RichMenuLinkBatcher target = RichMenuLinkBatcher.builder(client)
+                                                              .linger(Duration.ofMinutes(1))
+                                                              .build();
+
+        // Do
+        target.link("A", "MENU1");
+        target.unlink("A");
+        target.close();
+
+        // Verify
+        final InOrder inOrder = inOrder(client);
+        inOrder.verify(client).linkRichMenuIdToUsers(asList("A"), "MENU1");
+        inOrder.verify(client).unlinkRichMenuIdFromUsers(asList("A"));
+    }
+
+    @Test
+    public void failureIsReportedToAllCallers() {
+        final CompletableFuture<BotApiResponse> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new LineServerException("error", null));
+        when(client.unlinkRichMenuIdFromUsers(any())).thenReturn(failed);
+        final RichMenuLinkBatcher target = RichMenuLinkBatcher.builder(client)
+                                                              .linger(Duration.ofMinutes(1))
+                                                              .build();
+
+        // Do
+        final CompletableFuture<BotApiResponse> first = target.unlink("A");
+        final CompletableFuture<BotApiResponse> second = target.unlink("B");
+        target.flush();
+
+        // Verify
+        verify(client).unlinkRichMenuIdFromUsers(asList("A", "B"));
+        assertThat(first).hasFailedWithThrowableThat().isInstanceOf(LineServerException.class);
+        assertThat(second).hasFailedWithThrowableThat().isInstanceOf(LineServerException.class);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+public class TokenBucketRateLimiterTest {
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Test
+    public void unlimitedGroupIsNotDelayed() {
+        final TokenBucketRateLimiter target = TokenBucketRateLimiter.builder()
+                                                                    .limit(EndpointGroup.PUSH, 1)
+                                                                    .build();
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(target.acquire(EndpointGroup.REPLY)).isDone();
+        }
+        assertThat(target.queueDepth(EndpointGroup.REPLY)).isZero();
+        assertThat(target.currentRate(EndpointGroup.REPLY)).isEqualTo(Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void requestsOverBurstAreQueued() {
+        final TokenBucketRateLimiter target = TokenBucketRateLimiter.builder()
+                                                                    .limit(EndpointGroup.PUSH, 20, 2)
+                                                                    .build();
+
+        // Do
+        final CompletableFuture<Void> first = target.acquire(EndpointGroup.PUSH);
+        final CompletableFuture<Void> second = target.acquire(EndpointGroup.PUSH);
+        final CompletableFuture<Void> third = target.acquire(EndpointGroup.PUSH);
+
+        // Verify
+        assertThat(first).isDone();
+        assertThat(second).isDone();
+        assertThat(third).isNotDone();
+        assertThat(target.queueDepth(EndpointGroup.PUSH)).isEqualTo(1);
+
+        third.join();
+        assertThat(target.queueDepth(EndpointGroup.PUSH)).isZero();
+    }
+
+    @Test
+    public void tooManyRequestsPausesAndSlowsDown() throws Exception {
+        final TokenBucketRateLimiter target = TokenBucketRateLimiter.builder()
+                                                                    .limit(EndpointGroup.MULTICAST, 100)
+                                                                    .build();
+
+        // Do
+        target.onTooManyRequests(EndpointGroup.MULTICAST, Duration.ofMillis(300));
+        final long start = System.nanoTime();
+        final CompletableFuture<Void> future = target.acquire(EndpointGroup.MULTICAST);
+
+        // Verify
+        assertThat(future).isNotDone();
+        assertThat(target.currentRate(EndpointGroup.MULTICAST)).isEqualTo(50);
+        future.join();
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(250));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.slf4j.Logger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class WireLoggingInterceptorTest {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private Logger logger;
+
+    private MockWebServer mockWebServer;
+
+    @Before
+    public void setUp() {
+        mockWebServer = new MockWebServer();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void disabledLoggerIsNotCalled() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(false);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500).setBody("{}"));
+
+        // Do
+        execute(WireLogging.builder().build(), "{}");
+
+        // Verify
+        verify(logger, never()).info(anyString());
+    }
+
+    @Test
+    public void bodyIsTruncatedAndRedacted() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        mockWebServer.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+                                                .setBody("{\"message\":\"0123456789abcdef\"}"));
+
+        // Do
+        final String body;
+        try (Response response = execute(WireLogging.builder().maxBodyBytes(24).build(),
+                                          "{\"replyToken\":\"SECRET\"}")) {
+            body = response.body().string();
+        }
+
+        // Verify
+        assertThat(body).isEqualTo("{\"message\":\"0123456789abcdef\"}");
+        final ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(message.capture());
+        assertThat(message.getValue())
+                .contains("--> POST")
+                .contains("Authorization: ****")
+                .contains("{\"replyToken\":\"****\"}")
+                .contains("<-- 200 OK")
+                .contains("{\"message\":\"0123456789ab...\n(6 more bytes)")
+                .doesNotContain("SECRET")
+                .doesNotContain("TOKEN");
+    }
+
+    @Test
+    public void largeRequestBodyIsTruncated() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        final StringBuilder text = new StringBuilder("{\"text\":\"");
+        for (int i = 0; i < 100_000; i++) {
+            text.append('x');
+        }
+        final String body = text.append("\"}").toString();
+
+        // Do
+        execute(WireLogging.builder().maxBodyBytes(16).build(), body).close();
+
+        // Verify
+        final ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(message.capture());
+        assertThat(message.getValue())
+                .contains("{\"text\":\"xxxxxxx...\n(" + (body.length() - 16) + " more bytes)");
+        assertThat(mockWebServer.takeRequest().getBodySize()).isEqualTo(body.length());
+    }
+
+    @Test
+    public void sampleSuccessesAndLogAllErrors() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        final WireLogging wireLogging = WireLogging.builder().sampleEvery(3).build();
+        final WireLoggingInterceptor interceptor = new WireLoggingInterceptor(wireLogging, logger);
+        for (int i = 0; i < 6; i++) {
+            mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        }
+        mockWebServer.enqueue(new MockResponse().setResponseCode(400).setBody("{}"));
+
+        // Do
+        for (int i = 0; i < 7; i++) {
+            execute(interceptor, "{}").close();
+        }
+
+        // Verify
+        verify(logger, times(3)).info(anyString());
+    }
+
+    @Test
+    public void errorsOnly() throws Exception {
+        when(logger.isInfoEnabled()).thenReturn(true);
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(503).setBody("{}"));
+
+        // Do
+        final WireLoggingInterceptor interceptor =
+                new WireLoggingInterceptor(WireLogging.builder().errorsOnly(true).build(), logger);
+        execute(interceptor, "{}").close();
+        execute(interceptor, "{}").close();
+
+        // Verify
+        final ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(logger).info(message.capture());
+        assertThat(message.getValue()).contains("<-- 503");
+    }
+
+    @Test
+    public void redactFormBody() {
+        assertThat(WireLoggingInterceptor.redact("grant_type=client_credentials&client_id=1&client_secret=S"))
+                .isEqualTo("grant_type=client_credentials&client_id=1&client_secret=****");
+        assertThat(WireLoggingInterceptor.redact("access_token=T&x=1"))
+                .isEqualTo("access_token=****&x=1");
+    }
+
+    private Response execute(final WireLogging wireLogging, final String body) throws IOException {
+        return execute(new WireLoggingInterceptor(wireLogging, logger), body);
+    }
+
+    private Response execute(final WireLoggingInterceptor interceptor, final String body) throws IOException {
+        final OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
+        return client.newCall(new Request.Builder()
+                                      .url(mockWebServer.url("/v2/bot/message/push"))
+                                      .header("Authorization", "Bearer TOKEN")
+                                      .post(RequestBody.create(JSON, body))
+                                      .build())
+                     .execute();
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.bot.client.LineSignatureValidator;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.servlet.LineBotCallbackException;
+import com.linecorp.bot.servlet.LineBotCallbackRequestParser;
+
+/**
+ * Measures {@link LineBotCallbackRequestParser}, which validates the signature of a webhook request and
+ * reads its events, with callbacks mixing the event types of {@link WebhookPayloads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CallbackParserBenchmark {
+    /**
+     * Number of events in a callback.
+     */
+    @Param({ "1", "10", "100" })
+    public int events;
+
+    private LineBotCallbackRequestParser parser;
+    private String payload;
+    private String signature;
+
+    @Setup
+    public void setUp() {
+        final LineSignatureValidator validator =
+                new LineSignatureValidator("SECRET".getBytes(StandardCharsets.UTF_8));
+        parser = new LineBotCallbackRequestParser(validator);
+        final byte[] json = WebhookPayloads.mixed(events);
+        payload = new String(json, StandardCharsets.UTF_8);
+        signature = Base64.getEncoder().encodeToString(validator.generateSignature(json));
+    }
+
+    @Benchmark
+    public CallbackRequest handle() throws LineBotCallbackException, IOException {
+        return parser.handle(signature, payload);
+    }
+}
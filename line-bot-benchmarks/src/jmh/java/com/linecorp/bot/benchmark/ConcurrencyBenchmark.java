@@ -0,0 +1,114 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.LineMessagingClientBuilder;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+/**
+ * Shows how push throughput scales with {@link LineMessagingClientBuilder#maxRequestsPerHost(int)}
+ * against a local stub server with fixed latency.
+ *
+ * <p>Throughput is bounded by {@code maxRequestsPerHost / serverLatency} until the stub server or the CPU
+ * saturates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrencyBenchmark {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+    // Keeps the configured level; JUL holds loggers weakly.
+    private static final Logger MOCK_WEB_SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    @Param({ "5", "16", "64" })
+    public int maxRequestsPerHost;
+
+    @Param({ "64" })
+    public int concurrency;
+
+    @Param({ "5" })
+    public int serverLatencyMillis;
+
+    private MockWebServer server;
+    private LineMessagingClient client;
+
+    @Setup
+    public void setUp() throws IOException {
+        MOCK_WEB_SERVER_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse().setBody("{}")
+                                         .setHeadersDelay(serverLatencyMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        client = LineMessagingClient.builder("token")
+                                    .apiEndPoint("http://localhost:" + server.getPort())
+                                    .maxRequests(Math.max(maxRequestsPerHost, concurrency))
+                                    .maxRequestsPerHost(maxRequestsPerHost)
+                                    .maxIdleConnections(maxRequestsPerHost)
+                                    .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void discardRecordedRequests() throws InterruptedException {
+        // MockWebServer keeps all requests in memory.
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // Discard.
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void push() {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = client.pushMessage(PUSH_MESSAGE);
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+
+/**
+ * Measures deserialization of webhook payloads with the shared reader of {@link ModelCodec}. Messages,
+ * push and multicast requests are only sent, so {@link CallbackRequest} is the only type read in practice.
+ *
+ * <p>{@link #deserializeWithNewObjectMapper()} shows the warm-up cost of the first read with a fresh
+ * {@code ObjectMapper}, which every component used to pay on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeserializationBenchmark {
+    /**
+     * Number of events in a payload.
+     */
+    @Param({ "1", "5" })
+    public int events;
+
+    private byte[] json;
+    private ObjectReader reader;
+
+    @Setup
+    public void setUp() {
+        json = callbackJson(events);
+        reader = ModelCodec.readerFor(CallbackRequest.class);
+    }
+
+    @Benchmark
+    public CallbackRequest deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    public CallbackRequest deserializeWithNewObjectMapper() throws IOException {
+        return ModelObjectMapper.createNewObjectMapper().readValue(json, CallbackRequest.class);
+    }
+
+    static byte[] callbackJson(final int events) {
+        final StringBuilder json = new StringBuilder("{\"destination\":\"Uab012345678901234567890123456789\","
+                                                     + "\"events\":[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"replyToken\":\"nHuyWiB7yP5Zw52FIkcQobQuGDXCTA\",\"type\":\"message\",")
+                .append("\"timestamp\":1462629479859,")
+                .append("\"source\":{\"type\":\"user\",\"userId\":\"u206d25c2ea6bd87c17655609a1c37cb8\"},")
+                .append("\"message\":{\"id\":\"").append(325708 + i)
+                .append("\",\"type\":\"text\",\"text\":\"Hello, world\"}}");
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.FlexMessage;
+import com.linecorp.bot.model.message.FrozenMessage;
+import com.linecorp.bot.model.message.FrozenMessageCache;
+import com.linecorp.bot.model.message.flex.component.Box;
+import com.linecorp.bot.model.message.flex.component.FlexComponent;
+import com.linecorp.bot.model.message.flex.component.Text;
+import com.linecorp.bot.model.message.flex.container.Bubble;
+import com.linecorp.bot.model.message.flex.container.Carousel;
+import com.linecorp.bot.model.message.flex.unit.FlexLayout;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+/**
+ * Compares serializing a {@link PushMessage} of a large {@link FlexMessage} with splicing its
+ * {@link FrozenMessage} form, and with looking it up from {@link FrozenMessageCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FrozenMessageBenchmark {
+    /**
+     * Number of bubbles in the carousel. Each bubble is about 2 KB of JSON.
+     */
+    @Param({ "1", "10" })
+    public int bubbles;
+
+    private ObjectWriter writer;
+    private FlexMessage flexMessage;
+    private PushMessage plain;
+    private PushMessage frozen;
+    private FrozenMessageCache cache;
+
+    @Setup
+    public void setUp() {
+        writer = ModelCodec.writerFor(PushMessage.class);
+        flexMessage = flexMessage(bubbles);
+        plain = new PushMessage("TO", flexMessage);
+        frozen = new PushMessage("TO", FrozenMessage.of(flexMessage));
+        cache = FrozenMessageCache.builder().build();
+    }
+
+    @Benchmark
+    public byte[] plain() throws IOException {
+        return writer.writeValueAsBytes(plain);
+    }
+
+    @Benchmark
+    public byte[] frozen() throws IOException {
+        return writer.writeValueAsBytes(frozen);
+    }
+
+    /**
+     * Looks up the message in the cache, which computes its {@code hashCode()} on every send.
+     */
+    @Benchmark
+    public byte[] cached() throws IOException {
+        return writer.writeValueAsBytes(new PushMessage("TO", cache.freeze(flexMessage)));
+    }
+
+    static FlexMessage flexMessage(final int bubbles) {
+        final List<Bubble> contents = new ArrayList<>();
+        for (int i = 0; i < bubbles; i++) {
+            final List<FlexComponent> texts = new ArrayList<>();
+            for (int j = 0; j < 20; j++) {
+                texts.add(Text.builder().text("Item " + i + '-' + j + ": the quick brown fox jumps")
+                              .wrap(true).color("#666666").build());
+            }
+            contents.add(Bubble.builder()
+                               .header(Box.builder().layout(FlexLayout.VERTICAL)
+                                          .contents(Collections.singletonList(
+                                                  Text.builder().text("Bubble " + i).build()))
+                                          .build())
+                               .body(Box.builder().layout(FlexLayout.VERTICAL).contents(texts).build())
+                               .build());
+        }
+        return new FlexMessage("Carousel", Carousel.builder().contents(contents).build());
+    }
+}
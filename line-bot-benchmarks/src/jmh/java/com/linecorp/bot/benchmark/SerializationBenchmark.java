@@ -0,0 +1,99 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.message.Message;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+/**
+ * Measures serialization of model types with the shared writers of {@link ModelCodec}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+    @Param({ "CallbackRequest", "ReplyMessage", "PushMessage", "Multicast", "Flex" })
+    public String type;
+
+    /**
+     * Number of messages, receivers, events or bubbles of a Flex carousel.
+     */
+    @Param({ "1", "5" })
+    public int size;
+
+    private Object value;
+    private ObjectWriter writer;
+
+    @Setup
+    public void setUp() throws IOException {
+        final List<Message> messages = new ArrayList<>();
+        final List<String> to = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            messages.add(new TextMessage("Hello, world " + i));
+            to.add(String.format("U%032d", i));
+        }
+
+        switch (type) {
+            case "CallbackRequest":
+                value = ModelCodec.readerFor(CallbackRequest.class)
+                                  .readValue(DeserializationBenchmark.callbackJson(size));
+                break;
+            case "ReplyMessage":
+                value = new ReplyMessage("nHuyWiB7yP5Zw52FIkcQobQuGDXCTA", messages);
+                break;
+            case "PushMessage":
+                value = new PushMessage(to.get(0), messages);
+                break;
+            case "Multicast":
+                value = new Multicast(new LinkedHashSet<>(to), messages);
+                break;
+            case "Flex":
+                value = new PushMessage(to.get(0), FrozenMessageBenchmark.flexMessage(size));
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+        writer = ModelCodec.writerFor(value.getClass());
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.bot.client.LineSignatureValidator;
+
+/**
+ * Measures validation of the {@code X-Line-Signature} header, which runs on every webhook request before
+ * the payload is parsed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SignatureBenchmark {
+    /**
+     * Payload size in bytes. A callback of a single text message is about 300 bytes.
+     */
+    @Param({ "256", "4096", "65536" })
+    public int size;
+
+    private LineSignatureValidator validator;
+    private byte[] payload;
+    private String signature;
+
+    @Setup
+    public void setUp() {
+        validator = new LineSignatureValidator("SECRET".getBytes(StandardCharsets.UTF_8));
+        payload = new byte[size];
+        ThreadLocalRandom.current().nextBytes(payload);
+        signature = Base64.getEncoder().encodeToString(validator.generateSignature(payload));
+    }
+
+    @Benchmark
+    public boolean validateSignature() {
+        return validator.validateSignature(payload, signature);
+    }
+
+    @Benchmark
+    public byte[] generateSignature() {
+        return validator.generateSignature(payload);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import static java.util.Collections.singletonList;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.linecorp.bot.client.Http2Transport;
+import com.linecorp.bot.client.HttpTransport;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.OkHttpTransport;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+/**
+ * Compares {@link HttpTransport}s by sending concurrent push messages to a local TLS stub server.
+ *
+ * <ul>
+ *   <li>{@code http1}: {@link OkHttpTransport} restricted to HTTP/1.1, i.e. JDKs without ALPN.</li>
+ *   <li>{@code okhttp}: {@link OkHttpTransport} negotiating the protocol with OkHttp's defaults.</li>
+ *   <li>{@code http2}: {@link Http2Transport}, which negotiates like {@code okhttp} and adds HTTP/2 pings,
+ *       so it is expected to be on par with {@code okhttp}.</li>
+ * </ul>
+ *
+ * <p>All transports run with the same dispatcher limits and idle connections, all equal to
+ * {@link #concurrency}, so the results show the effect of the protocol and connection reuse rather than
+ * OkHttp's default limit of 5 requests per host. Compare with {@link ConcurrencyBenchmark} for the effect
+ * of the limits.
+ *
+ * <p>Besides throughput, {@code connections} and {@code handshakes} per batch are reported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class TransportBenchmark {
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("TO", new TextMessage("text"));
+    // Keeps the configured level; JUL holds loggers weakly.
+    private static final Logger MOCK_WEB_SERVER_LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    @Param({ "http1", "okhttp", "http2" })
+    public String transport;
+
+    @Param({ "64" })
+    public int concurrency;
+
+    @Param({ "5" })
+    public int serverLatencyMillis;
+
+    private MockWebServer server;
+    private LineMessagingClient client;
+    private final AtomicLong connections = new AtomicLong();
+    private final AtomicLong handshakes = new AtomicLong();
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Counters {
+        public long connections;
+        public long handshakes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        final HeldCertificate localhost = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        final HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(localhost)
+                .build();
+        final HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(localhost.certificate())
+                .build();
+
+        MOCK_WEB_SERVER_LOGGER.setLevel(java.util.logging.Level.WARNING);
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse().setBody("{}")
+                                         .setHeadersDelay(serverLatencyMillis, TimeUnit.MILLISECONDS);
+            }
+        });
+        server.start();
+
+        final OkHttpClient.Builder okHttpClientBuilder =
+                new OkHttpClient.Builder()
+                        .sslSocketFactory(clientCertificates.sslSocketFactory(),
+                                          clientCertificates.trustManager())
+                        .eventListener(new EventListener() {
+                            @Override
+                            public void secureConnectEnd(final Call call, final Handshake handshake) {
+                                handshakes.incrementAndGet();
+                            }
+
+                            @Override
+                            public void connectEnd(final Call call, final InetSocketAddress address,
+                                                   final Proxy proxy, final Protocol protocol) {
+                                connections.incrementAndGet();
+                            }
+                        });
+
+        final HttpTransport httpTransport;
+        switch (transport) {
+            case "http1":
+                okHttpClientBuilder.protocols(singletonList(Protocol.HTTP_1_1));
+                httpTransport = OkHttpTransport.of();
+                break;
+            case "okhttp":
+                httpTransport = OkHttpTransport.of();
+                break;
+            case "http2":
+                httpTransport = Http2Transport.builder()
+                                              .maxConcurrentStreams(concurrency)
+                                              .build();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown transport: " + transport);
+        }
+
+        client = LineMessagingClient.builder("token")
+                                    .apiEndPoint("https://localhost:" + server.getPort())
+                                    .okHttpClientBuilder(okHttpClientBuilder, true)
+                                    .maxRequests(concurrency)
+                                    .maxRequestsPerHost(concurrency)
+                                    .maxIdleConnections(concurrency)
+                                    .httpTransport(httpTransport)
+                                    .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void discardRecordedRequests() throws InterruptedException {
+        // MockWebServer keeps all requests in memory.
+        while (server.takeRequest(0, TimeUnit.MILLISECONDS) != null) {
+            // Discard.
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Benchmark
+    public void push(final Counters counters) {
+        final CompletableFuture<?>[] futures = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            futures[i] = client.pushMessage(PUSH_MESSAGE);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        counters.connections += connections.getAndSet(0);
+        counters.handshakes += handshakes.getAndSet(0);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.benchmark;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Webhook payloads mixing the event types a bot receives in practice.
+ */
+public final class WebhookPayloads {
+    private static final String USER_SOURCE =
+            "\"source\":{\"type\":\"user\",\"userId\":\"U206d25c2ea6bd87c17655609a1c37cb8\"}";
+    private static final String GROUP_SOURCE =
+            "\"source\":{\"type\":\"group\",\"groupId\":\"C4af4980629b1bd2bdc7f5c3aaa20c1c\","
+            + "\"userId\":\"U206d25c2ea6bd87c17655609a1c37cb8\"}";
+
+    private static final String[] EVENTS = {
+            "\"type\":\"message\"," + USER_SOURCE + ",\"message\":{\"id\":\"%d\",\"type\":\"text\","
+            + "\"text\":\"Hello, world. How are you doing today?\"}",
+            "\"type\":\"message\"," + GROUP_SOURCE + ",\"message\":{\"id\":\"%d\",\"type\":\"image\","
+            + "\"contentProvider\":{\"type\":\"line\"}}",
+            "\"type\":\"message\"," + USER_SOURCE + ",\"message\":{\"id\":\"%d\",\"type\":\"sticker\","
+            + "\"packageId\":\"1\",\"stickerId\":\"1\"}",
+            "\"type\":\"postback\"," + USER_SOURCE + ",\"postback\":{\"data\":\"action=buy&itemId=%d\","
+            + "\"params\":{}}",
+            "\"type\":\"beacon\"," + USER_SOURCE + ",\"beacon\":{\"hwid\":\"374591320\",\"type\":\"enter\","
+            + "\"dm\":\"1234567890abcdef\"}",
+            "\"type\":\"follow\"," + USER_SOURCE,
+            "\"type\":\"memberJoined\"," + GROUP_SOURCE + ",\"joined\":{\"members\":[{\"type\":\"user\","
+            + "\"userId\":\"U%032d\"}]}",
+    };
+
+    private WebhookPayloads() {
+    }
+
+    /**
+     * Returns a callback of the given number of events which cycle through text, image and sticker
+     * messages, postbacks, beacons, follows and member joins.
+     */
+    public static byte[] mixed(final int events) {
+        final StringBuilder json = new StringBuilder("{\"destination\":\"Uab012345678901234567890123456789\","
+                                                     + "\"events\":[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"replyToken\":\"nHuyWiB7yP5Zw52FIkcQobQuGDXCTA\",\"timestamp\":1462629479859,")
+                .append("\"mode\":\"active\",")
+                .append(String.format(EVENTS[i % EVENTS.length], 325708 + i))
+                .append('}');
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
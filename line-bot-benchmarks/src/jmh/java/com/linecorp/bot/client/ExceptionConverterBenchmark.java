@@ -0,0 +1,78 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.client;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.linecorp.bot.client.exception.LineMessagingException;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Measures {@link ExceptionConverter}, which reads the error body of every failed call. This is in the
+ * package of the client because the converter is package-private.
+ *
+ * <p>A response body can be read once, so each invocation also creates the response it converts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ExceptionConverterBenchmark {
+    private static final MediaType APPLICATION_JSON = MediaType.parse("application/json; charset=utf-8");
+
+    @Param({ "400", "429", "500", "503" })
+    public int code;
+
+    private final ExceptionConverter converter = new ExceptionConverter();
+    private okhttp3.Response rawResponse;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        rawResponse = new okhttp3.Response.Builder()
+                .request(new Request.Builder().url("https://api.line.me/v2/bot/message/push").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("Error")
+                .header("x-line-request-id", "3a785346-2cf3-482f-8469-c893117fcef8")
+                .build();
+        body = ("{\"message\":\"The request body has 2 error(s)\",\"details\":["
+                + "{\"message\":\"May not be empty\",\"property\":\"messages[0].text\"},"
+                + "{\"message\":\"Must be one of the following values: [text, image, video, audio, "
+                + "location, sticker, template, imagemap]\",\"property\":\"messages[1].type\"}]}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public LineMessagingException apply() {
+        return converter.apply(Response.error(ResponseBody.create(APPLICATION_JSON, body), rawResponse));
+    }
+}
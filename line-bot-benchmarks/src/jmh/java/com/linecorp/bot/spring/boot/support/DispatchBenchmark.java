@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot.support;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.support.GenericApplicationContext;
+
+import com.linecorp.bot.benchmark.WebhookPayloads;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.FollowEvent;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.PostbackEvent;
+import com.linecorp.bot.model.event.message.ImageMessageContent;
+import com.linecorp.bot.model.event.message.StickerMessageContent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+import com.linecorp.bot.spring.boot.annotation.EventMapping;
+import com.linecorp.bot.spring.boot.annotation.LineMessageHandler;
+
+/**
+ * Measures {@link LineMessageHandlerSupport#dispatch(Event)}, which looks up the first handler accepting
+ * an event among all {@link EventMapping} methods in order of priority.
+ *
+ * <p>Each handler bean maps six methods. Text messages match the first handler in the list, while member
+ * joins only match the catch-all handlers at its end. This is in the package of the support
+ * class because {@code dispatch} is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class DispatchBenchmark {
+    /**
+     * Number of handler beans.
+     */
+    @Param({ "1", "10", "50" })
+    public int beans;
+
+    /**
+     * Index of the event in {@link WebhookPayloads}: {@code 0} is a text message and {@code 6} is a
+     * member join.
+     */
+    @Param({ "0", "6" })
+    public int event;
+
+    private GenericApplicationContext context;
+    private LineMessageHandlerSupport support;
+    private Event target;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = new GenericApplicationContext();
+        for (int i = 0; i < beans; i++) {
+            context.getBeanFactory().registerSingleton("handler" + i, new Handler());
+        }
+        support = new LineMessageHandlerSupport(null, context);
+        context.refresh();
+
+        final List<Event> events = ModelCodec.readerFor(CallbackRequest.class)
+                                             .<CallbackRequest>readValue(WebhookPayloads.mixed(event + 1))
+                                             .getEvents();
+        target = events.get(event);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        support.dispatch(target);
+    }
+
+    @LineMessageHandler
+    public static class Handler {
+        @EventMapping
+        public void handleText(final MessageEvent<TextMessageContent> event) {
+        }
+
+        @EventMapping
+        public void handleImage(final MessageEvent<ImageMessageContent> event) {
+        }
+
+        @EventMapping
+        public void handleSticker(final MessageEvent<StickerMessageContent> event) {
+        }
+
+        @EventMapping
+        public void handlePostback(final PostbackEvent event) {
+        }
+
+        @EventMapping
+        public void handleFollow(final FollowEvent event) {
+        }
+
+        @EventMapping
+        public void handleDefault(final Event event) {
+        }
+    }
+}
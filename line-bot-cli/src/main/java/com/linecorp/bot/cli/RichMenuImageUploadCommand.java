@@ -21,7 +21,6 @@ import static com.google.common.util.concurrent.Futures.getUnchecked;
 import static javax.activation.FileTypeMap.getDefaultFileTypeMap;
 
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -51,9 +50,8 @@ public class RichMenuImageUploadCommand implements CliCommand {
                                                 "Can't assume Content-Type");
         log.info("Content-Type: {}", contentType);
 
-        byte[] bytes = Files.readAllBytes(Paths.get(image));
         final BotApiResponse botApiResponse =
-                getUnchecked(lineMessagingClient.setRichMenuImage(richMenuId, contentType, bytes));
+                getUnchecked(lineMessagingClient.setRichMenuImage(richMenuId, contentType, Paths.get(image)));
 
         log.info("Request Successfully finished. {}", botApiResponse);
     }
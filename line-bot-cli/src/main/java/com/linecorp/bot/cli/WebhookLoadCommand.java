@@ -0,0 +1,86 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.linecorp.bot.cli.arguments.Arguments;
+import com.linecorp.bot.cli.webhook.WebhookLoadGenerator;
+import com.linecorp.bot.cli.webhook.WebhookLoadResult;
+import com.linecorp.bot.cli.webhook.WebhookPayloadGenerator;
+import com.linecorp.bot.spring.boot.LineBotProperties;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "command", havingValue = "webhook-load")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WebhookLoadCommand implements CliCommand {
+    private static final double[] PERCENTILES = { 50, 90, 99, 99.9, 100 };
+
+    private LineBotProperties lineBotProperties;
+    private Arguments arguments;
+
+    @Override
+    public void execute() throws Exception {
+        final String url = checkNotNull(arguments.getUrl(), "--url= is not set.");
+        final String channelSecret = checkNotNull(lineBotProperties.getChannelSecret(),
+                                                  "line.bot.channel-secret is not set.");
+
+        final WebhookLoadGenerator.Builder builder =
+                WebhookLoadGenerator.builder(url, channelSecret.getBytes(StandardCharsets.US_ASCII));
+        if (arguments.getRate() != null) {
+            builder.rate(arguments.getRate());
+        }
+        if (arguments.getDuration() != null) {
+            builder.duration(arguments.getDuration());
+        }
+        if (arguments.getEvents() != null) {
+            builder.eventsPerCallback(arguments.getEvents());
+        }
+        if (arguments.getMix() != null) {
+            builder.eventMix(WebhookPayloadGenerator.parseMix(arguments.getMix()));
+        }
+        if (arguments.getTemplates() != null) {
+            builder.templates(arguments.getTemplates());
+        }
+        if (arguments.getConcurrency() != null) {
+            builder.maxConcurrentRequests(arguments.getConcurrency());
+        }
+
+        final WebhookLoadResult result = builder.build().run();
+
+        log.info("Successfully finished. {} requests in {} ms: {} succeeded, {} failed, {} incomplete",
+                 result.scheduled(), result.elapsed().toMillis(),
+                 result.succeeded(), result.failed(), result.incomplete());
+        log.info("Throughput: {} requests/s", String.format("%.1f", result.throughput()));
+        log.info("Percentile   Latency (ms)   Service time (ms)");
+        for (double percentile : PERCENTILES) {
+            log.info(String.format("%10s   %12.2f   %17.2f", percentile,
+                                   result.latency(percentile).toNanos() / 1e6,
+                                   result.serviceTime(percentile).toNanos() / 1e6));
+        }
+    }
+}
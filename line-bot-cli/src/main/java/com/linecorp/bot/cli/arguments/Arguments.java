@@ -16,6 +16,8 @@
 
 package com.linecorp.bot.cli.arguments;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
@@ -37,4 +39,18 @@ public class Arguments {
     String out;
 
     String image;
+
+    String url;
+
+    Double rate;
+
+    Duration duration;
+
+    Integer events;
+
+    String mix;
+
+    Integer templates;
+
+    Integer concurrency;
 }
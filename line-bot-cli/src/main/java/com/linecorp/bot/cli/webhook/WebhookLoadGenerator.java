@@ -0,0 +1,323 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli.webhook;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.linecorp.bot.cli.webhook.WebhookPayloadGenerator.Template;
+import com.linecorp.bot.client.LineSignatureValidator;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+
+/**
+ * Sends signed synthetic webhook requests to a bot at a fixed rate and measures the time until they are
+ * acknowledged.
+ *
+ * <p>The load is open-loop: requests are scheduled at fixed intervals regardless of how fast the bot
+ * responds, as LINE Platform does. Latencies are measured from the scheduled times, so a bot which falls
+ * behind is not hidden by the generator slowing down with it. See {@link WebhookLoadResult}.
+ *
+ * <p>Event types and sources are drawn before the run into a pool of {@link Builder#templates(int) templates},
+ * which is reused in turn. Reply tokens, message IDs and timestamps are filled in and the payload is signed
+ * when each request is sent, so that every event is unique and fresh as if it came from LINE Platform.
+ * Rendering a template is cheap enough not to delay requests.
+ */
+@Slf4j
+public final class WebhookLoadGenerator {
+    private static final MediaType APPLICATION_JSON = MediaType.parse("application/json; charset=UTF-8");
+
+    private final String url;
+    private final LineSignatureValidator signatureValidator;
+    private final double rate;
+    private final Duration duration;
+    private final int eventsPerCallback;
+    private final Map<String, Integer> eventMix;
+    private final int templates;
+    private final int maxConcurrentRequests;
+    private final Duration timeout;
+    private final long seed;
+
+    private WebhookLoadGenerator(final Builder builder) {
+        url = builder.url;
+        signatureValidator = new LineSignatureValidator(builder.channelSecret);
+        rate = builder.rate;
+        duration = builder.duration;
+        eventsPerCallback = builder.eventsPerCallback;
+        eventMix = builder.eventMix;
+        templates = builder.templates;
+        maxConcurrentRequests = builder.maxConcurrentRequests;
+        timeout = builder.timeout;
+        seed = builder.seed;
+    }
+
+    /**
+     * Creates a new {@link Builder} sending requests to the given URL, e.g.
+     * {@code http://localhost:8080/callback}, signed with the given channel secret.
+     */
+    public static Builder builder(@NonNull final String url, @NonNull final byte[] channelSecret) {
+        return new Builder(url, channelSecret);
+    }
+
+    /**
+     * Runs the load and waits until all requests complete or time out.
+     */
+    public WebhookLoadResult run() throws InterruptedException {
+        final int requests = (int) Math.min(Integer.MAX_VALUE - 8, (long) (rate * duration.toNanos() / 1e9));
+        final WebhookPayloadGenerator generator = new WebhookPayloadGenerator(eventMix, seed);
+        final Template[] pool = new Template[Math.min(requests, templates)];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = generator.template(eventsPerCallback);
+        }
+
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrentRequests);
+        dispatcher.setMaxRequestsPerHost(maxConcurrentRequests);
+        final long[] latencies = new long[requests];
+        final long[] serviceTimes = new long[requests];
+        final long[] sendTimes = new long[requests];
+        final OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                // Runs when the dispatcher starts the call, after waiting for a free slot.
+                .addInterceptor(chain -> {
+                    sendTimes[chain.request().tag(Integer.class)] = System.nanoTime();
+                    return chain.proceed(chain.request());
+                })
+                .connectionPool(new ConnectionPool(maxConcurrentRequests, 5, TimeUnit.MINUTES))
+                .callTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        final AtomicLong succeeded = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong lastCompletion = new AtomicLong();
+        final CountDownLatch completed = new CountDownLatch(requests);
+        final AtomicBoolean running = new AtomicBoolean(true);
+
+        final double intervalNanos = 1e9 / rate;
+        final long start = System.nanoTime();
+        try {
+            for (int i = 0; i < requests; i++) {
+                final long scheduledAt = start + (long) (i * intervalNanos);
+                long wait;
+                while ((wait = scheduledAt - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                final int index = i;
+                final Request request = newRequest(generator.render(pool[i % pool.length]), index);
+                client.newCall(request).enqueue(new Callback() {
+                    @Override
+                    public void onResponse(final Call call, final Response response) {
+                        response.close();
+                        complete(response.isSuccessful() ? succeeded : failed);
+                        if (!response.isSuccessful() && failed.get() == 1) {
+                            log.warn("Bot responded {} {}", response.code(), response.message());
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(final Call call, final IOException e) {
+                        complete(failed);
+                        if (failed.get() == 1) {
+                            log.warn("Failed to send a request to {}", url, e);
+                        }
+                    }
+
+                    private void complete(final AtomicLong counter) {
+                        if (!running.get()) {
+                            // Cancelled after the run.
+                            return;
+                        }
+                        final long now = System.nanoTime();
+                        latencies[index] = now - scheduledAt;
+                        serviceTimes[index] = sendTimes[index] > 0 ? now - sendTimes[index] : 0;
+                        counter.incrementAndGet();
+                        lastCompletion.accumulateAndGet(now, Math::max);
+                        completed.countDown();
+                    }
+                });
+            }
+            completed.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } finally {
+            running.set(false);
+            dispatcher.cancelAll();
+            dispatcher.executorService().shutdown();
+            dispatcher.executorService().awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+            client.connectionPool().evictAll();
+        }
+
+        final int done = (int) (succeeded.get() + failed.get());
+        final long[] doneLatencies = new long[done];
+        final long[] doneServiceTimes = new long[done];
+        int j = 0;
+        for (int i = 0; i < requests && j < done; i++) {
+            if (latencies[i] > 0) {
+                doneLatencies[j] = latencies[i];
+                doneServiceTimes[j] = serviceTimes[i];
+                j++;
+            }
+        }
+        final long end = lastCompletion.get();
+        return new WebhookLoadResult(requests, succeeded.get(), failed.get(),
+                                     Duration.ofNanos(end > start ? end - start : 0),
+                                     doneLatencies, doneServiceTimes);
+    }
+
+    private Request newRequest(final byte[] payload, final int index) {
+        final String signature = Base64.getEncoder()
+                                       .encodeToString(signatureValidator.generateSignature(payload));
+        return new Request.Builder()
+                .url(url)
+                .header("X-Line-Signature", signature)
+                .post(RequestBody.create(APPLICATION_JSON, payload))
+                .tag(Integer.class, index)
+                .build();
+    }
+
+    /**
+     * Builder of {@link WebhookLoadGenerator}.
+     */
+    public static final class Builder {
+        private final String url;
+        private final byte[] channelSecret;
+        private double rate = 100;
+        private Duration duration = Duration.ofSeconds(10);
+        private int eventsPerCallback = 1;
+        private Map<String, Integer> eventMix = WebhookPayloadGenerator.DEFAULT_MIX;
+        private int templates = 1000;
+        private int maxConcurrentRequests = 256;
+        private Duration timeout = Duration.ofSeconds(30);
+        private long seed = 1;
+
+        private Builder(final String url, final byte[] channelSecret) {
+            this.url = url;
+            this.channelSecret = channelSecret.clone();
+        }
+
+        /**
+         * Requests per second. Default = 100.
+         */
+        public Builder rate(final double rate) {
+            if (!(rate > 0)) {
+                throw new IllegalArgumentException("rate must be positive");
+            }
+            this.rate = rate;
+            return this;
+        }
+
+        /**
+         * How long to send requests. Default = 10 seconds.
+         */
+        public Builder duration(@NonNull final Duration duration) {
+            if (duration.isNegative() || duration.isZero()) {
+                throw new IllegalArgumentException("duration must be positive");
+            }
+            this.duration = duration;
+            return this;
+        }
+
+        /**
+         * Number of events in each request. Default = 1.
+         */
+        public Builder eventsPerCallback(final int eventsPerCallback) {
+            if (eventsPerCallback <= 0) {
+                throw new IllegalArgumentException("eventsPerCallback must be positive");
+            }
+            this.eventsPerCallback = eventsPerCallback;
+            return this;
+        }
+
+        /**
+         * Weights of event types. Default = {@link WebhookPayloadGenerator#DEFAULT_MIX}.
+         *
+         * @see WebhookPayloadGenerator#parseMix(String)
+         */
+        public Builder eventMix(@NonNull final Map<String, Integer> eventMix) {
+            this.eventMix = eventMix;
+            return this;
+        }
+
+        /**
+         * Number of distinct combinations of event types and sources, which are reused in turn. Reply tokens,
+         * message IDs and timestamps are unique to each request regardless. Default = 1000.
+         */
+        public Builder templates(final int templates) {
+            if (templates <= 0) {
+                throw new IllegalArgumentException("templates must be positive");
+            }
+            this.templates = templates;
+            return this;
+        }
+
+        /**
+         * Max number of requests in flight. Requests beyond it wait, and the wait counts in the latency.
+         * Default = 256.
+         */
+        public Builder maxConcurrentRequests(final int maxConcurrentRequests) {
+            if (maxConcurrentRequests <= 0) {
+                throw new IllegalArgumentException("maxConcurrentRequests must be positive");
+            }
+            this.maxConcurrentRequests = maxConcurrentRequests;
+            return this;
+        }
+
+        /**
+         * Timeout of each request, and of waiting for the last requests after the run. Default = 30 seconds.
+         */
+        public Builder timeout(@NonNull final Duration timeout) {
+            if (timeout.isNegative() || timeout.isZero()) {
+                throw new IllegalArgumentException("timeout must be positive");
+            }
+            this.timeout = timeout;
+            return this;
+        }
+
+        /**
+         * Seed of the generated payloads. Default = 1.
+         */
+        public Builder seed(final long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link WebhookLoadGenerator}.
+         */
+        public WebhookLoadGenerator build() {
+            // Validates the mix before the run.
+            new WebhookPayloadGenerator(eventMix, seed);
+            return new WebhookLoadGenerator(this);
+        }
+    }
+}
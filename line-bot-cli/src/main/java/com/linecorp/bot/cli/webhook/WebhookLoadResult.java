@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli.webhook;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Result of a {@link WebhookLoadGenerator} run.
+ *
+ * <p>{@link #latency(double)} is measured from the time each request was scheduled to be sent, so requests
+ * delayed behind a slow server count the time they waited. This corrects the coordinated omission of
+ * {@link #serviceTime(double)}, which is measured from the time each request was actually sent.
+ */
+public final class WebhookLoadResult {
+    private final long scheduled;
+    private final long succeeded;
+    private final long failed;
+    private final Duration elapsed;
+    private final long[] latencies;
+    private final long[] serviceTimes;
+
+    WebhookLoadResult(final long scheduled, final long succeeded, final long failed, final Duration elapsed,
+                      final long[] latencies, final long[] serviceTimes) {
+        this.scheduled = scheduled;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.elapsed = elapsed;
+        this.latencies = latencies.clone();
+        this.serviceTimes = serviceTimes.clone();
+        Arrays.sort(this.latencies);
+        Arrays.sort(this.serviceTimes);
+    }
+
+    /**
+     * Returns the number of requests which were scheduled.
+     */
+    public long scheduled() {
+        return scheduled;
+    }
+
+    /**
+     * Returns the number of requests answered with 2xx.
+     */
+    public long succeeded() {
+        return succeeded;
+    }
+
+    /**
+     * Returns the number of requests answered with other status codes or failed by I/O errors.
+     */
+    public long failed() {
+        return failed;
+    }
+
+    /**
+     * Returns the number of requests which didn't complete in time.
+     */
+    public long incomplete() {
+        return scheduled - succeeded - failed;
+    }
+
+    /**
+     * Returns the time from the first scheduled request to the last completed one.
+     */
+    public Duration elapsed() {
+        return elapsed;
+    }
+
+    /**
+     * Returns the rate of completed requests per second.
+     */
+    public double throughput() {
+        return elapsed.isZero() ? 0 : (succeeded + failed) * 1e9 / elapsed.toNanos();
+    }
+
+    /**
+     * Returns the latency at the given percentile, e.g. {@code 99.9}, measured from the time each request
+     * was scheduled to be sent.
+     */
+    public Duration latency(final double percentile) {
+        return percentile(latencies, percentile);
+    }
+
+    /**
+     * Returns the latency at the given percentile measured from the time each request was actually sent.
+     * This understates the latency when the server couldn't keep up with the rate.
+     */
+    public Duration serviceTime(final double percentile) {
+        return percentile(serviceTimes, percentile);
+    }
+
+    private static Duration percentile(final long[] sorted, final double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        if (sorted.length == 0) {
+            return Duration.ZERO;
+        }
+        final int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return Duration.ofNanos(sorted[Math.max(0, rank - 1)]);
+    }
+}
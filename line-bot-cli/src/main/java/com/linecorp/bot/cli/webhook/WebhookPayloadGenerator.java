@@ -0,0 +1,285 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli.webhook;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import lombok.NonNull;
+
+/**
+ * Generates webhook payloads shaped like {@code CallbackRequest} with a weighted mix of event types.
+ *
+ * <p>Supported event types are {@code text}, {@code image}, {@code postback}, {@code beacon} and
+ * {@code memberJoined}. Events come from a fixed population of users and groups, and every payload returned by
+ * {@link #next(int)} or {@link #render(Template)} has unique reply tokens and message IDs and is timestamped
+ * when it's returned.
+ *
+ * <p>Drawing event types and sources is separated into {@link #template(int)}, so that a pool of templates can
+ * be prepared in advance and rendered cheaply many times.
+ */
+public final class WebhookPayloadGenerator {
+    /**
+     * Mix of event types used when none is given: mostly text messages as in a typical chat bot.
+     */
+    public static final Map<String, Integer> DEFAULT_MIX;
+
+    private static final String[] EVENT_TYPES = { "text", "image", "postback", "beacon", "memberJoined" };
+    private static final int USERS = 1000;
+    private static final int GROUPS = 50;
+
+    static {
+        final Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("text", 60);
+        mix.put("image", 10);
+        mix.put("postback", 15);
+        mix.put("beacon", 5);
+        mix.put("memberJoined", 10);
+        DEFAULT_MIX = Collections.unmodifiableMap(mix);
+    }
+
+    private final String[] types;
+    private final int[] cumulativeWeights;
+    private final Random random;
+    private long sequence;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param mix weights of event types, e.g. {@code text=60, image=10}.
+     * @param seed seed of the random choices, so that runs can be repeated.
+     */
+    public WebhookPayloadGenerator(@NonNull final Map<String, Integer> mix, final long seed) {
+        types = new String[mix.size()];
+        cumulativeWeights = new int[mix.size()];
+        int i = 0;
+        int total = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            if (!isSupported(entry.getKey())) {
+                throw new IllegalArgumentException("Unsupported event type: " + entry.getKey());
+            }
+            if (entry.getValue() < 0) {
+                throw new IllegalArgumentException("Weight must not be negative: " + entry);
+            }
+            total += entry.getValue();
+            types[i] = entry.getKey();
+            cumulativeWeights[i] = total;
+            i++;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("mix must have a positive weight");
+        }
+        random = new Random(seed);
+    }
+
+    /**
+     * Parses a mix of event types like {@code text=60,image=10,postback=15}.
+     */
+    public static Map<String, Integer> parseMix(@NonNull final String mix) {
+        final Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            final String[] pair = entry.trim().split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected type=weight but got: " + entry);
+            }
+            weights.put(pair[0].trim(), Integer.valueOf(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    /**
+     * Returns a payload of the given number of events, timestamped now.
+     */
+    public byte[] next(final int events) {
+        return render(template(events));
+    }
+
+    /**
+     * Draws event types and sources of a payload of the given number of events. Its reply tokens, message IDs
+     * and timestamp are filled in by {@link #render(Template)}.
+     */
+    public Template template(final int events) {
+        final TemplateWriter writer = new TemplateWriter(events);
+        writer.text("{\"destination\":\"Uab012345678901234567890123456789\",\"events\":[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) {
+                writer.text(",");
+            }
+            appendEvent(writer, nextType(), i);
+        }
+        writer.text("]}");
+        return writer.toTemplate();
+    }
+
+    /**
+     * Returns a payload of the given template with new reply tokens and message IDs, timestamped now.
+     */
+    public byte[] render(@NonNull final Template template) {
+        final long timestamp = System.currentTimeMillis();
+        final long firstId = sequence + 1;
+        sequence += template.events;
+        final StringBuilder json = new StringBuilder(template.length + 48 * template.fields.length);
+        for (int i = 0; i < template.fields.length; i++) {
+            json.append(template.parts[i]);
+            final long id = firstId + template.fieldEvents[i];
+            switch (template.fields[i]) {
+                case TIMESTAMP:
+                    json.append(timestamp);
+                    break;
+                case ID:
+                    json.append(id);
+                    break;
+                case REPLY_TOKEN:
+                    appendReplyToken(json, id);
+                    break;
+                default:
+                    throw new IllegalStateException(template.fields[i].toString());
+            }
+        }
+        json.append(template.parts[template.fields.length]);
+        return json.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendReplyToken(final StringBuilder json, final long id) {
+        // Same as String.format("%032x", id), which is too slow to call for each event.
+        final String hex = Long.toHexString(id);
+        for (int i = hex.length(); i < 32; i++) {
+            json.append('0');
+        }
+        json.append(hex);
+    }
+
+    private String nextType() {
+        final int value = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return types[i];
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void appendEvent(final TemplateWriter json, final String type, final int event) {
+        final String userId = String.format("U%032x", random.nextInt(USERS));
+        json.text("{\"replyToken\":\"").field(Field.REPLY_TOKEN, event).text("\",")
+            .text("\"timestamp\":").field(Field.TIMESTAMP, event).text(",\"mode\":\"active\",");
+        switch (type) {
+            case "text":
+                appendUserSource(json, userId);
+                json.text(",\"type\":\"message\",\"message\":{\"id\":\"").field(Field.ID, event)
+                    .text("\",\"type\":\"text\",\"text\":\"Hello, world ").field(Field.ID, event).text("\"}}");
+                break;
+            case "image":
+                appendUserSource(json, userId);
+                json.text(",\"type\":\"message\",\"message\":{\"id\":\"").field(Field.ID, event)
+                    .text("\",\"type\":\"image\",\"contentProvider\":{\"type\":\"line\"}}}");
+                break;
+            case "postback":
+                appendUserSource(json, userId);
+                json.text(",\"type\":\"postback\",\"postback\":{\"data\":\"action=buy&itemId=")
+                    .field(Field.ID, event).text("\",\"params\":{}}}");
+                break;
+            case "beacon":
+                appendUserSource(json, userId);
+                json.text(",\"type\":\"beacon\",\"beacon\":{\"hwid\":\"374591320\",\"type\":\"enter\"}}");
+                break;
+            case "memberJoined":
+                json.text("\"source\":{\"type\":\"group\",\"groupId\":\"")
+                    .text(String.format("C%032x", random.nextInt(GROUPS)))
+                    .text("\"},\"type\":\"memberJoined\",\"joined\":{\"members\":[{\"type\":\"user\",")
+                    .text("\"userId\":\"").text(userId).text("\"}]}}");
+                break;
+            default:
+                throw new IllegalStateException(type);
+        }
+    }
+
+    private static void appendUserSource(final TemplateWriter json, final String userId) {
+        json.text("\"source\":{\"type\":\"user\",\"userId\":\"").text(userId).text("\"}");
+    }
+
+    private static boolean isSupported(final String type) {
+        for (String supported : EVENT_TYPES) {
+            if (supported.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private enum Field {
+        TIMESTAMP,
+        ID,
+        REPLY_TOKEN
+    }
+
+    /**
+     * Payload of fixed event types and sources. See {@link WebhookPayloadGenerator#template(int)}.
+     */
+    public static final class Template {
+        private final int events;
+        private final int length;
+        // parts[i] comes before fields[i], and the last part comes after all fields.
+        private final String[] parts;
+        private final Field[] fields;
+        private final int[] fieldEvents;
+
+        private Template(final int events, final List<String> parts, final List<Field> fields,
+                         final List<Integer> fieldEvents) {
+            this.events = events;
+            this.parts = parts.toArray(new String[0]);
+            this.fields = fields.toArray(new Field[0]);
+            this.fieldEvents = fieldEvents.stream().mapToInt(Integer::intValue).toArray();
+            length = parts.stream().mapToInt(String::length).sum();
+        }
+    }
+
+    private static final class TemplateWriter {
+        private final int events;
+        private final List<String> parts = new ArrayList<>();
+        private final List<Field> fields = new ArrayList<>();
+        private final List<Integer> fieldEvents = new ArrayList<>();
+        private final StringBuilder part = new StringBuilder();
+
+        TemplateWriter(final int events) {
+            this.events = events;
+        }
+
+        TemplateWriter text(final String text) {
+            part.append(text);
+            return this;
+        }
+
+        TemplateWriter field(final Field field, final int event) {
+            parts.add(part.toString());
+            part.setLength(0);
+            fields.add(field);
+            fieldEvents.add(event);
+            return this;
+        }
+
+        Template toTemplate() {
+            parts.add(part.toString());
+            return new Template(events, parts, fields, fieldEvents);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli.webhook;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.LineSignatureValidator;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.ReplyEvent;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class WebhookLoadGeneratorTest {
+    private static final byte[] CHANNEL_SECRET = "SECRET".getBytes(StandardCharsets.US_ASCII);
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final MockWebServer server = new MockWebServer();
+
+    @Before
+    public void setUp() throws Exception {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void sendsSignedCallbacksAtRate() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse();
+            }
+        });
+        final WebhookLoadGenerator target =
+                WebhookLoadGenerator.builder(server.url("/callback").toString(), CHANNEL_SECRET)
+                                    .rate(100)
+                                    .duration(Duration.ofMillis(500))
+                                    .eventsPerCallback(3)
+                                    .build();
+
+        // Do
+        final WebhookLoadResult result = target.run();
+
+        // Verify
+        assertThat(result.scheduled()).isEqualTo(50);
+        assertThat(result.succeeded()).isEqualTo(50);
+        assertThat(result.failed()).isZero();
+        assertThat(result.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(490));
+        assertThat(result.latency(50)).isGreaterThan(Duration.ZERO);
+        assertThat(result.latency(100)).isGreaterThanOrEqualTo(result.latency(50));
+
+        final RecordedRequest request = server.takeRequest();
+        final byte[] body = request.getBody().readByteArray();
+        assertThat(request.getPath()).isEqualTo("/callback");
+        assertThat(new LineSignatureValidator(CHANNEL_SECRET)
+                           .validateSignature(body, request.getHeader("X-Line-Signature"))).isTrue();
+        final CallbackRequest callbackRequest = ModelCodec.readerFor(CallbackRequest.class).readValue(body);
+        assertThat(callbackRequest.getEvents()).hasSize(3);
+    }
+
+    @Test
+    public void reusedTemplatesHaveUniqueReplyTokens() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) {
+                return new MockResponse();
+            }
+        });
+        final WebhookLoadGenerator target =
+                WebhookLoadGenerator.builder(server.url("/callback").toString(), CHANNEL_SECRET)
+                                    .rate(100)
+                                    .duration(Duration.ofMillis(100))
+                                    .templates(1)
+                                    .build();
+
+        // Do
+        final WebhookLoadResult result = target.run();
+
+        // Verify
+        assertThat(result.succeeded()).isEqualTo(10);
+        final Set<String> replyTokens = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            final RecordedRequest request = server.takeRequest();
+            final byte[] body = request.getBody().readByteArray();
+            assertThat(new LineSignatureValidator(CHANNEL_SECRET)
+                               .validateSignature(body, request.getHeader("X-Line-Signature"))).isTrue();
+            final CallbackRequest callbackRequest = ModelCodec.readerFor(CallbackRequest.class).readValue(body);
+            replyTokens.add(((ReplyEvent) callbackRequest.getEvents().get(0)).getReplyToken());
+        }
+        assertThat(replyTokens).hasSize(10);
+    }
+
+    @Test
+    public void latencyIncludesQueueingBehindSlowBot() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(final RecordedRequest request) throws InterruptedException {
+                Thread.sleep(50);
+                return new MockResponse().setResponseCode(request.getSequenceNumber() == 0 ? 500 : 200);
+            }
+        });
+        final WebhookLoadGenerator target =
+                WebhookLoadGenerator.builder(server.url("/callback").toString(), CHANNEL_SECRET)
+                                    .rate(100)
+                                    .duration(Duration.ofMillis(300))
+                                    .maxConcurrentRequests(1)
+                                    .build();
+
+        // Do
+        final WebhookLoadResult result = target.run();
+
+        // Verify
+        assertThat(result.succeeded()).isEqualTo(29);
+        assertThat(result.failed()).isEqualTo(1);
+        // 30 requests are served one by one in 50 ms, so the last waits about 1.2 seconds in the queue.
+        assertThat(result.serviceTime(50)).isLessThan(Duration.ofMillis(500));
+        assertThat(result.latency(100)).isGreaterThan(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.cli.webhook;
+
+import static java.util.Collections.singletonMap;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.linecorp.bot.cli.webhook.WebhookPayloadGenerator.Template;
+import com.linecorp.bot.model.event.BeaconEvent;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.Event;
+import com.linecorp.bot.model.event.MemberJoinedEvent;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.event.PostbackEvent;
+import com.linecorp.bot.model.event.message.ImageMessageContent;
+import com.linecorp.bot.model.event.message.TextMessageContent;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+public class WebhookPayloadGeneratorTest {
+    @Test
+    public void generatesAllEventTypes() throws Exception {
+        final WebhookPayloadGenerator target =
+                new WebhookPayloadGenerator(WebhookPayloadGenerator.DEFAULT_MIX, 1);
+
+        // Do
+        final CallbackRequest callbackRequest = ModelCodec.readerFor(CallbackRequest.class)
+                                                          .readValue(target.next(200));
+
+        // Verify
+        assertThat(callbackRequest.getEvents()).hasSize(200);
+        assertThat(callbackRequest.getEvents())
+                .anyMatch(event -> event instanceof MessageEvent
+                                   && ((MessageEvent<?>) event).getMessage() instanceof TextMessageContent)
+                .anyMatch(event -> event instanceof MessageEvent
+                                   && ((MessageEvent<?>) event).getMessage() instanceof ImageMessageContent)
+                .anyMatch(event -> event instanceof PostbackEvent)
+                .anyMatch(event -> event instanceof BeaconEvent)
+                .anyMatch(event -> event instanceof MemberJoinedEvent)
+                .extracting(Event::getTimestamp)
+                .doesNotContainNull();
+    }
+
+    @Test
+    public void renderTemplateWithUniqueIds() throws Exception {
+        final WebhookPayloadGenerator target = new WebhookPayloadGenerator(singletonMap("text", 1), 1);
+        final Template template = target.template(2);
+
+        // Do
+        final CallbackRequest first = ModelCodec.readerFor(CallbackRequest.class)
+                                                .readValue(target.render(template));
+        final CallbackRequest second = ModelCodec.readerFor(CallbackRequest.class)
+                                                 .readValue(target.render(template));
+
+        // Verify
+        final List<Event> events = new ArrayList<>(first.getEvents());
+        events.addAll(second.getEvents());
+        assertThat(events).extracting(event -> ((MessageEvent<?>) event).getReplyToken())
+                          .doesNotHaveDuplicates()
+                          .allMatch(replyToken -> replyToken.length() == 32);
+        assertThat(events).extracting(event -> ((MessageEvent<?>) event).getMessage().getId())
+                          .doesNotHaveDuplicates();
+        assertThat(first.getEvents()).extracting(event -> event.getSource().getUserId())
+                                     .isEqualTo(second.getEvents().stream()
+                                                      .map(event -> event.getSource().getUserId())
+                                                      .collect(toList()));
+    }
+
+    @Test
+    public void mixWithOneType() throws Exception {
+        final WebhookPayloadGenerator target = new WebhookPayloadGenerator(singletonMap("postback", 1), 1);
+
+        // Do
+        final CallbackRequest callbackRequest = ModelCodec.readerFor(CallbackRequest.class)
+                                                          .readValue(target.next(10));
+
+        // Verify
+        assertThat(callbackRequest.getEvents()).allMatch(event -> event instanceof PostbackEvent);
+    }
+
+    @Test
+    public void parseMix() {
+        // Do
+        final Map<String, Integer> mix = WebhookPayloadGenerator.parseMix("text=3, beacon=1");
+
+        // Verify
+        assertThat(mix).containsExactly(entry("text", 3), entry("beacon", 1));
+        assertThatThrownBy(() -> new WebhookPayloadGenerator(singletonMap("video", 1), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.mockserver;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.NonNull;
+
+/**
+ * Distribution of the delay before {@link LineApiMockServer} responds.
+ */
+@FunctionalInterface
+public interface Latency {
+    /**
+     * Returns the delay of the next response in nanoseconds.
+     */
+    long nextNanos();
+
+    /**
+     * Responds immediately.
+     */
+    static Latency none() {
+        return () -> 0;
+    }
+
+    /**
+     * Always delays by the given duration.
+     */
+    static Latency fixed(@NonNull final Duration delay) {
+        final long nanos = delay.toNanos();
+        return () -> nanos;
+    }
+
+    /**
+     * Delays by a duration distributed uniformly between {@code min} and {@code max}.
+     */
+    static Latency uniform(@NonNull final Duration min, @NonNull final Duration max) {
+        if (max.compareTo(min) < 0) {
+            throw new IllegalArgumentException("max must be >= min");
+        }
+        final long minNanos = min.toNanos();
+        final long maxNanos = max.toNanos();
+        return () -> minNanos == maxNanos ? minNanos
+                                          : ThreadLocalRandom.current().nextLong(minNanos, maxNanos + 1);
+    }
+
+    /**
+     * Delays by a log-normally distributed duration with the given median and 99th percentile, which has
+     * a long tail like latencies of real servers.
+     */
+    static Latency logNormal(@NonNull final Duration median, @NonNull final Duration p99) {
+        if (median.isNegative() || median.isZero() || p99.compareTo(median) < 0) {
+            throw new IllegalArgumentException("median must be positive and p99 must be >= median");
+        }
+        // 2.326 is the 99th percentile of the standard normal distribution.
+        final double mu = Math.log(median.toNanos());
+        final double sigma = Math.log((double) p99.toNanos() / median.toNanos()) / 2.326;
+        return () -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+}
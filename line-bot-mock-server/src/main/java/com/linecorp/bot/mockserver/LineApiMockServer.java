@@ -0,0 +1,595 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.mockserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import com.linecorp.bot.client.EndpointGroup;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+import lombok.NonNull;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embeddable fake of the Messaging API to test and benchmark clients without network access.
+ *
+ * <p>The server answers the endpoints of {@code LineMessagingClient} with plausible responses. Rich menus,
+ * their images and links to users are kept in memory. Responses can be delayed by {@link Latency}, failed
+ * by injected faults and limited by a rate per endpoint group, and requests are recorded.
+ *
+ * <p>Delayed responses are sent by a scheduler, so slow responses don't occupy request threads.
+ *
+ * <pre>{@code
+ * LineApiMockServer server = LineApiMockServer.builder()
+ *                                             .latency(Latency.logNormal(Duration.ofMillis(20),
+ *                                                                        Duration.ofMillis(200)))
+ *                                             .fault(EndpointGroup.PUSH, 429, 0.01)
+ *                                             .rateLimit(EndpointGroup.MULTICAST, 200)
+ *                                             .start();
+ * LineMessagingClient client = LineMessagingClient.builder("token")
+ *                                                 .apiEndPoint(server.endpoint())
+ *                                                 .build();
+ * }</pre>
+ */
+@Slf4j
+public final class LineApiMockServer implements Closeable {
+    private static final String API_PREFIX = "/v2/bot/";
+    private static final JsonNodeFactory JSON = JsonNodeFactory.instance;
+    private static final byte[] EMPTY_JSON = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService scheduler;
+    private final Latency defaultLatency;
+    private final Map<EndpointGroup, Latency> latencies;
+    private final Map<EndpointGroup, List<Fault>> faults;
+    private final Map<EndpointGroup, Bucket> rateLimits;
+    private final byte[] content;
+    private final int maxRecordedRequests;
+    private final List<Route> routes = new ArrayList<>();
+
+    private final Map<EndpointGroup, LongAdder> requestCounts = new EnumMap<>(EndpointGroup.class);
+    private final AtomicLong quotaUsage = new AtomicLong();
+    // Guarded by itself.
+    private final Queue<RecordedRequest> recordedRequests = new ArrayDeque<>();
+
+    private final Map<String, ObjectNode> richMenus = new ConcurrentHashMap<>();
+    private final Map<String, byte[]> richMenuImages = new ConcurrentHashMap<>();
+    private final Map<String, String> userRichMenus = new ConcurrentHashMap<>();
+    private volatile String defaultRichMenuId;
+
+    private LineApiMockServer(final Builder builder) throws IOException {
+        defaultLatency = builder.defaultLatency;
+        latencies = new EnumMap<>(builder.latencies);
+        faults = new EnumMap<>(builder.faults);
+        rateLimits = new EnumMap<>(EndpointGroup.class);
+        builder.rateLimits.forEach((group, rate) -> rateLimits.put(group, new Bucket(rate)));
+        content = new byte[builder.contentSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        maxRecordedRequests = builder.maxRecordedRequests;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            requestCounts.put(group, new LongAdder());
+        }
+        registerRoutes();
+
+        final AtomicInteger threadId = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(builder.threads, runnable -> {
+            final Thread thread = new Thread(runnable, "line-api-mock-server-" + threadId.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-api-mock-server-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), 1024);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the URL to pass to {@code LineMessagingClientBuilder#apiEndPoint(String)}.
+     */
+    public String endpoint() {
+        return "http://" + server.getAddress().getHostString() + ':' + port() + '/';
+    }
+
+    /**
+     * Returns the port the server listens on.
+     */
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of received requests, including failed ones.
+     */
+    public long requestCount() {
+        return requestCounts.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Returns the number of received requests of the given group, including failed ones.
+     */
+    public long requestCount(final EndpointGroup group) {
+        return requestCounts.get(group).sum();
+    }
+
+    /**
+     * Returns the recorded requests, oldest first. At most {@link Builder#maxRecordedRequests(int)} recent
+     * requests are kept.
+     */
+    public List<RecordedRequest> recordedRequests() {
+        synchronized (recordedRequests) {
+            return new ArrayList<>(recordedRequests);
+        }
+    }
+
+    /**
+     * Drops the recorded requests.
+     */
+    public void clearRecordedRequests() {
+        synchronized (recordedRequests) {
+            recordedRequests.clear();
+        }
+    }
+
+    /**
+     * Stops the server immediately.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    private void handle(final HttpExchange exchange) {
+        try {
+            final byte[] body = readAll(exchange.getRequestBody());
+            final String method = exchange.getRequestMethod();
+            final String path = exchange.getRequestURI().getRawPath();
+            final EndpointGroup group = EndpointGroup.of(path);
+            requestCounts.get(group).increment();
+            record(exchange, method, path, group, body);
+
+            final Response response = respond(group, method, path, body);
+            final long delay = latencies.getOrDefault(group, defaultLatency).nextNanos();
+            if (delay <= 0) {
+                send(exchange, response);
+            } else {
+                scheduler.schedule(() -> executor.execute(() -> send(exchange, response)),
+                                   delay, TimeUnit.NANOSECONDS);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to handle {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            send(exchange, error(500, "Internal error of the mock server"));
+        }
+    }
+
+    private Response respond(final EndpointGroup group, final String method, final String path,
+                             final byte[] body) throws IOException {
+        final Bucket bucket = rateLimits.get(group);
+        if (bucket != null && !bucket.tryAcquire()) {
+            return error(429, "The API rate limit has been exceeded. Try again later.");
+        }
+        for (Fault fault : faults.getOrDefault(group, Collections.emptyList())) {
+            if (ThreadLocalRandom.current().nextDouble() < fault.probability) {
+                return error(fault.status, "Injected fault");
+            }
+        }
+
+        if (path.startsWith(API_PREFIX)) {
+            final String relativePath = path.substring(API_PREFIX.length());
+            for (Route route : routes) {
+                if (route.method.equals(method)) {
+                    final Matcher matcher = route.pattern.matcher(relativePath);
+                    if (matcher.matches()) {
+                        return route.handler.apply(matcher, body);
+                    }
+                }
+            }
+        }
+        return error(404, "Not found");
+    }
+
+    private void registerRoutes() {
+        route("POST", "message/reply", (m, body) -> json(EMPTY_JSON));
+        route("POST", "message/push", (m, body) -> {
+            quotaUsage.incrementAndGet();
+            return json(EMPTY_JSON);
+        });
+        route("POST", "message/multicast", (m, body) -> {
+            final JsonNode to = readTree(body).path("to");
+            quotaUsage.addAndGet(to.size());
+            return json(EMPTY_JSON);
+        });
+        route("POST", "message/broadcast", (m, body) -> json(EMPTY_JSON));
+        route("GET", "message/quota", (m, body) -> json(JSON.objectNode().put("type", "none")));
+        route("GET", "message/quota/consumption",
+              (m, body) -> json(JSON.objectNode().put("totalUsage", quotaUsage.get())));
+        route("GET", "message/delivery/(reply|push|multicast|broadcast)",
+              (m, body) -> json(JSON.objectNode().put("status", "Ready").put("success", 0)));
+        route("GET", "message/([^/]+)/content", (m, body) -> new Response(200, "image/jpeg", content));
+
+        route("GET", "profile/([^/]+)", (m, body) -> json(profile(m.group(1))));
+        route("GET", "(group|room)/([^/]+)/member/([^/]+)", (m, body) -> json(profile(m.group(3))));
+        route("GET", "(group|room)/([^/]+)/members/ids",
+              (m, body) -> json(JSON.objectNode().set("memberIds", JSON.arrayNode())));
+        route("POST", "(group|room)/([^/]+)/leave", (m, body) -> json(EMPTY_JSON));
+
+        route("POST", "richmenu", (m, body) -> {
+            final ObjectNode richMenu = (ObjectNode) readTree(body);
+            final String richMenuId = "richmenu-" + UUID.randomUUID().toString().replace("-", "");
+            richMenu.put("richMenuId", richMenuId);
+            richMenus.put(richMenuId, richMenu);
+            return json(JSON.objectNode().put("richMenuId", richMenuId));
+        });
+        route("GET", "richmenu/list", (m, body) -> {
+            final ArrayNode list = JSON.arrayNode();
+            richMenus.values().forEach(list::add);
+            return json(JSON.objectNode().set("richmenus", list));
+        });
+        route("POST", "richmenu/bulk/(link|unlink)", (m, body) -> new Response(202, "application/json",
+                                                                             EMPTY_JSON));
+        route("GET", "richmenu/([^/]+)", (m, body) -> {
+            final ObjectNode richMenu = richMenus.get(m.group(1));
+            return richMenu != null ? json(richMenu) : error(404, "Not found");
+        });
+        route("DELETE", "richmenu/([^/]+)", (m, body) -> {
+            richMenuImages.remove(m.group(1));
+            return richMenus.remove(m.group(1)) != null ? json(EMPTY_JSON) : error(404, "Not found");
+        });
+        route("POST", "richmenu/([^/]+)/content", (m, body) -> {
+            if (!richMenus.containsKey(m.group(1))) {
+                return error(404, "Not found");
+            }
+            richMenuImages.put(m.group(1), body);
+            return json(EMPTY_JSON);
+        });
+        route("GET", "richmenu/([^/]+)/content", (m, body) -> {
+            final byte[] image = richMenuImages.get(m.group(1));
+            return image != null ? new Response(200, "image/png", image) : error(404, "Not found");
+        });
+
+        route("POST", "user/all/richmenu/([^/]+)", (m, body) -> {
+            defaultRichMenuId = m.group(1);
+            return json(EMPTY_JSON);
+        });
+        route("GET", "user/all/richmenu", (m, body) -> richMenuId(defaultRichMenuId));
+        route("DELETE", "user/all/richmenu", (m, body) -> {
+            defaultRichMenuId = null;
+            return json(EMPTY_JSON);
+        });
+        route("POST", "user/([^/]+)/richmenu/([^/]+)", (m, body) -> {
+            userRichMenus.put(m.group(1), m.group(2));
+            return json(EMPTY_JSON);
+        });
+        route("GET", "user/([^/]+)/richmenu", (m, body) -> richMenuId(userRichMenus.get(m.group(1))));
+        route("DELETE", "user/([^/]+)/richmenu", (m, body) -> {
+            userRichMenus.remove(m.group(1));
+            return json(EMPTY_JSON);
+        });
+        route("POST", "user/([^/]+)/linkToken",
+              (m, body) -> json(JSON.objectNode().put("linkToken", UUID.randomUUID().toString())));
+
+        route("GET", "insight/message/delivery", (m, body) -> json(JSON.objectNode().put("status", "Ready")));
+        route("GET", "insight/followers", (m, body) -> json(JSON.objectNode().put("status", "Ready")
+                                                                          .put("followers", 0)
+                                                                          .put("targetedReaches", 0)
+                                                                          .put("blocks", 0)));
+    }
+
+    private void route(final String method, final String pattern, final RouteHandler handler) {
+        routes.add(new Route(method, Pattern.compile(pattern), handler));
+    }
+
+    private void record(final HttpExchange exchange, final String method, final String path,
+                        final EndpointGroup group, final byte[] body) {
+        if (maxRecordedRequests == 0) {
+            return;
+        }
+        final Map<String, String> headers = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name.toLowerCase(), values.get(0));
+            }
+        });
+        final String query = exchange.getRequestURI().getRawQuery();
+        final RecordedRequest request = new RecordedRequest(
+                method, query != null ? path + '?' + query : path, group,
+                Collections.unmodifiableMap(headers), body, Instant.now());
+        synchronized (recordedRequests) {
+            if (recordedRequests.size() >= maxRecordedRequests) {
+                recordedRequests.poll();
+            }
+            recordedRequests.add(request);
+        }
+    }
+
+    private static void send(final HttpExchange exchange, final Response response) {
+        try {
+            exchange.getResponseHeaders().set("Content-Type", response.contentType);
+            if (response.status == 429) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+            exchange.getResponseHeaders().set("X-Line-Request-Id", UUID.randomUUID().toString());
+            final int length = response.body.length;
+            exchange.sendResponseHeaders(response.status, length == 0 ? -1 : length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response.body);
+            }
+        } catch (IOException e) {
+            log.debug("Failed to send a response", e);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static Response richMenuId(final String richMenuId) throws IOException {
+        return richMenuId != null ? json(JSON.objectNode().put("richMenuId", richMenuId))
+                                  : error(404, "Not found");
+    }
+
+    private static ObjectNode profile(final String userId) {
+        return JSON.objectNode().put("displayName", "User " + userId).put("userId", userId);
+    }
+
+    private static Response error(final int status, final String message) {
+        final String json = "{\"message\":\"" + message + "\"}";
+        return new Response(status, "application/json", json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Response json(final JsonNode json) throws IOException {
+        return json(ModelCodec.writerFor(JsonNode.class).writeValueAsBytes(json));
+    }
+
+    private static Response json(final byte[] json) {
+        return new Response(200, "application/json", json);
+    }
+
+    private static JsonNode readTree(final byte[] body) throws IOException {
+        return ModelCodec.readerFor(JsonNode.class).readValue(body);
+    }
+
+    private static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface RouteHandler {
+        Response apply(Matcher matcher, byte[] body) throws IOException;
+    }
+
+    @Value
+    private static class Route {
+        String method;
+        Pattern pattern;
+        RouteHandler handler;
+    }
+
+    @Value
+    private static class Response {
+        int status;
+        String contentType;
+        byte[] body;
+    }
+
+    @Value
+    private static class Fault {
+        int status;
+        double probability;
+    }
+
+    private static final class Bucket {
+        private final double permitsPerSecond;
+
+        // Guarded by this.
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        Bucket(final double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+            tokens = Math.max(1, permitsPerSecond);
+        }
+
+        synchronized boolean tryAcquire() {
+            final long now = System.nanoTime();
+            final double refill = (now - lastRefillNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+            tokens = Math.min(Math.max(1, permitsPerSecond), tokens + refill);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+
+    /**
+     * Builder of {@link LineApiMockServer}.
+     */
+    public static final class Builder {
+        private int port;
+        private int threads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+        private Latency defaultLatency = Latency.none();
+        private final Map<EndpointGroup, Latency> latencies = new EnumMap<>(EndpointGroup.class);
+        private final Map<EndpointGroup, List<Fault>> faults = new EnumMap<>(EndpointGroup.class);
+        private final Map<EndpointGroup, Double> rateLimits = new EnumMap<>(EndpointGroup.class);
+        private int contentSize = 16 * 1024;
+        private int maxRecordedRequests = 10_000;
+
+        private Builder() {
+        }
+
+        /**
+         * Port to listen on the loopback address. Default = {@code 0} (an ephemeral port).
+         */
+        public Builder port(final int port) {
+            if (port < 0 || port > 65535) {
+                throw new IllegalArgumentException("port must be between 0 and 65535");
+            }
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * Number of threads handling requests. Default = twice the number of processors, at least 4.
+         */
+        public Builder threads(final int threads) {
+            if (threads <= 0) {
+                throw new IllegalArgumentException("threads must be positive");
+            }
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Latency of all endpoint groups without their own latency. Default = {@link Latency#none()}.
+         */
+        public Builder latency(@NonNull final Latency latency) {
+            defaultLatency = latency;
+            return this;
+        }
+
+        /**
+         * Latency of the given endpoint group.
+         */
+        public Builder latency(@NonNull final EndpointGroup group, @NonNull final Latency latency) {
+            latencies.put(group, latency);
+            return this;
+        }
+
+        /**
+         * Fails requests of all endpoint groups with the given status code at the given probability.
+         */
+        public Builder fault(final int status, final double probability) {
+            for (EndpointGroup group : EndpointGroup.values()) {
+                fault(group, status, probability);
+            }
+            return this;
+        }
+
+        /**
+         * Fails requests of the given endpoint group with the given status code at the given probability,
+         * e.g. {@code fault(EndpointGroup.PUSH, 503, 0.05)}. {@code 429} responses carry
+         * {@code Retry-After: 1}.
+         */
+        public Builder fault(@NonNull final EndpointGroup group, final int status, final double probability) {
+            if (status < 400 || status > 599 || probability < 0 || probability > 1) {
+                throw new IllegalArgumentException(
+                        "status must be 4xx or 5xx and probability must be between 0 and 1");
+            }
+            faults.computeIfAbsent(group, ignored -> new ArrayList<>()).add(new Fault(status, probability));
+            return this;
+        }
+
+        /**
+         * Responds {@code 429 Too Many Requests} to requests of the given group exceeding the rate.
+         */
+        public Builder rateLimit(@NonNull final EndpointGroup group, final double permitsPerSecond) {
+            if (permitsPerSecond <= 0) {
+                throw new IllegalArgumentException("permitsPerSecond must be positive");
+            }
+            rateLimits.put(group, permitsPerSecond);
+            return this;
+        }
+
+        /**
+         * Size of message contents in bytes. Default = 16 KiB.
+         */
+        public Builder contentSize(final int contentSize) {
+            if (contentSize < 0) {
+                throw new IllegalArgumentException("contentSize must not be negative");
+            }
+            this.contentSize = contentSize;
+            return this;
+        }
+
+        /**
+         * Max number of recent requests to record. {@code 0} disables recording for benchmarks.
+         * Default = 10,000.
+         */
+        public Builder maxRecordedRequests(final int maxRecordedRequests) {
+            if (maxRecordedRequests < 0) {
+                throw new IllegalArgumentException("maxRecordedRequests must not be negative");
+            }
+            this.maxRecordedRequests = maxRecordedRequests;
+            return this;
+        }
+
+        /**
+         * Creates and starts a new {@link LineApiMockServer}.
+         *
+         * @throws IOException when the port couldn't be bound.
+         */
+        public LineApiMockServer start() throws IOException {
+            return new LineApiMockServer(this);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.mockserver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Map;
+
+import com.linecorp.bot.client.EndpointGroup;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+import lombok.ToString;
+import lombok.Value;
+
+/**
+ * Request received by {@link LineApiMockServer}.
+ */
+@Value
+public class RecordedRequest {
+    /**
+     * HTTP method, e.g. {@code POST}.
+     */
+    String method;
+
+    /**
+     * Request path including the query string, e.g. {@code /v2/bot/message/push}.
+     */
+    String path;
+
+    /**
+     * Endpoint group resolved from the path.
+     */
+    EndpointGroup endpointGroup;
+
+    /**
+     * Request headers with lower-cased names. Only the first value of each header is kept.
+     */
+    Map<String, String> headers;
+
+    /**
+     * Request body. Empty if the request has no body.
+     */
+    @ToString.Exclude
+    byte[] body;
+
+    /**
+     * Time when the request was received.
+     */
+    Instant receivedAt;
+
+    /**
+     * Returns the body decoded as UTF-8.
+     */
+    public String bodyAsString() {
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the body deserialized as the given model type, e.g. {@code PushMessage.class}.
+     */
+    public <T> T bodyAs(final Class<T> type) {
+        try {
+            return ModelCodec.readerFor(type).readValue(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
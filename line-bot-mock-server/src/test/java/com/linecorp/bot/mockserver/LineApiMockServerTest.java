@@ -0,0 +1,164 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.mockserver;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.EndpointGroup;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.profile.UserProfileResponse;
+import com.linecorp.bot.model.richmenu.RichMenu;
+import com.linecorp.bot.model.richmenu.RichMenuResponse;
+
+public class LineApiMockServerTest {
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private LineApiMockServer server;
+
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void pushMessageIsRecorded() throws Exception {
+        server = LineApiMockServer.builder().start();
+        final LineMessagingClient client = client();
+
+        // Do
+        client.pushMessage(new PushMessage("USER_ID", new TextMessage("hello"))).get();
+
+        // Verify
+        final List<RecordedRequest> requests = server.recordedRequests();
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).getMethod()).isEqualTo("POST");
+        assertThat(requests.get(0).getPath()).isEqualTo("/v2/bot/message/push");
+        assertThat(requests.get(0).getEndpointGroup()).isEqualTo(EndpointGroup.PUSH);
+        assertThat(requests.get(0).getHeaders()).containsEntry("authorization", "Bearer TOKEN");
+        assertThat(requests.get(0).bodyAs(PushMessage.class).getTo()).isEqualTo("USER_ID");
+        assertThat(server.requestCount(EndpointGroup.PUSH)).isEqualTo(1);
+    }
+
+    @Test
+    public void profile() throws Exception {
+        server = LineApiMockServer.builder().start();
+
+        // Do
+        final UserProfileResponse profile = client().getProfile("USER_ID").get();
+
+        // Verify
+        assertThat(profile.getUserId()).isEqualTo("USER_ID");
+    }
+
+    @Test
+    public void latencyDelaysResponses() throws Exception {
+        server = LineApiMockServer.builder()
+                                  .latency(EndpointGroup.PUSH, Latency.fixed(Duration.ofMillis(300)))
+                                  .start();
+        final LineMessagingClient client = client();
+
+        // Do
+        final long start = System.nanoTime();
+        client.pushMessage(new PushMessage("USER_ID", new TextMessage("hello"))).get();
+
+        // Verify
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(300).toNanos());
+    }
+
+    @Test
+    public void injectedFaults() throws Exception {
+        server = LineApiMockServer.builder()
+                                  .fault(EndpointGroup.PUSH, 429, 1)
+                                  .fault(EndpointGroup.PROFILE, 500, 1)
+                                  .start();
+        final LineMessagingClient client = client();
+
+        // Do & Verify
+        assertThatThrownBy(() -> client.pushMessage(new PushMessage("USER_ID", new TextMessage("hello"))).get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> client.getProfile("USER_ID").get())
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(LineServerException.class);
+    }
+
+    @Test
+    public void rateLimit() throws Exception {
+        server = LineApiMockServer.builder()
+                                  .rateLimit(EndpointGroup.PUSH, 2)
+                                  .start();
+        final LineMessagingClient client = client();
+
+        // Do
+        client.pushMessage(new PushMessage("USER_ID", new TextMessage("1"))).get();
+        client.pushMessage(new PushMessage("USER_ID", new TextMessage("2"))).get();
+
+        // Verify
+        assertThatThrownBy(() -> client.pushMessage(new PushMessage("USER_ID", new TextMessage("3"))).get())
+                .hasCauseInstanceOf(TooManyRequestsException.class);
+        assertThat(client.getProfile("USER_ID").get().getUserId()).isEqualTo("USER_ID");
+    }
+
+    @Test
+    public void richMenuRoundTrip() throws Exception {
+        server = LineApiMockServer.builder().start();
+        final LineMessagingClient client = client();
+
+        // Do
+        final String richMenuId = client.createRichMenu(RichMenu.builder()
+                                                                .name("menu")
+                                                                .chatBarText("Tap")
+                                                                .build())
+                                        .get().getRichMenuId();
+        client.setRichMenuImage(richMenuId, "image/png", new byte[] { 1, 2, 3 }).get();
+        client.linkRichMenuIdToUser("USER_ID", richMenuId).get();
+
+        // Verify
+        final RichMenuResponse richMenu = client.getRichMenu(richMenuId).get();
+        assertThat(richMenu.getRichMenuId()).isEqualTo(richMenuId);
+        assertThat(richMenu.getName()).isEqualTo("menu");
+        assertThat(client.getRichMenuList().get().getRichMenus()).hasSize(1);
+        assertThat(client.getRichMenuIdOfUser("USER_ID").get().getRichMenuId()).isEqualTo(richMenuId);
+        assertThat(client.getRichMenuImage(richMenuId).get().getLength()).isEqualTo(3);
+
+        client.deleteRichMenu(richMenuId).get();
+        assertThat(client.getRichMenuList().get().getRichMenus()).isEmpty();
+    }
+
+    private LineMessagingClient client() {
+        return LineMessagingClient.builder("TOKEN")
+                                  .apiEndPoint(server.endpoint())
+                                  .build();
+    }
+}
@@ -19,16 +19,17 @@ package com.linecorp.bot.model;
 import java.util.Collections;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import com.linecorp.bot.model.message.Message;
 
-import lombok.AllArgsConstructor;
 import lombok.Value;
 
 /**
  * Send messages to users, groups, and rooms at any time.
  */
 @Value
-@AllArgsConstructor
 public class PushMessage {
     /**
      * ID of the receiver.
@@ -46,4 +47,11 @@ public class PushMessage {
         this.to = to;
         this.messages = Collections.singletonList(message);
     }
+
+    @JsonCreator
+    public PushMessage(@JsonProperty("to") final String to,
+                       @JsonProperty("messages") final List<Message> messages) {
+        this.to = to;
+        this.messages = messages;
+    }
 }
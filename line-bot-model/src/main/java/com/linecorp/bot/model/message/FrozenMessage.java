@@ -0,0 +1,127 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.model.message;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import com.linecorp.bot.model.message.quickreply.QuickReply;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link Message} serialized to JSON once. Requests containing it copy the serialized bytes as they are,
+ * without walking the object graph of the original message again.
+ *
+ * <p>Freeze large messages which are sent many times, e.g. a {@link FlexMessage} built at start-up.
+ *
+ * <pre>{@code
+ * private static final Message WELCOME = FrozenMessage.of(welcomeFlexMessage());
+ *
+ * client.pushMessage(new PushMessage(userId, WELCOME));
+ * }</pre>
+ *
+ * <p>Changes to the original message after freezing are not reflected. This type can't be deserialized.
+ *
+ * @see FrozenMessageCache
+ */
+@ToString(of = "message")
+@EqualsAndHashCode(of = "message")
+@JsonSerialize(using = FrozenMessage.FrozenMessageSerializer.class)
+public final class FrozenMessage implements Message {
+    /**
+     * The original message.
+     */
+    @Getter
+    private final Message message;
+    private final SerializedString json;
+
+    private FrozenMessage(final Message message, final String json) {
+        this.message = message;
+        this.json = new SerializedString(json);
+        // Encodes to UTF-8 now; SerializedString caches the bytes written by byte-based generators.
+        this.json.asUnquotedUTF8();
+    }
+
+    /**
+     * Serializes the given message. Returns the message itself if it's already frozen.
+     *
+     * @throws UncheckedIOException if the message can't be serialized.
+     */
+    public static FrozenMessage of(final Message message) {
+        if (message instanceof FrozenMessage) {
+            return (FrozenMessage) message;
+        }
+        try {
+            return new FrozenMessage(message, ModelCodec.writerFor(Message.class).writeValueAsString(message));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public QuickReply getQuickReply() {
+        return message.getQuickReply();
+    }
+
+    /**
+     * Returns the serialized JSON.
+     */
+    public String toJson() {
+        return json.getValue();
+    }
+
+    /**
+     * Returns the number of bytes of the serialized JSON in UTF-8.
+     */
+    public int sizeInBytes() {
+        return json.asUnquotedUTF8().length;
+    }
+
+    static final class FrozenMessageSerializer extends StdSerializer<FrozenMessage> {
+        private static final long serialVersionUID = 1L;
+
+        FrozenMessageSerializer() {
+            super(FrozenMessage.class);
+        }
+
+        @Override
+        public void serialize(final FrozenMessage value, final JsonGenerator gen,
+                              final SerializerProvider provider) throws IOException {
+            gen.writeRawValue(value.json);
+        }
+
+        @Override
+        public void serializeWithType(final FrozenMessage value, final JsonGenerator gen,
+                                      final SerializerProvider provider, final TypeSerializer typeSer)
+                throws IOException {
+            // The serialized JSON already has the type property of the original message.
+            serialize(value, gen, provider);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.model.message;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.NonNull;
+import lombok.ToString;
+
+/**
+ * Bounded cache of {@link FrozenMessage FrozenMessages} keyed by the original {@link Message}.
+ *
+ * <p>Use it when equal messages are built again and again, e.g. per request from a template. Looking up a
+ * message computes its {@link Object#hashCode()}, which is still much cheaper than serializing it.
+ * The least recently used entries are evicted when the total size of serialized JSON exceeds
+ * {@code maximumBytes}.
+ *
+ * <pre>{@code
+ * FrozenMessageCache cache = FrozenMessageCache.builder()
+ *                                              .maximumBytes(64 * 1024 * 1024)
+ *                                              .build();
+ * client.pushMessage(new PushMessage(userId, cache.freeze(flexMessageSupplier.get())));
+ * }</pre>
+ */
+@ToString(onlyExplicitlyIncluded = true)
+public final class FrozenMessageCache {
+    @ToString.Include
+    private final long maximumBytes;
+
+    // Guarded by itself. Access ordered to evict the least recently used entry.
+    private final LinkedHashMap<Message, FrozenMessage> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Guarded by entries.
+    private long weight;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private FrozenMessageCache(final Builder builder) {
+        maximumBytes = builder.maximumBytes;
+    }
+
+    /**
+     * Creates a new {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the frozen form of the given message, serializing it only if it's not cached yet.
+     * Messages larger than {@code maximumBytes} are frozen but not cached.
+     */
+    public FrozenMessage freeze(@NonNull final Message message) {
+        if (message instanceof FrozenMessage) {
+            return (FrozenMessage) message;
+        }
+        synchronized (entries) {
+            final FrozenMessage cached = entries.get(message);
+            if (cached != null) {
+                hitCount.increment();
+                return cached;
+            }
+        }
+
+        // Serializes outside of the lock. Concurrent misses of the same message may serialize it twice.
+        missCount.increment();
+        final FrozenMessage frozen = FrozenMessage.of(message);
+        final int size = frozen.sizeInBytes();
+        if (size > maximumBytes) {
+            return frozen;
+        }
+        synchronized (entries) {
+            final FrozenMessage previous = entries.putIfAbsent(message, frozen);
+            if (previous != null) {
+                return previous;
+            }
+            weight += size;
+            final Iterator<FrozenMessage> eldest = entries.values().iterator();
+            while (weight > maximumBytes) {
+                weight -= eldest.next().sizeInBytes();
+                eldest.remove();
+                evictionCount.increment();
+            }
+        }
+        return frozen;
+    }
+
+    /**
+     * Removes all entries.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    /**
+     * Returns the number of cached messages.
+     */
+    @ToString.Include
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Returns the total size of serialized JSON of cached messages in bytes.
+     */
+    @ToString.Include
+    public long weightInBytes() {
+        synchronized (entries) {
+            return weight;
+        }
+    }
+
+    /**
+     * Returns the number of calls to {@link #freeze(Message)} served from the cache.
+     */
+    public long hitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * Returns the number of calls to {@link #freeze(Message)} which serialized the message.
+     */
+    public long missCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full.
+     */
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+
+    /**
+     * Builder of {@link FrozenMessageCache}.
+     */
+    public static final class Builder {
+        private long maximumBytes = 16 * 1024 * 1024;
+
+        private Builder() {
+        }
+
+        /**
+         * Max total size of serialized JSON of cached messages in bytes. Default = 16 MiB.
+         */
+        public Builder maximumBytes(final long maximumBytes) {
+            if (maximumBytes <= 0) {
+                throw new IllegalArgumentException("maximumBytes must be positive");
+            }
+            this.maximumBytes = maximumBytes;
+            return this;
+        }
+
+        /**
+         * Creates a new {@link FrozenMessageCache}.
+         */
+        public FrozenMessageCache build() {
+            return new FrozenMessageCache(this);
+        }
+    }
+}
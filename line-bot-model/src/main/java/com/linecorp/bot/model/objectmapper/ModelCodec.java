@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.model.objectmapper;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import com.linecorp.bot.model.Broadcast;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.ReplyMessage;
+import com.linecorp.bot.model.error.ErrorResponse;
+import com.linecorp.bot.model.event.CallbackRequest;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Shared, thread-safe {@link ObjectReader ObjectReaders} and {@link ObjectWriter ObjectWriters} of model types.
+ *
+ * <p>All readers and writers are created from a single {@link ObjectMapper} configured like
+ * {@link ModelObjectMapper}, so that the client, the webhook parser and applications share serializer caches
+ * instead of warming up their own. Readers and writers of frequently used types, e.g. {@link CallbackRequest}
+ * and {@link PushMessage}, are built when this class is loaded.
+ *
+ * <pre>{@code
+ * CallbackRequest callbackRequest = ModelCodec.readerFor(CallbackRequest.class).readValue(json);
+ * byte[] body = ModelCodec.writerFor(PushMessage.class).writeValueAsBytes(pushMessage);
+ * }</pre>
+ *
+ * <p>Use {@link ModelObjectMapper#createNewObjectMapper()} instead if you need a differently configured
+ * {@link ObjectMapper}.
+ */
+@UtilityClass
+public class ModelCodec {
+    private static final ObjectMapper OBJECT_MAPPER = ModelObjectMapper.createNewObjectMapper();
+    private static final ConcurrentMap<Type, ObjectReader> READERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Type, ObjectWriter> WRITERS = new ConcurrentHashMap<>();
+
+    static {
+        for (Class<?> type : new Class<?>[] { CallbackRequest.class, ErrorResponse.class }) {
+            readerFor(type);
+        }
+        for (Class<?> type : new Class<?>[] {
+                ReplyMessage.class, PushMessage.class, Multicast.class, Broadcast.class }) {
+            writerFor(type);
+        }
+    }
+
+    /**
+     * Returns the shared {@link ObjectReader} of the given type, which may be generic.
+     */
+    public ObjectReader readerFor(final Type type) {
+        return READERS.computeIfAbsent(
+                type, unused -> OBJECT_MAPPER.readerFor(OBJECT_MAPPER.getTypeFactory().constructType(type)));
+    }
+
+    /**
+     * Returns the shared {@link ObjectWriter} of the given type, which may be generic.
+     */
+    public ObjectWriter writerFor(final Type type) {
+        return WRITERS.computeIfAbsent(
+                type, unused -> OBJECT_MAPPER.writerFor(OBJECT_MAPPER.getTypeFactory().constructType(type)));
+    }
+}
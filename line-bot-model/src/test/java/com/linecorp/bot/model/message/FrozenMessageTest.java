@@ -0,0 +1,109 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.model.message;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.flex.container.Bubble;
+import com.linecorp.bot.model.message.flex.container.Carousel;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+
+public class FrozenMessageTest {
+    private final FlexMessage flexMessage = new ExampleFlexMessageSupplier().get();
+
+    @Test
+    public void serializedSameAsOriginal() throws Exception {
+        final PushMessage original = new PushMessage("TO", asList(flexMessage, new TextMessage("text")));
+        final PushMessage frozen = new PushMessage("TO", asList(FrozenMessage.of(flexMessage),
+                                                                FrozenMessage.of(new TextMessage("text"))));
+
+        // Do
+        final byte[] expected = ModelCodec.writerFor(PushMessage.class).writeValueAsBytes(original);
+        final byte[] actual = ModelCodec.writerFor(PushMessage.class).writeValueAsBytes(frozen);
+
+        // Verify
+        assertThat(actual).isEqualTo(expected);
+        assertThat(ModelCodec.writerFor(PushMessage.class).writeValueAsString(frozen))
+                .isEqualTo(new String(expected, "UTF-8"));
+    }
+
+    @Test
+    public void changesAfterFreezingAreIgnored() throws Exception {
+        final Bubble bubble = (Bubble) flexMessage.getContents();
+        final List<Bubble> bubbles = new ArrayList<>(singletonList(bubble));
+        final FlexMessage carousel = new FlexMessage("ALT", new Carousel(bubbles));
+        final String before = ModelCodec.writerFor(Message.class).writeValueAsString(carousel);
+
+        // Do
+        final FrozenMessage frozen = FrozenMessage.of(carousel);
+        bubbles.add(bubble);
+
+        // Verify
+        assertThat(ModelCodec.writerFor(Message.class).writeValueAsString(carousel)).isNotEqualTo(before);
+        assertThat(frozen.toJson()).isEqualTo(before);
+        assertThat(frozen.sizeInBytes()).isEqualTo(before.getBytes("UTF-8").length);
+    }
+
+    @Test
+    public void freezingFrozenMessageReturnsItself() {
+        final FrozenMessage frozen = FrozenMessage.of(new TextMessage("text"));
+
+        // Verify
+        assertThat(FrozenMessage.of(frozen)).isSameAs(frozen);
+    }
+
+    @Test
+    public void cacheReturnsSameInstance() {
+        final FrozenMessageCache cache = FrozenMessageCache.builder().build();
+
+        // Do
+        final FrozenMessage first = cache.freeze(flexMessage);
+        final FrozenMessage second = cache.freeze(new ExampleFlexMessageSupplier().get());
+
+        // Verify
+        assertThat(second).isSameAs(first);
+        assertThat(cache.hitCount()).isEqualTo(1);
+        assertThat(cache.missCount()).isEqualTo(1);
+        assertThat(cache.weightInBytes()).isEqualTo(first.sizeInBytes());
+    }
+
+    @Test
+    public void cacheEvictsLeastRecentlyUsed() {
+        final int size = FrozenMessage.of(new TextMessage("0")).sizeInBytes();
+        final FrozenMessageCache cache = FrozenMessageCache.builder().maximumBytes(size * 2).build();
+
+        // Do
+        cache.freeze(new TextMessage("0"));
+        cache.freeze(new TextMessage("1"));
+        cache.freeze(new TextMessage("0"));
+        cache.freeze(new TextMessage("2"));
+
+        // Verify
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+        cache.freeze(new TextMessage("0"));
+        assertThat(cache.hitCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.model.objectmapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.event.CallbackRequest;
+import com.linecorp.bot.model.event.MessageEvent;
+import com.linecorp.bot.model.message.TextMessage;
+
+public class ModelCodecTest {
+    @Test
+    public void readersAndWritersAreShared() {
+        assertThat(ModelCodec.readerFor(CallbackRequest.class))
+                .isSameAs(ModelCodec.readerFor(CallbackRequest.class));
+        assertThat(ModelCodec.writerFor(PushMessage.class))
+                .isSameAs(ModelCodec.writerFor(PushMessage.class));
+    }
+
+    @Test
+    public void readCallbackRequest() throws Exception {
+        try (InputStream json = ClassLoader.getSystemResourceAsStream("callback/text-user.json")) {
+            // Do
+            final CallbackRequest callbackRequest =
+                    ModelCodec.readerFor(CallbackRequest.class).readValue(json);
+
+            // Verify
+            assertThat(callbackRequest.getEvents()).hasSize(1);
+            assertThat(callbackRequest.getEvents().get(0)).isInstanceOf(MessageEvent.class);
+        }
+    }
+
+    @Test
+    public void writePushMessage() throws Exception {
+        final PushMessage pushMessage = new PushMessage("TO", new TextMessage("text"));
+
+        // Do
+        final String json = ModelCodec.writerFor(PushMessage.class).writeValueAsString(pushMessage);
+
+        // Verify
+        assertThat(json).isEqualTo("{\"to\":\"TO\",\"messages\":[{\"type\":\"text\",\"text\":\"text\"}]}");
+    }
+
+    @Test
+    public void genericType() throws Exception {
+        final List<TextMessage> messages = ModelCodec
+                .readerFor(new TypeReference<List<TextMessage>>() {}.getType())
+                .readValue("[{\"type\":\"text\",\"text\":\"hello\"}]");
+
+        assertThat(messages).containsExactly(new TextMessage("hello"));
+    }
+}
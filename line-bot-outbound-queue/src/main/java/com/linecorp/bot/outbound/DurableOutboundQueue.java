@@ -0,0 +1,519 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.outbound;
+
+import static java.util.Collections.emptyList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.ConflictException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.client.exception.TooManyRequestsException;
+import com.linecorp.bot.model.Broadcast;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Queue in front of {@link LineMessagingClient#pushMessage(UUID, PushMessage)},
+ * {@link LineMessagingClient#multicast(UUID, Multicast)} and
+ * {@link LineMessagingClient#broadcast(UUID, Broadcast)} which keeps requests on disk until the server
+ * accepts them.
+ *
+ * <p>Each request is appended to a {@link WriteAheadLog write-ahead log} with a new {@code X-Line-Retry-Key}
+ * before it's sent, and acknowledged when the server accepts or permanently rejects it. Requests which
+ * weren't acknowledged are delivered again with the same retry key when the queue is built on the same
+ * directory after a crash. The delivery is at-least-once, and the server drops duplicates of a retry key.
+ *
+ * <p>At most {@link Builder#maxConcurrentDeliveries(int)} requests are sent at once. Requests failed by
+ * I/O errors, {@code 429 Too Many Requests} or {@code 5xx} server errors are sent again after an exponential
+ * backoff. {@code 409 Conflict} means that an earlier delivery of the retry key was accepted, so the request
+ * is completed as accepted. Requests rejected by other errors are dropped.
+ *
+ * <pre>{@code
+ * DurableOutboundQueue queue = DurableOutboundQueue.builder(client, Paths.get("/var/lib/bot/outbound"))
+ *                                                  .build();
+ * queue.pushMessage(new PushMessage(userId, new TextMessage("hello")));
+ * }</pre>
+ */
+@Slf4j
+public final class DurableOutboundQueue implements Closeable {
+    private static final byte PUSH = 1;
+    private static final byte MULTICAST = 2;
+    private static final byte BROADCAST = 3;
+    private static final int RECORD_HEADER_SIZE = 1 + 2 * Long.BYTES;
+    private static final BotApiResponse ACCEPTED = new BotApiResponse("", emptyList());
+
+    private final LineMessagingClient client;
+    private final WriteAheadLog wal;
+    private final int maxConcurrentDeliveries;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int checkpointInterval;
+    private final ScheduledExecutorService scheduler;
+    private final boolean ownsScheduler;
+    private final boolean syncOnAppend;
+    private final ScheduledFuture<?> syncTask;
+
+    // Guarded by this.
+    private final Queue<Delivery> pending = new ArrayDeque<>();
+    private final Set<Delivery> waitingForRetry = new HashSet<>();
+    private int inFlight;
+    private int acksSinceCheckpoint;
+    private boolean closed;
+
+    private DurableOutboundQueue(final Builder builder) throws IOException {
+        client = builder.client;
+        maxConcurrentDeliveries = builder.maxConcurrentDeliveries;
+        initialBackoff = builder.initialBackoff;
+        maxBackoff = builder.maxBackoff;
+        checkpointInterval = builder.checkpointInterval;
+        ownsScheduler = builder.scheduler == null;
+        scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "line-bot-outbound-queue");
+            thread.setDaemon(true);
+            return thread;
+        }) : builder.scheduler;
+        syncOnAppend = builder.syncInterval.isZero();
+
+        final List<WriteAheadLog.Record> unacknowledged = new ArrayList<>();
+        wal = WriteAheadLog.open(builder.directory, builder.segmentSize, unacknowledged);
+        for (WriteAheadLog.Record record : unacknowledged) {
+            pending.add(decode(record));
+        }
+        if (!unacknowledged.isEmpty()) {
+            log.info("Redelivering {} requests from {}", unacknowledged.size(), builder.directory);
+        }
+        if (syncOnAppend) {
+            syncTask = null;
+        } else {
+            final long period = builder.syncInterval.toNanos();
+            syncTask = scheduler.scheduleWithFixedDelay(this::force, period, period, TimeUnit.NANOSECONDS);
+        }
+        drain();
+    }
+
+    /**
+     * Creates a new {@link Builder} which stores requests in the given directory.
+     */
+    public static Builder builder(@NonNull final LineMessagingClient client, @NonNull final Path directory) {
+        return new Builder(client, directory);
+    }
+
+    /**
+     * Enqueues a push message. The returned future completes when the server accepts the message, or
+     * completes exceptionally when the server rejects it permanently or the queue is closed before that.
+     *
+     * <p>Returns after the request is flushed to the storage device unless
+     * {@link Builder#syncInterval(Duration)} is set. Requests enqueued by other threads meanwhile are flushed
+     * together.
+     *
+     * @throws UncheckedIOException when the request couldn't be written to disk.
+     */
+    public CompletableFuture<BotApiResponse> pushMessage(@NonNull final PushMessage pushMessage) {
+        return enqueue(PUSH, pushMessage);
+    }
+
+    /**
+     * Enqueues a multicast message.
+     *
+     * @see #pushMessage(PushMessage)
+     */
+    public CompletableFuture<BotApiResponse> multicast(@NonNull final Multicast multicast) {
+        return enqueue(MULTICAST, multicast);
+    }
+
+    /**
+     * Enqueues a broadcast message.
+     *
+     * @see #pushMessage(PushMessage)
+     */
+    public CompletableFuture<BotApiResponse> broadcast(@NonNull final Broadcast broadcast) {
+        return enqueue(BROADCAST, broadcast);
+    }
+
+    /**
+     * Returns the number of requests which are not acknowledged yet, including those being sent.
+     */
+    public synchronized int pendingCount() {
+        return pending.size() + inFlight + waitingForRetry.size();
+    }
+
+    /**
+     * Stops sending requests and checkpoints the log. Requests which are not acknowledged yet are sent
+     * when a queue is built on the same directory again. Futures of requests which are not being sent
+     * complete exceptionally with {@link IllegalStateException}.
+     */
+    @Override
+    public void close() throws IOException {
+        final List<Delivery> unsent;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            unsent = new ArrayList<>(pending);
+            unsent.addAll(waitingForRetry);
+            pending.clear();
+            waitingForRetry.clear();
+        }
+        unsent.forEach(DurableOutboundQueue::failClosed);
+        if (syncTask != null) {
+            syncTask.cancel(false);
+        }
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+        wal.close();
+    }
+
+    private CompletableFuture<BotApiResponse> enqueue(final byte type, final Object request) {
+        final UUID retryKey = UUID.randomUUID();
+        final Delivery delivery;
+        final boolean queued;
+        try {
+            final byte[] json = ModelCodec.writerFor(request.getClass()).writeValueAsBytes(request);
+            final byte[] payload = ByteBuffer.allocate(RECORD_HEADER_SIZE + json.length)
+                                             .put(type)
+                                             .putLong(retryKey.getMostSignificantBits())
+                                             .putLong(retryKey.getLeastSignificantBits())
+                                             .put(json)
+                                             .array();
+            synchronized (this) {
+                if (closed) {
+                    throw new IllegalStateException("Already closed.");
+                }
+                delivery = new Delivery(wal.append(payload), type, retryKey, request);
+            }
+            if (syncOnAppend) {
+                // Outside of the lock, so that appends while flushing share the next flush.
+                wal.forceUpTo(delivery.seq);
+            }
+            synchronized (this) {
+                queued = !closed;
+                if (queued) {
+                    pending.add(delivery);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!queued) {
+            failClosed(delivery);
+            return delivery.future;
+        }
+        drain();
+        return delivery.future;
+    }
+
+    private void drain() {
+        final List<Delivery> sending = new ArrayList<>();
+        synchronized (this) {
+            while (!closed && inFlight < maxConcurrentDeliveries && !pending.isEmpty()) {
+                inFlight++;
+                sending.add(pending.poll());
+            }
+        }
+        // Send outside of the lock because the client may complete synchronously.
+        sending.forEach(this::send);
+    }
+
+    private void send(final Delivery delivery) {
+        final CompletableFuture<BotApiResponse> response;
+        try {
+            response = delivery.send(client);
+        } catch (RuntimeException e) {
+            onComplete(delivery, null, e);
+            return;
+        }
+        response.whenComplete((result, cause) -> onComplete(delivery, result, cause));
+    }
+
+    private void onComplete(final Delivery delivery, final BotApiResponse response, final Throwable cause) {
+        final Throwable unwrapped = cause instanceof CompletionException && cause.getCause() != null
+                                    ? cause.getCause() : cause;
+        final Throwable error;
+        final BotApiResponse result;
+        if (unwrapped instanceof ConflictException) {
+            // Every delivery has a retry key, so this is a duplicate of an accepted one.
+            log.debug("Request {} was accepted by an earlier delivery", delivery.seq);
+            error = null;
+            result = ACCEPTED;
+        } else {
+            error = unwrapped;
+            result = response;
+        }
+        if (error != null && isTransient(error)) {
+            final Duration backoff = delivery.nextBackoff(initialBackoff, maxBackoff);
+            log.debug("Redelivering request {} in {}", delivery.seq, backoff, error);
+            final boolean scheduled;
+            synchronized (this) {
+                inFlight--;
+                scheduled = !closed;
+                if (scheduled) {
+                    waitingForRetry.add(delivery);
+                    scheduler.schedule(() -> retry(delivery), backoff.toNanos(), TimeUnit.NANOSECONDS);
+                }
+            }
+            if (!scheduled) {
+                failClosed(delivery);
+            }
+            drain();
+            return;
+        }
+
+        final boolean acknowledge;
+        final boolean checkpoint;
+        synchronized (this) {
+            inFlight--;
+            acknowledge = !closed;
+            checkpoint = acknowledge && ++acksSinceCheckpoint >= checkpointInterval;
+            if (checkpoint) {
+                acksSinceCheckpoint = 0;
+            }
+        }
+        if (acknowledge) {
+            // Outside of the lock, because a checkpoint flushes and rewrites files.
+            try {
+                wal.ack(delivery.seq);
+                if (checkpoint) {
+                    wal.checkpoint();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // IllegalStateException when closed meanwhile.
+                log.warn("Failed to acknowledge request {}. It may be delivered again.", delivery.seq, e);
+            }
+        }
+        if (error != null) {
+            log.warn("Dropping request {} rejected by the server: {}", delivery.seq, error.toString());
+            delivery.future.completeExceptionally(error);
+        } else {
+            delivery.future.complete(result);
+        }
+        drain();
+    }
+
+    private void retry(final Delivery delivery) {
+        synchronized (this) {
+            if (!waitingForRetry.remove(delivery)) {
+                // Failed by close().
+                return;
+            }
+            pending.add(delivery);
+        }
+        drain();
+    }
+
+    private static void failClosed(final Delivery delivery) {
+        delivery.future.completeExceptionally(
+                new IllegalStateException("Closed; will be redelivered on reopen"));
+    }
+
+    private void force() {
+        try {
+            wal.force();
+        } catch (IOException e) {
+            log.warn("Failed to flush the outbound queue", e);
+        }
+    }
+
+    private static boolean isTransient(final Throwable error) {
+        // The client wraps I/O errors, including CallNotPermittedException of a circuit breaker.
+        return error instanceof TooManyRequestsException
+               || error instanceof LineServerException
+               || error instanceof IOException
+               || error.getCause() instanceof IOException;
+    }
+
+    private static Delivery decode(final WriteAheadLog.Record record) throws IOException {
+        final ByteBuffer buf = ByteBuffer.wrap(record.getPayload());
+        final byte type = buf.get();
+        final UUID retryKey = new UUID(buf.getLong(), buf.getLong());
+        final Class<?> requestType;
+        switch (type) {
+            case PUSH:
+                requestType = PushMessage.class;
+                break;
+            case MULTICAST:
+                requestType = Multicast.class;
+                break;
+            case BROADCAST:
+                requestType = Broadcast.class;
+                break;
+            default:
+                throw new IOException("Unknown request type " + type + " of record " + record.getSeq());
+        }
+        final Object request = ModelCodec.readerFor(requestType).readValue(
+                record.getPayload(), RECORD_HEADER_SIZE, record.getPayload().length - RECORD_HEADER_SIZE);
+        return new Delivery(record.getSeq(), type, retryKey, request);
+    }
+
+    private static final class Delivery {
+        final long seq;
+        final byte type;
+        final UUID retryKey;
+        final Object request;
+        final CompletableFuture<BotApiResponse> future = new CompletableFuture<>();
+        int attempts;
+
+        Delivery(final long seq, final byte type, final UUID retryKey, final Object request) {
+            this.seq = seq;
+            this.type = type;
+            this.retryKey = retryKey;
+            this.request = request;
+        }
+
+        CompletableFuture<BotApiResponse> send(final LineMessagingClient client) {
+            switch (type) {
+                case PUSH:
+                    return client.pushMessage(retryKey, (PushMessage) request);
+                case MULTICAST:
+                    return client.multicast(retryKey, (Multicast) request);
+                default:
+                    return client.broadcast(retryKey, (Broadcast) request);
+            }
+        }
+
+        Duration nextBackoff(final Duration initial, final Duration max) {
+            final int shift = Math.min(attempts++, 30);
+            final long nanos = initial.toNanos() << shift;
+            return nanos <= 0 || nanos > max.toNanos() ? max : Duration.ofNanos(nanos);
+        }
+    }
+
+    /**
+     * Builder of {@link DurableOutboundQueue}.
+     */
+    public static final class Builder {
+        private final LineMessagingClient client;
+        private final Path directory;
+        private int segmentSize = 64 * 1024 * 1024;
+        private int maxConcurrentDeliveries = 16;
+        private Duration syncInterval = Duration.ZERO;
+        private Duration initialBackoff = Duration.ofSeconds(1);
+        private Duration maxBackoff = Duration.ofMinutes(1);
+        private int checkpointInterval = 1024;
+        private ScheduledExecutorService scheduler;
+
+        private Builder(final LineMessagingClient client, final Path directory) {
+            this.client = client;
+            this.directory = directory;
+        }
+
+        /**
+         * Size of a segment file of the log. A request must fit in a segment. Default = 64 MiB.
+         */
+        public Builder segmentSize(final int segmentSize) {
+            if (segmentSize < 1024) {
+                throw new IllegalArgumentException("segmentSize must be >= 1024");
+            }
+            this.segmentSize = segmentSize;
+            return this;
+        }
+
+        /**
+         * Max number of requests being sent at once. Default = 16.
+         */
+        public Builder maxConcurrentDeliveries(final int maxConcurrentDeliveries) {
+            if (maxConcurrentDeliveries <= 0) {
+                throw new IllegalArgumentException("maxConcurrentDeliveries must be positive");
+            }
+            this.maxConcurrentDeliveries = maxConcurrentDeliveries;
+            return this;
+        }
+
+        /**
+         * Interval to flush the log to the storage device. Requests are written to memory-mapped files and
+         * survive a crash of the process anyway, but requests written after the last flush are lost by
+         * a crash of the operating system or power loss. {@link Duration#ZERO} flushes before enqueueing
+         * returns, and requests enqueued concurrently share one flush. Default = {@link Duration#ZERO}.
+         */
+        public Builder syncInterval(@NonNull final Duration syncInterval) {
+            if (syncInterval.isNegative()) {
+                throw new IllegalArgumentException("syncInterval must not be negative");
+            }
+            this.syncInterval = syncInterval;
+            return this;
+        }
+
+        /**
+         * Backoff before sending a failed request again. Doubles on each failure up to {@code max}.
+         * Default = 1 second to 1 minute.
+         */
+        public Builder backoff(@NonNull final Duration initial, @NonNull final Duration max) {
+            if (initial.isNegative() || initial.isZero() || max.compareTo(initial) < 0) {
+                throw new IllegalArgumentException("initial must be positive and max must be >= initial");
+            }
+            initialBackoff = initial;
+            maxBackoff = max;
+            return this;
+        }
+
+        /**
+         * Number of acknowledgements between checkpoints, which delete segments of acknowledged requests.
+         * Default = 1024.
+         */
+        public Builder checkpointInterval(final int checkpointInterval) {
+            if (checkpointInterval <= 0) {
+                throw new IllegalArgumentException("checkpointInterval must be positive");
+            }
+            this.checkpointInterval = checkpointInterval;
+            return this;
+        }
+
+        /**
+         * Scheduler used to flush the log and send failed requests again. A daemon thread owned by the queue
+         * is used if not specified.
+         */
+        public Builder scheduler(@NonNull final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Opens the log and starts sending requests which were not acknowledged.
+         *
+         * @throws IOException when the log couldn't be opened.
+         */
+        public DurableOutboundQueue build() throws IOException {
+            return new DurableOutboundQueue(this);
+        }
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.outbound;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only log of records split into memory-mapped segment files, with acknowledgements.
+ *
+ * <p>Each record has a sequence number. A record is laid out as {@code length(4) crc32(4) seq(8) payload}.
+ * A zero length marks the end of a segment because new segments are zero-filled. A record with a wrong
+ * checksum is a torn write of a crash and ends the segment, too.
+ *
+ * <p>Acknowledged sequence numbers are appended to {@value #ACKS}. {@link #checkpoint()} stores the
+ * watermark, below which every record is acknowledged, to {@value #CHECKPOINT}, rewrites {@value #ACKS}
+ * with the acknowledgements above it and deletes segments below it.
+ *
+ * <p>Writes to a mapped segment survive a crash of the process as soon as they are made. {@link #force()}
+ * makes them survive a crash of the operating system, too. It doesn't block appends, and concurrent callers
+ * of {@link #forceUpTo(long)} share one flush.
+ *
+ * <p>This class is thread-safe.
+ */
+@Slf4j
+final class WriteAheadLog implements Closeable {
+    static final String CHECKPOINT = "checkpoint";
+    static final String ACKS = "acks";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final int HEADER_SIZE = 16;
+
+    private final Path directory;
+    private final int segmentSize;
+
+    // Guarded by this.
+    private final List<Segment> segments = new ArrayList<>();
+    private final TreeSet<Long> acksAboveWatermark = new TreeSet<>();
+    // Segments which became inactive after the last force.
+    private final List<MappedByteBuffer> unforced = new ArrayList<>();
+    private MappedByteBuffer active;
+    private FileChannel ackChannel;
+    private long watermark;
+    private long nextSeq;
+    private boolean closed;
+
+    private final Object forceLock = new Object();
+    // Guarded by forceLock.
+    private long forcedSeq;
+    private boolean forcing;
+
+    /**
+     * Record which was appended but not acknowledged before the log was opened.
+     */
+    @Value
+    static class Record {
+        long seq;
+        byte[] payload;
+    }
+
+    private WriteAheadLog(final Path directory, final int segmentSize) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Opens the log in the given directory, creating it if missing.
+     *
+     * @param unacknowledged receives records which were appended but not acknowledged, in order.
+     */
+    static WriteAheadLog open(final Path directory, final int segmentSize, final List<Record> unacknowledged)
+            throws IOException {
+        Files.createDirectories(directory);
+        final WriteAheadLog log = new WriteAheadLog(directory, segmentSize);
+        synchronized (log) {
+            log.recover(unacknowledged);
+        }
+        return log;
+    }
+
+    /**
+     * Appends a record and returns its sequence number.
+     */
+    synchronized long append(final byte[] payload) throws IOException {
+        checkOpen();
+        final int size = HEADER_SIZE + payload.length;
+        if (size > segmentSize) {
+            throw new IllegalArgumentException(
+                    "Record of " + payload.length + " bytes doesn't fit in a segment of " + segmentSize);
+        }
+        if (active.remaining() < size) {
+            unforced.add(active);
+            startSegment(false);
+        }
+
+        final long seq = nextSeq++;
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, seq));
+        crc.update(payload);
+        final int start = active.position();
+        active.position(start + 4);
+        active.putInt((int) crc.getValue()).putLong(seq).put(payload);
+        // Writes the length last, so that a half-written record is never read as complete.
+        active.putInt(start, payload.length);
+        return seq;
+    }
+
+    /**
+     * Marks the record of the given sequence number as acknowledged. It's never returned by
+     * {@link #open(Path, int, List)} again.
+     */
+    synchronized void ack(final long seq) throws IOException {
+        checkOpen();
+        ackChannel.write((ByteBuffer) ByteBuffer.allocate(Long.BYTES).putLong(seq).flip());
+        acksAboveWatermark.add(seq);
+        advanceWatermark();
+    }
+
+    /**
+     * Flushes appended records and acknowledgements to the storage device without blocking appends.
+     *
+     * @return the sequence number up to which records are flushed.
+     */
+    long force() throws IOException {
+        final List<MappedByteBuffer> buffers;
+        final FileChannel acks;
+        final long lastSeq;
+        synchronized (this) {
+            if (closed) {
+                return nextSeq - 1;
+            }
+            buffers = new ArrayList<>(unforced);
+            buffers.add(active);
+            unforced.clear();
+            acks = ackChannel;
+            lastSeq = nextSeq - 1;
+        }
+        for (MappedByteBuffer buffer : buffers) {
+            buffer.force();
+        }
+        try {
+            acks.force(false);
+        } catch (ClosedChannelException e) {
+            // Replaced by a checkpoint, which forced the new one.
+        }
+        return lastSeq;
+    }
+
+    /**
+     * Returns after records up to the given sequence number are flushed to the storage device. A caller
+     * flushes records of callers waiting for it, too.
+     */
+    void forceUpTo(final long seq) throws IOException {
+        synchronized (forceLock) {
+            while (forcing && forcedSeq < seq) {
+                try {
+                    forceLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a flush");
+                }
+            }
+            if (forcedSeq >= seq) {
+                return;
+            }
+            forcing = true;
+        }
+        long forced = 0;
+        try {
+            forced = force();
+        } finally {
+            synchronized (forceLock) {
+                forcing = false;
+                forcedSeq = Math.max(forcedSeq, forced);
+                forceLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stores the watermark and deletes segments whose records are all acknowledged. Does nothing after
+     * {@link #close()}, which checkpoints.
+     */
+    void checkpoint() throws IOException {
+        force();
+        synchronized (this) {
+            if (!closed) {
+                checkpointLocked();
+            }
+        }
+    }
+
+    private void checkpointLocked() throws IOException {
+        writeAtomically(CHECKPOINT, ByteBuffer.allocate(Long.BYTES).putLong(0, watermark));
+
+        final ByteBuffer acks = ByteBuffer.allocate(acksAboveWatermark.size() * Long.BYTES);
+        acksAboveWatermark.forEach(acks::putLong);
+        acks.flip();
+        ackChannel.close();
+        writeAtomically(ACKS, acks);
+        ackChannel = FileChannel.open(directory.resolve(ACKS), StandardOpenOption.WRITE,
+                                      StandardOpenOption.APPEND);
+
+        // The last segment is active. Others are deletable when the next one starts at or below watermark + 1.
+        while (segments.size() > 1 && segments.get(1).firstSeq <= watermark + 1) {
+            Files.deleteIfExists(segments.remove(0).path);
+        }
+    }
+
+    /**
+     * Returns the sequence number below which every record is acknowledged.
+     */
+    synchronized long watermark() {
+        return watermark;
+    }
+
+    /**
+     * Returns the number of segment files.
+     */
+    synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            checkpointLocked();
+            ackChannel.close();
+            closed = true;
+        }
+    }
+
+    private void recover(final List<Record> unacknowledged) throws IOException {
+        final Path checkpoint = directory.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            watermark = ByteBuffer.wrap(Files.readAllBytes(checkpoint)).getLong();
+        }
+        final Path acks = directory.resolve(ACKS);
+        if (Files.exists(acks)) {
+            final ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(acks));
+            // Ignores a torn last acknowledgement. The record is delivered again.
+            while (buf.remaining() >= Long.BYTES) {
+                final long seq = buf.getLong();
+                if (seq > watermark) {
+                    acksAboveWatermark.add(seq);
+                }
+            }
+        }
+
+        final List<Path> paths = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                 .sorted()
+                 .forEach(paths::add);
+        }
+        nextSeq = watermark + 1;
+        for (Path path : paths) {
+            final String name = path.getFileName().toString();
+            final long firstSeq = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+            segments.add(new Segment(path, firstSeq));
+            nextSeq = Math.max(nextSeq, readSegment(path, unacknowledged) + 1);
+        }
+
+        ackChannel = FileChannel.open(acks, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                      StandardOpenOption.APPEND);
+        advanceWatermark();
+        // Never appends after records of a recovered segment, which may end with a torn record. A segment
+        // named after nextSeq has no complete record, e.g. one started by the last open, and is started again.
+        final boolean reuse = !segments.isEmpty() && segments.get(segments.size() - 1).firstSeq == nextSeq;
+        if (reuse) {
+            segments.remove(segments.size() - 1);
+        }
+        startSegment(reuse);
+    }
+
+    /**
+     * Reads records of a segment and returns the largest sequence number in it.
+     */
+    private long readSegment(final Path path, final List<Record> unacknowledged) throws IOException {
+        final ByteBuffer buf;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long lastSeq = 0;
+        while (buf.remaining() >= HEADER_SIZE) {
+            final int length = buf.getInt();
+            if (length <= 0 || length > buf.remaining() - (HEADER_SIZE - 4)) {
+                break;
+            }
+            final int crc = buf.getInt();
+            final long seq = buf.getLong();
+            final byte[] payload = new byte[length];
+            buf.get(payload);
+
+            final CRC32 actual = new CRC32();
+            actual.update(ByteBuffer.allocate(Long.BYTES).putLong(0, seq));
+            actual.update(payload);
+            if ((int) actual.getValue() != crc) {
+                log.warn("Ignoring a torn record {} in {}", seq, path);
+                break;
+            }
+            lastSeq = seq;
+            if (seq > watermark && !acksAboveWatermark.contains(seq)) {
+                unacknowledged.add(new Record(seq, payload));
+            }
+        }
+        return lastSeq;
+    }
+
+    private void startSegment(final boolean reuse) throws IOException {
+        final Path path = directory.resolve(String.format("%020d%s", nextSeq, SEGMENT_SUFFIX));
+        try (FileChannel channel = FileChannel.open(path, reuse ? StandardOpenOption.CREATE
+                                                                : StandardOpenOption.CREATE_NEW,
+                                                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            active = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        if (reuse) {
+            // Clears a torn record, so that it's never read after the records appended from now on.
+            active.put(new byte[segmentSize]).clear();
+        }
+        segments.add(new Segment(path, nextSeq));
+    }
+
+    private void advanceWatermark() {
+        while (!acksAboveWatermark.isEmpty() && acksAboveWatermark.first() == watermark + 1) {
+            watermark = acksAboveWatermark.pollFirst();
+        }
+    }
+
+    private void writeAtomically(final String name, final ByteBuffer content) throws IOException {
+        final Path tmp = directory.resolve(name + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, directory.resolve(name), StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Already closed.");
+        }
+    }
+
+    @Value
+    private static class Segment {
+        Path path;
+        long firstSeq;
+    }
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.outbound;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.SocketTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.exception.BadRequestException;
+import com.linecorp.bot.client.exception.ConflictException;
+import com.linecorp.bot.client.exception.GeneralLineMessagingException;
+import com.linecorp.bot.client.exception.LineServerException;
+import com.linecorp.bot.model.Broadcast;
+import com.linecorp.bot.model.Multicast;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+import com.linecorp.bot.model.response.BotApiResponse;
+
+public class DurableOutboundQueueTest {
+    private static final BotApiResponse BOT_API_SUCCESS_RESPONSE = new BotApiResponse("", emptyList());
+    private static final PushMessage PUSH_MESSAGE = new PushMessage("USER_ID", new TextMessage("hello"));
+
+    @Rule
+    public final MockitoRule mockitoRule = MockitoJUnit.rule();
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Mock
+    private LineMessagingClient client;
+
+    private Path dir;
+
+    @Before
+    public void setUp() {
+        dir = folder.getRoot().toPath();
+    }
+
+    @Test
+    public void deliversAndAcknowledges() throws Exception {
+        when(client.pushMessage(any(), any())).thenReturn(completedFuture());
+        when(client.multicast(any(), any())).thenReturn(completedFuture());
+        when(client.broadcast(any(), any())).thenReturn(completedFuture());
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir).build()) {
+            // Do
+            final BotApiResponse response = queue.pushMessage(PUSH_MESSAGE).get();
+            queue.multicast(new Multicast(singleton("USER_ID"), new TextMessage("multicast"))).get();
+            queue.broadcast(new Broadcast(singletonList(new TextMessage("broadcast")), false)).get();
+
+            // Verify
+            assertThat(response).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+            assertThat(queue.pendingCount()).isZero();
+        }
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+        DurableOutboundQueue.builder(restarted, dir).build().close();
+        verify(restarted, times(0)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void redeliversWithSameRetryKeyAfterCrash() throws Exception {
+        when(client.pushMessage(any(), any())).thenReturn(new CompletableFuture<>());
+        // Not closed, as if the process crashed while the request was in flight.
+        final DurableOutboundQueue crashed = DurableOutboundQueue.builder(client, dir).build();
+        crashed.pushMessage(PUSH_MESSAGE);
+        final ArgumentCaptor<UUID> retryKey = ArgumentCaptor.forClass(UUID.class);
+        verify(client).pushMessage(retryKey.capture(), eq(PUSH_MESSAGE));
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+        when(restarted.pushMessage(any(), any())).thenReturn(completedFuture());
+
+        // Do
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(restarted, dir).build()) {
+            // Verify
+            verify(restarted).pushMessage(retryKey.getValue(), PUSH_MESSAGE);
+            assertThat(queue.pendingCount()).isZero();
+        }
+    }
+
+    @Test
+    public void redeliversTransientFailure() throws Exception {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new LineServerException("Internal Server Error", null));
+        when(client.pushMessage(any(), any())).thenReturn(failure, completedFuture());
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir)
+                                                              .backoff(Duration.ofMillis(10),
+                                                                       Duration.ofMillis(10))
+                                                              .build()) {
+            // Do
+            final BotApiResponse response = queue.pushMessage(PUSH_MESSAGE).get();
+
+            // Verify
+            assertThat(response).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+            final ArgumentCaptor<UUID> retryKeys = ArgumentCaptor.forClass(UUID.class);
+            verify(client, times(2)).pushMessage(retryKeys.capture(), eq(PUSH_MESSAGE));
+            assertThat(retryKeys.getAllValues()).containsOnly(retryKeys.getValue());
+        }
+    }
+
+    @Test
+    public void dropsPermanentFailure() throws Exception {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new BadRequestException("Invalid reply token", null));
+        when(client.pushMessage(any(), any())).thenReturn(failure);
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir).build()) {
+            // Do
+            final CompletableFuture<BotApiResponse> future = queue.pushMessage(PUSH_MESSAGE);
+
+            // Verify
+            assertThatThrownBy(future::get).isInstanceOf(ExecutionException.class)
+                                           .hasCauseInstanceOf(BadRequestException.class);
+            assertThat(queue.pendingCount()).isZero();
+        }
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+        DurableOutboundQueue.builder(restarted, dir).build().close();
+        verify(restarted, times(0)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void conflictIsDelivered() throws Exception {
+        final CompletableFuture<BotApiResponse> conflict = new CompletableFuture<>();
+        conflict.completeExceptionally(new ConflictException("Already accepted", null));
+        when(client.pushMessage(any(), any())).thenReturn(conflict);
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir).build()) {
+            // Do
+            final BotApiResponse response = queue.pushMessage(PUSH_MESSAGE).get();
+
+            // Verify
+            assertThat(response).isNotNull();
+            assertThat(queue.pendingCount()).isZero();
+        }
+        verify(client, times(1)).pushMessage(any(), any());
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+        DurableOutboundQueue.builder(restarted, dir).build().close();
+        verify(restarted, times(0)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void dropsUnknownFailure() throws Exception {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new GeneralLineMessagingException("Payload too large", null, null));
+        when(client.pushMessage(any(), any())).thenReturn(failure);
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir).build()) {
+            // Do
+            final CompletableFuture<BotApiResponse> future = queue.pushMessage(PUSH_MESSAGE);
+
+            // Verify
+            assertThatThrownBy(future::get).hasCauseInstanceOf(GeneralLineMessagingException.class);
+            assertThat(queue.pendingCount()).isZero();
+        }
+        verify(client, times(1)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void redeliversIoFailure() throws Exception {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(
+                new GeneralLineMessagingException("timeout", null, new SocketTimeoutException()));
+        when(client.pushMessage(any(), any())).thenReturn(failure, completedFuture());
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir)
+                                                              .backoff(Duration.ofMillis(10),
+                                                                       Duration.ofMillis(10))
+                                                              .build()) {
+            // Do
+            queue.pushMessage(PUSH_MESSAGE).get();
+
+            // Verify
+            verify(client, times(2)).pushMessage(any(), any());
+        }
+    }
+
+    @Test
+    public void closeFailsRequestsNotBeingSent() throws Exception {
+        final CompletableFuture<BotApiResponse> failure = new CompletableFuture<>();
+        failure.completeExceptionally(new LineServerException("Internal Server Error", null));
+        when(client.pushMessage(any(), any())).thenReturn(failure, new CompletableFuture<>());
+        final DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir)
+                                                               .maxConcurrentDeliveries(1)
+                                                               .backoff(Duration.ofMinutes(1),
+                                                                        Duration.ofMinutes(1))
+                                                               .build();
+        final CompletableFuture<BotApiResponse> waitingForRetry = queue.pushMessage(PUSH_MESSAGE);
+        final CompletableFuture<BotApiResponse> inFlight = queue.pushMessage(PUSH_MESSAGE);
+        final CompletableFuture<BotApiResponse> pending = queue.pushMessage(PUSH_MESSAGE);
+
+        // Do
+        queue.close();
+
+        // Verify
+        assertThatThrownBy(waitingForRetry::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(pending::join).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(inFlight).isNotDone();
+
+        final LineMessagingClient restarted = mock(LineMessagingClient.class);
+        when(restarted.pushMessage(any(), any())).thenReturn(completedFuture());
+        DurableOutboundQueue.builder(restarted, dir).build().close();
+        verify(restarted, times(3)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void concurrentProducers() throws Exception {
+        when(client.pushMessage(any(), any())).thenReturn(completedFuture());
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir).build()) {
+            // Do
+            final List<Future<CompletableFuture<BotApiResponse>>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> queue.pushMessage(PUSH_MESSAGE)));
+            }
+
+            // Verify
+            for (Future<CompletableFuture<BotApiResponse>> future : futures) {
+                assertThat(future.get().get()).isEqualTo(BOT_API_SUCCESS_RESPONSE);
+            }
+            assertThat(queue.pendingCount()).isZero();
+        } finally {
+            executor.shutdown();
+        }
+        verify(client, times(200)).pushMessage(any(), any());
+    }
+
+    @Test
+    public void limitsConcurrentDeliveries() throws Exception {
+        final List<CompletableFuture<BotApiResponse>> responses = new ArrayList<>();
+        when(client.pushMessage(any(), any())).thenAnswer(invocation -> {
+            final CompletableFuture<BotApiResponse> response = new CompletableFuture<>();
+            responses.add(response);
+            return response;
+        });
+
+        try (DurableOutboundQueue queue = DurableOutboundQueue.builder(client, dir)
+                                                              .maxConcurrentDeliveries(2)
+                                                              .build()) {
+            // Do
+            for (int i = 0; i < 5; i++) {
+                queue.pushMessage(PUSH_MESSAGE);
+            }
+
+            // Verify
+            assertThat(responses).hasSize(2);
+            assertThat(queue.pendingCount()).isEqualTo(5);
+
+            responses.get(0).complete(BOT_API_SUCCESS_RESPONSE);
+            assertThat(responses).hasSize(3);
+            assertThat(queue.pendingCount()).isEqualTo(4);
+        }
+    }
+
+    private static CompletableFuture<BotApiResponse> completedFuture() {
+        return CompletableFuture.completedFuture(BOT_API_SUCCESS_RESPONSE);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.outbound;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.rules.Timeout;
+
+public class WriteAheadLogTest {
+    private static final int SEGMENT_SIZE = 1024;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    @Test
+    public void recoversUnacknowledgedRecords() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            log.append(bytes("a"));
+            log.append(bytes("b"));
+            log.append(bytes("c"));
+            log.ack(2);
+        }
+
+        // Do
+        final List<WriteAheadLog.Record> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, records)) {
+            // Verify
+            assertThat(records).extracting(WriteAheadLog.Record::getSeq).containsExactly(1L, 3L);
+            assertThat(new String(records.get(1).getPayload(), UTF_8)).isEqualTo("c");
+            assertThat(log.append(bytes("d"))).isEqualTo(4);
+        }
+    }
+
+    @Test
+    public void recoversWithoutCheckpointAfterCrash() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        // Not closed, as if the process crashed.
+        final WriteAheadLog crashed = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>());
+        crashed.append(bytes("a"));
+        crashed.append(bytes("b"));
+        crashed.ack(1);
+
+        // Do
+        final List<WriteAheadLog.Record> records = new ArrayList<>();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, records)) {
+            // Verify
+            assertThat(records).extracting(WriteAheadLog.Record::getSeq).containsExactly(2L);
+            assertThat(log.watermark()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void reopensManyTimes() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        for (int i = 0; i < 3; i++) {
+            WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>()).close();
+        }
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            assertThat(log.append(bytes("a"))).isEqualTo(1);
+        }
+
+        // Do
+        final List<WriteAheadLog.Record> records = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            records.clear();
+            WriteAheadLog.open(dir, SEGMENT_SIZE, records).close();
+        }
+
+        // Verify
+        assertThat(records).extracting(WriteAheadLog.Record::getSeq).containsExactly(1L);
+        assertThat(segments(dir)).hasSize(2);
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            assertThat(log.append(bytes("b"))).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void reusesSegmentEndingWithTornFirstRecord() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            log.append(bytes("a long first record"));
+        }
+        try (RandomAccessFile file = new RandomAccessFile(segments(dir).get(0).toFile(), "rw")) {
+            // Corrupts the payload of the only record.
+            file.seek(16);
+            file.write('X');
+        }
+
+        // Do
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            log.append(bytes("b"));
+        }
+
+        // Verify
+        final List<WriteAheadLog.Record> records = new ArrayList<>();
+        WriteAheadLog.open(dir, SEGMENT_SIZE, records).close();
+        assertThat(records).extracting(WriteAheadLog.Record::getSeq).containsExactly(1L);
+        assertThat(new String(records.get(0).getPayload(), UTF_8)).isEqualTo("b");
+    }
+
+    @Test
+    public void ignoresTornRecord() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+        }
+        final Path segment = segments(dir).get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            // Corrupts the payload of the second record.
+            file.seek(16 + "first".length() + 16);
+            file.write('X');
+        }
+
+        // Do
+        final List<WriteAheadLog.Record> records = new ArrayList<>();
+        WriteAheadLog.open(dir, SEGMENT_SIZE, records).close();
+
+        // Verify
+        assertThat(records).extracting(WriteAheadLog.Record::getSeq).containsExactly(1L);
+    }
+
+    @Test
+    public void rollsOverAndDeletesAcknowledgedSegments() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        try (WriteAheadLog log = WriteAheadLog.open(dir, SEGMENT_SIZE, new ArrayList<>())) {
+            for (int i = 1; i <= 10; i++) {
+                log.append(new byte[200]);
+            }
+            assertThat(log.segmentCount()).isEqualTo(3);
+
+            // Do
+            for (long seq = 1; seq <= 8; seq++) {
+                log.ack(seq);
+            }
+            log.checkpoint();
+
+            // Verify
+            assertThat(log.watermark()).isEqualTo(8);
+            assertThat(log.segmentCount()).isEqualTo(1);
+            assertThat(segments(dir)).hasSize(1);
+        }
+    }
+
+    @Test
+    public void forceCoversRolledOverSegments() throws Exception {
+        try (WriteAheadLog log = WriteAheadLog.open(folder.getRoot().toPath(), SEGMENT_SIZE,
+                                                    new ArrayList<>())) {
+            long last = 0;
+            for (int i = 1; i <= 10; i++) {
+                last = log.append(new byte[200]);
+            }
+
+            // Do
+            final long forced = log.force();
+            log.forceUpTo(last);
+
+            // Verify
+            assertThat(forced).isEqualTo(last);
+        }
+    }
+
+    @Test
+    public void rejectsRecordLargerThanSegment() throws Exception {
+        try (WriteAheadLog log = WriteAheadLog.open(folder.getRoot().toPath(), SEGMENT_SIZE,
+                                                    new ArrayList<>())) {
+            assertThatThrownBy(() -> log.append(new byte[SEGMENT_SIZE]))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private static byte[] bytes(final String value) {
+        return value.getBytes(UTF_8);
+    }
+
+    private static List<Path> segments(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".wal")).sorted().collect(toList());
+        }
+    }
+}
@@ -21,19 +21,20 @@ import java.nio.charset.StandardCharsets;
 
 import javax.servlet.http.HttpServletRequest;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.google.common.io.ByteStreams;
 
 import com.linecorp.bot.client.LineSignatureValidator;
 import com.linecorp.bot.model.event.CallbackRequest;
-import com.linecorp.bot.model.objectmapper.ModelObjectMapper;
+import com.linecorp.bot.model.objectmapper.ModelCodec;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class LineBotCallbackRequestParser {
-    private final ObjectMapper objectMapper = ModelObjectMapper.createNewObjectMapper();
+    private static final ObjectReader CALLBACK_REQUEST_READER = ModelCodec.readerFor(CallbackRequest.class);
+
     private final LineSignatureValidator lineSignatureValidator;
 
     /**
@@ -87,7 +88,7 @@ public class LineBotCallbackRequestParser {
             throw new LineBotCallbackException("Invalid API signature");
         }
 
-        final CallbackRequest callbackRequest = objectMapper.readValue(json, CallbackRequest.class);
+        final CallbackRequest callbackRequest = CALLBACK_REQUEST_READER.readValue(json);
         if (callbackRequest == null || callbackRequest.getEvents() == null) {
             throw new LineBotCallbackException("Invalid content");
         }
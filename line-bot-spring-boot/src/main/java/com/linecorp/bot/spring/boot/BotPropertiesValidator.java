@@ -70,6 +70,22 @@ public class BotPropertiesValidator implements ConstraintValidator<ValidBotPrope
                            .addConstraintViolation();
                     return false;
                 }
+            case AUTO_REFRESH:
+                if (value.getChannelToken() != null) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelToken should be null if channelTokenSupplyMode = AUTO_REFRESH")
+                           .addPropertyNode("channelToken")
+                           .addConstraintViolation();
+                    return false;
+                }
+                if (value.getChannelId() == null) {
+                    context.buildConstraintViolationWithTemplate(
+                            "channelId is required if channelTokenSupplyMode = AUTO_REFRESH")
+                           .addPropertyNode("channelId")
+                           .addConstraintViolation();
+                    return false;
+                }
+                return true;
         }
         throw new IllegalStateException("Not implemented channelTokenSupplyMode.");
     }
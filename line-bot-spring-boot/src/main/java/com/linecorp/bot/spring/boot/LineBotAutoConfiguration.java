@@ -16,18 +16,34 @@
 
 package com.linecorp.bot.spring.boot;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
 
+import com.linecorp.bot.client.Bulkhead;
 import com.linecorp.bot.client.ChannelManagementSyncClient;
 import com.linecorp.bot.client.ChannelTokenSupplier;
+import com.linecorp.bot.client.CircuitBreaker;
+import com.linecorp.bot.client.ClientMetrics;
 import com.linecorp.bot.client.FixedChannelTokenSupplier;
+import com.linecorp.bot.client.HttpClientGauges;
+import com.linecorp.bot.client.HttpPhaseMetrics;
 import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.client.LineMessagingClientBuilder;
+import com.linecorp.bot.client.LineOAuthClient;
+import com.linecorp.bot.client.PriorityLanes;
+import com.linecorp.bot.client.RefreshingChannelTokenSupplier;
+import com.linecorp.bot.client.WireLogging;
+import com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode;
 import com.linecorp.bot.spring.boot.support.LineMessageHandlerSupport;
 
 /**
@@ -44,27 +60,109 @@ public class LineBotAutoConfiguration {
     /**
      * Expose {@link FixedChannelTokenSupplier} as {@link Bean}
      * in case of no other definition for {@link ChannelTokenSupplier} type.
+     *
+     * <p>{@link RefreshingChannelTokenSupplier} is exposed instead if
+     * {@code channelTokenSupplyMode = AUTO_REFRESH}.
      */
     @Bean
     @ConditionalOnMissingBean(ChannelTokenSupplier.class)
     public ChannelTokenSupplier channelTokenSupplier() {
+        if (lineBotProperties.getChannelTokenSupplyMode() == ChannelTokenSupplyMode.AUTO_REFRESH) {
+            final LineOAuthClient oAuthClient =
+                    LineOAuthClient.builder()
+                                   .apiEndPoint(lineBotProperties.getApiEndPoint())
+                                   .connectTimeout(lineBotProperties.getConnectTimeout())
+                                   .readTimeout(lineBotProperties.getReadTimeout())
+                                   .writeTimeout(lineBotProperties.getWriteTimeout())
+                                   .build();
+            return RefreshingChannelTokenSupplier.builder(oAuthClient,
+                                                          lineBotProperties.getChannelId(),
+                                                          lineBotProperties.getChannelSecret())
+                                                 .build();
+        }
         final String channelToken = lineBotProperties.getChannelToken();
         return FixedChannelTokenSupplier.of(channelToken);
     }
 
+    /**
+     * Expose {@link HttpClientGauges} of {@link LineMessagingClient} as {@link Bean}.
+     */
+    @Bean
+    @ConditionalOnMissingBean(HttpClientGauges.class)
+    public HttpClientGauges lineMessagingClientGauges() {
+        return new HttpClientGauges();
+    }
+
+    /**
+     * Expose {@link PriorityLanes} of {@link LineMessagingClient} as {@link Bean}
+     * if {@code line.bot.priority-lanes.enabled = true}.
+     */
+    @Bean
+    @ConditionalOnMissingBean(PriorityLanes.class)
+    @ConditionalOnProperty(name = "line.bot.priority-lanes.enabled", havingValue = "true")
+    public PriorityLanes lineMessagingClientPriorityLanes() {
+        final LineBotProperties.PriorityLanes priorityLanes = lineBotProperties.getPriorityLanes();
+        return PriorityLanes.builder()
+                            .maxConcurrentCalls(priorityLanes.getMaxConcurrentCalls())
+                            .reservedForInteractive(priorityLanes.getReservedForInteractive())
+                            .replyTokenTimeout(Duration.ofMillis(priorityLanes.getReplyTokenTimeout()))
+                            .build();
+    }
+
     /**
      * Expose {@link LineMessagingClient} as {@link Bean}.
      */
     @Bean
     public LineMessagingClient lineMessagingClient(
-            final ChannelTokenSupplier channelTokenSupplier) {
-        return LineMessagingClient
+            final ChannelTokenSupplier channelTokenSupplier,
+            final HttpClientGauges httpClientGauges,
+            final ObjectProvider<ClientMetrics> clientMetrics,
+            final ObjectProvider<HttpPhaseMetrics> httpPhaseMetrics,
+            final ObjectProvider<PriorityLanes> priorityLanes) {
+        final LineMessagingClientBuilder builder = LineMessagingClient
                 .builder(channelTokenSupplier)
                 .apiEndPoint(lineBotProperties.getApiEndPoint())
                 .connectTimeout(lineBotProperties.getConnectTimeout())
                 .readTimeout(lineBotProperties.getReadTimeout())
                 .writeTimeout(lineBotProperties.getWriteTimeout())
-                .build();
+                .maxRequests(lineBotProperties.getMaxRequests())
+                .maxRequestsPerHost(lineBotProperties.getMaxRequestsPerHost())
+                .maxIdleConnections(lineBotProperties.getMaxIdleConnections())
+                .keepAliveDuration(lineBotProperties.getKeepAliveDuration())
+                .httpClientGauges(httpClientGauges)
+                .jfrEvents(lineBotProperties.isJfrEvents());
+
+        final LineBotProperties.WireLogging wireLogging = lineBotProperties.getWireLogging();
+        builder.wireLogging(WireLogging.builder()
+                                       .level(wireLogging.getLevel())
+                                       .sampleEvery(wireLogging.getSampleEvery())
+                                       .errorsOnly(wireLogging.isErrorsOnly())
+                                       .maxBodyBytes(wireLogging.getMaxBodyBytes())
+                                       .build());
+
+        final LineBotProperties.CircuitBreaker circuitBreaker = lineBotProperties.getCircuitBreaker();
+        if (circuitBreaker.isEnabled()) {
+            builder.circuitBreaker(
+                    CircuitBreaker.builder()
+                                  .failureRateThreshold(circuitBreaker.getFailureRateThreshold())
+                                  .slidingWindowSize(circuitBreaker.getSlidingWindowSize())
+                                  .openDuration(Duration.ofMillis(circuitBreaker.getOpenDuration()))
+                                  .build());
+        }
+
+        final LineBotProperties.Bulkhead bulkhead = lineBotProperties.getBulkhead();
+        if (!bulkhead.getMaxConcurrentCalls().isEmpty()) {
+            final Bulkhead.Builder bulkheadBuilder = Bulkhead.builder();
+            bulkhead.getMaxConcurrentCalls().forEach((group, maxConcurrentCalls) -> bulkheadBuilder.limit(
+                    group, maxConcurrentCalls,
+                    bulkhead.getMaxQueuedCalls().getOrDefault(group, Integer.MAX_VALUE)));
+            builder.bulkhead(bulkheadBuilder.build());
+        }
+        priorityLanes.ifAvailable(builder::priorityLanes);
+        clientMetrics.ifAvailable(builder::clientMetrics);
+        httpPhaseMetrics.ifAvailable(builder::httpTimingsRecorder);
+
+        return builder.build();
     }
 
     /**
@@ -76,4 +174,41 @@ public class LineBotAutoConfiguration {
         return ChannelManagementSyncClient.builder(channelTokenSupplier)
                                           .build();
     }
+
+    /**
+     * Binds metrics of {@link LineMessagingClient} to Micrometer when it is on the classpath.
+     */
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    static class LineBotMetricsConfiguration {
+        /**
+         * Expose per-endpoint {@link ClientMetrics} of {@link LineMessagingClient} as {@link Bean}.
+         */
+        @Bean
+        @ConditionalOnMissingBean(ClientMetrics.class)
+        public ClientMetrics lineMessagingClientMetrics() {
+            return new ClientMetrics();
+        }
+
+        /**
+         * Expose per-endpoint {@link HttpPhaseMetrics} of {@link LineMessagingClient} as {@link Bean}.
+         */
+        @Bean
+        @ConditionalOnMissingBean(HttpPhaseMetrics.class)
+        public HttpPhaseMetrics lineMessagingClientPhaseMetrics() {
+            return new HttpPhaseMetrics();
+        }
+
+        /**
+         * Expose {@link LineBotMeterBinder} as {@link Bean}. Spring Boot Actuator binds it to all
+         * {@code MeterRegistry} beans.
+         */
+        @Bean
+        @ConditionalOnMissingBean(LineBotMeterBinder.class)
+        public LineBotMeterBinder lineBotMeterBinder(final ClientMetrics clientMetrics,
+                                                     final HttpClientGauges httpClientGauges,
+                                                     final HttpPhaseMetrics httpPhaseMetrics) {
+            return new LineBotMeterBinder(clientMetrics, httpClientGauges, httpPhaseMetrics);
+        }
+    }
 }
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import com.linecorp.bot.client.ClientMetrics;
+import com.linecorp.bot.client.EndpointMetrics;
+import com.linecorp.bot.client.HttpClientGauges;
+import com.linecorp.bot.client.HttpPhase;
+import com.linecorp.bot.client.HttpPhaseMetrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.AllArgsConstructor;
+
+/**
+ * Binds {@link ClientMetrics}, {@link HttpClientGauges} and {@link HttpPhaseMetrics} of
+ * {@link com.linecorp.bot.client.LineMessagingClient} to Micrometer.
+ *
+ * <ul>
+ *   <li>{@code line.bot.client.requests}: timer with p50, p99 and p999, tagged by {@code endpoint},
+ *       {@code group} and {@code outcome}.</li>
+ *   <li>{@code line.bot.client.requests.started}: counter tagged by {@code endpoint} and {@code group}.</li>
+ *   <li>{@code line.bot.client.requests.active}: gauge tagged by {@code endpoint} and {@code group}.</li>
+ *   <li>{@code line.bot.client.http.*}: gauges of {@link HttpClientGauges}.</li>
+ *   <li>{@code line.bot.client.http.phase}: timer with p50 and p99, tagged by {@code endpoint} and
+ *       {@code phase}.</li>
+ *   <li>{@code line.bot.client.http.connections.acquired}: counter tagged by {@code endpoint} and
+ *       {@code reused}.</li>
+ * </ul>
+ */
+@AllArgsConstructor
+public class LineBotMeterBinder implements MeterBinder {
+    private static final String PREFIX = "line.bot.client.";
+
+    private final ClientMetrics clientMetrics;
+    private final HttpClientGauges httpClientGauges;
+    private final HttpPhaseMetrics httpPhaseMetrics;
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        clientMetrics.endpoints().values().forEach(endpoint -> {
+            FunctionCounter.builder(PREFIX + "requests.started", endpoint, EndpointMetrics::calls)
+                           .tags(tagsOf(endpoint))
+                           .description("Number of started requests")
+                           .register(registry);
+            Gauge.builder(PREFIX + "requests.active", endpoint, EndpointMetrics::inFlight)
+                 .tags(tagsOf(endpoint))
+                 .description("Number of requests in flight")
+                 .register(registry);
+        });
+
+        final ConcurrentMap<EndpointMetrics, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+        clientMetrics.addListener((endpoint, outcome, nanos) -> {
+            timers.computeIfAbsent(endpoint, unused -> new ConcurrentHashMap<>())
+                  .computeIfAbsent(outcome, unused -> Timer.builder(PREFIX + "requests")
+                                                          .tags(tagsOf(endpoint).and("outcome", outcome))
+                                                          .publishPercentiles(0.5, 0.99, 0.999)
+                                                          .description("Latency of completed requests")
+                                                          .register(registry))
+                  .record(nanos, TimeUnit.NANOSECONDS);
+        });
+
+        Gauge.builder(PREFIX + "http.calls.queued", httpClientGauges, HttpClientGauges::queuedCalls)
+             .description("Number of calls waiting for the dispatcher")
+             .register(registry);
+        Gauge.builder(PREFIX + "http.calls.running", httpClientGauges, HttpClientGauges::runningCalls)
+             .description("Number of calls being sent or waiting for responses")
+             .register(registry);
+        Gauge.builder(PREFIX + "http.connections", httpClientGauges, HttpClientGauges::connections)
+             .description("Number of open connections")
+             .register(registry);
+        Gauge.builder(PREFIX + "http.connections.idle", httpClientGauges, HttpClientGauges::idleConnections)
+             .description("Number of idle connections")
+             .register(registry);
+
+        bindPhaseMetrics(registry);
+    }
+
+    private void bindPhaseMetrics(final MeterRegistry registry) {
+        final ConcurrentMap<String, Map<HttpPhase, Timer>> timers = new ConcurrentHashMap<>();
+        final ConcurrentMap<String, Counter[]> acquired = new ConcurrentHashMap<>();
+        httpPhaseMetrics.addListener(timings -> {
+            final String endpoint = timings.getEndpoint();
+            final Map<HttpPhase, Timer> endpointTimers = timers.computeIfAbsent(endpoint, unused -> {
+                final Map<HttpPhase, Timer> map = new EnumMap<>(HttpPhase.class);
+                for (HttpPhase phase : HttpPhase.values()) {
+                    map.put(phase, Timer.builder(PREFIX + "http.phase")
+                                        .tags("endpoint", endpoint, "phase", phase.name())
+                                        .publishPercentiles(0.5, 0.99)
+                                        .description("Duration of a phase of HTTP calls")
+                                        .register(registry));
+                }
+                return map;
+            });
+            for (HttpPhase phase : HttpPhase.values()) {
+                final long nanos = timings.nanos(phase);
+                if (nanos >= 0) {
+                    endpointTimers.get(phase).record(nanos, TimeUnit.NANOSECONDS);
+                }
+            }
+
+            if (timings.nanos(HttpPhase.CONNECTION_ACQUIRE) >= 0) {
+                final Counter[] counters = acquired.computeIfAbsent(endpoint, unused -> new Counter[] {
+                        connectionCounter(registry, endpoint, false),
+                        connectionCounter(registry, endpoint, true)
+                });
+                counters[timings.isConnectionReused() ? 1 : 0].increment();
+            }
+        });
+    }
+
+    private static Counter connectionCounter(final MeterRegistry registry, final String endpoint,
+                                             final boolean reused) {
+        return Counter.builder(PREFIX + "http.connections.acquired")
+                      .tags("endpoint", endpoint, "reused", String.valueOf(reused))
+                      .description("Number of connections acquired by HTTP calls")
+                      .register(registry);
+    }
+
+    private static Tags tagsOf(final EndpointMetrics endpoint) {
+        return Tags.of("endpoint", endpoint.getEndpoint(), "group", endpoint.getGroup().name());
+    }
+}
@@ -17,13 +17,18 @@
 package com.linecorp.bot.spring.boot;
 
 import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
+import com.linecorp.bot.client.EndpointGroup;
 import com.linecorp.bot.client.LineClientConstants;
 import com.linecorp.bot.spring.boot.BotPropertiesValidator.ValidBotProperties;
 import com.linecorp.bot.spring.boot.annotation.EventMapping;
@@ -50,6 +55,11 @@ public class LineBotProperties {
     @Valid
     private String channelToken;
 
+    /**
+     * Channel ID. Required if {@code channelTokenSupplyMode = AUTO_REFRESH}.
+     */
+    private String channelId;
+
     /**
      * Channel secret.
      */
@@ -82,6 +92,35 @@ public class LineBotProperties {
     @NotNull
     private long writeTimeout = LineClientConstants.DEFAULT_WRITE_TIMEOUT_MILLIS;
 
+    /**
+     * Max number of requests running at once.
+     */
+    @Positive
+    private int maxRequests = LineClientConstants.DEFAULT_MAX_REQUESTS;
+
+    /**
+     * Max number of requests running at once per host.
+     */
+    @Positive
+    private int maxRequestsPerHost = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+    /**
+     * Max number of idle connections kept in the connection pool.
+     */
+    @PositiveOrZero
+    private int maxIdleConnections = LineClientConstants.DEFAULT_MAX_IDLE_CONNECTIONS;
+
+    /**
+     * Duration in milliseconds to keep an idle connection.
+     */
+    @Positive
+    private long keepAliveDuration = LineClientConstants.DEFAULT_KEEP_ALIVE_DURATION_MILLIS;
+
+    /**
+     * Commit a JDK Flight Recorder event with the phase timings of each HTTP call.
+     */
+    private boolean jfrEvents;
+
     /**
      * Configuration for {@link LineMessageHandler} and {@link EventMapping}.
      */
@@ -89,6 +128,36 @@ public class LineBotProperties {
     @NotNull
     private Handler handler = new Handler();
 
+    /**
+     * Configuration for circuit breaker of {@link com.linecorp.bot.client.LineMessagingClient}.
+     */
+    @Valid
+    @NotNull
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Configuration for bulkhead of {@link com.linecorp.bot.client.LineMessagingClient}.
+     */
+    @Valid
+    @NotNull
+    private Bulkhead bulkhead = new Bulkhead();
+
+    /**
+     * Configuration for priority lanes of {@link com.linecorp.bot.client.LineMessagingClient}.
+     */
+    @Valid
+    @NotNull
+    private PriorityLanes priorityLanes = new PriorityLanes();
+
+    /**
+     * Configuration for logging of requests and responses.
+     *
+     * @see com.linecorp.bot.client.WireLogging
+     */
+    @Valid
+    @NotNull
+    private WireLogging wireLogging = new WireLogging();
+
     @Data
     public static class Handler {
         /**
@@ -105,6 +174,104 @@ public class LineBotProperties {
         URI path = URI.create("/callback");
     }
 
+    @Data
+    public static class CircuitBreaker {
+        /**
+         * Flag to enable/disable circuit breaker per endpoint group.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean enabled;
+
+        /**
+         * Ratio of failed requests which opens the breaker.
+         */
+        double failureRateThreshold = 0.5;
+
+        /**
+         * Number of recent requests used to calculate the failure rate.
+         */
+        int slidingWindowSize = 20;
+
+        /**
+         * Duration in milliseconds to reject requests before sending a trial request.
+         */
+        long openDuration = 10_000;
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Max number of concurrent requests per endpoint group,
+         * e.g. {@code line.bot.bulkhead.max-concurrent-calls.content=2}. Groups not listed are unlimited.
+         */
+        @NotNull
+        Map<EndpointGroup, Integer> maxConcurrentCalls = new EnumMap<>(EndpointGroup.class);
+
+        /**
+         * Max number of requests waiting for a permit per endpoint group. Groups not listed have
+         * unbounded queue.
+         */
+        @NotNull
+        Map<EndpointGroup, Integer> maxQueuedCalls = new EnumMap<>(EndpointGroup.class);
+    }
+
+    @Data
+    public static class PriorityLanes {
+        /**
+         * Flag to send replies ahead of other requests and drop replies whose tokens have expired.
+         *
+         * <p>Default: {@code false}
+         */
+        boolean enabled;
+
+        /**
+         * Max number of in-flight requests of all lanes.
+         */
+        @Positive
+        int maxConcurrentCalls = LineClientConstants.DEFAULT_MAX_REQUESTS_PER_HOST;
+
+        /**
+         * Number of requests which only replies may use.
+         */
+        @PositiveOrZero
+        int reservedForInteractive = 1;
+
+        /**
+         * Duration in milliseconds after the event was received to drop a reply with its token.
+         */
+        @Positive
+        long replyTokenTimeout = 60_000;
+    }
+
+    @Data
+    public static class WireLogging {
+        /**
+         * Detail of logs. Logs are written to {@code com.linecorp.bot.client.wire} logger at INFO level.
+         *
+         * <p>Default: {@code BODY}
+         */
+        @NotNull
+        com.linecorp.bot.client.WireLogging.Level level = com.linecorp.bot.client.WireLogging.Level.BODY;
+
+        /**
+         * Log one of every {@code sampleEvery} successful exchanges. Failed ones are always logged.
+         */
+        @Positive
+        int sampleEvery = 1;
+
+        /**
+         * Log failed exchanges only.
+         */
+        boolean errorsOnly;
+
+        /**
+         * Max number of bytes of a body to log.
+         */
+        @PositiveOrZero
+        int maxBodyBytes = 4096;
+    }
+
     public enum ChannelTokenSupplyMode {
         /**
          * Use fixed channel token for public API user.
@@ -118,5 +285,13 @@ public class LineBotProperties {
          *         >//developers.line.me/en/reference/messaging-api/#issue-channel-access-token</a>
          */
         SUPPLIER,
+
+        /**
+         * Issue short-lived channel access tokens with {@code channelId} and {@code channelSecret},
+         * and reissue them in the background before they expire.
+         *
+         * @see com.linecorp.bot.client.RefreshingChannelTokenSupplier
+         */
+        AUTO_REFRESH,
     }
 }
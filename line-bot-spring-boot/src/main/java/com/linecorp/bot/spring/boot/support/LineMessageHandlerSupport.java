@@ -42,6 +42,7 @@ import com.google.common.annotations.Beta;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
+import com.linecorp.bot.client.PriorityLanes;
 import com.linecorp.bot.model.event.Event;
 import com.linecorp.bot.model.event.MessageEvent;
 import com.linecorp.bot.model.event.ReplyEvent;
@@ -82,6 +83,8 @@ public class LineMessageHandlerSupport {
 
     volatile List<HandlerMethod> eventConsumerList;
 
+    private PriorityLanes priorityLanes;
+
     @Autowired
     public LineMessageHandlerSupport(
             final ReplyByReturnValueConsumer.Factory returnValueConsumerFactory,
@@ -96,6 +99,15 @@ public class LineMessageHandlerSupport {
         });
     }
 
+    /**
+     * Tells {@link PriorityLanes} when reply tokens were received, so that replies sent after the tokens
+     * have expired are dropped without requests.
+     */
+    @Autowired(required = false)
+    public void setPriorityLanes(final PriorityLanes priorityLanes) {
+        this.priorityLanes = priorityLanes;
+    }
+
     @VisibleForTesting
     void refresh() {
         final Map<String, Object> handlerBeanMap =
@@ -171,6 +183,15 @@ public class LineMessageHandlerSupport {
 
     @PostMapping("${line.bot.handler.path:/callback}")
     public void callback(@LineBotMessages List<Event> events) {
+        if (priorityLanes != null) {
+            for (Event event : events) {
+                final String replyToken = event instanceof ReplyEvent ? ((ReplyEvent) event).getReplyToken()
+                                                                      : null;
+                if (replyToken != null && event.getTimestamp() != null) {
+                    priorityLanes.replyTokenReceived(replyToken, event.getTimestamp());
+                }
+            }
+        }
         events.forEach(this::dispatch);
     }
 
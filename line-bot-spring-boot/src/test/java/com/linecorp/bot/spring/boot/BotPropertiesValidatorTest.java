@@ -16,6 +16,7 @@
 
 package com.linecorp.bot.spring.boot;
 
+import static com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode.AUTO_REFRESH;
 import static com.linecorp.bot.spring.boot.LineBotProperties.ChannelTokenSupplyMode.SUPPLIER;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hibernate.validator.internal.engine.path.PathImpl.createPathFromString;
@@ -101,4 +102,37 @@ public class BotPropertiesValidatorTest {
                             .isEqualTo("channelToken should be null if channelTokenSupplyMode = SUPPLIER");
                 });
     }
+
+    @Test
+    public void okForAutoRefreshTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(AUTO_REFRESH);
+                    setChannelId("1234");
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations).isEmpty();
+    }
+
+    @Test
+    public void ngForAutoRefreshTest() {
+        // Do
+        Set<ConstraintViolation<LineBotProperties>> constraintViolations =
+                VALIDATOR.validate(new LineBotProperties() {{
+                    setChannelTokenSupplyMode(AUTO_REFRESH);
+                    setChannelSecret("SECRET");
+                }});
+
+        //Verify
+        assertThat(constraintViolations)
+                .isNotEmpty()
+                .filteredOn("propertyPath", createPathFromString("channelId"))
+                .hasOnlyOneElementSatisfying(violation -> {
+                    assertThat(violation.getMessage())
+                            .isEqualTo("channelId is required if channelTokenSupplyMode = AUTO_REFRESH");
+                });
+    }
 }
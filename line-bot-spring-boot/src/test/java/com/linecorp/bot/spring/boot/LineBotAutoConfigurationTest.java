@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.FilteredClassLoader;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import com.linecorp.bot.client.ClientMetrics;
+import com.linecorp.bot.client.HttpPhaseMetrics;
+import com.linecorp.bot.client.LineMessagingClient;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+public class LineBotAutoConfigurationTest {
+    private final ApplicationContextRunner contextRunner =
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(LineBotAutoConfiguration.class))
+                    .withPropertyValues("line.bot.channel-token=TOKEN",
+                                        "line.bot.channel-secret=SECRET",
+                                        "line.bot.handler.enabled=false");
+
+    @Test
+    public void metricsWithMicrometer() {
+        contextRunner.run(context -> {
+            assertThat(context).hasSingleBean(LineMessagingClient.class);
+            assertThat(context).hasSingleBean(ClientMetrics.class);
+            assertThat(context).hasSingleBean(HttpPhaseMetrics.class);
+            assertThat(context).hasSingleBean(LineBotMeterBinder.class);
+        });
+    }
+
+    @Test
+    public void noMetricsWithoutMicrometer() {
+        contextRunner.withClassLoader(new FilteredClassLoader(MeterRegistry.class))
+                     .run(context -> {
+                         assertThat(context).hasSingleBean(LineMessagingClient.class);
+                         assertThat(context).doesNotHaveBean(ClientMetrics.class);
+                         assertThat(context).doesNotHaveBean(HttpPhaseMetrics.class);
+                         assertThat(context).doesNotHaveBean(LineBotMeterBinder.class);
+                     });
+    }
+}
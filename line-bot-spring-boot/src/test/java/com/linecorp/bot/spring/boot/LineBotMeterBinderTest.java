@@ -0,0 +1,95 @@
+/*
+ * Copyright 2019 LINE Corporation
+ *
+ * LINE Corporation licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+
+package com.linecorp.bot.spring.boot;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+import com.linecorp.bot.client.ClientMetrics;
+import com.linecorp.bot.client.HttpClientGauges;
+import com.linecorp.bot.client.HttpPhaseMetrics;
+import com.linecorp.bot.client.LineMessagingClient;
+import com.linecorp.bot.model.PushMessage;
+import com.linecorp.bot.model.message.TextMessage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+public class LineBotMeterBinderTest {
+    @Rule
+    public final Timeout timeoutRule = Timeout.seconds(5);
+
+    private final MockWebServer mockWebServer = new MockWebServer();
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    private final ClientMetrics clientMetrics = new ClientMetrics();
+    private final HttpClientGauges httpClientGauges = new HttpClientGauges();
+    private final HttpPhaseMetrics httpPhaseMetrics = new HttpPhaseMetrics();
+    private LineMessagingClient lineMessagingClient;
+
+    @Before
+    public void setUp() {
+        lineMessagingClient = LineMessagingClient.builder("token")
+                                                 .apiEndPoint("http://localhost:" + mockWebServer.getPort())
+                                                 .clientMetrics(clientMetrics)
+                                                 .httpClientGauges(httpClientGauges)
+                                                 .httpTimingsRecorder(httpPhaseMetrics)
+                                                 .build();
+        new LineBotMeterBinder(clientMetrics, httpClientGauges, httpPhaseMetrics).bindTo(registry);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mockWebServer.shutdown();
+    }
+
+    @Test
+    public void bindsClientMetrics() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setBody("{}"));
+
+        // Do
+        lineMessagingClient.pushMessage(new PushMessage("TO", new TextMessage("text"))).get();
+
+        // Verify
+        final Timer timer = registry.get("line.bot.client.requests")
+                                    .tags("endpoint", "POST v2/bot/message/push",
+                                          "group", "PUSH",
+                                          "outcome", "success")
+                                    .timer();
+        assertThat(timer.count()).isEqualTo(1);
+        assertThat(registry.get("line.bot.client.requests.started")
+                           .tags("endpoint", "POST v2/bot/message/push")
+                           .functionCounter().count()).isEqualTo(1);
+        assertThat(registry.get("line.bot.client.requests.active")
+                           .tags("endpoint", "POST v2/bot/message/push")
+                           .gauge().value()).isZero();
+        assertThat(registry.get("line.bot.client.http.connections").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("line.bot.client.http.phase")
+                           .tags("endpoint", "POST v2/bot/message/push", "phase", "TIME_TO_FIRST_BYTE")
+                           .timer().count()).isEqualTo(1);
+        assertThat(registry.get("line.bot.client.http.connections.acquired")
+                           .tags("endpoint", "POST v2/bot/message/push", "reused", "false")
+                           .counter().count()).isEqualTo(1);
+    }
+}
@@ -17,10 +17,8 @@
 package com.example.bot.spring;
 
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -35,8 +33,7 @@ import java.util.stream.Stream;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import com.google.common.io.ByteStreams;
-
+import com.linecorp.bot.client.ContentTransferOptions;
 import com.linecorp.bot.client.LineMessagingClient;
 import com.linecorp.bot.client.MessageContentResponse;
 import com.linecorp.bot.model.ReplyMessage;
@@ -554,8 +551,8 @@ public class KitchenSinkController {
         log.info("Got content-type: {}", responseBody);
 
         DownloadedContent tempFile = createTempFile(ext);
-        try (OutputStream outputStream = Files.newOutputStream(tempFile.path)) {
-            ByteStreams.copy(responseBody.getStream(), outputStream);
+        try {
+            responseBody.transferTo(tempFile.path, ContentTransferOptions.builder().build());
             log.info("Saved {}: {}", ext, tempFile);
             return tempFile;
         } catch (IOException e) {